@@ -31,6 +31,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Random;
 
@@ -246,6 +247,33 @@ public class AlarmDatabaseAdapterTest
         db.close();
     }
 
+    @Test
+    public void test_updateAlarms()
+    {
+        db.open();
+        long[] rowID = populateDatabase();
+        ArrayList<AlarmClockItem> items = new ArrayList<>();
+        for (int i=0; i<rowID.length; i++)
+        {
+            if (rowID[i] == -1) {
+                continue;
+            }
+            AlarmClockItem item = new AlarmClockItem(alarms[i]);
+            item.rowID = rowID[i];
+            item.enabled = !item.enabled;
+            item.state = new AlarmState(rowID[i], AlarmState.STATE_TIMEOUT);
+            items.add(item);
+        }
+
+        assertTrue(db.updateAlarms(items.toArray(new AlarmClockItem[0]), true));
+        for (AlarmClockItem item : items)
+        {
+            verifyAlarm(db.getAlarm(item.rowID), true, item.rowID, item.asContentValues(false));
+            verifyAlarmState(db.getAlarmState(item.rowID), item.rowID, AlarmState.STATE_TIMEOUT);
+        }
+        db.close();
+    }
+
     protected void verifyAlarm(Cursor cursor, boolean fullEntry, long rowID, ContentValues values)
     {
         // KEY_ROWID
@@ -334,6 +334,38 @@ public class CalculatorProviderTest
         test_cursorHasColumns("QUERY_SUN", cursor2, projection2);
     }
 
+    /**
+     * test_query_sun_range_projection
+     */
+    @Test
+    public void test_query_sun_range_projection()
+    {
+        ContentResolver resolver = mockContext.getContentResolver();
+        assertTrue("Unable to getContentResolver!", resolver != null);
+
+        Uri uri = Uri.parse("content://" + AUTHORITY + "/" + QUERY_SUN + "/" + TEST_DATE0.getTimeInMillis() + "-" + TEST_DATE1.getTimeInMillis());
+        String[] projection = new String[] { COLUMN_SUN_NOON, CalculatorProvider.COLUMN_SUN_NOON_ALT, "unknown_column" };
+        Cursor cursor = resolver.query(uri, projection, null, null, null);
+        test_cursorHasColumns("QUERY_SUN", cursor, projection);
+        assertNotNull(cursor);
+        assertTrue("one row per day", cursor.getCount() == 366);
+
+        Calendar date = Calendar.getInstance(sunCalculator.getTimeZone());
+        date.setTimeInMillis(TEST_DATE0.getTimeInMillis());
+        cursor.moveToFirst();
+        while (!cursor.isAfterLast())
+        {
+            Calendar noon = sunCalculator.getSolarNoonCalendarForDate(date);
+            assertTrue("noon time should match", noon.getTimeInMillis() == cursor.getLong(0));
+            assertTrue("noon altitude should be double", cursor.getType(1) == Cursor.FIELD_TYPE_FLOAT);
+            assertTrue("noon altitude should match", Math.abs(sunCalculator.getSunPosition(noon).elevation - cursor.getDouble(1)) < 0.0001);
+            assertTrue("unknown column should be null", cursor.isNull(2));
+            date.add(Calendar.DAY_OF_YEAR, 1);
+            cursor.moveToNext();
+        }
+        cursor.close();
+    }
+
     public void test_suntimes(Cursor cursor, SuntimesCalculator calculator, Calendar date)
     {
         if (cursor != null)
@@ -38,6 +38,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 
 import static com.forrestguice.suntimeswidget.getfix.GetFixDatabaseAdapter.KEY_PLACE_ALTITUDE;
@@ -362,6 +363,73 @@ public class GetFixDatabaseAdapterTest
         db.close();
     }
 
+    @Test
+    public void test_findPlaces()
+    {
+        db.open();
+        long[] rowID = populateDatabase();
+        long rowID1 = db.addPlace(new Location("São Paulo", "-23.55", "-46.63", "760"));
+
+        Cursor cursor0 = db.findPlaces("sao pa", 0, false);
+        assertTrue("findPlaces should ignore diacritics", cursor0 != null && cursor0.getCount() == 1 && cursor0.getLong(0) == rowID1);
+        cursor0.close();
+
+        Cursor cursor1 = db.findPlaces("loc", 0, true);
+        assertTrue("findPlaces should match word prefixes", cursor1 != null && cursor1.getCount() == rowID.length);
+        cursor1.close();
+
+        Cursor cursor2 = db.findPlaces("test loc1", 0, true);
+        assertTrue("findPlaces should match every word", cursor2 != null && cursor2.getCount() == 1);
+        verifyPlace(cursor2, true, rowID[1], locations[1]);
+        cursor2.close();
+
+        db.removePlace(rowID1);
+        Cursor cursor3 = db.findPlaces("paulo", 0, false);
+        assertTrue("findPlaces should not find removed places", cursor3 != null && cursor3.getCount() == 0);
+        cursor3.close();
+        db.close();
+    }
+
+    @Test
+    public void test_findNearestPlaces()
+    {
+        db.open();
+        long[] rowID = populateDatabase();
+
+        List<Long> nearest0 = db.findNearestPlaces(35.1, -111.9, 2);
+        assertTrue(nearest0.size() == 2);
+        assertTrue("nearest should be Loc0", nearest0.get(0) == rowID[0]);
+        assertTrue("next nearest should be Loc1", nearest0.get(1) == rowID[1]);
+
+        List<Long> nearest1 = db.findNearestPlaces(-9, 12, 1);    // several cells away
+        assertTrue("nearest should be Loc5", nearest1.size() == 1 && nearest1.get(0) == rowID[5]);
+
+        assertTrue(db.findNearestPlaces(0, 0, 100).size() == rowID.length);
+        db.close();
+    }
+
+    @Test
+    public void test_findNearestPlaces_beyondNextRing()
+    {
+        db.open();
+        db.clearPlaces();
+        long rowID0 = db.addPlace(new Location("Diagonal", "0.01", "0.99"));    // adjacent cell, ~1.38 degrees away
+        long rowID1 = db.addPlace(new Location("North", "2.05", "0.01"));       // two rings away, but ~1.06 degrees away
+
+        List<Long> nearest = db.findNearestPlaces(0.99, 0.01, 1);
+        assertTrue("nearest should be North", nearest.size() == 1 && nearest.get(0) == rowID1);
+
+        List<Long> nearest1 = db.findNearestPlaces(0.99, 0.01, 2);
+        assertTrue(nearest1.size() == 2 && nearest1.get(0) == rowID1 && nearest1.get(1) == rowID0);
+
+        db.clearPlaces();
+        long rowID2 = db.addPlace(new Location("East", "60.5", "4.2"));    // ~3.7 degrees of longitude, but only ~1.85 degrees away at 60N
+        db.addPlace(new Location("South", "58.4", "0.5"));                  // ~2.1 degrees away
+        List<Long> nearest2 = db.findNearestPlaces(60.5, 0.5, 1);
+        assertTrue("nearest should be East", nearest2.size() == 1 && nearest2.get(0) == rowID2);
+        db.close();
+    }
+
     @Test
     public void test_updatePlace()
     {
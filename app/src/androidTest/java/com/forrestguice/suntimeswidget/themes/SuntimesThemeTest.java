@@ -62,6 +62,30 @@ public class SuntimesThemeTest extends SuntimesActivityTestBase
         verifyInit(theme, darkTheme);    // verify deleted (init should be to default: darkTheme)
     }
 
+    @Test
+    public void test_loadTheme()
+    {
+        Context context = activityRule.getActivity();
+        SuntimesTheme darkTheme = new DarkTheme(context);
+        SuntimesTheme testTheme = new TestTheme(context);
+        testTheme.saveTheme(context, WidgetThemes.PREFS_THEMES);
+
+        SuntimesTheme theme0 = WidgetThemes.loadTheme(context, SuntimesThemeContract.THEME_NAME);
+        SuntimesTheme theme1 = WidgetThemes.loadTheme(context, SuntimesThemeContract.THEME_NAME);
+        assertTrue("loaded theme should be shared", theme0 == theme1);
+        verifyInit(theme0, testTheme);
+
+        testTheme.saveTheme(context, WidgetThemes.PREFS_THEMES);
+        SuntimesTheme theme2 = WidgetThemes.loadTheme(context, SuntimesThemeContract.THEME_NAME);
+        assertTrue("saved theme should be loaded again", theme2 != theme0);
+        verifyInit(theme2, testTheme);
+
+        testTheme.deleteTheme(context, WidgetThemes.PREFS_THEMES);
+        SuntimesTheme theme3 = WidgetThemes.loadTheme(context, SuntimesThemeContract.THEME_NAME);
+        assertTrue("deleted theme should be loaded again", theme3 != theme2);
+        assertTrue("deleted theme should fall back to default", theme3.themeName().equals(darkTheme.themeName()));
+    }
+
     protected void verifyInit(SuntimesTheme theme, SuntimesTheme truth)
     {
         assertTrue("theme name should match " + truth.themeName() + " (was " + theme.themeName() + ")", theme.themeName().equals(truth.themeName()));
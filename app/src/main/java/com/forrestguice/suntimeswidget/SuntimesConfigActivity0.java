@@ -87,6 +87,7 @@ import com.forrestguice.suntimeswidget.settings.AppSettings;
 import com.forrestguice.suntimeswidget.actions.EditActionView;
 import com.forrestguice.suntimeswidget.settings.WidgetActions;
 import com.forrestguice.suntimeswidget.settings.WidgetSettingsExportTask;
+import com.forrestguice.suntimeswidget.settings.WidgetPrefs;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.settings.WidgetSettingsImportTask;
 import com.forrestguice.suntimeswidget.settings.WidgetSettingsMetadata;
@@ -2213,7 +2214,7 @@ public class SuntimesConfigActivity0 extends AppCompatActivity
     }
     protected void importSettings(Context context, ContentValues values, boolean offerUndo)
     {
-        SharedPreferences prefs0 = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0);
+        SharedPreferences prefs0 = WidgetPrefs.get(context);
         ContentValues previousValues = null;
         if (offerUndo) {
             previousValues = WidgetSettingsExportTask.toContentValues(prefs0, appWidgetId);
@@ -99,6 +99,7 @@ import java.text.DateFormatSymbols;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
@@ -1245,69 +1246,244 @@ public class SuntimesUtils
      *   %s .. the data source
      *   %i .. moon illumination (SuntimesMoonData only)
      *
+     * Patterns are compiled once (and cached); only the substitutions that a pattern contains are evaluated (@see TitleTemplate).
+     *
      * @param titlePattern a pattern string (simple substitutions)
      * @return a display string suitable for display as a widget title
      */
-    public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesRiseSetData data)
-    {
-        String displayString = displayStringForTitlePattern(context, titlePattern, (SuntimesData)data);
-        String modePattern = "%M";
-        String modePatternShort = "%m";
-        String orderPattern = "%o";
-        String[] patterns = new String[] { modePattern, modePatternShort, orderPattern };
-
-        SolarEvents[] events = { SolarEvents.SUNRISE, SolarEvents.NOON, SolarEvents.SUNSET };
-        HashMap<SolarEvents, String> patterns_em = getPatternsForEvent_em(events);
-        HashMap<SolarEvents, String> patterns_et = getPatternsForEvent_et(events);
-        HashMap<SolarEvents, String> patterns_eT = getPatternsForEvent_eT(events);
-        HashMap<SolarEvents, String> patterns_eA = getPatternsForEvent_eA(events);   // angle/elevation
-        HashMap<SolarEvents, String> patterns_eZ = getPatternsForEvent_eZ(events);   // azimuth
-        HashMap<SolarEvents, String> patterns_eD = getPatternsForEvent_eD(events);   // declination
-        HashMap<SolarEvents, String> patterns_eR = getPatternsForEvent_eR(events);   // right-ascension
-
-        if (data == null) {
-            displayString = removePatterns(displayString, Arrays.asList(patterns));
-            displayString = removePatterns(displayString, patterns_em.values());
-            displayString = removePatterns(displayString, patterns_et.values());
-            displayString = removePatterns(displayString, patterns_eT.values());
-            displayString = removePatterns(displayString, patterns_eA.values());
-            displayString = removePatterns(displayString, patterns_eZ.values());
-            displayString = removePatterns(displayString, patterns_eD.values());
-            displayString = removePatterns(displayString, patterns_eR.values());
-            return displayString;
-        }
-
-        WidgetSettings.TimeMode timeMode = data.timeMode();
-        String modeDisplayShort = timeMode.getShortDisplayString();
-        String modeDisplayLong = timeMode.getLongDisplayString();
-
-        WidgetSettings.RiseSetDataMode timeModeItem = data.dataMode();
-        if (timeModeItem instanceof WidgetSettings.EventAliasTimeMode) {
-            String label = EventSettings.loadEventValue(context, timeModeItem.name(), EventSettings.PREF_KEY_EVENT_LABEL);
-            if (label != null) {
-                modeDisplayLong = modeDisplayShort = label;
+    public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesRiseSetData data) {
+        return compileTitlePattern(titlePattern).format(new RiseSetTitleResolver(context, data));
+    }
+    
+    public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesMoonData data) {
+        return compileTitlePattern(titlePattern).format(new MoonTitleResolver(context, data));
+    }
+
+    public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesEquinoxSolsticeData data) {
+        return compileTitlePattern(titlePattern).format(new EquinoxSolsticeTitleResolver(context, data));
+    }
+
+    public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesClockData data) {
+        return compileTitlePattern(titlePattern).format(new ClockTitleResolver(context, data));
+    }
+
+    public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesRiseSetDataset dataset) {
+        return compileTitlePattern(titlePattern).format(new RiseSetDatasetTitleResolver(context, dataset));
+    }
+
+    public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesData data) {
+        return compileTitlePattern(titlePattern).format(new TitleResolver(context, data));
+    }
+
+    public static final int MAX_TITLE_TEMPLATES = 64;
+    public static final String[] TITLE_PATTERNS = new String[] { "%loc", "%lat", "%lon", "%lel", "%eot", "%eot_m", "%t", "%s", "%id",
+            "%d", "%dY", "%dD", "%dd", "%dT", "%dt", "%dm", "%%" };
+    public static final String[] TITLE_PATTERNS_MODE = new String[] { "%M", "%m", "%o", "%i" };
+    public static final String[] TITLE_PATTERNS_EVENT = new String[] { "%em@", "%et@", "%eT@", "%eA@", "%eZ@", "%eD@", "%eR@" };    // + event suffix; e.g. %em@sr
+
+    private static TitleTemplate.Compiler titleTemplates = null;
+    private static HashMap<String, SolarEvents> titlePatternEvents = null;
+
+    protected static synchronized TitleTemplate.Compiler getTitleTemplates()
+    {
+        if (titleTemplates == null)
+        {
+            ArrayList<String> tokens = new ArrayList<>(Arrays.asList(TITLE_PATTERNS));
+            tokens.addAll(Arrays.asList(TITLE_PATTERNS_MODE));
+            for (SolarEvents event : getRiseSetDatasetEvents())
+            {
+                for (String prefix : TITLE_PATTERNS_EVENT) {
+                    tokens.add(getPatternForEvent(prefix, event));
+                }
+            }
+            titleTemplates = new TitleTemplate.Compiler(tokens, MAX_TITLE_TEMPLATES);
+        }
+        return titleTemplates;
+    }
+
+    /**
+     * @param titlePattern a pattern string
+     * @return the compiled pattern (cached)
+     */
+    @NonNull
+    public static TitleTemplate compileTitlePattern(@Nullable String titlePattern) {
+        return getTitleTemplates().compile(titlePattern);
+    }
+
+    /**
+     * @param token an event token, e.g. %et@sr
+     * @return the event referenced by the token, or null if the token isn't an event token
+     */
+    @Nullable
+    public static SolarEvents getEventForPattern(@NonNull String token)
+    {
+        if (token.length() > 4 && token.charAt(1) == 'e' && token.charAt(3) == '@')
+        {
+            synchronized (SuntimesUtils.class)
+            {
+                if (titlePatternEvents == null)
+                {
+                    titlePatternEvents = new HashMap<>();
+                    for (SolarEvents event : getRiseSetDatasetEvents()) {
+                        titlePatternEvents.put(getPatternForEvent("", event), event);
+                    }
+                }
+                return titlePatternEvents.get(token.substring(4));
+            }
+        } else return null;
+    }
+
+    /**
+     * @param token an event token, e.g. %et@sr
+     * @param event the event (which may differ from the event named by the token; e.g. the sunrise of a twilight mode)
+     * @param eventTime the time of the event
+     * @param data supporting data (used by angle/position tokens)
+     * @param angle the event angle (or null to use the altitude of the event)
+     */
+    @NonNull
+    protected String displayStringForEventPattern(Context context, @NonNull String token, SolarEvents event, @NonNull Calendar eventTime, @Nullable SuntimesRiseSetData data, @Nullable Double angle)
+    {
+        Double value;
+        switch (token.charAt(2))
+        {
+            case 'm':    // %em .. eventMillis
+                return eventTime.getTimeInMillis() + "";
+
+            case 't':    // %et .. eventTime (formatted)
+                return calendarTimeShortDisplayString(context, eventTime, false).toString();
+
+            case 'T':    // %eT .. eventTime (formatted, with seconds)
+                return calendarTimeShortDisplayString(context, eventTime, true).toString();
+
+            case 'A':    // %eA .. event angle (formatted)
+                value = (angle != null ? angle : getAltitudeForEvent(event, data));
+                return (value != null ? formatAsDegrees(value, 1) : "");
+
+            case 'Z':    // %eZ .. event azimuth (formatted)
+                value = getAzimuthForEvent(event, data);
+                return (value != null ? formatAsDirection(value, 1) : "");
+
+            case 'D':    // %eD .. event declination (formatted)
+                value = getDeclinationForEvent(event, data);
+                return (value != null ? formatAsDeclination(value, 1).toString() : "");
+
+            case 'R':    // %eR .. event right ascension (formatted)
+                value = getRightAscensionForEvent(event, data);
+                return (value != null ? formatAsRightAscension(value, 1).toString() : "");
+
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * TitleResolver
+     * Resolves the substitutions common to all SuntimesData; the data is calculated when the first substitution is resolved.
+     */
+    protected class TitleResolver implements TitleTemplate.TokenResolver
+    {
+        protected final Context context;
+        protected final SuntimesData data;
+
+        public TitleResolver(Context context, @Nullable SuntimesData data)
+        {
+            this.context = context;
+            this.data = data;
+        }
+
+        @Nullable
+        protected SuntimesData data()
+        {
+            if (data != null && !data.isCalculated()) {
+                data.calculate();
             }
+            return data;
         }
 
-        displayString = displayString.replaceAll(modePatternShort, modeDisplayShort);
-        displayString = displayString.replaceAll(modePattern, modeDisplayLong);
+        @Nullable
+        @Override
+        public String resolve(@NonNull String token)
+        {
+            SuntimesData data = data();
+            if (data == null) {
+                return (Arrays.asList(TITLE_PATTERNS).contains(token) ? "" : null);
+            }
+
+            Location location = data.location();
+            switch (token)
+            {
+                case "%loc": return location.getLabel();
+                case "%lat": return location.getLatitude();
+                case "%lon": return location.getLongitude();
+                case "%lel":
+                    return (WidgetSettings.loadLengthUnitsPref(context, 0) == WidgetSettings.LengthUnit.IMPERIAL)
+                            ? (int)WidgetSettings.LengthUnit.metersToFeet(location.getAltitudeAsDouble()) + ""
+                            : location.getAltitudeAsInteger() + "";
+
+                case "%eot": case "%eot_m":
+                    long eot = WidgetTimezones.ApparentSolarTime.equationOfTimeOffset(data.calendar().getTimeInMillis(), data.calculator());
+                    return (token.equals("%eot_m") ? eot + ""
+                                                   : ((eot < 0) ? "-" : "+") + timeDeltaLongDisplayString(eot, true).getValue());
+
+                case "%t": return data.timezone().getID();
+                case "%s": return (data.calculatorMode() == null) ? "" : data.calculatorMode().getName();
+                case "%id": return (data.appWidgetID() != null ? String.format("%s", data.appWidgetID()) : "");
+
+                case "%dt": return calendarTimeShortDisplayString(context, data.now(), false).toString();
+                case "%dT": return calendarTimeShortDisplayString(context, data.now(), true).toString();
+                case "%dd": return calendarDayDisplayString(context, data.calendar(), true).toString();
+                case "%dD": return calendarDayDisplayString(context, data.calendar(), false).toString();
+                case "%dY": return calendarDateYearDisplayString(context, data.calendar()).toString();
+                case "%dm": return Long.toString(data.calendar().getTimeInMillis());
+                case "%d": return calendarDateDisplayString(context, data.calendar(), false).toString();
+
+                case "%%": return "%";
+                default: return null;
+            }
+        }
+    }
 
-        WidgetSettings.RiseSetOrder order = WidgetSettings.loadRiseSetOrderPref(context, data.appWidgetID());
-        displayString = displayString.replaceAll(orderPattern, order.toString());
+    /**
+     * RiseSetTitleResolver
+     * %m, %M, %o, and event substitutions (sunrise, noon, and sunset).
+     */
+    protected class RiseSetTitleResolver extends TitleResolver
+    {
+        public RiseSetTitleResolver(Context context, @Nullable SuntimesRiseSetData data) {
+            super(context, data);
+        }
 
-        for (SolarEvents event : events)
+        @Nullable
+        @Override
+        public String resolve(@NonNull String token)
         {
-            String pattern_em = patterns_em.get(event);
-            String pattern_et = patterns_et.get(event);
-            String pattern_eT = patterns_eT.get(event);
-            String pattern_eA = patterns_eA.get(event);
-            String pattern_eZ = patterns_eZ.get(event);
-            String pattern_eD = patterns_eD.get(event);
-            String pattern_eR = patterns_eR.get(event);
+            SolarEvents event = getEventForPattern(token);
+            boolean isEvent = (event == SolarEvents.SUNRISE || event == SolarEvents.NOON || event == SolarEvents.SUNSET);
+            boolean isMode = (token.equals("%M") || token.equals("%m") || token.equals("%o"));
+            if (!isEvent && !isMode) {
+                return super.resolve(token);
+            }
 
-            if (!displayString.contains(pattern_em) && !displayString.contains(pattern_et) && !displayString.contains(pattern_eT) && !displayString.contains(pattern_eA)
-                    && !displayString.contains(pattern_eZ) && !displayString.contains(pattern_eD) && !displayString.contains(pattern_eR)) {
-                continue;
+            SuntimesRiseSetData data = (SuntimesRiseSetData) data();
+            if (data == null) {
+                return "";
+            }
+
+            WidgetSettings.TimeMode timeMode = data.timeMode();
+            if (isMode)
+            {
+                if (token.equals("%o")) {
+                    return WidgetSettings.loadRiseSetOrderPref(context, data.appWidgetID()).toString();
+                }
+
+                WidgetSettings.RiseSetDataMode timeModeItem = data.dataMode();
+                if (timeModeItem instanceof WidgetSettings.EventAliasTimeMode) {
+                    String label = EventSettings.loadEventValue(context, timeModeItem.name(), EventSettings.PREF_KEY_EVENT_LABEL);
+                    if (label != null) {
+                        return label;
+                    }
+                }
+                return (token.equals("%m") ? timeMode.getShortDisplayString() : timeMode.getLongDisplayString());
             }
 
             SuntimesRiseSetData d = (event == SolarEvents.NOON && data.getLinked() != null ? data.getLinked() : data);
@@ -1318,114 +1494,132 @@ public class SuntimesUtils
             }
 
             Calendar eventTime = d.getEvents(event.isRising())[0];
-            if (eventTime != null)
-            {
-                if (displayString.contains(pattern_em)) {
-                    displayString = displayString.replaceAll(pattern_em, eventTime.getTimeInMillis() + "");
-                }
-                if (displayString.contains(pattern_et)) {
-                    displayString = displayString.replaceAll(pattern_et, calendarTimeShortDisplayString(context, eventTime, false).toString());
-                }
-                if (displayString.contains(pattern_eT)) {
-                    displayString = displayString.replaceAll(pattern_eT, calendarTimeShortDisplayString(context, eventTime, true).toString());
-                }
-                if (displayString.contains(pattern_eA)) {
-                    Double angle = (d.angle() != null ? Double.valueOf(d.angle()) : getAltitudeForEvent(event, d));
-                    displayString = displayString.replaceAll(pattern_eA, (angle != null ? formatAsDegrees(angle, 1) : ""));
-                }
-                if (displayString.contains(pattern_eZ)) {
-                    Double value = getAzimuthForEvent(event, d);
-                    displayString = displayString.replaceAll(pattern_eZ, (value != null ? formatAsDirection(value, 1) : ""));
-                }
-                if (displayString.contains(pattern_eD)) {
-                    Double value = getDeclinationForEvent(event, d);
-                    displayString = displayString.replaceAll(pattern_eD, (value != null ? formatAsDeclination(value, 1).toString() : ""));
-                }
-                if (displayString.contains(pattern_eR)) {
-                    Double value = getRightAscensionForEvent(event, d);
-                    displayString = displayString.replaceAll(pattern_eR, (value != null ? formatAsRightAscension(value, 1).toString() : ""));
-                }
+            return (eventTime != null ? displayStringForEventPattern(context, token, event, eventTime, d, d.angle()) : "");
+        }
+    }
 
-            } else {
-                displayString = displayString.replaceAll(pattern_em, "");
-                displayString = displayString.replaceAll(pattern_et, "");
-                displayString = displayString.replaceAll(pattern_eT, "");
-                displayString = displayString.replaceAll(pattern_eA, "");
-                displayString = displayString.replaceAll(pattern_eZ, "");
-                displayString = displayString.replaceAll(pattern_eD, "");
-                displayString = displayString.replaceAll(pattern_eR, "");
+    /**
+     * MoonTitleResolver
+     * %m, %M, %o, %i
+     */
+    protected class MoonTitleResolver extends TitleResolver
+    {
+        public MoonTitleResolver(Context context, @Nullable SuntimesMoonData data) {
+            super(context, data);
+        }
+
+        @Nullable
+        @Override
+        public String resolve(@NonNull String token)
+        {
+            if (!token.equals("%M") && !token.equals("%m") && !token.equals("%o") && !token.equals("%i")) {
+                return super.resolve(token);
             }
 
-        }
+            SuntimesMoonData data = (SuntimesMoonData) data();
+            if (data == null || !data.isCalculated()) {
+                return "";
+            }
 
-        return displayString;
+            switch (token)
+            {
+                case "%m": return data.getMoonPhaseToday().getShortDisplayString();
+                case "%M": return data.getMoonPhaseToday().getLongDisplayString();
+                case "%o": return WidgetSettings.loadRiseSetOrderPref(context, data.appWidgetID()).toString();
+                case "%i": default: return NumberFormat.getPercentInstance().format(data.getMoonIlluminationToday());
+            }
+        }
     }
-    
-    public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesMoonData data)
+
+    /**
+     * EquinoxSolsticeTitleResolver
+     * %m, %M, %o
+     */
+    protected class EquinoxSolsticeTitleResolver extends TitleResolver
     {
-        String displayString = displayStringForTitlePattern(context, titlePattern, (SuntimesData)data);
-        String modePattern = "%M";
-        String modePatternShort = "%m";
-        String illumPattern = "%i";
-        String orderPattern = "%o";
+        public EquinoxSolsticeTitleResolver(Context context, @Nullable SuntimesEquinoxSolsticeData data) {
+            super(context, data);
+        }
 
-        if (data != null && data.isCalculated())
+        @Nullable
+        @Override
+        public String resolve(@NonNull String token)
         {
-            WidgetSettings.RiseSetOrder order = WidgetSettings.loadRiseSetOrderPref(context, data.appWidgetID());
+            if (!token.equals("%M") && !token.equals("%m") && !token.equals("%o")) {
+                return super.resolve(token);
+            }
 
-            displayString = displayString.replaceAll(modePatternShort, data.getMoonPhaseToday().getShortDisplayString());
-            displayString = displayString.replaceAll(modePattern, data.getMoonPhaseToday().getLongDisplayString());
-            displayString = displayString.replaceAll(orderPattern, order.toString());
+            SuntimesEquinoxSolsticeData data = (SuntimesEquinoxSolsticeData) data();
+            if (data == null) {
+                return "";
+            }
 
-            if (displayString.contains(illumPattern)) {
-                NumberFormat percentage = NumberFormat.getPercentInstance();
-                displayString = displayString.replaceAll(illumPattern, percentage.format(data.getMoonIlluminationToday()));
+            switch (token)
+            {
+                case "%m": return data.timeMode().getShortDisplayString();
+                case "%M": return data.timeMode().getLongDisplayString();
+                case "%o": default: return WidgetSettings.loadTrackingModePref(context, data.appWidgetID()).toString();
             }
-        } else {
-            displayString = displayString.replaceAll(modePatternShort, "").replaceAll(modePattern, "").replaceAll(orderPattern, "").replaceAll(illumPattern, "");
         }
-        return displayString;
     }
 
-    public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesEquinoxSolsticeData data)
+    /**
+     * ClockTitleResolver
+     * %m, %M
+     */
+    protected class ClockTitleResolver extends TitleResolver
     {
-        String displayString = displayStringForTitlePattern(context, titlePattern, (SuntimesData)data);
-        String modePattern = "%M";
-        String modePatternShort = "%m";
-        String orderPattern = "%o";
-
-        if (data == null) {
-            return displayString.replaceAll(modePatternShort, "").replaceAll(modePattern, "").replaceAll(orderPattern, "");
+        public ClockTitleResolver(Context context, @Nullable SuntimesClockData data) {
+            super(context, data);
         }
 
-        WidgetSettings.TrackingMode trackingMode = WidgetSettings.loadTrackingModePref(context, data.appWidgetID());
-        WidgetSettings.SolsticeEquinoxMode timeMode = data.timeMode();
+        @Nullable
+        @Override
+        public String resolve(@NonNull String token)
+        {
+            if (!token.equals("%M") && !token.equals("%m")) {
+                return super.resolve(token);
+            }
 
-        displayString = displayString.replaceAll(modePatternShort, timeMode.getShortDisplayString());
-        displayString = displayString.replaceAll(modePattern, timeMode.getLongDisplayString());
-        displayString = displayString.replaceAll(orderPattern, trackingMode.toString());
-        return displayString;
+            SuntimesClockData data = (SuntimesClockData) data();
+            return (data != null ? CalendarSettings.loadCalendarModePref(context, data.appWidgetID()).getDisplayString() : "");
+        }
     }
 
-    public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesClockData data)
+    /**
+     * RiseSetDatasetTitleResolver
+     * Event substitutions (all events); other substitutions are resolved from `dataset.dataActual`.
+     */
+    protected class RiseSetDatasetTitleResolver extends RiseSetTitleResolver
     {
-        String displayString = displayStringForTitlePattern(context, titlePattern, (SuntimesData)data);
-        String modePattern = "%M";
-        String modePatternShort = "%m";
+        protected final SuntimesRiseSetDataset dataset;
 
-        if (data == null) {
-            return displayString.replaceAll(modePatternShort, "").replaceAll(modePattern, "");
+        public RiseSetDatasetTitleResolver(Context context, @Nullable SuntimesRiseSetDataset dataset)
+        {
+            super(context, (dataset != null ? dataset.dataActual : null));
+            this.dataset = dataset;
         }
 
-        CalendarMode mode = CalendarSettings.loadCalendarModePref(context, data.appWidgetID());
-        displayString = displayString.replaceAll(modePatternShort, mode.getDisplayString());
-        displayString = displayString.replaceAll(modePattern, mode.getDisplayString());
-        return displayString;
-    }
+        @Nullable
+        @Override
+        public String resolve(@NonNull String token)
+        {
+            SolarEvents event = getEventForPattern(token);
+            if (event == null) {
+                return super.resolve(token);
+            }
+
+            if (dataset == null || !dataset.isCalculated()) {
+                return "";
+            }
 
-    /*public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesRiseSetDataset dataset) {
-        return displayStringForTitlePattern(context, titlePattern, (dataset != null ? dataset.dataActual : null));
-    }*/
+            WidgetSettings.TimeMode eventMode = event.toTimeMode();
+            SuntimesRiseSetData data = dataset.getData(eventMode != null ? eventMode.name() : null);
+            Calendar[] eventTimes = dataset.getRiseSetEvents(event.name());
+            Calendar eventTime = (eventTimes != null && eventTimes[0] != null ? eventTimes[0] : null);
+            return (eventTime != null ? displayStringForEventPattern(context, token, event, eventTime, data, null) : "");
+        }
+    }
 
     @Nullable
     public static Double getAltitudeForEvent(SolarEvents event, @Nullable SuntimesRiseSetData data)
@@ -1638,170 +1832,6 @@ public class SuntimesUtils
                 SolarEvents.MORNING_BLUE8, SolarEvents.EVENING_BLUE8 };
     }
 
-    public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesRiseSetDataset dataset)
-    {
-        String displayString = titlePattern;
-
-        SolarEvents[] events = getRiseSetDatasetEvents();
-        HashMap<SolarEvents, String> patterns0 = getPatternsForEvent_em(events);
-        HashMap<SolarEvents, String> patterns1 = getPatternsForEvent_et(events);
-        HashMap<SolarEvents, String> patterns2 = getPatternsForEvent_eT(events);
-        HashMap<SolarEvents, String> patterns3 = getPatternsForEvent_eA(events);
-        HashMap<SolarEvents, String> patterns4 = getPatternsForEvent_eZ(events);
-        HashMap<SolarEvents, String> patterns5 = getPatternsForEvent_eD(events);
-        HashMap<SolarEvents, String> patterns6 = getPatternsForEvent_eR(events);
-
-        if (dataset != null && dataset.isCalculated())
-        {
-            for (SolarEvents event : patterns0.keySet())
-            {
-                String pattern_em = patterns0.get(event);   // %em .. eventMillis
-                String pattern_et = patterns1.get(event);   // %et .. eventTime (formatted)
-                String pattern_eT = patterns2.get(event);   // %eT .. eventTime (formatted)
-                String pattern_eA = patterns3.get(event);   // %eA .. event angle (formatted)
-                String pattern_eZ = patterns4.get(event);   // %eZ .. event azimuth (formatted)
-                String pattern_eD = patterns5.get(event);   // %eD .. event declination (formatted)
-                String pattern_eR = patterns6.get(event);   // %eR .. event right ascension (formatted)
-                if (!displayString.contains(pattern_em) && !displayString.contains(pattern_et) && !displayString.contains(pattern_eT) && !displayString.contains(pattern_eA)
-                        && !displayString.contains(pattern_eZ) && !displayString.contains(pattern_eD) && !displayString.contains(pattern_eR)) {
-                    continue;
-                }
-
-                WidgetSettings.TimeMode eventMode = event.toTimeMode();
-                SuntimesRiseSetData data = dataset.getData(eventMode != null ? eventMode.name() : null);
-                Calendar[] eventTimes = (pattern_em != null ? dataset.getRiseSetEvents(event.name()) : null);
-                Calendar eventTime = (eventTimes != null && eventTimes[0] != null ? eventTimes[0] : null);
-
-                if (eventTime != null)
-                {
-                    if (displayString.contains(pattern_em)) {
-                        displayString = displayString.replaceAll(pattern_em, eventTime.getTimeInMillis() + "");
-                    }
-                    if (displayString.contains(pattern_et)) {
-                        displayString = displayString.replaceAll(pattern_et, calendarTimeShortDisplayString(context, eventTime, false).toString());
-                    }
-                    if (displayString.contains(pattern_eT)) {
-                        displayString = displayString.replaceAll(pattern_eT, calendarTimeShortDisplayString(context, eventTime, true).toString());
-                    }
-                    if (displayString.contains(pattern_eA)) {
-                        Double angle = getAltitudeForEvent(event, data);
-                        displayString = displayString.replaceAll(pattern_eA, angle != null ? formatAsDegrees(angle, 1) : "");
-                    }
-                    if (displayString.contains(pattern_eZ)) {
-                        Double value = getAzimuthForEvent(event, data);
-                        displayString = displayString.replaceAll(pattern_eZ, value != null ? formatAsDirection(value, 1) : "");
-                    }
-                    if (displayString.contains(pattern_eD)) {
-                        Double value = getDeclinationForEvent(event, data);
-                        displayString = displayString.replaceAll(pattern_eD, value != null ? formatAsDeclination(value, 1).toString() : "");
-                    }
-                    if (displayString.contains(pattern_eR)) {
-                        Double value = getRightAscensionForEvent(event, data);
-                        displayString = displayString.replaceAll(pattern_eR, value != null ? formatAsRightAscension(value, 1).toString() : "");
-                    }
-                } else {
-                    displayString = displayString.replaceAll(pattern_em, "");
-                    displayString = displayString.replaceAll(pattern_et, "");
-                    displayString = displayString.replaceAll(pattern_eT, "");
-                    displayString = displayString.replaceAll(pattern_eA, "");
-                    displayString = displayString.replaceAll(pattern_eZ, "");
-                    displayString = displayString.replaceAll(pattern_eD, "");
-                    displayString = displayString.replaceAll(pattern_eR, "");
-                }
-            }
-        } else {
-            displayString = removePatterns(displayString, patterns0.values());
-            displayString = removePatterns(displayString, patterns1.values());
-            displayString = removePatterns(displayString, patterns2.values());
-            displayString = removePatterns(displayString, patterns3.values());
-            displayString = removePatterns(displayString, patterns4.values());
-            displayString = removePatterns(displayString, patterns5.values());
-            displayString = removePatterns(displayString, patterns6.values());
-        }
-        return displayStringForTitlePattern(context, displayString, (dataset != null ? dataset.dataActual : null));
-    }
-
-    public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesData data)
-    {
-        String displayString = titlePattern;
-        String locPattern = "%loc";
-        String latPattern = "%lat";
-        String lonPattern = "%lon";
-        String altPattern = "%lel";
-        String eotPattern = "%eot";
-        String eotMillisPattern = "%eot_m";
-        String timezoneIDPattern = "%t";
-        String datasourcePattern = "%s";
-        String widgetIDPattern = "%id";
-        String datePattern = "%d";
-        String dateYearPattern = "%dY";
-        String dateDayPattern = "%dD";
-        String dateDayPatternShort = "%dd";
-        String dateTimePattern = "%dT";
-        String dateTimePatternShort = "%dt";
-        String dateMillisPattern = "%dm";
-        String percentPattern = "%%";
-
-        if (data == null)
-        {
-            String[] patterns = new String[] { locPattern, latPattern, lonPattern, altPattern,          // in order of operation
-                    timezoneIDPattern, datasourcePattern, widgetIDPattern,
-                    dateTimePatternShort, dateTimePattern, dateDayPatternShort, dateDayPattern, dateYearPattern, dateMillisPattern, datePattern,
-                    percentPattern };
-
-            for (int i=0; i<patterns.length; i++) {
-                displayString = displayString.replaceAll(patterns[i], "");
-            }
-            return displayString;
-        }
-
-        if (!data.isCalculated()) {
-            data.calculate();
-        }
-
-        Location location = data.location();
-        String timezoneID = data.timezone().getID();
-        String datasource = (data.calculatorMode() == null) ? "" : data.calculatorMode().getName();
-        String appWidgetID = (data.appWidgetID() != null ? String.format("%s", data.appWidgetID()) : "");
-
-        displayString = displayString.replaceAll(locPattern, location.getLabel());
-        displayString = displayString.replaceAll(latPattern, location.getLatitude());
-        displayString = displayString.replaceAll(lonPattern, location.getLongitude());
-
-        if (displayString.contains(altPattern))
-        {
-            String altitudeDisplay = (WidgetSettings.loadLengthUnitsPref(context, 0) == WidgetSettings.LengthUnit.IMPERIAL)
-                                   ? (int)WidgetSettings.LengthUnit.metersToFeet(location.getAltitudeAsDouble()) + ""
-                                   : location.getAltitudeAsInteger() + "";
-            displayString = displayString.replaceAll(altPattern, altitudeDisplay);
-        }
-
-        if (displayString.contains(eotPattern) || displayString.contains(eotMillisPattern))
-        {
-            long eot = WidgetTimezones.ApparentSolarTime.equationOfTimeOffset(data.calendar().getTimeInMillis(), data.calculator());
-            displayString = displayString.replaceAll(eotMillisPattern, eot+"");
-            displayString = displayString.replaceAll(eotPattern, ((eot < 0) ? "-" : "+") + timeDeltaLongDisplayString(eot, true).getValue());
-        }
-
-        displayString = displayString.replaceAll(timezoneIDPattern, timezoneID);
-        displayString = displayString.replaceAll(datasourcePattern, datasource);
-        displayString = displayString.replaceAll(widgetIDPattern, appWidgetID);
-
-        if (displayString.contains(datePattern))
-        {
-            displayString = displayString.replaceAll(dateTimePatternShort, calendarTimeShortDisplayString(context, data.now(), false).toString());
-            displayString = displayString.replaceAll(dateTimePattern, calendarTimeShortDisplayString(context, data.now(), true).toString());
-            displayString = displayString.replaceAll(dateDayPatternShort, calendarDayDisplayString(context, data.calendar(), true).toString());
-            displayString = displayString.replaceAll(dateDayPattern, calendarDayDisplayString(context, data.calendar(), false).toString());
-            displayString = displayString.replaceAll(dateYearPattern, calendarDateYearDisplayString(context, data.calendar()).toString());
-            displayString = displayString.replaceAll(dateMillisPattern, Long.toString(data.calendar().getTimeInMillis()));
-            displayString = displayString.replaceAll(datePattern, calendarDateDisplayString(context, data.calendar(), false).toString());
-        }
-
-        displayString = displayString.replaceAll(percentPattern, "%");
-        return displayString;
-    }
-    
     public static SpannableStringBuilder createSpan(Context context, String text, String spanTag, ImageSpan imageSpan)
     {
         return createSpan(context, text, spanTag, imageSpan, ImageSpan.ALIGN_BASELINE);
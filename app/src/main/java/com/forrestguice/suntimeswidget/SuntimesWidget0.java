@@ -51,6 +51,8 @@ import com.forrestguice.suntimeswidget.widgets.layouts.SunLayout_3x1_0;
 import com.forrestguice.suntimeswidget.map.WorldMapWidgetSettings;
 import com.forrestguice.suntimeswidget.settings.AppSettings;
 import com.forrestguice.suntimeswidget.settings.WidgetActions;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
+import com.forrestguice.suntimeswidget.settings.WidgetPrefs;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.settings.WidgetThemes;
 
@@ -344,6 +346,7 @@ public class SuntimesWidget0 extends AppWidgetProvider
 
         AppWidgetManager widgetManager = AppWidgetManager.getInstance(context);
         int[] widgetIds = getWidgetIds(context, widgetManager);
+        WidgetConfig.loadAll(context);
         ArrayList<Integer> filteredList = new ArrayList<>();
         for (int id : widgetIds)
         {
@@ -385,6 +388,7 @@ public class SuntimesWidget0 extends AppWidgetProvider
     {
         initLocale(context);
         WidgetThemes.initThemes(context);
+        WidgetConfig.loadAll(context);    // a single pass for every widget
 
         for (int appWidgetId : appWidgetIds)
         {
@@ -424,6 +428,7 @@ public class SuntimesWidget0 extends AppWidgetProvider
             unsetUpdateAlarm(context, appWidgetId);
             WidgetSettings.deletePrefs(context, appWidgetId);
             WorldMapWidgetSettings.deletePrefs(context, appWidgetId);
+            WidgetPrefs.get(context).removeShard(appWidgetId);
         }
     }
 
@@ -605,6 +610,7 @@ public class SuntimesWidget0 extends AppWidgetProvider
         if (isCurrentLocationMode(context, appWidgetId)) {
             updateLocationToLastKnown(context, appWidgetId);
         }
+        WidgetConfig.get(context, appWidgetId);    // the snapshot read by the layout (reloaded if the location was just saved)
 
         SuntimesRiseSetData data = getRiseSetData(context, appWidgetId);
         data.calculate();
@@ -0,0 +1,258 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TitleTemplate
+ * A "title pattern" (e.g. `%loc (%M)`) compiled into a list of literal text and %tokens; the pattern is parsed once
+ * (@see Compiler), and formatted in a single pass that resolves only the tokens that it contains (each once).
+ *
+ * Tokens are matched longest first (e.g. `%eot_m` rather than `%eot`); text that isn't a known token is kept as is.
+ */
+public class TitleTemplate
+{
+    /**
+     * TokenResolver
+     */
+    public interface TokenResolver
+    {
+        /**
+         * @param token a token, e.g. `%loc`
+         * @return the value to substitute (or "" to remove the token), or null to keep the token as is
+         */
+        @Nullable
+        String resolve(@NonNull String token);
+    }
+
+    protected final String pattern;
+    protected final String[] parts;
+    protected final boolean[] isToken;
+    protected final Set<String> tokens;
+
+    protected TitleTemplate(@NonNull String pattern, @NonNull ArrayList<String> parts, @NonNull ArrayList<Boolean> isToken)
+    {
+        this.pattern = pattern;
+        this.parts = parts.toArray(new String[0]);
+        this.isToken = new boolean[this.parts.length];
+
+        HashSet<String> tokens = new HashSet<>();
+        for (int i=0; i<this.parts.length; i++)
+        {
+            this.isToken[i] = isToken.get(i);
+            if (this.isToken[i]) {
+                tokens.add(this.parts[i]);
+            }
+        }
+        this.tokens = Collections.unmodifiableSet(tokens);
+    }
+
+    @NonNull
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return the (distinct) tokens used by the pattern
+     */
+    @NonNull
+    public Set<String> getTokens() {
+        return tokens;
+    }
+
+    public boolean hasTokens() {
+        return !tokens.isEmpty();
+    }
+
+    public boolean hasToken(String token) {
+        return tokens.contains(token);
+    }
+
+    /**
+     * @param resolver supplies the value of each token
+     * @return the formatted string
+     */
+    @NonNull
+    public String format(@NonNull TokenResolver resolver)
+    {
+        if (tokens.isEmpty()) {
+            return pattern;
+        }
+
+        HashMap<String, String> values = new HashMap<>();
+        StringBuilder result = new StringBuilder(pattern.length() + 16);
+        for (int i=0; i<parts.length; i++)
+        {
+            String part = parts[i];
+            if (isToken[i])
+            {
+                String value;
+                if (values.containsKey(part)) {
+                    value = values.get(part);
+
+                } else {
+                    value = resolver.resolve(part);
+                    values.put(part, value);
+                }
+                result.append(value != null ? value : part);
+
+            } else {
+                result.append(part);
+            }
+        }
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    /**
+     * @param pattern a pattern string
+     * @param vocabulary known tokens (each starting with %)
+     * @param maxTokenLength the length of the longest token in vocabulary
+     * @return the compiled pattern
+     */
+    @NonNull
+    public static TitleTemplate parse(@NonNull String pattern, @NonNull Set<String> vocabulary, int maxTokenLength)
+    {
+        ArrayList<String> parts = new ArrayList<>();
+        ArrayList<Boolean> isToken = new ArrayList<>();
+
+        int n = pattern.length();
+        int literalStart = 0;
+        int i = pattern.indexOf('%');
+        while (i >= 0 && i < n)
+        {
+            String token = null;
+            for (int j = Math.min(n, i + maxTokenLength); j > i + 1; j--)
+            {
+                String candidate = pattern.substring(i, j);
+                if (vocabulary.contains(candidate)) {
+                    token = candidate;
+                    break;
+                }
+            }
+
+            if (token != null)
+            {
+                if (i > literalStart) {
+                    parts.add(pattern.substring(literalStart, i));
+                    isToken.add(false);
+                }
+                parts.add(token);
+                isToken.add(true);
+                literalStart = i + token.length();
+                i = pattern.indexOf('%', literalStart);
+
+            } else {
+                i = pattern.indexOf('%', i + 1);
+            }
+        }
+        if (literalStart < n) {
+            parts.add(pattern.substring(literalStart));
+            isToken.add(false);
+        }
+        return new TitleTemplate(pattern, parts, isToken);
+    }
+
+    /**
+     * Compiler
+     * Compiles patterns against a vocabulary of tokens; compiled patterns are cached (least recently used).
+     */
+    public static class Compiler
+    {
+        protected final Set<String> vocabulary;
+        protected final int maxTokenLength;
+        protected final LinkedHashMap<String, TitleTemplate> cache;
+
+        public Compiler(@NonNull Collection<String> tokens, final int maxCached)
+        {
+            vocabulary = Collections.unmodifiableSet(new HashSet<>(tokens));
+
+            int maxLength = 0;
+            for (String token : vocabulary) {
+                maxLength = Math.max(maxLength, token.length());
+            }
+            maxTokenLength = maxLength;
+
+            cache = new LinkedHashMap<String, TitleTemplate>(16, 0.75f, true)
+            {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, TitleTemplate> eldest) {
+                    return size() > maxCached;
+                }
+            };
+        }
+
+        @NonNull
+        public Set<String> getVocabulary() {
+            return vocabulary;
+        }
+
+        /**
+         * @param pattern a pattern string (null is treated as "")
+         * @return the compiled pattern (cached)
+         */
+        @NonNull
+        public TitleTemplate compile(@Nullable String pattern)
+        {
+            String key = (pattern != null ? pattern : "");
+            synchronized (cache)
+            {
+                TitleTemplate template = cache.get(key);
+                if (template != null) {
+                    return template;
+                }
+            }
+
+            TitleTemplate template = parse(key, vocabulary, maxTokenLength);
+            synchronized (cache) {
+                cache.put(key, template);
+            }
+            return template;
+        }
+
+        public int size()
+        {
+            synchronized (cache) {
+                return cache.size();
+            }
+        }
+
+        public void clear()
+        {
+            synchronized (cache) {
+                cache.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.alarmclock;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.forrestguice.suntimeswidget.BuildConfig;
+import com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract;
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.views.ExecutorUtils;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * AlarmAddonEvents
+ * Queries add-on event times (AlarmEventContract.QUERY_EVENT_CALC) on the shared executor. Results are cached briefly by
+ * (uri, selectionArgs); a cached event remains valid while it is still upcoming (an add-on returns the next event after
+ * "now", which doesn't change until the event has passed), so repeated reschedules don't query the add-on again.
+ *
+ * Several queries can be resolved concurrently (@see prefetch); each authority has its own deadline, so a slow add-on
+ * doesn't use up the time allowed for other add-ons.
+ */
+public class AlarmAddonEvents
+{
+    public static final String TAG = "AlarmReceiverAddon";
+    public static final long CACHE_MS = 60 * 1000;
+    public static final int CACHE_SIZE = 32;
+
+    /**
+     * Query
+     */
+    public static final class Query
+    {
+        public final Uri uri;
+        public final String selection;
+        public final String[] selectionArgs;    // selectionArgs[0] is "now"
+        public final long offset;
+        public final Calendar now;
+
+        public Query(@NonNull Uri uri, @NonNull String selection, @NonNull String[] selectionArgs, long offset, @NonNull Calendar now)
+        {
+            this.uri = uri;
+            this.selection = selection;
+            this.selectionArgs = selectionArgs;
+            this.offset = offset;
+            this.now = now;
+        }
+
+        @Nullable
+        public String getAuthority() {
+            return uri.getAuthority();
+        }
+
+        /**
+         * @return a key identifying the query; excludes "now" (the first selectionArg)
+         */
+        public String cacheKey()
+        {
+            StringBuilder key = new StringBuilder(uri.toString());
+            for (int i=1; i<selectionArgs.length; i++) {
+                key.append("|").append(selectionArgs[i]);
+            }
+            return key.toString();
+        }
+    }
+
+    /**
+     * @return a query for the next event after now
+     */
+    public static Query createQuery(@NonNull String eventID, @Nullable Location location, long offset, boolean repeating, @NonNull List<Integer> repeatingDays, @NonNull Calendar now)
+    {
+        long nowMillis = now.getTimeInMillis();
+        Uri uri_id = Uri.parse(eventID);
+        Uri uri_calc = Uri.parse(AlarmAddon.getEventCalcUri(uri_id.getAuthority(), uri_id.getLastPathSegment()));
+
+        StringBuilder repeatingDaysString = new StringBuilder("[");
+        if (repeating) {
+            for (int i = 0; i < repeatingDays.size(); i++) {
+                repeatingDaysString.append(repeatingDays.get(i));
+                if (i != repeatingDays.size() - 1) {
+                    repeatingDaysString.append(",");
+                }
+            }
+        }
+        repeatingDaysString.append("]");
+
+        String[] selectionArgs = new String[] { Long.toString(nowMillis), Long.toString(offset), Boolean.toString(repeating), repeatingDaysString.toString() };
+        String selection = AlarmEventContract.EXTRA_ALARM_NOW + "=? AND "
+                + AlarmEventContract.EXTRA_ALARM_OFFSET + "=? AND "
+                + AlarmEventContract.EXTRA_ALARM_REPEAT + "=? AND "
+                + AlarmEventContract.EXTRA_ALARM_REPEAT_DAYS + "=?";
+
+        if (location != null)
+        {
+            selectionArgs = new String[] { Long.toString(nowMillis), Long.toString(offset), Boolean.toString(repeating), repeatingDaysString.toString(),
+                    location.getLatitude(), location.getLongitude(), location.getAltitude() };
+            selection += " AND "
+                    + CalculatorProviderContract.COLUMN_CONFIG_LATITUDE + "=? AND "
+                    + CalculatorProviderContract.COLUMN_CONFIG_LONGITUDE + "=? AND "
+                    + CalculatorProviderContract.COLUMN_CONFIG_ALTITUDE + "=?";
+        }
+        return new Query(uri_calc, selection, selectionArgs, offset, now);
+    }
+
+    /**
+     * Queries the add-on on the shared executor (or returns a cached result immediately).
+     * @return a Future with the event time (or null if the query failed)
+     */
+    public static Future<Calendar> queryAsync(@Nullable final ContentResolver resolver, @NonNull final Query query)
+    {
+        final Calendar cached = getCached(query);
+        if (cached != null)
+        {
+            FutureTask<Calendar> task = new FutureTask<>(new Callable<Calendar>() {
+                public Calendar call() {
+                    return cached;
+                }
+            });
+            task.run();    // already done
+            return task;
+        }
+
+        return ExecutorUtils.submit(new Callable<Calendar>()
+        {
+            public Calendar call()
+            {
+                Calendar result = AlarmNotifications.queryAddonAlarmTime(resolver, query.uri, query.selection, query.selectionArgs, query.offset, query.now);
+                if (result != null) {
+                    putCached(query, result);
+                }
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Queries the add-on (blocking until the result is available, or the timeout has passed).
+     * @return the event time, or null if the query failed
+     */
+    @Nullable
+    public static Calendar query(@Nullable ContentResolver resolver, @NonNull Query query, long timeoutAfter)
+    {
+        Calendar cached = getCached(query);
+        return (cached != null ? cached : ExecutorUtils.getResult(TAG, queryAsync(resolver, query), timeoutAfter));
+    }
+
+    /**
+     * Resolves several queries concurrently; the results are added to the cache (then read with `query`).
+     * @param timeoutAfter the time allowed for each authority
+     */
+    public static void prefetch(@Nullable ContentResolver resolver, @NonNull List<Query> queries, long timeoutAfter)
+    {
+        if (queries.isEmpty()) {
+            return;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        LinkedHashMap<String, List<Query>> byAuthority = new LinkedHashMap<>();
+        for (Query query : queries)
+        {
+            String authority = query.getAuthority();
+            List<Query> list = byAuthority.get(authority);
+            if (list == null) {
+                byAuthority.put(authority, list = new ArrayList<>());
+            }
+            list.add(query);
+        }
+
+        HashMap<String, Long> deadlines = new HashMap<>();
+        HashMap<String, List<Future<Calendar>>> tasks = new HashMap<>();
+        for (Map.Entry<String, List<Query>> entry : byAuthority.entrySet())
+        {
+            List<Future<Calendar>> list = new ArrayList<>();
+            deadlines.put(entry.getKey(), System.currentTimeMillis() + timeoutAfter);    // per authority; its tasks start when submitted (@see ExecutorUtils)
+            for (Query query : entry.getValue()) {
+                list.add(queryAsync(resolver, query));
+            }
+            tasks.put(entry.getKey(), list);
+        }
+
+        for (Map.Entry<String, List<Future<Calendar>>> entry : tasks.entrySet())
+        {
+            long deadline = deadlines.get(entry.getKey());
+            for (Future<Calendar> task : entry.getValue()) {
+                ExecutorUtils.getResult(TAG, task, deadline - System.currentTimeMillis());
+            }
+        }
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "prefetch: " + queries.size() + " queries (" + tasks.size() + " authorities) took " + (System.currentTimeMillis() - startedAt) + "ms");
+        }
+    }
+
+    /**
+     * CacheEntry
+     */
+    protected static final class CacheEntry
+    {
+        public final long queriedAt;    // query "now" (millis)
+        public final long createdAt;    // System.currentTimeMillis
+        public final long eventTime;
+
+        public CacheEntry(long queriedAt, long eventTime)
+        {
+            this.queriedAt = queriedAt;
+            this.createdAt = System.currentTimeMillis();
+            this.eventTime = eventTime;
+        }
+    }
+
+    private static final LinkedHashMap<String, CacheEntry> cache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * @return the cached event (a copy), or null if not cached (or no longer valid for the query's "now")
+     */
+    @Nullable
+    protected static Calendar getCached(@NonNull Query query)
+    {
+        CacheEntry entry;
+        synchronized (cache) {
+            entry = cache.get(query.cacheKey());
+        }
+        if (entry != null)
+        {
+            long nowMillis = query.now.getTimeInMillis();
+            boolean isValid = (System.currentTimeMillis() - entry.createdAt) < CACHE_MS
+                    && entry.queriedAt <= nowMillis
+                    && (entry.eventTime + query.offset) >= nowMillis;
+            if (isValid)
+            {
+                Calendar eventTime = Calendar.getInstance();
+                eventTime.setTimeInMillis(entry.eventTime);
+                return eventTime;
+            }
+        }
+        return null;
+    }
+
+    protected static void putCached(@NonNull Query query, @NonNull Calendar eventTime)
+    {
+        synchronized (cache) {
+            cache.put(query.cacheKey(), new CacheEntry(query.now.getTimeInMillis(), eventTime.getTimeInMillis()));
+        }
+    }
+
+    public static void clearCache()
+    {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+}
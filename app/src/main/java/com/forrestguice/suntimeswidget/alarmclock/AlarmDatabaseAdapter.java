@@ -470,6 +470,33 @@ public class AlarmDatabaseAdapter
         return database.update(TABLE_ALARMSTATE, values, KEY_STATE_ALARMID + "=" + row, null) > 0;
     }
 
+    /**
+     * Updates several alarms (and their state) within a single transaction.
+     * @param items alarms to update
+     * @param withState true also update the alarm state
+     * @return true if every alarm was updated
+     */
+    public boolean updateAlarms(@NonNull AlarmClockItem[] items, boolean withState)
+    {
+        boolean updated = true;
+        database.beginTransaction();
+        try {
+            for (AlarmClockItem item : items)
+            {
+                boolean itemUpdated = updateAlarm(item.rowID, item.asContentValues(false));
+                if (itemUpdated && withState && item.state != null) {
+                    updateAlarmState(item.rowID, item.state.asContentValues());
+                }
+                updated = updated && itemUpdated;
+            }
+            database.setTransactionSuccessful();
+
+        } finally {
+            database.endTransaction();
+        }
+        return updated;
+    }
+
     public String addAlarmCSV_header()
     {
         String separator = ", ";
@@ -44,7 +44,6 @@ import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -759,47 +758,20 @@ public class AlarmEventProvider extends ContentProvider
     }
 
     @Nullable
-    public static Calendar updateAlarmTime_sunElevationEvent(Context context, @NonNull SunElevationEvent event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now)
+    public static Calendar updateAlarmTime_sunElevationEvent(Context context, @NonNull final SunElevationEvent event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now)
     {
-        SuntimesRiseSetData sunData = getData_sunElevationEvent(context, event.getAngle(), event.getOffset(), location);
-
-        Calendar alarmTime = Calendar.getInstance();
-        Calendar eventTime;
-
-        Calendar day = Calendar.getInstance();
-        sunData.setTodayIs(day);
-        sunData.calculate();
-        eventTime = (event.isRising() ? sunData.sunriseCalendarToday() : sunData.sunsetCalendarToday());
-        if (eventTime != null)
-        {
-            eventTime.set(Calendar.SECOND, 0);
-            alarmTime.setTimeInMillis(eventTime.getTimeInMillis() + offset);
-        }
-
-        int c = 0;
-        Set<Long> timestamps = new HashSet<>();
-        while (now.after(alarmTime)
-                || eventTime == null
-                || (repeating && !repeatingDays.contains(eventTime.get(Calendar.DAY_OF_WEEK))))
+        final SuntimesRiseSetData sunData = getData_sunElevationEvent(context, event.getAngle(), event.getOffset(), location);
+        AlarmEventSearch search = new AlarmEventSearch(new AlarmEventSearch.DayEvent()
         {
-            if (!timestamps.add(alarmTime.getTimeInMillis()) && c > 365) {
-                Log.e(AlarmNotifications.TAG, "updateAlarmTime: encountered same timestamp twice! (breaking loop)");
-                return null;
-            }
-
-            Log.w(AlarmNotifications.TAG, "updateAlarmTime: sunElevationEvent advancing by 1 day..");
-            day.add(Calendar.DAY_OF_YEAR, 1);
-            sunData.setTodayIs(day);
-            sunData.calculate();
-            eventTime = (event.isRising() ? sunData.sunriseCalendarToday() : sunData.sunsetCalendarToday());
-            if (eventTime != null)
+            @Override
+            public Calendar getEvent(@NonNull Calendar day)
             {
-                eventTime.set(Calendar.SECOND, 0);
-                alarmTime.setTimeInMillis(eventTime.getTimeInMillis() + offset);
+                sunData.setTodayIs(day);
+                sunData.calculate();
+                return (event.isRising() ? sunData.sunriseCalendarToday() : sunData.sunsetCalendarToday());
             }
-            c++;
-        }
-        return eventTime;
+        }).setPolarBounds(new AlarmEventSearch.PolarBounds(location.getLatitudeAsDouble(), event.getAngle()));
+        return AlarmNotifications.findNextEvent("sunElevationEvent", search, now, offset, repeating, repeatingDays);
     }
 
     private static SuntimesRiseSetData getData_sunElevationEvent(Context context, double angle, int offset, @NonNull Location location)
@@ -934,52 +906,22 @@ public class AlarmEventProvider extends ContentProvider
         }
     }
 
-    public static Calendar updateAlarmTime_shadowLengthEvent(Context context, @NonNull ShadowLengthEvent event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now)
+    public static Calendar updateAlarmTime_shadowLengthEvent(Context context, @NonNull final ShadowLengthEvent event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now)
     {
         SuntimesClockData data = getData_shadowLengthEvent(context, location);
         data.initCalculator(context);
-        SuntimesCalculator calculator = data.calculator();
+        final SuntimesCalculator calculator = data.calculator();
 
-        Calendar alarmTime = Calendar.getInstance();
-        Calendar eventTime = null;
-
-        Calendar day = Calendar.getInstance();
-        data.setTodayIs(day);
-        data.calculate();
-
-        eventTime = (event.isRising() ? calculator.getTimeOfShadowBeforeNoon(day, event.getObjHeight(), event.getLength())
-                                      : calculator.getTimeOfShadowAfterNoon(day, event.getObjHeight(), event.getLength()));
-        if (eventTime != null)
-        {
-            eventTime.set(Calendar.SECOND, 0);
-            alarmTime.setTimeInMillis(eventTime.getTimeInMillis() + offset);
-        }
-
-        int c = 0;
-        Set<Long> timestamps = new HashSet<>();
-        while (now.after(alarmTime)
-                || eventTime == null
-                || (repeating && !repeatingDays.contains(eventTime.get(Calendar.DAY_OF_WEEK))))
+        AlarmEventSearch search = new AlarmEventSearch(new AlarmEventSearch.DayEvent()
         {
-            if (!timestamps.add(alarmTime.getTimeInMillis()) && c > 365) {
-                Log.e(AlarmNotifications.TAG, "updateAlarmTime: encountered same timestamp twice! (breaking loop)");
-                return null;
-            }
-
-            Log.w(AlarmNotifications.TAG, "updateAlarmTime: shadowLengthEvent advancing by 1 day..");
-            day.add(Calendar.DAY_OF_YEAR, 1);
-            data.setTodayIs(day);
-            data.calculate();
-            eventTime = (event.isRising() ? calculator.getTimeOfShadowBeforeNoon(day, event.getObjHeight(), event.getLength())
-                                          : calculator.getTimeOfShadowAfterNoon(day, event.getObjHeight(), event.getLength()));
-            if (eventTime != null)
+            @Override
+            public Calendar getEvent(@NonNull Calendar day)
             {
-                eventTime.set(Calendar.SECOND, 0);
-                alarmTime.setTimeInMillis(eventTime.getTimeInMillis() + offset);
+                return (event.isRising() ? calculator.getTimeOfShadowBeforeNoon(day, event.getObjHeight(), event.getLength())
+                                         : calculator.getTimeOfShadowAfterNoon(day, event.getObjHeight(), event.getLength()));
             }
-            c++;
-        }
-        return eventTime;
+        }).setPolarBounds(new AlarmEventSearch.PolarBounds(location.getLatitudeAsDouble(), event.getAngle()));
+        return AlarmNotifications.findNextEvent("shadowLengthEvent", search, now, offset, repeating, repeatingDays);
     }
 
     private static SuntimesClockData getData_shadowLengthEvent(Context context, @NonNull Location location)
@@ -0,0 +1,252 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.alarmclock;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * AlarmEventSearch
+ * Finds the next day an event alarm should ring; rather than advancing one day at a time it jumps directly to
+ * the next allowed weekday (repeatingDays as a bitmask), fast-forwards over days that are already in the past,
+ * and skips whole ranges of polar day/night where an elevation is never crossed (@see PolarBounds).
+ */
+public class AlarmEventSearch
+{
+    public static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    public static final int MAX_ITERATIONS = 400;    // calculations before giving up (there is no event)
+    public static final int MAX_DAYS = 2 * 366;      // days searched before giving up
+
+    public static final int EVERYDAY = 0x7f;         // bit (dayOfWeek - 1) for each Calendar.SUNDAY .. Calendar.SATURDAY
+
+    /**
+     * DayEvent
+     */
+    public interface DayEvent
+    {
+        /**
+         * @param day the day to calculate
+         * @return the event on the given day, or null if there is no event
+         */
+        @Nullable
+        Calendar getEvent(@NonNull Calendar day);
+    }
+
+    /**
+     * Metrics
+     */
+    public static final class Metrics
+    {
+        public int iterations = 0;         // number of loop iterations
+        public int calculations = 0;       // number of days calculated (calls to DayEvent)
+        public int daysSkipped = 0;        // days skipped without calculating them
+        public boolean exhausted = false;  // true if the search gave up
+
+        @Override
+        public String toString() {
+            return "iterations: " + iterations + ", calculations: " + calculations + ", skipped: " + daysSkipped + (exhausted ? " (exhausted)" : "");
+        }
+    }
+
+    protected final DayEvent dayEvent;
+    protected PolarBounds bounds = null;
+    protected long maxDriftMillis = 60 * 60 * 1000;
+
+    public AlarmEventSearch(@NonNull DayEvent dayEvent) {
+        this.dayEvent = dayEvent;
+    }
+
+    /**
+     * @param bounds used to skip days that can't have an event (or null to calculate every day)
+     */
+    public AlarmEventSearch setPolarBounds(@Nullable PolarBounds bounds)
+    {
+        this.bounds = bounds;
+        return this;
+    }
+
+    /**
+     * @param millis the most an event may shift from one day to the next; days that are already past are only fast-forwarded
+     *               when this is less than a day (moon events drift too much, and should use DAY_MILLIS).
+     */
+    public AlarmEventSearch setMaxDrift(long millis)
+    {
+        this.maxDriftMillis = millis;
+        return this;
+    }
+
+    /**
+     * @param day the first day to search (not modified)
+     * @param now the alarm should be after this time
+     * @param offset alarm offset (millis)
+     * @param repeating true the alarm is only allowed on repeatingDays
+     * @param repeatingDays Calendar.SUNDAY .. Calendar.SATURDAY (null or empty is everyday)
+     * @param metrics (optional) collects iteration counts
+     * @return the next event (seconds cleared), or null if there is no event
+     */
+    @Nullable
+    public Calendar findNext(@NonNull Calendar day, @NonNull Calendar now, long offset, boolean repeating, @Nullable List<Integer> repeatingDays, @Nullable Metrics metrics)
+    {
+        if (metrics == null) {
+            metrics = new Metrics();
+        }
+
+        int mask = (repeating ? daysMask(repeatingDays) : EVERYDAY);
+        long nowMillis = now.getTimeInMillis();
+        Calendar d = (Calendar) day.clone();
+        int days = 0;
+
+        while (metrics.calculations < MAX_ITERATIONS && days < MAX_DAYS)
+        {
+            metrics.iterations++;
+            int advance = 1;
+
+            int polarDays = (bounds != null ? bounds.daysWithoutEvent(d) : 0);
+            if (polarDays > 0)
+            {
+                metrics.daysSkipped += polarDays;
+                advance = polarDays;
+
+            } else {
+                metrics.calculations++;
+                Calendar eventTime = dayEvent.getEvent(d);
+                if (eventTime != null)
+                {
+                    eventTime.set(Calendar.SECOND, 0);
+                    long alarmMillis = eventTime.getTimeInMillis() + offset;
+                    boolean isPast = (alarmMillis < nowMillis);
+                    int untilAllowed = daysUntilAllowed(eventTime.get(Calendar.DAY_OF_WEEK), mask);
+
+                    if (!isPast && untilAllowed == 0) {
+                        return eventTime;
+                    }
+                    if (isPast && maxDriftMillis < DAY_MILLIS) {
+                        advance = Math.max(advance, (int) ((nowMillis - alarmMillis) / (DAY_MILLIS + maxDriftMillis)));
+                    }
+                    advance = Math.max(advance, untilAllowed);
+                    metrics.daysSkipped += (advance - 1);
+                }
+            }
+
+            d.add(Calendar.DAY_OF_YEAR, advance);
+            days += advance;
+        }
+        metrics.exhausted = true;
+        return null;
+    }
+
+    /**
+     * @param repeatingDays Calendar.SUNDAY .. Calendar.SATURDAY
+     * @return a bitmask with bit (dayOfWeek - 1) set for each day; null or empty is EVERYDAY
+     */
+    public static int daysMask(@Nullable List<Integer> repeatingDays)
+    {
+        if (repeatingDays == null || repeatingDays.isEmpty()) {
+            return EVERYDAY;
+        }
+        int mask = 0;
+        for (Integer dayOfWeek : repeatingDays)
+        {
+            if (dayOfWeek != null && dayOfWeek >= Calendar.SUNDAY && dayOfWeek <= Calendar.SATURDAY) {
+                mask |= (1 << (dayOfWeek - 1));
+            }
+        }
+        return (mask != 0 ? mask : EVERYDAY);
+    }
+
+    /**
+     * @param dayOfWeek Calendar.SUNDAY .. Calendar.SATURDAY
+     * @param mask @see daysMask
+     * @return days until the next allowed day (0 if dayOfWeek is allowed), 0 .. 6
+     */
+    public static int daysUntilAllowed(int dayOfWeek, int mask)
+    {
+        mask &= EVERYDAY;
+        if (mask == 0) {
+            return 0;
+        }
+        int i = dayOfWeek - 1;
+        for (int n = 0; n < 7; n++)
+        {
+            if ((mask & (1 << ((i + n) % 7))) != 0) {
+                return n;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * PolarBounds
+     * Estimates when the sun can't cross a given elevation (polar day or night) from the latitude and a closed-form
+     * solar declination; the sun's elevation is bounded by 90 - |lat - dec| (at noon) and -90 + |lat + dec| (at midnight).
+     * The estimate is conservative (a margin is added to the elevation, and ranges end a few days early).
+     */
+    public static final class PolarBounds
+    {
+        public static final double MARGIN_DEGREES = 2;
+        public static final int MARGIN_DAYS = 2;
+
+        protected final double latitude;
+        protected final double elevation;
+
+        /**
+         * @param latitude degrees
+         * @param elevation the elevation the event crosses (degrees)
+         */
+        public PolarBounds(double latitude, double elevation)
+        {
+            this.latitude = latitude;
+            this.elevation = elevation;
+        }
+
+        /**
+         * @return the number of days (starting with the given day) that can't have an event; 0 if the day may have an event
+         */
+        public int daysWithoutEvent(@NonNull Calendar day)
+        {
+            int dayOfYear = day.get(Calendar.DAY_OF_YEAR) - 1;
+            int n = 0;
+            while (n <= 366 && !isCrossed(latitude, declination(dayOfYear + n), elevation, MARGIN_DEGREES)) {
+                n++;
+            }
+            return Math.max(0, n - MARGIN_DAYS);
+        }
+
+        /**
+         * @param dayOfYear 0 .. 365
+         * @return approximate solar declination (degrees)
+         */
+        public static double declination(int dayOfYear) {
+            return -23.44 * Math.cos(Math.toRadians((360d / 365d) * (dayOfYear + 10)));
+        }
+
+        /**
+         * @return true if the sun might cross the given elevation on a day with the given declination
+         */
+        public static boolean isCrossed(double latitude, double declination, double elevation, double margin)
+        {
+            double maxElevation = 90 - Math.abs(latitude - declination);
+            double minElevation = -90 + Math.abs(latitude + declination);
+            return (elevation < maxElevation + margin) && (elevation > minElevation - margin);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.alarmclock;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.forrestguice.suntimeswidget.calculator.SuntimesCalculatorDescriptor;
+import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData;
+import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.settings.SolarEvents;
+import com.forrestguice.suntimeswidget.settings.WidgetSettings;
+
+import java.util.Calendar;
+import java.util.HashMap;
+
+/**
+ * AlarmEventWindow
+ * Sun and moon events shared by a batch of alarms (@see AlarmScheduleBatch). Alarms are grouped by (location, calculator);
+ * each group has a single dataset (per time mode), and each day in the group's window is calculated once (the results
+ * are shared by every alarm in the group).
+ *
+ * Not thread-safe; a window is used by a single (background) thread, and discarded at the end of the batch.
+ */
+public class AlarmEventWindow
+{
+    private static final SolarEvents[] MOON_EVENTS = new SolarEvents[] { SolarEvents.MOONRISE, SolarEvents.MOONSET, SolarEvents.MOONNOON, SolarEvents.MOONNIGHT };
+
+    protected final String sunCalculator, moonCalculator;
+    protected final HashMap<String, SuntimesRiseSetData> sunData = new HashMap<>();    // group + timeMode
+    protected final HashMap<String, SuntimesMoonData> moonData = new HashMap<>();      // group
+    protected final HashMap<String, Calendar[]> days = new HashMap<>();                // group + timeMode + day
+
+    protected int calculations = 0, lookups = 0;
+
+    public AlarmEventWindow(@NonNull Context context)
+    {
+        SuntimesCalculatorDescriptor sunDescriptor = WidgetSettings.loadCalculatorModePref(context, 0);
+        SuntimesCalculatorDescriptor moonDescriptor = WidgetSettings.loadCalculatorModePref(context, 0, "moon");
+        sunCalculator = (sunDescriptor != null ? sunDescriptor.getName() : "");
+        moonCalculator = (moonDescriptor != null ? moonDescriptor.getName() : "");
+    }
+
+    /**
+     * @param event a sun event (SolarEvents.TYPE_SUN)
+     * @return the event on the given day (a copy), or null if there is no event
+     */
+    @Nullable
+    public Calendar sunEvent(@NonNull Context context, @NonNull SolarEvents event, @NonNull Location location, @NonNull Calendar day)
+    {
+        WidgetSettings.TimeMode timeMode = event.toTimeMode();
+        if (timeMode == null) {
+            timeMode = WidgetSettings.TimeMode.OFFICIAL;
+        }
+
+        String group = groupKey(sunCalculator, location) + "_" + timeMode.name();
+        String key = group + "@" + dayKey(day);
+        lookups++;
+
+        Calendar[] events = days.get(key);
+        if (events == null)
+        {
+            SuntimesRiseSetData data = sunData.get(group);
+            if (data == null)
+            {
+                data = new SuntimesRiseSetData(context, 0);
+                data.setLocation(location);
+                data.setTimeMode(timeMode);
+                sunData.put(group, data);
+            }
+            data.setTodayIs(day);
+            data.calculate();
+            calculations++;
+
+            events = new Calendar[] { data.sunriseCalendarToday(), data.sunsetCalendarToday() };
+            days.put(key, events);
+        }
+        return copy(events[event.isRising() ? 0 : 1]);
+    }
+
+    /**
+     * @param event a moon event (SolarEvents.TYPE_MOON)
+     * @return the event on the given day (a copy), or null if there is no event
+     */
+    @Nullable
+    public Calendar moonEvent(@NonNull Context context, @NonNull SolarEvents event, @NonNull Location location, @NonNull Calendar day)
+    {
+        String group = groupKey(moonCalculator, location);
+        String key = group + "_moon@" + dayKey(day);
+        lookups++;
+
+        Calendar[] events = days.get(key);
+        if (events == null)
+        {
+            SuntimesMoonData data = moonData.get(group);
+            if (data == null)
+            {
+                data = AlarmNotifications.getData_moonEvent(context, location);
+                moonData.put(group, data);
+            }
+            data.setTodayIs(day);
+            data.calculate();
+            calculations++;
+
+            events = new Calendar[MOON_EVENTS.length];
+            for (int i=0; i<MOON_EVENTS.length; i++) {
+                events[i] = AlarmNotifications.moonEventCalendar(MOON_EVENTS[i], data, true);
+            }
+            days.put(key, events);
+        }
+
+        for (int i=0; i<MOON_EVENTS.length; i++)
+        {
+            if (MOON_EVENTS[i] == event) {
+                return copy(events[i]);
+            }
+        }
+        return copy(events[1]);    // moonEventCalendar defaults to moonset
+    }
+
+    public int numCalculations() {
+        return calculations;
+    }
+
+    public int numLookups() {
+        return lookups;
+    }
+
+    public int numGroups() {
+        return sunData.size() + moonData.size();
+    }
+
+    @Override
+    public String toString() {
+        return "groups: " + numGroups() + ", lookups: " + lookups + ", calculations: " + calculations;
+    }
+
+    protected static String groupKey(String calculator, @NonNull Location location) {
+        return calculator + "_" + location.getLatitude() + "_" + location.getLongitude() + "_" + location.getAltitude();
+    }
+
+    protected static String dayKey(@NonNull Calendar day) {
+        return day.get(Calendar.YEAR) + "_" + day.get(Calendar.DAY_OF_YEAR);
+    }
+
+    @Nullable
+    private static Calendar copy(@Nullable Calendar calendar) {
+        return (calendar != null ? (Calendar) calendar.clone() : null);
+    }
+}
@@ -67,7 +67,6 @@ import android.view.View;
 import com.forrestguice.suntimeswidget.BuildConfig;
 import com.forrestguice.suntimeswidget.alarmclock.bedtime.BedtimeActivity;
 import com.forrestguice.suntimeswidget.alarmclock.bedtime.BedtimeSettings;
-import com.forrestguice.suntimeswidget.views.ExecutorUtils;
 import com.forrestguice.suntimeswidget.views.Toast;
 
 import com.forrestguice.suntimeswidget.R;
@@ -80,7 +79,6 @@ import com.forrestguice.suntimeswidget.calculator.SuntimesData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesEquinoxSolsticeData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
-import com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.settings.SolarEvents;
@@ -96,7 +94,6 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.TimeZone;
-import java.util.concurrent.Callable;
 
 public class AlarmNotifications extends BroadcastReceiver
 {
@@ -2030,23 +2027,60 @@ public class AlarmNotifications extends BroadcastReceiver
                             observer.notify(item.rowID);
                         }
                     };
-                    for (long id : ids) {
-                        AlarmDatabaseAdapter.AlarmItemTask itemTask = new AlarmDatabaseAdapter.AlarmItemTask(getApplicationContext());
-                        itemTask.addAlarmItemTaskListener(new AlarmDatabaseAdapter.AlarmItemTaskListener() {
-                            @Override
-                            public void onFinished(Boolean result, final AlarmClockItem item)
+
+                    AlarmScheduleBatch.AlarmRescheduleTask rescheduleTask = new AlarmScheduleBatch.AlarmRescheduleTask(getApplicationContext(), filter);
+                    rescheduleTask.setTaskListener(new AlarmScheduleBatch.AlarmRescheduleTaskListener()
+                    {
+                        @Override
+                        public void onFinished(AlarmScheduleBatch.Result[] results)
+                        {
+                            Context context = getApplicationContext();
+                            for (AlarmScheduleBatch.Result result : results)
                             {
-                                if (filter == null || filter.passesFilter(item)) {
-                                    createAlarmOnReceiveListener(getApplicationContext(), startId, AlarmNotifications.ACTION_RESCHEDULE, notifyObserver).onFinished(result, item);
-                                } else notifyObserver.onFinished(false, item);
+                                if (!onRescheduled(context, startId, result, notifyObserver)) {
+                                    observer.notify(result.rowID);
+                                }
                             }
-                        });
-                        itemTask.execute(id);
-                    }
+                        }
+                    });
+                    rescheduleTask.execute(ids);
                 }
             };
         }
 
+        /**
+         * Finishes rescheduling an item (after the batch was saved); the same as ACTION_RESCHEDULE.
+         * @return true if chained is called when finished, false if the item is already finished
+         */
+        private boolean onRescheduled(Context context, int startId, @NonNull AlarmScheduleBatch.Result result, @NonNull AlarmDatabaseAdapter.AlarmItemTaskListener chained)
+        {
+            AlarmClockItem item = result.item;
+            if (item != null && result.result != AlarmScheduleBatch.RESULT_SKIPPED) {
+                cancelAlarmTimeouts(context, item);
+            }
+
+            switch (result.result)
+            {
+                case AlarmScheduleBatch.RESULT_SCHEDULED:
+                    onScheduledState(context, startId, item, chained).onFinished(true, item);
+                    return true;
+
+                case AlarmScheduleBatch.RESULT_FAILED:    // failed to schedule; this alarm needs to be disabled (prevent alarm loop)
+                    Log.d(TAG, "Disabling: " + item.rowID);
+                    sendBroadcast(getAlarmIntent(context, ACTION_DISABLE, item.getUri()));
+                    return false;
+
+                case AlarmScheduleBatch.RESULT_DISMISS:    // disabled; this alarm should have been dismissed
+                    Log.d(TAG, "Dismissing: " + item.rowID);
+                    sendBroadcast(getAlarmIntent(context, ACTION_DISMISS, item.getUri()));
+                    return false;
+
+                case AlarmScheduleBatch.RESULT_SKIPPED:
+                default:
+                    return false;
+            }
+        }
+
         private final AlarmDatabaseAdapter.AlarmListTask.AlarmListTaskListener clearTaskListener = new AlarmDatabaseAdapter.AlarmListTask.AlarmListTaskListener()
         {
             @Override
@@ -2238,30 +2272,11 @@ public class AlarmNotifications extends BroadcastReceiver
                                     Log.i(TAG, "Scheduling: " + item.rowID + " already has a valid alarmTime! (skipped call to updateAlarmTime)");
                                 }
 
-                                int nextState = AlarmState.STATE_SCHEDULED_DISTANT;
-                                AlarmDatabaseAdapter.AlarmItemTaskListener onScheduledState;
-                                if (item.type == AlarmClockItem.AlarmType.ALARM)
-                                {
-                                    long reminderWithin = item.getFlag(AlarmClockItem.FLAG_REMINDER_WITHIN, AlarmSettings.loadPrefAlarmUpcoming(context));
-                                    boolean verySoon = (((item.alarmtime - now) < reminderWithin) || reminderWithin <= 0);
-                                    nextState = (verySoon ? AlarmState.STATE_SCHEDULED_SOON : AlarmState.STATE_SCHEDULED_DISTANT);
-                                    if (verySoon)
-                                    {
-                                        Log.i(TAG, "Scheduling: " + item.rowID + " :: very soon");
-                                        onScheduledState = onScheduledSoonState(context, startId, chained);
-                                    } else {
-                                        Log.i(TAG, "Scheduling: " + item.rowID + " :: distant");
-                                        onScheduledState = onScheduledDistantState(context, startId, chained);
-                                    }
-                                } else {
-                                    Log.i(TAG, "Scheduling: " + item.rowID);
-                                    onScheduledState = onScheduledNotification(context, startId, chained);
-                                }
-
+                                int nextState = scheduledState(context, item, now);
                                 if (AlarmState.transitionState(item.state, nextState))
                                 {
                                     AlarmDatabaseAdapter.AlarmUpdateTask updateItem = new AlarmDatabaseAdapter.AlarmUpdateTask(context);
-                                    updateItem.setTaskListener(onScheduledState);
+                                    updateItem.setTaskListener(onScheduledState(context, startId, item, chained));
                                     updateItem.execute(item);  // write state
                                 }
                             } else notifications.stopSelf(startId);
@@ -2542,6 +2557,28 @@ public class AlarmNotifications extends BroadcastReceiver
             };
         }
 
+        /**
+         * @return a listener that finishes scheduling the item (after its scheduled state is saved)
+         */
+        private AlarmDatabaseAdapter.AlarmItemTaskListener onScheduledState(final Context context, final int startId, @NonNull AlarmClockItem item, @Nullable final AlarmDatabaseAdapter.AlarmItemTaskListener chained)
+        {
+            if (item.type == AlarmClockItem.AlarmType.ALARM)
+            {
+                int state = (item.state != null ? item.state.getState() : scheduledState(context, item, Calendar.getInstance().getTimeInMillis()));
+                if (state == AlarmState.STATE_SCHEDULED_SOON)
+                {
+                    Log.i(TAG, "Scheduling: " + item.rowID + " :: very soon");
+                    return onScheduledSoonState(context, startId, chained);
+                } else {
+                    Log.i(TAG, "Scheduling: " + item.rowID + " :: distant");
+                    return onScheduledDistantState(context, startId, chained);
+                }
+            } else {
+                Log.i(TAG, "Scheduling: " + item.rowID);
+                return onScheduledNotification(context, startId, chained);
+            }
+        }
+
         private AlarmDatabaseAdapter.AlarmItemTaskListener onScheduledNotification(final Context context, final int startId, @Nullable final AlarmDatabaseAdapter.AlarmItemTaskListener chained)
         {
             return new AlarmDatabaseAdapter.AlarmItemTaskListener()
@@ -2645,6 +2682,23 @@ public class AlarmNotifications extends BroadcastReceiver
     ///////////////////////////////////////////////////////////////////////////////////////////////
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * @param item an alarm with a valid alarmtime
+     * @param now current time (millis)
+     * @return the state a newly scheduled item should transition to; STATE_SCHEDULED_SOON (alarms within the reminder period),
+     * or STATE_SCHEDULED_DISTANT
+     */
+    public static int scheduledState(Context context, @NonNull AlarmClockItem item, long now)
+    {
+        if (item.type == AlarmClockItem.AlarmType.ALARM)
+        {
+            long reminderWithin = item.getFlag(AlarmClockItem.FLAG_REMINDER_WITHIN, AlarmSettings.loadPrefAlarmUpcoming(context));
+            boolean verySoon = (((item.alarmtime - now) < reminderWithin) || reminderWithin <= 0);
+            return (verySoon ? AlarmState.STATE_SCHEDULED_SOON : AlarmState.STATE_SCHEDULED_DISTANT);
+        }
+        return AlarmState.STATE_SCHEDULED_DISTANT;
+    }
+
     /**
      * updateAlarmTime
      * @param item AlarmClockItem
@@ -2653,7 +2707,14 @@ public class AlarmNotifications extends BroadcastReceiver
     public static boolean updateAlarmTime(Context context, final AlarmClockItem item) {
         return updateAlarmTime(context, item, Calendar.getInstance(), true);
     }
-    public static boolean updateAlarmTime(Context context, final AlarmClockItem item, Calendar now, boolean modifyItem)
+    public static boolean updateAlarmTime(Context context, final AlarmClockItem item, Calendar now, boolean modifyItem) {
+        return updateAlarmTime(context, item, now, modifyItem, null);
+    }
+
+    /**
+     * @param window (optional) sun and moon events shared with other alarms (@see AlarmScheduleBatch)
+     */
+    public static boolean updateAlarmTime(Context context, final AlarmClockItem item, Calendar now, boolean modifyItem, @Nullable AlarmEventWindow window)
     {
         Calendar eventTime = null;
         boolean modifyHourMinute = true;
@@ -2667,7 +2728,7 @@ public class AlarmNotifications extends BroadcastReceiver
 
         if (item.location != null && event != null)
         {
-            eventTime = updateAlarmTime_solarEvent(context, event, item.location, item.offset, item.repeating, repeatingDays, now);
+            eventTime = updateAlarmTime_solarEvent(context, event, item.location, item.offset, item.repeating, repeatingDays, now, window);
 
         } else if (eventID != null) {
             eventTime = updateAlarmTime_addonEvent(context, context.getContentResolver(), eventID, item.location, item.offset, item.repeating, repeatingDays, now);
@@ -2695,13 +2756,18 @@ public class AlarmNotifications extends BroadcastReceiver
     }
 
     @Nullable
-    protected static Calendar updateAlarmTime_solarEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, @NonNull ArrayList<Integer> repeatingDays, @NonNull Calendar now)
+    protected static Calendar updateAlarmTime_solarEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, @NonNull ArrayList<Integer> repeatingDays, @NonNull Calendar now) {
+        return updateAlarmTime_solarEvent(context, event, location, offset, repeating, repeatingDays, now, null);
+    }
+
+    @Nullable
+    protected static Calendar updateAlarmTime_solarEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, @NonNull ArrayList<Integer> repeatingDays, @NonNull Calendar now, @Nullable AlarmEventWindow window)
     {
         Calendar eventTime = null;
         switch (event.getType())
         {
             case SolarEvents.TYPE_MOON:
-                eventTime = updateAlarmTime_moonEvent(context, event, location, offset, repeating, repeatingDays, now);
+                eventTime = updateAlarmTime_moonEvent(context, event, location, offset, repeating, repeatingDays, now, window);
                 break;
 
             case SolarEvents.TYPE_MOONPHASE:
@@ -2713,113 +2779,89 @@ public class AlarmNotifications extends BroadcastReceiver
                 break;
 
             case SolarEvents.TYPE_SUN:
-                eventTime = updateAlarmTime_sunEvent(context, event, location, offset, repeating, repeatingDays, now);
+                eventTime = updateAlarmTime_sunEvent(context, event, location, offset, repeating, repeatingDays, now, window);
                 break;
         }
         return eventTime;
     }
 
     @Nullable
-    protected static Calendar updateAlarmTime_sunEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, @NonNull ArrayList<Integer> repeatingDays, @NonNull Calendar now)
+    protected static Calendar updateAlarmTime_sunEvent(Context context, @NonNull final SolarEvents event, @NonNull Location location, long offset, boolean repeating, @NonNull ArrayList<Integer> repeatingDays, @NonNull Calendar now) {
+        return updateAlarmTime_sunEvent(context, event, location, offset, repeating, repeatingDays, now, null);
+    }
+
+    @Nullable
+    protected static Calendar updateAlarmTime_sunEvent(final Context context, @NonNull final SolarEvents event, @NonNull final Location location, long offset, boolean repeating, @NonNull ArrayList<Integer> repeatingDays, @NonNull Calendar now, @Nullable final AlarmEventWindow window)
     {
         t_updateAlarmTime_runningLoop = true;
-        if (repeatingDays.isEmpty()) {
-            //Log.w(TAG, "updateAlarmTime_sunEvent: empty repeatingDays! using EVERYDAY instead..");
-            repeatingDays = AlarmClockItem.everyday();
-        }
-
-        SuntimesRiseSetData sunData = getData_sunEvent(context, event, location);
-
-        Calendar alarmTime = Calendar.getInstance();
-        Calendar eventTime;
-
-        Calendar day = Calendar.getInstance();
-        sunData.setTodayIs(day);
-        sunData.calculate();
-        eventTime = (event.isRising() ? sunData.sunriseCalendarToday() : sunData.sunsetCalendarToday());
-        if (eventTime != null)
+        final SuntimesRiseSetData sunData = (window == null ? getData_sunEvent(context, event, location) : null);
+        AlarmEventSearch search = new AlarmEventSearch(new AlarmEventSearch.DayEvent()
         {
-            eventTime.set(Calendar.SECOND, 0);
-            alarmTime.setTimeInMillis(eventTime.getTimeInMillis() + offset);
-        }
-
-        int c = 0;
-        Set<Long> timestamps = new HashSet<>();
-        while (now.after(alarmTime)
-                || eventTime == null
-                || (repeating && !repeatingDays.contains(eventTime.get(Calendar.DAY_OF_WEEK))))
-        {
-            if (!timestamps.add(alarmTime.getTimeInMillis()) && c > 365) {
-                Log.e(TAG, "updateAlarmTime: encountered same timestamp twice! (breaking loop)");
-                t_updateAlarmTime_brokenLoop = true;
-                t_updateAlarmTime_runningLoop = false;
-                return null;
-            }
-
-            Log.w("AlarmReceiverItem", "updateAlarmTime: sunEvent advancing by 1 day..");
-            day.add(Calendar.DAY_OF_YEAR, 1);
-            sunData.setTodayIs(day);
-            sunData.calculate();
-            eventTime = (event.isRising() ? sunData.sunriseCalendarToday() : sunData.sunsetCalendarToday());
-            if (eventTime != null)
+            @Override
+            public Calendar getEvent(@NonNull Calendar day)
             {
-                eventTime.set(Calendar.SECOND, 0);
-                alarmTime.setTimeInMillis(eventTime.getTimeInMillis() + offset);
+                if (window != null) {
+                    return window.sunEvent(context, event, location, day);
+                }
+                sunData.setTodayIs(day);
+                sunData.calculate();
+                return (event.isRising() ? sunData.sunriseCalendarToday() : sunData.sunsetCalendarToday());
             }
-            c++;
+        });
+
+        WidgetSettings.TimeMode timeMode = event.toTimeMode();
+        if (timeMode != WidgetSettings.TimeMode.NOON)
+        {
+            Double angle = (timeMode != null ? timeMode.angle() : null);
+            search.setPolarBounds(new AlarmEventSearch.PolarBounds(location.getLatitudeAsDouble(), (angle != null ? angle : ANGLE_OFFICIAL)));
         }
+        Calendar eventTime = findNextEvent("sunEvent", search, now, offset, repeating, repeatingDays);
         t_updateAlarmTime_runningLoop = false;
         return eventTime;
     }
 
     @Nullable
-    private static Calendar updateAlarmTime_moonEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, @NonNull ArrayList<Integer> repeatingDays, @NonNull Calendar now)
+    private static Calendar updateAlarmTime_moonEvent(final Context context, @NonNull final SolarEvents event, @NonNull final Location location, long offset, boolean repeating, @NonNull ArrayList<Integer> repeatingDays, @NonNull Calendar now, @Nullable final AlarmEventWindow window)
     {
         t_updateAlarmTime_runningLoop = true;
-        if (repeatingDays.isEmpty()) {
-            //Log.w(TAG, "updateAlarmTime_moonEvent: empty repeatingDays! using EVERYDAY instead..");
-            repeatingDays = AlarmClockItem.everyday();
-        }
+        final SuntimesMoonData moonData = (window == null ? getData_moonEvent(context, location) : null);
+        AlarmEventSearch search = new AlarmEventSearch(new AlarmEventSearch.DayEvent()
+        {
+            @Override
+            public Calendar getEvent(@NonNull Calendar day)
+            {
+                if (window != null) {
+                    return window.moonEvent(context, event, location, day);
+                }
+                moonData.setTodayIs(day);
+                moonData.calculate();
+                return moonEventCalendar(event, moonData, true);
+            }
+        }).setMaxDrift(AlarmEventSearch.DAY_MILLIS);    // moon events shift by ~50m a day (or more)
 
-        SuntimesMoonData moonData = getData_moonEvent(context, location);
+        Calendar eventTime = findNextEvent("moonEvent", search, now, offset, repeating, repeatingDays);
+        t_updateAlarmTime_runningLoop = false;
+        return eventTime;
+    }
 
-        Calendar alarmTime = Calendar.getInstance();
+    public static final double ANGLE_OFFICIAL = -0.833;    // sunrise/sunset (includes refraction)
 
-        Calendar day = Calendar.getInstance();
-        moonData.setTodayIs(day);
-        moonData.calculate();
-        Calendar eventTime = moonEventCalendar(event, moonData, true);
-        if (eventTime != null)
-        {
-            eventTime.set(Calendar.SECOND, 0);
-            alarmTime.setTimeInMillis(eventTime.getTimeInMillis() + offset);
-        }
-        int c = 0;
-        Set<Long> timestamps = new HashSet<>();
-        while (now.after(alarmTime)
-                || eventTime == null
-                || (repeating && !repeatingDays.contains(eventTime.get(Calendar.DAY_OF_WEEK))))
+    /**
+     * Searches for the next event (starting today); empty repeatingDays is treated as everyday.
+     * @return the next event, or null if there is none (sets t_updateAlarmTime_brokenLoop)
+     */
+    @Nullable
+    protected static Calendar findNextEvent(String tag, @NonNull AlarmEventSearch search, @NonNull Calendar now, long offset, boolean repeating, @Nullable ArrayList<Integer> repeatingDays)
+    {
+        AlarmEventSearch.Metrics metrics = new AlarmEventSearch.Metrics();
+        Calendar eventTime = search.findNext(Calendar.getInstance(), now, offset, repeating, repeatingDays, metrics);
+        if (eventTime == null)
         {
-            if (!timestamps.add(alarmTime.getTimeInMillis()) && c > 365) {
-                Log.e(TAG, "updateAlarmTime: encountered same timestamp twice! (breaking loop)");
-                t_updateAlarmTime_brokenLoop = true;
-                t_updateAlarmTime_runningLoop = false;
-                return null;
-            }
-
-            Log.w("AlarmReceiverItem", "updateAlarmTime: moonEvent advancing by 1 day..");
-            day.add(Calendar.DAY_OF_YEAR, 1);
-            moonData.setTodayIs(day);
-            moonData.calculate();
-            eventTime = moonEventCalendar(event, moonData, true);
-            if (eventTime != null)
-            {
-                eventTime.set(Calendar.SECOND, 0);
-                alarmTime.setTimeInMillis(eventTime.getTimeInMillis() + offset);
-            }
-            c++;
+            Log.e(TAG, "updateAlarmTime: " + tag + ": no event found! (" + metrics + ")");
+            t_updateAlarmTime_brokenLoop = true;
+        } else if (BuildConfig.DEBUG) {
+            Log.d(TAG, "updateAlarmTime: " + tag + ": " + metrics);
         }
-        t_updateAlarmTime_runningLoop = false;
         return eventTime;
     }
 
@@ -2933,49 +2975,11 @@ public class AlarmNotifications extends BroadcastReceiver
         }
 
         Log.d(TAG, "updateAlarmTime_addonEvent: eventID: " + eventID + ", offset: " + offset + ", repeating: " + repeating + ", repeatingDays: " + repeatingDays);
-        long nowMillis = now.getTimeInMillis();
-        Uri uri_id = Uri.parse(eventID);
-        Uri uri_calc = Uri.parse(AlarmAddon.getEventCalcUri(uri_id.getAuthority(), uri_id.getLastPathSegment()));
-
-        StringBuilder repeatingDaysString = new StringBuilder("[");
-        if (repeating) {
-            for (int i = 0; i < repeatingDays.size(); i++) {
-                repeatingDaysString.append(repeatingDays.get(i));
-                if (i != repeatingDays.size() - 1) {
-                    repeatingDaysString.append(",");
-                }
-            }
-        }
-        repeatingDaysString.append("]");
-
-        String[] selectionArgs = new String[] { Long.toString(nowMillis), Long.toString(offset), Boolean.toString(repeating), repeatingDaysString.toString() };
-        String selection = AlarmEventContract.EXTRA_ALARM_NOW + "=? AND "
-                + AlarmEventContract.EXTRA_ALARM_OFFSET + "=? AND "
-                + AlarmEventContract.EXTRA_ALARM_REPEAT + "=? AND "
-                + AlarmEventContract.EXTRA_ALARM_REPEAT_DAYS + "=?";
-
-        if (location != null)
-        {
-            selectionArgs = new String[] { Long.toString(nowMillis), Long.toString(offset), Boolean.toString(repeating), repeatingDaysString.toString(),
-                    location.getLatitude(), location.getLongitude(), location.getAltitude() };
-            selection += " AND "
-                    + CalculatorProviderContract.COLUMN_CONFIG_LATITUDE + "=? AND "
-                    + CalculatorProviderContract.COLUMN_CONFIG_LONGITUDE + "=? AND "
-                    + CalculatorProviderContract.COLUMN_CONFIG_ALTITUDE + "=?";
-        }
-        return queryAddonAlarmTimeWithTimeout(resolver, uri_calc, selection, selectionArgs, offset, now, MAX_WAIT_MS);
+        AlarmAddonEvents.Query query = AlarmAddonEvents.createQuery(eventID, location, offset, repeating, repeatingDays, now);
+        return AlarmAddonEvents.query(resolver, query, MAX_WAIT_MS);
     }
 
     public static final long MAX_WAIT_MS = 990;
-    protected static Calendar queryAddonAlarmTimeWithTimeout(@Nullable final ContentResolver resolver, final Uri uri_calc, final String selection, final String[] selectionArgs, final long offset, final Calendar now, long timeoutAfter)
-    {
-        return ExecutorUtils.getResult(TAG, new Callable<Calendar>() {
-            public Calendar call() {
-                return queryAddonAlarmTime(resolver, uri_calc, selection, selectionArgs, offset, now);
-            }
-        }, timeoutAfter);
-    }
-
     protected static Calendar queryAddonAlarmTime(@Nullable ContentResolver resolver, Uri uri_calc, String selection, String[] selectionArgs, long offset, Calendar now)
     {
         if (resolver != null)
@@ -0,0 +1,204 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.alarmclock;
+
+import android.content.Context;
+import android.os.AsyncTask;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.forrestguice.suntimeswidget.BuildConfig;
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.settings.SolarEvents;
+import com.forrestguice.suntimeswidget.settings.WidgetSettings;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Calendar;
+
+/**
+ * AlarmScheduleBatch
+ * Reschedules a list of alarms at once (after boot, or when the timezone or location changes). Alarms are loaded from a
+ * single database connection, their event times are calculated from a shared AlarmEventWindow (each location and calculator
+ * is calculated once per day, rather than once per alarm), and every update is written within a single transaction.
+ *
+ * Add-on events are queried concurrently before the alarms are rescheduled (@see AlarmAddonEvents).
+ *
+ * The remaining (per alarm) work, i.e. setting timeouts and notifications, is left to the caller (@see Result).
+ */
+public class AlarmScheduleBatch
+{
+    public static final String TAG = "AlarmReceiverBatch";
+
+    public static final int RESULT_SCHEDULED = 0;    // rescheduled (and saved); item.state is the scheduled state
+    public static final int RESULT_FAILED = 1;       // failed to schedule; the alarm should be disabled
+    public static final int RESULT_DISMISS = 2;      // not enabled; the alarm should be dismissed
+    public static final int RESULT_SKIPPED = 3;      // not rescheduled (filtered, or in a state that can't be rescheduled)
+
+    /**
+     * Result
+     */
+    public static final class Result
+    {
+        public final long rowID;
+        public final AlarmClockItem item;    // may be null if RESULT_SKIPPED
+        public final int result;
+
+        public Result(long rowID, @Nullable AlarmClockItem item, int result)
+        {
+            this.rowID = rowID;
+            this.item = item;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Reschedules the given alarms; call from a background thread.
+     * @param ids alarm rowIDs
+     * @param filter (optional) only alarms that pass the filter are rescheduled
+     * @return a result for each id (in the same order)
+     */
+    public static Result[] reschedule(@NonNull Context context, @NonNull Long[] ids, @Nullable AlarmNotifications.NotificationService.AlarmClockItemFilter filter)
+    {
+        long bench_start = System.nanoTime();
+        AlarmEventWindow window = new AlarmEventWindow(context);
+        Result[] results = new Result[ids.length];
+        ArrayList<AlarmClockItem> updates = new ArrayList<>();
+
+        AlarmDatabaseAdapter db = new AlarmDatabaseAdapter(context.getApplicationContext());
+        db.open();
+        try {
+            AlarmClockItem[] items = new AlarmClockItem[ids.length];
+            for (int i=0; i<ids.length; i++)
+            {
+                AlarmClockItem item = AlarmDatabaseAdapter.AlarmItemTask.loadAlarmClockItem(context, db, ids[i]);
+                items[i] = (item != null && (filter == null || filter.passesFilter(item))) ? item : null;
+            }
+
+            prefetchAddonEvents(context, items, Calendar.getInstance());    // add-on events are queried concurrently
+
+            for (int i=0; i<ids.length; i++)
+            {
+                AlarmClockItem item = items[i];
+                int result = (item != null) ? rescheduleItem(context, item, window) : RESULT_SKIPPED;
+                if (result == RESULT_SCHEDULED) {
+                    updates.add(item);
+                }
+                results[i] = new Result(ids[i], item, result);
+            }
+
+            if (!updates.isEmpty() && !db.updateAlarms(updates.toArray(new AlarmClockItem[0]), true)) {
+                Log.w(TAG, "reschedule: failed to update one or more alarms");
+            }
+        } finally {
+            db.close();
+        }
+
+        if (BuildConfig.DEBUG)
+        {
+            long bench_end = System.nanoTime();
+            Log.d(TAG, "reschedule: " + updates.size() + " of " + ids.length + " alarms took " + ((bench_end - bench_start) / 1000000d) + "ms :: " + window);
+        }
+        return results;
+    }
+
+    /**
+     * Queries the add-on events used by the given items (concurrently); the results are cached (@see AlarmAddonEvents),
+     * then used when the items are rescheduled.
+     */
+    protected static void prefetchAddonEvents(@NonNull Context context, @NonNull AlarmClockItem[] items, @NonNull Calendar now)
+    {
+        ArrayList<AlarmAddonEvents.Query> queries = new ArrayList<>();
+        for (AlarmClockItem item : items)
+        {
+            String eventID = (item != null && item.enabled) ? item.getEvent() : null;
+            if (eventID != null && SolarEvents.valueOf(eventID, null) == null)
+            {
+                Location location = (item.flagIsTrue(AlarmClockItem.FLAG_LOCATION_FROM_APP) ? WidgetSettings.loadLocationPref(context, 0) : item.location);
+                ArrayList<Integer> repeatingDays = (item.repeatingDays != null && !item.repeatingDays.isEmpty() ? item.repeatingDays : AlarmClockItem.everyday());
+                queries.add(AlarmAddonEvents.createQuery(eventID, location, item.offset, item.repeating, repeatingDays, now));
+            }
+        }
+        AlarmAddonEvents.prefetch(context.getContentResolver(), queries, AlarmNotifications.MAX_WAIT_MS);
+    }
+
+    /**
+     * Reschedules a single item (without saving it); the same as ACTION_RESCHEDULE.
+     * @return RESULT_SCHEDULED, RESULT_FAILED, RESULT_DISMISS, or RESULT_SKIPPED
+     */
+    protected static int rescheduleItem(@NonNull Context context, @NonNull AlarmClockItem item, @Nullable AlarmEventWindow window)
+    {
+        if (!AlarmState.transitionState(item.state, AlarmState.STATE_NONE)) {
+            return RESULT_SKIPPED;
+        }
+        if (!item.enabled) {
+            return RESULT_DISMISS;
+        }
+
+        Calendar now = Calendar.getInstance();
+        if (!AlarmNotifications.updateAlarmTime(context, item, now, true, window)) {
+            return RESULT_FAILED;
+        }
+        item.alarmtime = item.timestamp + item.offset;
+
+        int nextState = AlarmNotifications.scheduledState(context, item, now.getTimeInMillis());
+        return (AlarmState.transitionState(item.state, nextState) ? RESULT_SCHEDULED : RESULT_SKIPPED);
+    }
+
+    /**
+     * AlarmRescheduleTask
+     */
+    public static class AlarmRescheduleTask extends AsyncTask<Long, Void, Result[]>
+    {
+        private final WeakReference<Context> contextRef;
+        private final AlarmNotifications.NotificationService.AlarmClockItemFilter filter;
+
+        public AlarmRescheduleTask(@NonNull Context context, @Nullable AlarmNotifications.NotificationService.AlarmClockItemFilter filter)
+        {
+            this.contextRef = new WeakReference<>(context.getApplicationContext());
+            this.filter = filter;
+        }
+
+        @Override
+        protected Result[] doInBackground(Long... ids)
+        {
+            Context context = contextRef.get();
+            return (context != null ? reschedule(context, ids, filter) : new Result[0]);
+        }
+
+        @Override
+        protected void onPostExecute(Result[] results)
+        {
+            if (listener != null) {
+                listener.onFinished(results);
+            }
+        }
+
+        protected AlarmRescheduleTaskListener listener = null;
+        public void setTaskListener(AlarmRescheduleTaskListener listener) {
+            this.listener = listener;
+        }
+    }
+
+    public interface AlarmRescheduleTaskListener
+    {
+        void onFinished(Result[] results);
+    }
+}
@@ -77,6 +77,7 @@ import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
 import com.forrestguice.suntimeswidget.events.EventListActivity;
 import com.forrestguice.suntimeswidget.settings.AppSettings;
 import com.forrestguice.suntimeswidget.settings.SolarEvents;
+import com.forrestguice.suntimeswidget.settings.WidgetPrefs;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.views.TooltipCompat;
 import com.forrestguice.suntimeswidget.views.ViewUtils;
@@ -633,7 +634,7 @@ public class AlarmEventDialog extends BottomSheetDialogFragment
     {
         if (overwriteCurrent || choice == null)
         {
-            SharedPreferences prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0);
+            SharedPreferences prefs = WidgetPrefs.get(context);
             choice = prefs.getString(PREF_KEY_ALARM_LASTCHOICE, PREF_DEF_ALARM_LASTCHOICE);
         }
         setChoice(choice);
@@ -662,7 +663,7 @@ public class AlarmEventDialog extends BottomSheetDialogFragment
      */
     protected void saveSettings(Context context)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         prefs.putString(PREF_KEY_ALARM_LASTCHOICE, choice);
         prefs.apply();
     }
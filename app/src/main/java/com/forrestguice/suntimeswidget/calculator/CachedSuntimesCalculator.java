@@ -0,0 +1,608 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A SuntimesCalculator that wraps another SuntimesCalculator, memoizing the results of date based
+ * operations (rise, set, twilight, golden/blue hour, moonrise/moonset, equinox/solstice).
+ *
+ * Results are stored in a bounded LRU that is shared between all instances; entries are keyed by
+ * calculator name, location, timezone, and the local date (so calculators created by different
+ * widgets for the same location will share results). Time based operations (position, illumination,
+ * etc) are passed through to the wrapped calculator.
+ */
+public class CachedSuntimesCalculator implements SuntimesCalculator
+{
+    public static final int MAX_ENTRIES = 1024;
+
+    protected static final int EVENT_RISE_ASTRO = 0;
+    protected static final int EVENT_RISE_NAUTICAL = 1;
+    protected static final int EVENT_RISE_CIVIL = 2;
+    protected static final int EVENT_RISE_OFFICIAL = 3;
+    protected static final int EVENT_NOON = 4;
+    protected static final int EVENT_SET_OFFICIAL = 5;
+    protected static final int EVENT_SET_CIVIL = 6;
+    protected static final int EVENT_SET_NAUTICAL = 7;
+    protected static final int EVENT_SET_ASTRO = 8;
+    protected static final int EVENT_RISE_ANGLE = 9;
+    protected static final int EVENT_SET_ANGLE = 10;
+    protected static final int EVENT_BLUE_MORNING = 11;
+    protected static final int EVENT_BLUE_EVENING = 12;
+    protected static final int EVENT_GOLD_MORNING = 13;
+    protected static final int EVENT_GOLD_EVENING = 14;
+    protected static final int EVENT_MOONTIMES = 15;
+    protected static final int EVENT_SPRING_EQUINOX = 16;
+    protected static final int EVENT_SUMMER_SOLSTICE = 17;
+    protected static final int EVENT_AUTUMN_EQUINOX = 18;
+    protected static final int EVENT_WINTER_SOLSTICE = 19;
+    protected static final int EVENT_SHADOW_BEFORE_NOON = 20;
+    protected static final int EVENT_SHADOW_AFTER_NOON = 21;
+    protected static final int EVENT_SUN_EVENTS = 22;
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final Object NULL_RESULT = new Object();
+
+    private static final AtomicLong hits = new AtomicLong(0);
+    private static final AtomicLong misses = new AtomicLong(0);
+
+    private static final LinkedHashMap<DayKey, Object> cache = new LinkedHashMap<DayKey, Object>(64, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<DayKey, Object> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * @return number of results that were returned from the cache
+     */
+    public static long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of results that had to be calculated by the wrapped calculator
+     */
+    public static long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of entries currently held by the cache
+     */
+    public static int getCacheSize()
+    {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Clears the cache and resets the hit/miss counters.
+     */
+    public static void clearCache()
+    {
+        synchronized (cache) {
+            cache.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+    }
+
+    protected final SuntimesCalculator calculator;
+    protected String prefix = null;
+    protected int prefixHash = 0;
+
+    public CachedSuntimesCalculator(@NonNull SuntimesCalculator calculator)
+    {
+        this.calculator = calculator;
+        if (calculator.getLocation() != null && calculator.getTimeZone() != null) {
+            initPrefix(calculator.getLocation(), calculator.getTimeZone());
+        }
+    }
+
+    /**
+     * @return the wrapped SuntimesCalculator
+     */
+    public SuntimesCalculator getCalculator() {
+        return calculator;
+    }
+
+    protected void initPrefix(@NonNull Location location, @NonNull TimeZone timezone)
+    {
+        prefix = calculator.name() + "|" + location.getLatitude() + "|" + location.getLongitude() + "|" + location.getAltitudeAsInteger() + "|" + timezone.getID();
+        prefixHash = prefix.hashCode();
+    }
+
+    @Override
+    public String name() {
+        return calculator.name();
+    }
+
+    @Override
+    public int[] getSupportedFeatures() {
+        return calculator.getSupportedFeatures();
+    }
+
+    @Override
+    public void init(Location location, String timezone)
+    {
+        calculator.init(location, timezone);
+        initPrefix(location, calculator.getTimeZone());
+    }
+
+    @Override
+    public void init(Location location, TimeZone timezone)
+    {
+        calculator.init(location, timezone);
+        initPrefix(location, timezone);
+    }
+
+    @Override
+    public void init(Location location, TimeZone timezone, Context context)
+    {
+        calculator.init(location, timezone, context);
+        initPrefix(location, timezone);
+    }
+
+    @Override
+    public Location getLocation() {
+        return calculator.getLocation();
+    }
+
+    @Override
+    public TimeZone getTimeZone() {
+        return calculator.getTimeZone();
+    }
+
+    /**
+     * DayKey
+     */
+    protected static final class DayKey
+    {
+        private final String prefix;
+        private final String dateZone;
+        private final int event;
+        private final int year, dayOfYear;
+        private final long calculatorDay;
+        private final double param0, param1;
+        private final int hash;
+
+        public DayKey(String prefix, int prefixHash, int event, String dateZone, int year, int dayOfYear, long calculatorDay, double param0, double param1)
+        {
+            this.prefix = prefix;
+            this.dateZone = dateZone;
+            this.event = event;
+            this.year = year;
+            this.dayOfYear = dayOfYear;
+            this.calculatorDay = calculatorDay;
+            this.param0 = param0;
+            this.param1 = param1;
+
+            int h = prefixHash;
+            h = 31 * h + dateZone.hashCode();
+            h = 31 * h + event;
+            h = 31 * h + year;
+            h = 31 * h + dayOfYear;
+            h = 31 * h + (int)(calculatorDay ^ (calculatorDay >>> 32));
+            long p0 = Double.doubleToLongBits(param0);
+            long p1 = Double.doubleToLongBits(param1);
+            h = 31 * h + (int)(p0 ^ (p0 >>> 32));
+            h = 31 * h + (int)(p1 ^ (p1 >>> 32));
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof DayKey)) {
+                return false;
+            }
+            DayKey other = (DayKey) obj;
+            return hash == other.hash && event == other.event
+                    && year == other.year && dayOfYear == other.dayOfYear && calculatorDay == other.calculatorDay
+                    && Double.doubleToLongBits(param0) == Double.doubleToLongBits(other.param0)
+                    && Double.doubleToLongBits(param1) == Double.doubleToLongBits(other.param1)
+                    && prefix.equals(other.prefix) && dateZone.equals(other.dateZone);
+        }
+    }
+
+    /**
+     * @return a key for the local date of `date` (as seen by both the Calendar and the calculator's timezone)
+     */
+    protected DayKey dayKey(int event, Calendar date, double param0, double param1)
+    {
+        long millis = date.getTimeInMillis();
+        TimeZone timezone = calculator.getTimeZone();
+        long localMillis = millis + (timezone != null ? timezone.getOffset(millis) : 0);
+        long calculatorDay = (long) Math.floor(localMillis / (double) DAY_MILLIS);
+        return new DayKey(prefix, prefixHash, event, date.getTimeZone().getID(), date.get(Calendar.YEAR), date.get(Calendar.DAY_OF_YEAR), calculatorDay, param0, param1);
+    }
+
+    /**
+     * @return a key for the year of `date` (as seen by the Calendar)
+     */
+    protected DayKey yearKey(int event, Calendar date) {
+        return new DayKey(prefix, prefixHash, event, date.getTimeZone().getID(), date.get(Calendar.YEAR), 0, 0, 0, 0);
+    }
+
+    @Nullable
+    protected static Object getCached(DayKey key)
+    {
+        Object value;
+        synchronized (cache) {
+            value = cache.get(key);
+        }
+        if (value != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return value;
+    }
+
+    protected static void putCached(DayKey key, @Nullable Object value)
+    {
+        synchronized (cache) {
+            cache.put(key, (value != null ? value : NULL_RESULT));
+        }
+    }
+
+    @Nullable
+    protected static Calendar copyOf(@Nullable Calendar calendar) {
+        return (calendar != null ? (Calendar) calendar.clone() : null);
+    }
+
+    @Nullable
+    protected static Calendar[] copyOf(@Nullable Calendar[] calendars)
+    {
+        if (calendars == null) {
+            return null;
+        }
+        Calendar[] retValue = new Calendar[calendars.length];
+        for (int i=0; i<calendars.length; i++) {
+            retValue[i] = copyOf(calendars[i]);
+        }
+        return retValue;
+    }
+
+    @Nullable
+    protected static MoonTimes copyOf(@Nullable MoonTimes moonTimes)
+    {
+        if (moonTimes == null) {
+            return null;
+        }
+        MoonTimes retValue = new MoonTimes();
+        retValue.riseTime = copyOf(moonTimes.riseTime);
+        retValue.setTime = copyOf(moonTimes.setTime);
+        return retValue;
+    }
+
+    /**
+     * Returns a cached result (or calculates and caches it).
+     * @param event one of the EVENT_ constants
+     * @param date the date passed to the wrapped calculator
+     * @param param0 additional parameter (angle, objHeight, etc)
+     * @param param1 additional parameter (shadowLength)
+     * @return a copy of the Calendar result (may be null)
+     */
+    @Nullable
+    protected Calendar getCalendar(int event, Calendar date, double param0, double param1)
+    {
+        if (prefix == null) {
+            return calculate(event, date, param0, param1);
+        }
+
+        DayKey key = (isYearEvent(event) ? yearKey(event, date) : dayKey(event, date, param0, param1));
+        Object value = getCached(key);
+        if (value == null)
+        {
+            Calendar result = calculate(event, date, param0, param1);
+            putCached(key, copyOf(result));
+            return result;
+        }
+        return (value == NULL_RESULT ? null : copyOf((Calendar) value));
+    }
+
+    protected static boolean isYearEvent(int event)
+    {
+        switch (event)
+        {
+            case EVENT_SPRING_EQUINOX: case EVENT_SUMMER_SOLSTICE:
+            case EVENT_AUTUMN_EQUINOX: case EVENT_WINTER_SOLSTICE:
+                return true;
+            default: return false;
+        }
+    }
+
+    @Nullable
+    protected Calendar calculate(int event, Calendar date, double param0, double param1)
+    {
+        switch (event)
+        {
+            case EVENT_RISE_ASTRO: return calculator.getAstronomicalSunriseCalendarForDate(date);
+            case EVENT_RISE_NAUTICAL: return calculator.getNauticalSunriseCalendarForDate(date);
+            case EVENT_RISE_CIVIL: return calculator.getCivilSunriseCalendarForDate(date);
+            case EVENT_RISE_OFFICIAL: return calculator.getOfficialSunriseCalendarForDate(date);
+            case EVENT_NOON: return calculator.getSolarNoonCalendarForDate(date);
+            case EVENT_SET_OFFICIAL: return calculator.getOfficialSunsetCalendarForDate(date);
+            case EVENT_SET_CIVIL: return calculator.getCivilSunsetCalendarForDate(date);
+            case EVENT_SET_NAUTICAL: return calculator.getNauticalSunsetCalendarForDate(date);
+            case EVENT_SET_ASTRO: return calculator.getAstronomicalSunsetCalendarForDate(date);
+            case EVENT_RISE_ANGLE: return calculator.getSunriseCalendarForDate(date, param0);
+            case EVENT_SET_ANGLE: return calculator.getSunsetCalendarForDate(date, param0);
+            case EVENT_GOLD_MORNING: return calculator.getMorningGoldenHourForDate(date);
+            case EVENT_GOLD_EVENING: return calculator.getEveningGoldenHourForDate(date);
+            case EVENT_SPRING_EQUINOX: return calculator.getSpringEquinoxForYear(date);
+            case EVENT_SUMMER_SOLSTICE: return calculator.getSummerSolsticeForYear(date);
+            case EVENT_AUTUMN_EQUINOX: return calculator.getAutumnalEquinoxForYear(date);
+            case EVENT_WINTER_SOLSTICE: return calculator.getWinterSolsticeForYear(date);
+            case EVENT_SHADOW_BEFORE_NOON: return calculator.getTimeOfShadowBeforeNoon(date, param0, param1);
+            case EVENT_SHADOW_AFTER_NOON: return calculator.getTimeOfShadowAfterNoon(date, param0, param1);
+            default: return null;
+        }
+    }
+
+    @Nullable
+    protected Calendar[] getCalendars(int event, Calendar date)
+    {
+        if (prefix == null) {
+            return (event == EVENT_BLUE_MORNING ? calculator.getMorningBlueHourForDate(date) : calculator.getEveningBlueHourForDate(date));
+        }
+
+        DayKey key = dayKey(event, date, 0, 0);
+        Object value = getCached(key);
+        if (value == null)
+        {
+            Calendar[] result = (event == EVENT_BLUE_MORNING ? calculator.getMorningBlueHourForDate(date) : calculator.getEveningBlueHourForDate(date));
+            putCached(key, copyOf(result));
+            return result;
+        }
+        return (value == NULL_RESULT ? null : copyOf((Calendar[]) value));
+    }
+
+    @Override
+    public Calendar getAstronomicalSunriseCalendarForDate(Calendar date) {
+        return getCalendar(EVENT_RISE_ASTRO, date, 0, 0);
+    }
+
+    @Override
+    public Calendar getNauticalSunriseCalendarForDate(Calendar date) {
+        return getCalendar(EVENT_RISE_NAUTICAL, date, 0, 0);
+    }
+
+    @Override
+    public Calendar getCivilSunriseCalendarForDate(Calendar date) {
+        return getCalendar(EVENT_RISE_CIVIL, date, 0, 0);
+    }
+
+    @Override
+    public Calendar getOfficialSunriseCalendarForDate(Calendar date) {
+        return getCalendar(EVENT_RISE_OFFICIAL, date, 0, 0);
+    }
+
+    @Override
+    public Calendar getSolarNoonCalendarForDate(Calendar date) {
+        return getCalendar(EVENT_NOON, date, 0, 0);
+    }
+
+    @Override
+    public Calendar getOfficialSunsetCalendarForDate(Calendar date) {
+        return getCalendar(EVENT_SET_OFFICIAL, date, 0, 0);
+    }
+
+    @Override
+    public Calendar getCivilSunsetCalendarForDate(Calendar date) {
+        return getCalendar(EVENT_SET_CIVIL, date, 0, 0);
+    }
+
+    @Override
+    public Calendar getNauticalSunsetCalendarForDate(Calendar date) {
+        return getCalendar(EVENT_SET_NAUTICAL, date, 0, 0);
+    }
+
+    @Override
+    public Calendar getAstronomicalSunsetCalendarForDate(Calendar date) {
+        return getCalendar(EVENT_SET_ASTRO, date, 0, 0);
+    }
+
+    @Override
+    @Deprecated
+    public Calendar getVernalEquinoxForYear(Calendar date) {
+        return getSpringEquinoxForYear(date);
+    }
+
+    @Override
+    public Calendar getSpringEquinoxForYear(Calendar date) {
+        return getCalendar(EVENT_SPRING_EQUINOX, date, 0, 0);
+    }
+
+    @Override
+    public Calendar getSummerSolsticeForYear(Calendar date) {
+        return getCalendar(EVENT_SUMMER_SOLSTICE, date, 0, 0);
+    }
+
+    @Override
+    public Calendar getAutumnalEquinoxForYear(Calendar date) {
+        return getCalendar(EVENT_AUTUMN_EQUINOX, date, 0, 0);
+    }
+
+    @Override
+    public Calendar getWinterSolsticeForYear(Calendar date) {
+        return getCalendar(EVENT_WINTER_SOLSTICE, date, 0, 0);
+    }
+
+    @Override
+    public Calendar[] getMorningBlueHourForDate(Calendar date) {
+        return getCalendars(EVENT_BLUE_MORNING, date);
+    }
+
+    @Override
+    public Calendar[] getEveningBlueHourForDate(Calendar date) {
+        return getCalendars(EVENT_BLUE_EVENING, date);
+    }
+
+    @Override
+    public Calendar getMorningGoldenHourForDate(Calendar date) {
+        return getCalendar(EVENT_GOLD_MORNING, date, 0, 0);
+    }
+
+    @Override
+    public Calendar getEveningGoldenHourForDate(Calendar date) {
+        return getCalendar(EVENT_GOLD_EVENING, date, 0, 0);
+    }
+
+    @Override
+    public boolean isDay(Calendar dateTime) {
+        return calculator.isDay(dateTime);
+    }
+
+    @Override
+    public MoonTimes getMoonTimesForDate(Calendar date)
+    {
+        if (prefix == null) {
+            return calculator.getMoonTimesForDate(date);
+        }
+
+        DayKey key = dayKey(EVENT_MOONTIMES, date, 0, 0);
+        Object value = getCached(key);
+        if (value == null)
+        {
+            MoonTimes result = calculator.getMoonTimesForDate(date);
+            putCached(key, copyOf(result));
+            return result;
+        }
+        return (value == NULL_RESULT ? null : copyOf((MoonTimes) value));
+    }
+
+    @Override
+    public double getMoonIlluminationForDate(Calendar dateTime) {
+        return calculator.getMoonIlluminationForDate(dateTime);
+    }
+
+    @Override
+    public Calendar getMoonPhaseNextDate(MoonPhase phase, Calendar date) {
+        return calculator.getMoonPhaseNextDate(phase, date);
+    }
+
+    @Override
+    public SunPosition getSunPosition(Calendar dateTime) {
+        return calculator.getSunPosition(dateTime);
+    }
+
+    @Override
+    public MoonPosition getMoonPosition(Calendar dateTime) {
+        return calculator.getMoonPosition(dateTime);
+    }
+
+    @Override
+    public boolean getSunPositions(long startMillis, long stepMillis, int count, double[] azimuth, double[] elevation) {
+        return calculator.getSunPositions(startMillis, stepMillis, count, azimuth, elevation);
+    }
+
+    @Override
+    public boolean getMoonPositions(long startMillis, long stepMillis, int count, double[] azimuth, double[] elevation) {
+        return calculator.getMoonPositions(startMillis, stepMillis, count, azimuth, elevation);
+    }
+
+    @Override
+    public double getShadowLength(double objHeight, Calendar dateTime) {
+        return calculator.getShadowLength(objHeight, dateTime);
+    }
+
+    @Override
+    public double equationOfTime(Calendar dateTime) {
+        return calculator.equationOfTime(dateTime);
+    }
+
+    @Override
+    public Calendar getMoonPerigeeNextDate(Calendar date) {
+        return calculator.getMoonPerigeeNextDate(date);
+    }
+
+    @Override
+    public Calendar getMoonApogeeNextDate(Calendar date) {
+        return calculator.getMoonApogeeNextDate(date);
+    }
+
+    @Override
+    public long getTropicalYearLength(Calendar date) {
+        return calculator.getTropicalYearLength(date);
+    }
+
+    @Override
+    public Calendar getSunriseCalendarForDate(Calendar date, double angle) {
+        return getCalendar(EVENT_RISE_ANGLE, date, angle, 0);
+    }
+
+    @Override
+    public Calendar getSunsetCalendarForDate(Calendar date, double angle) {
+        return getCalendar(EVENT_SET_ANGLE, date, angle, 0);
+    }
+
+    @Override
+    public SunEvents getSunEventsForDate(Calendar date)
+    {
+        if (prefix == null) {
+            return calculator.getSunEventsForDate(date);
+        }
+
+        DayKey key = dayKey(EVENT_SUN_EVENTS, date, 0, 0);
+        Object value = getCached(key);
+        if (value == null)
+        {
+            SunEvents result = calculator.getSunEventsForDate(date);
+            putCached(key, (result != null ? new SunEvents(result) : null));
+            return result;
+        }
+        return (value == NULL_RESULT ? null : new SunEvents((SunEvents) value));
+    }
+
+    @Override
+    public Calendar getTimeOfShadowBeforeNoon(Calendar date, double objHeight, double shadowLength) {
+        return getCalendar(EVENT_SHADOW_BEFORE_NOON, date, objHeight, shadowLength);
+    }
+
+    @Override
+    public Calendar getTimeOfShadowAfterNoon(Calendar date, double objHeight, double shadowLength) {
+        return getCalendar(EVENT_SHADOW_AFTER_NOON, date, objHeight, shadowLength);
+    }
+
+}
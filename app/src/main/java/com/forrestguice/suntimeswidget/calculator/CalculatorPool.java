@@ -0,0 +1,260 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.settings.WidgetPrefs;
+import com.forrestguice.suntimeswidget.settings.WidgetSettings;
+
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CalculatorPool
+ * Calculators shared by CalculatorProvider queries, keyed by (descriptor, location, timezone); reads are lock-free
+ * (ConcurrentHashMap), and the pool is bounded (the least recently used calculator is dropped).
+ *
+ * The calculators configured for each appWidgetId are also remembered (so a query doesn't need to load the prefs).
+ * These are invalidated whenever the location, timezone, or calculator prefs change (@see init), or by calling
+ * invalidate; changes to appWidgetId 0 invalidate every widget (widgets may fall back to the app configuration).
+ */
+public class CalculatorPool
+{
+    public static final int MAX_SIZE = 16;
+
+    private static final ConcurrentHashMap<String, Entry> calculators = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Configured> configured = new ConcurrentHashMap<>();    // appWidgetId_calculatorName
+    private static final AtomicLong generation = new AtomicLong(0);
+    private static final AtomicLong clock = new AtomicLong(0);
+
+    /**
+     * Entry
+     */
+    protected static final class Entry
+    {
+        public final SuntimesCalculator calculator;
+        public volatile long lastUsed;
+
+        public Entry(SuntimesCalculator calculator)
+        {
+            this.calculator = calculator;
+            this.lastUsed = clock.incrementAndGet();
+        }
+    }
+
+    /**
+     * Configured
+     */
+    protected static final class Configured
+    {
+        public final SuntimesCalculator calculator;
+        public final String timezoneID;
+        public final boolean followsDefaultTimezone;    // timezone mode is CURRENT_TIMEZONE
+
+        public Configured(SuntimesCalculator calculator, String timezoneID, boolean followsDefaultTimezone)
+        {
+            this.calculator = calculator;
+            this.timezoneID = timezoneID;
+            this.followsDefaultTimezone = followsDefaultTimezone;
+        }
+    }
+
+    /**
+     * Listens for changes to the widget prefs (must be held by a strong reference; SharedPreferences keeps listeners weakly).
+     */
+    private static SharedPreferences.OnSharedPreferenceChangeListener prefsListener = null;
+
+    /**
+     * Registers the invalidation hook; invalidates calculators when location, timezone, or calculator prefs are changed.
+     */
+    public static synchronized void init(@NonNull Context context)
+    {
+        if (prefsListener == null)
+        {
+            prefsListener = new SharedPreferences.OnSharedPreferenceChangeListener()
+            {
+                @Override
+                public void onSharedPreferenceChanged(SharedPreferences prefs, String key) {
+                    onPrefChanged(key);
+                }
+            };
+            SharedPreferences prefs = WidgetPrefs.get(context);
+            prefs.registerOnSharedPreferenceChangeListener(prefsListener);
+        }
+    }
+
+    protected static void onPrefChanged(@Nullable String key)
+    {
+        if (key == null) {
+            invalidateAll();    // prefs cleared
+            return;
+        }
+        if (!key.startsWith(WidgetSettings.PREF_PREFIX_KEY)) {
+            return;
+        }
+
+        int i = WidgetSettings.PREF_PREFIX_KEY.length();
+        int j = key.indexOf('_', i);
+        if (j < 0) {
+            return;
+        }
+
+        String suffix = key.substring(j);
+        if (suffix.startsWith(WidgetSettings.PREF_PREFIX_KEY_LOCATION)
+                || suffix.startsWith(WidgetSettings.PREF_PREFIX_KEY_TIMEZONE)
+                || suffix.startsWith(WidgetSettings.PREF_PREFIX_KEY_GENERAL + WidgetSettings.PREF_KEY_GENERAL_CALCULATOR))
+        {
+            try {
+                invalidate(Integer.parseInt(key.substring(i, j)));
+            } catch (NumberFormatException e) {
+                invalidateAll();
+            }
+        }
+    }
+
+    /**
+     * @return a calculator for the given configuration; from the pool, or created (then added to the pool)
+     */
+    public static SuntimesCalculator get(@NonNull Context context, @Nullable SuntimesCalculatorDescriptor descriptor, @NonNull Location location, @NonNull TimeZone timezone)
+    {
+        String key = key(descriptor, location, timezone);
+        Entry entry = calculators.get(key);
+        if (entry == null)
+        {
+            SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(context, descriptor);
+            Entry created = new Entry(factory.createCalculator(location, timezone));
+            entry = calculators.putIfAbsent(key, created);
+            if (entry == null)
+            {
+                entry = created;
+                trim();
+            }
+
+        } else {
+            entry.lastUsed = clock.incrementAndGet();
+        }
+        return entry.calculator;
+    }
+
+    /**
+     * @param appWidgetId widget id (app is 0)
+     * @param calculatorName calculator name ("" for the sun calculator, or "moon")
+     * @return the calculator configured for the given widget, or null if not known (or invalidated)
+     */
+    @Nullable
+    public static SuntimesCalculator getConfigured(int appWidgetId, @NonNull String calculatorName)
+    {
+        Configured entry = configured.get(appWidgetId + "_" + calculatorName);
+        if (entry != null && entry.followsDefaultTimezone && !TimeZone.getDefault().getID().equals(entry.timezoneID)) {
+            return null;    // system timezone has changed
+        }
+        return (entry != null ? entry.calculator : null);
+    }
+
+    /**
+     * Remembers the calculator configured for the given widget; the configuration is from prefs that were loaded
+     * at the given generation (the result is discarded if invalidated in the meantime).
+     */
+    public static SuntimesCalculator putConfigured(@NonNull Context context, int appWidgetId, @NonNull String calculatorName, long loadedAtGeneration,
+                                                   @Nullable SuntimesCalculatorDescriptor descriptor, @NonNull Location location, @NonNull TimeZone timezone, boolean followsDefaultTimezone)
+    {
+        String key = appWidgetId + "_" + calculatorName;
+        Configured entry = new Configured(get(context, descriptor, location, timezone), timezone.getID(), followsDefaultTimezone);
+        configured.put(key, entry);
+        if (generation.get() != loadedAtGeneration) {
+            configured.remove(key, entry);    // invalidated while loading
+        }
+        return entry.calculator;
+    }
+
+    /**
+     * @return the current generation; read this before loading prefs (and pass it to putConfigured)
+     */
+    public static long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Forgets the calculators configured for a widget; appWidgetId 0 forgets all widgets.
+     */
+    public static void invalidate(int appWidgetId)
+    {
+        generation.incrementAndGet();
+        if (appWidgetId == 0) {
+            configured.clear();
+
+        } else {
+            String prefix = appWidgetId + "_";
+            for (String key : configured.keySet())
+            {
+                if (key.startsWith(prefix)) {
+                    configured.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every calculator.
+     */
+    public static void invalidateAll()
+    {
+        generation.incrementAndGet();
+        configured.clear();
+        calculators.clear();
+    }
+
+    public static int size() {
+        return calculators.size();
+    }
+
+    protected static synchronized void trim()
+    {
+        while (calculators.size() > MAX_SIZE)
+        {
+            String eldest = null;
+            long eldestUsed = Long.MAX_VALUE;
+            for (Map.Entry<String, Entry> entry : calculators.entrySet())
+            {
+                if (entry.getValue().lastUsed < eldestUsed) {
+                    eldestUsed = entry.getValue().lastUsed;
+                    eldest = entry.getKey();
+                }
+            }
+            if (eldest == null) {
+                break;
+            }
+            calculators.remove(eldest);
+        }
+    }
+
+    protected static String key(@Nullable SuntimesCalculatorDescriptor descriptor, @NonNull Location location, @NonNull TimeZone timezone)
+    {
+        return (descriptor != null ? descriptor.getName() : "") + "_" + location.getLatitudeAsDouble() + "_" + location.getLongitudeAsDouble()
+                + "_" + location.getAltitudeAsDouble() + "_" + timezone.getID();
+    }
+}
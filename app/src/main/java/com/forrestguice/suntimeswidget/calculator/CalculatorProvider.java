@@ -31,13 +31,11 @@ import android.preference.PreferenceManager;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.Log;
-import android.util.SparseArray;
 
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Map;
 import java.util.TimeZone;
 
 import com.forrestguice.suntimeswidget.BuildConfig;
@@ -116,6 +114,10 @@ public class CalculatorProvider extends ContentProvider
     @Override
     public boolean onCreate()
     {
+        Context context = getContext();
+        if (context != null) {
+            CalculatorPool.init(context);
+        }
         return true;
     }
 
@@ -433,228 +435,203 @@ public class CalculatorProvider extends ContentProvider
     private Cursor querySun(long[] range, @NonNull Uri uri, @Nullable String[] projection, HashMap<String, String> selection, @Nullable String sortOrder)
     {
         String[] columns = (projection != null ? projection : QUERY_SUN_PROJECTION);
-        MatrixCursor retValue = new MatrixCursor(columns);
         SuntimesCalculator calculator = initSunCalculator(getContext(), selection);
         if (calculator != null)
         {
-            Calendar day = Calendar.getInstance(calculator.getTimeZone());
-            day.setTimeInMillis(range[0]);
-
-            Calendar endDay = Calendar.getInstance(calculator.getTimeZone());
-            endDay.setTimeInMillis(range[1] + 1000);      // +1000ms (make range[1] inclusive)
-
-            do {
-                Map<String,SuntimesCalculator.SunPosition> positions = new HashMap<>();
-                SuntimesCalculator.SunPosition position;
-
-                Calendar calendar;
-                Calendar[] morningBlueHour = null, eveningBlueHour = null;
-                Object[] row = new Object[columns.length];
-                for (int i=0; i<columns.length; i++)
-                {
-                    switch (columns[i])
-                    {
-                        case COLUMN_SUN_ACTUAL_RISE:
-                            calendar = calculator.getOfficialSunriseCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-                        case COLUMN_SUN_ACTUAL_SET:
-                            calendar = calculator.getOfficialSunsetCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
+            long[] days = RangeRowEngine.rangeSteps(range[0], range[1] + 1000, calculator.getTimeZone(), Calendar.DAY_OF_YEAR);    // +1000ms (make range[1] inclusive)
+            SunRangeFiller filler = new SunRangeFiller(calculator, columns, days);
+            RangeRowEngine.fill(days.length, filler);
+            return filler.cursor;
 
-                        case COLUMN_SUN_CIVIL_RISE:
-                            calendar = calculator.getCivilSunriseCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-                        case COLUMN_SUN_CIVIL_SET:
-                            calendar = calculator.getCivilSunsetCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-
-                        case COLUMN_SUN_NAUTICAL_RISE:
-                            calendar = calculator.getNauticalSunriseCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-                        case COLUMN_SUN_NAUTICAL_SET:
-                            calendar = calculator.getNauticalSunsetCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-
-                        case COLUMN_SUN_ASTRO_RISE:
-                            calendar = calculator.getAstronomicalSunriseCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-                        case COLUMN_SUN_ASTRO_SET:
-                            calendar = calculator.getAstronomicalSunsetCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
+        } else {
+            Log.w("CalculatorProvider", "querySun: sunSource is null!");
+            return new MatrixCursor(columns);
+        }
+    }
 
-                        case COLUMN_SUN_NOON:
-                            calendar = calculator.getSolarNoonCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
+    /**
+     * SunRangeFiller
+     * Fills one row per day; only the events (and event positions) named by the projection are calculated.
+     */
+    protected static class SunRangeFiller implements RangeRowEngine.RowFiller
+    {
+        public static final int SINGLE_EVENT_LIMIT = 4;    // more events than this are calculated together (getSunEventsForDate)
+        public static final int FIELD_TIME = -1;
+        public static final String[] POSITION_FIELDS = new String[] { _POSITION_AZ, _POSITION_ALT, _POSITION_RA, _POSITION_DEC };    // 0, 1, 2, 3
+
+        protected final SuntimesCalculator calculator;
+        protected final long[] days;
+        protected final int[] events, fields;    // per column; event index (or -1), FIELD_TIME or index into POSITION_FIELDS
+        protected final boolean[] needsEvent = new boolean[SuntimesCalculator.SunEvents.NUM_EVENTS];
+        protected final boolean[] needsPosition = new boolean[SuntimesCalculator.SunEvents.NUM_EVENTS];
+        protected int numEvents = 0;
+        public final ColumnarCursor cursor;
+
+        public SunRangeFiller(SuntimesCalculator calculator, String[] columns, long[] days)
+        {
+            this.calculator = calculator;
+            this.days = days;
+            this.events = new int[columns.length];
+            this.fields = new int[columns.length];
 
-                        case COLUMN_SUN_GOLDEN_EVENING:
-                            calendar = calculator.getEveningGoldenHourForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-                        case COLUMN_SUN_GOLDEN_MORNING:
-                            calendar =  calculator.getMorningGoldenHourForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
+            int[] types = new int[columns.length];
+            for (int i=0; i<columns.length; i++)
+            {
+                events[i] = -1;
+                fields[i] = FIELD_TIME;
+                types[i] = ColumnarCursor.TYPE_NULL;
 
-                        case COLUMN_SUN_BLUE8_RISE:
-                            if (morningBlueHour == null) {
-                                morningBlueHour = calculator.getMorningBlueHourForDate(day);
-                            }
-                            row[i] = (morningBlueHour[0] != null) ? morningBlueHour[0].getTimeInMillis() : null;
-                            break;
-                        case COLUMN_SUN_BLUE4_RISE:
-                            if (morningBlueHour == null) {
-                                morningBlueHour = calculator.getMorningBlueHourForDate(day);
-                            }
-                            row[i] = (morningBlueHour[1] != null) ? morningBlueHour[1].getTimeInMillis() : null;
-                            break;
+                String column = columns[i];
+                Integer event = SUN_COLUMN_EVENTS.get(column);
+                if (event != null) {
+                    types[i] = ColumnarCursor.TYPE_LONG;
 
-                        case COLUMN_SUN_BLUE4_SET:
-                            if (eveningBlueHour == null) {
-                                eveningBlueHour = calculator.getEveningBlueHourForDate(day);
-                            }
-                            row[i] = (eveningBlueHour[0] != null) ? eveningBlueHour[0].getTimeInMillis() : null;
-                            break;
-                        case COLUMN_SUN_BLUE8_SET:
-                            if (eveningBlueHour == null) {
-                                eveningBlueHour = calculator.getEveningBlueHourForDate(day);
+                } else {
+                    for (int j=0; j<POSITION_FIELDS.length; j++)
+                    {
+                        if (column != null && column.endsWith(POSITION_FIELDS[j]))
+                        {
+                            event = SUN_COLUMN_EVENTS.get(column.substring(0, column.length() - POSITION_FIELDS[j].length()));
+                            if (event != null)
+                            {
+                                fields[i] = j;
+                                types[i] = ColumnarCursor.TYPE_DOUBLE;
+                                needsPosition[event] = true;
                             }
-                            row[i] = (eveningBlueHour[1] != null) ? eveningBlueHour[1].getTimeInMillis() : null;
-                            break;
-
-                        case COLUMN_SUN_NOON_AZ: case COLUMN_SUN_NOON_ALT:
-                        case COLUMN_SUN_NOON_RA: case COLUMN_SUN_NOON_DEC:
-                            calendar = calculator.getSolarNoonCalendarForDate(day);
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_NOON, columns[i], positions);
-                            break;
-
-                        case COLUMN_SUN_ACTUAL_RISE_AZ: case COLUMN_SUN_ACTUAL_RISE_ALT:
-                        case COLUMN_SUN_ACTUAL_RISE_RA: case COLUMN_SUN_ACTUAL_RISE_DEC:
-                            calendar = calculator.getOfficialSunriseCalendarForDate(day);
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_ACTUAL_RISE, columns[i], positions);
-                            break;
-                        case COLUMN_SUN_ACTUAL_SET_AZ: case COLUMN_SUN_ACTUAL_SET_ALT:
-                        case COLUMN_SUN_ACTUAL_SET_RA: case COLUMN_SUN_ACTUAL_SET_DEC:
-                            calendar = calculator.getOfficialSunsetCalendarForDate(day);
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_ACTUAL_SET, columns[i], positions);
-                            break;
-
-                        case COLUMN_SUN_CIVIL_RISE_AZ: case COLUMN_SUN_CIVIL_RISE_ALT:
-                        case COLUMN_SUN_CIVIL_RISE_RA: case COLUMN_SUN_CIVIL_RISE_DEC:
-                            calendar = calculator.getCivilSunriseCalendarForDate(day);
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_CIVIL_RISE, columns[i], positions);
-                            break;
-                        case COLUMN_SUN_CIVIL_SET_AZ: case COLUMN_SUN_CIVIL_SET_ALT:
-                        case COLUMN_SUN_CIVIL_SET_RA: case COLUMN_SUN_CIVIL_SET_DEC:
-                            calendar = calculator.getCivilSunsetCalendarForDate(day);
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_CIVIL_SET, columns[i], positions);
                             break;
+                        }
+                    }
+                }
 
-                        case COLUMN_SUN_NAUTICAL_RISE_AZ: case COLUMN_SUN_NAUTICAL_RISE_ALT:
-                        case COLUMN_SUN_NAUTICAL_RISE_RA: case COLUMN_SUN_NAUTICAL_RISE_DEC:
-                            calendar = calculator.getNauticalSunriseCalendarForDate(day);
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_NAUTICAL_RISE, columns[i], positions);
-                            break;
-                        case COLUMN_SUN_NAUTICAL_SET_AZ: case COLUMN_SUN_NAUTICAL_SET_ALT:
-                        case COLUMN_SUN_NAUTICAL_SET_RA: case COLUMN_SUN_NAUTICAL_SET_DEC:
-                            calendar = calculator.getNauticalSunsetCalendarForDate(day);
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_NAUTICAL_SET, columns[i], positions);
-                            break;
+                if (event != null)
+                {
+                    events[i] = event;
+                    if (!needsEvent[event]) {
+                        needsEvent[event] = true;
+                        numEvents++;
+                    }
+                }
+            }
+            cursor = new ColumnarCursor(columns, types, days.length);
+        }
 
-                        case COLUMN_SUN_ASTRO_RISE_AZ: case COLUMN_SUN_ASTRO_RISE_ALT:
-                        case COLUMN_SUN_ASTRO_RISE_RA: case COLUMN_SUN_ASTRO_RISE_DEC:
-                            calendar = calculator.getAstronomicalSunriseCalendarForDate(day);
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_ASTRO_RISE, columns[i], positions);
-                            break;
-                        case COLUMN_SUN_ASTRO_SET_AZ: case COLUMN_SUN_ASTRO_SET_ALT:
-                        case COLUMN_SUN_ASTRO_SET_RA: case COLUMN_SUN_ASTRO_SET_DEC:
-                            calendar = calculator.getAstronomicalSunsetCalendarForDate(day);
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_ASTRO_SET, columns[i], positions);
-                            break;
+        @Override
+        public void fillRows(int row0, int row1)
+        {
+            if (numEvents == 0) {
+                return;
+            }
 
-                        case COLUMN_SUN_GOLDEN_MORNING_AZ: case COLUMN_SUN_GOLDEN_MORNING_ALT:
-                        case COLUMN_SUN_GOLDEN_MORNING_RA: case COLUMN_SUN_GOLDEN_MORNING_DEC:
-                            calendar = calculator.getMorningGoldenHourForDate(day);
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_GOLDEN_MORNING, columns[i], positions);
-                            break;
-                        case COLUMN_SUN_GOLDEN_EVENING_AZ: case COLUMN_SUN_GOLDEN_EVENING_ALT:
-                        case COLUMN_SUN_GOLDEN_EVENING_RA: case COLUMN_SUN_GOLDEN_EVENING_DEC:
-                            calendar = calculator.getEveningGoldenHourForDate(day);
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_GOLDEN_EVENING, columns[i], positions);
-                            break;
+            Calendar day = Calendar.getInstance(calculator.getTimeZone());
+            Calendar at = Calendar.getInstance(calculator.getTimeZone());
+            long[] times = new long[SuntimesCalculator.SunEvents.NUM_EVENTS];
+            SuntimesCalculator.SunPosition[] positions = new SuntimesCalculator.SunPosition[SuntimesCalculator.SunEvents.NUM_EVENTS];
 
-                        case COLUMN_SUN_BLUE8_RISE_AZ: case COLUMN_SUN_BLUE8_RISE_ALT:
-                        case COLUMN_SUN_BLUE8_RISE_RA: case COLUMN_SUN_BLUE8_RISE_DEC:
-                            calendar = calculator.getMorningBlueHourForDate(day)[0];
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_BLUE8_RISE, columns[i], positions);
-                            break;
-                        case COLUMN_SUN_BLUE8_SET_AZ: case COLUMN_SUN_BLUE8_SET_ALT:
-                        case COLUMN_SUN_BLUE8_SET_RA: case COLUMN_SUN_BLUE8_SET_DEC:
-                            calendar = calculator.getEveningBlueHourForDate(day)[1];
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_BLUE8_SET, columns[i], positions);
-                            break;
+            for (int row = row0; row < row1; row++)
+            {
+                day.setTimeInMillis(days[row]);
+                if (numEvents > SINGLE_EVENT_LIMIT)
+                {
+                    SuntimesCalculator.SunEvents sunEvents = calculator.getSunEventsForDate(day);    // all events for the day in a single pass
+                    System.arraycopy(sunEvents.times, 0, times, 0, times.length);
 
-                        case COLUMN_SUN_BLUE4_RISE_AZ: case COLUMN_SUN_BLUE4_RISE_ALT:
-                        case COLUMN_SUN_BLUE4_RISE_RA: case COLUMN_SUN_BLUE4_RISE_DEC:
-                            calendar = calculator.getMorningBlueHourForDate(day)[1];
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_BLUE4_RISE, columns[i], positions);
-                            break;
-                        case COLUMN_SUN_BLUE4_SET_AZ: case COLUMN_SUN_BLUE4_SET_ALT:
-                        case COLUMN_SUN_BLUE4_SET_RA: case COLUMN_SUN_BLUE4_SET_DEC:
-                            calendar = calculator.getEveningBlueHourForDate(day)[0];
-                            row[i] = getPositionValueForSunKey(calculator, calendar, COLUMN_SUN_BLUE4_SET, columns[i], positions);
-                            break;
+                } else {
+                    for (int event = 0; event < times.length; event++) {
+                        times[event] = (needsEvent[event] ? sunEventTime(calculator, event, day) : SuntimesCalculator.SunEvents.NONE);
+                    }
+                }
 
-                        default:
-                            row[i] = null;
-                            break;
+                for (int event = 0; event < times.length; event++)
+                {
+                    positions[event] = null;
+                    if (needsPosition[event] && times[event] != SuntimesCalculator.SunEvents.NONE)
+                    {
+                        at.setTimeInMillis(times[event]);
+                        positions[event] = calculator.getSunPosition(at);
                     }
                 }
-                retValue.addRow(row);
-                day.add(Calendar.DAY_OF_YEAR, 1);
-            } while (day.before(endDay));
 
-        } else Log.w("CalculatorProvider", "querySun: sunSource is null!");
-        return retValue;
-    }
+                for (int i=0; i<events.length; i++)
+                {
+                    int event = events[i];
+                    if (event < 0) {
+                        continue;
+                    }
 
-    protected static Double getPositionValueForSunKey(@NonNull SuntimesCalculator calculator, @Nullable Calendar calendar, String rootKey, String fullKey, Map<String, SuntimesCalculator.SunPosition> positions)
-    {
-        if (!positions.containsKey(rootKey)) {
-            positions.put(rootKey, calendar != null ? calculator.getSunPosition(calendar) : null);
+                    if (fields[i] == FIELD_TIME)
+                    {
+                        if (times[event] != SuntimesCalculator.SunEvents.NONE) {
+                            cursor.setLong(row, i, times[event]);
+                        }
+
+                    } else if (positions[event] != null) {
+                        SuntimesCalculator.SunPosition position = positions[event];
+                        switch (fields[i])
+                        {
+                            case 0: cursor.setDouble(row, i, position.azimuth); break;
+                            case 1: cursor.setDouble(row, i, position.elevation); break;
+                            case 2: cursor.setDouble(row, i, position.rightAscension); break;
+                            case 3: cursor.setDouble(row, i, position.declination); break;
+                        }
+                    }
+                }
+            }
         }
-        SuntimesCalculator.SunPosition position = positions.get(rootKey);
-
-        String ROOT_KEY_PLUS_POSITION_AZ = rootKey + _POSITION_AZ;
-        String ROOT_KEY_PLUS_POSITION_ALT = rootKey + _POSITION_ALT;
-        String ROOT_KEY_PLUS_POSITION_RA = rootKey + _POSITION_RA;
-        String ROOT_KEY_PLUS_POSITION_DEC = rootKey + _POSITION_DEC;
-        String[] ROOT_KEY_PLUS_POSITION = new String[] { ROOT_KEY_PLUS_POSITION_AZ, ROOT_KEY_PLUS_POSITION_ALT, ROOT_KEY_PLUS_POSITION_RA, ROOT_KEY_PLUS_POSITION_DEC };    // 0, 1, 2, 3
 
-        int j = -1;    // index into ROOT_KEY_PLUS_POSITION
-        for (int i=0; i<ROOT_KEY_PLUS_POSITION.length; i++)
+        /**
+         * @return time of a single event (millis), or SunEvents.NONE
+         */
+        protected static long sunEventTime(SuntimesCalculator calculator, int event, Calendar day)
         {
-            if (ROOT_KEY_PLUS_POSITION[i].equals(fullKey)) {
-                j = i;
-                break;
+            Calendar[] blueHour;
+            Calendar time;
+            switch (event)
+            {
+                case SuntimesCalculator.SunEvents.ASTRONOMICAL_RISE: time = calculator.getAstronomicalSunriseCalendarForDate(day); break;
+                case SuntimesCalculator.SunEvents.NAUTICAL_RISE: time = calculator.getNauticalSunriseCalendarForDate(day); break;
+                case SuntimesCalculator.SunEvents.CIVIL_RISE: time = calculator.getCivilSunriseCalendarForDate(day); break;
+                case SuntimesCalculator.SunEvents.OFFICIAL_RISE: time = calculator.getOfficialSunriseCalendarForDate(day); break;
+                case SuntimesCalculator.SunEvents.NOON: time = calculator.getSolarNoonCalendarForDate(day); break;
+                case SuntimesCalculator.SunEvents.OFFICIAL_SET: time = calculator.getOfficialSunsetCalendarForDate(day); break;
+                case SuntimesCalculator.SunEvents.CIVIL_SET: time = calculator.getCivilSunsetCalendarForDate(day); break;
+                case SuntimesCalculator.SunEvents.NAUTICAL_SET: time = calculator.getNauticalSunsetCalendarForDate(day); break;
+                case SuntimesCalculator.SunEvents.ASTRONOMICAL_SET: time = calculator.getAstronomicalSunsetCalendarForDate(day); break;
+                case SuntimesCalculator.SunEvents.GOLDEN_MORNING: time = calculator.getMorningGoldenHourForDate(day); break;
+                case SuntimesCalculator.SunEvents.GOLDEN_EVENING: time = calculator.getEveningGoldenHourForDate(day); break;
+
+                case SuntimesCalculator.SunEvents.BLUE8_RISE: case SuntimesCalculator.SunEvents.BLUE4_RISE:
+                    blueHour = calculator.getMorningBlueHourForDate(day);
+                    time = (blueHour != null && blueHour.length >= 2) ? blueHour[event == SuntimesCalculator.SunEvents.BLUE8_RISE ? 0 : 1] : null;
+                    break;
+
+                case SuntimesCalculator.SunEvents.BLUE4_SET: case SuntimesCalculator.SunEvents.BLUE8_SET:
+                    blueHour = calculator.getEveningBlueHourForDate(day);
+                    time = (blueHour != null && blueHour.length >= 2) ? blueHour[event == SuntimesCalculator.SunEvents.BLUE4_SET ? 0 : 1] : null;
+                    break;
+
+                default: time = null; break;
             }
+            return (time != null ? time.getTimeInMillis() : SuntimesCalculator.SunEvents.NONE);
         }
-        switch (j)
-        {
-            case 0: return (position != null ? position.azimuth : null);
-            case 1: return (position != null ? position.elevation : null);
-            case 2: return (position != null ? position.rightAscension : null);
-            case 3: return (position != null ? position.declination : null);
-        }
-        return null;
+    }
+
+    protected static final HashMap<String, Integer> SUN_COLUMN_EVENTS = new HashMap<>();
+    static {
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_ACTUAL_RISE, SuntimesCalculator.SunEvents.OFFICIAL_RISE);
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_ACTUAL_SET, SuntimesCalculator.SunEvents.OFFICIAL_SET);
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_CIVIL_RISE, SuntimesCalculator.SunEvents.CIVIL_RISE);
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_CIVIL_SET, SuntimesCalculator.SunEvents.CIVIL_SET);
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_NAUTICAL_RISE, SuntimesCalculator.SunEvents.NAUTICAL_RISE);
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_NAUTICAL_SET, SuntimesCalculator.SunEvents.NAUTICAL_SET);
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_ASTRO_RISE, SuntimesCalculator.SunEvents.ASTRONOMICAL_RISE);
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_ASTRO_SET, SuntimesCalculator.SunEvents.ASTRONOMICAL_SET);
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_NOON, SuntimesCalculator.SunEvents.NOON);
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_GOLDEN_MORNING, SuntimesCalculator.SunEvents.GOLDEN_MORNING);
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_GOLDEN_EVENING, SuntimesCalculator.SunEvents.GOLDEN_EVENING);
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_BLUE8_RISE, SuntimesCalculator.SunEvents.BLUE8_RISE);
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_BLUE4_RISE, SuntimesCalculator.SunEvents.BLUE4_RISE);
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_BLUE4_SET, SuntimesCalculator.SunEvents.BLUE4_SET);
+        SUN_COLUMN_EVENTS.put(COLUMN_SUN_BLUE8_SET, SuntimesCalculator.SunEvents.BLUE8_SET);
     }
 
     public static final String COLUMN_SUN_NOON_AZ = COLUMN_SUN_NOON + _POSITION_AZ;
@@ -798,83 +775,121 @@ public class CalculatorProvider extends ContentProvider
     private Cursor queryMoon(long[] range, @NonNull Uri uri, @Nullable String[] projection, HashMap<String, String> selection, @Nullable String sortOrder)
     {
         String[] columns = (projection != null ? projection : QUERY_MOON_PROJECTION);
-        MatrixCursor retValue = new MatrixCursor(columns);
         SuntimesCalculator calculator = initMoonCalculator(getContext(), selection);
         if (calculator != null)
         {
-            Calendar day = Calendar.getInstance(calculator.getTimeZone());
-            day.setTimeInMillis(range[0]);
+            long[] days = RangeRowEngine.rangeSteps(range[0], range[1] + 1000, calculator.getTimeZone(), Calendar.DAY_OF_YEAR);    // +1000ms (make range[1] inclusive)
+            MoonRangeFiller filler = new MoonRangeFiller(calculator, columns, days);
+            RangeRowEngine.fill(days.length, filler);
+            return filler.cursor;
 
-            Calendar endDay = Calendar.getInstance(calculator.getTimeZone());
-            endDay.setTimeInMillis(range[1] + 1000);    // +1000ms (make range[1] inclusive)
+        } else {
+            Log.w("CalculatorProvider", "queryMoon: moonSource is null!");
+            return new MatrixCursor(columns);
+        }
+    }
 
-            do {
-                SuntimesCalculator.MoonTimes moontimes = null;
-                SuntimesCalculator.MoonPosition position_rising = null, position_setting = null;
-                Object[] row = new Object[columns.length];
-                for (int i=0; i<columns.length; i++)
+    /**
+     * MoonRangeFiller
+     * Fills one row per day; moon times are calculated once per day, positions and illumination only when the projection names them.
+     */
+    protected static class MoonRangeFiller implements RangeRowEngine.RowFiller
+    {
+        protected static final int VALUE_TIME = 0, VALUE_AZ = 1, VALUE_ALT = 2, VALUE_RA = 3, VALUE_DEC = 4, VALUE_DISTANCE = 5, VALUE_ILLUM = 6;
+
+        protected final SuntimesCalculator calculator;
+        protected final long[] days;
+        protected final int[] values;       // per column; VALUE_* (or -1)
+        protected final boolean[] rising;   // per column; rising or setting
+        protected boolean needsTimes = false;
+        protected boolean needsRisePosition = false, needsSetPosition = false;
+        protected boolean needsRiseIllum = false, needsSetIllum = false;
+        public final ColumnarCursor cursor;
+
+        public MoonRangeFiller(SuntimesCalculator calculator, String[] columns, long[] days)
+        {
+            this.calculator = calculator;
+            this.days = days;
+            this.values = new int[columns.length];
+            this.rising = new boolean[columns.length];
+
+            int[] types = new int[columns.length];
+            for (int i=0; i<columns.length; i++)
+            {
+                values[i] = -1;
+                types[i] = ColumnarCursor.TYPE_DOUBLE;
+                switch (columns[i])
                 {
-                    switch (columns[i])
+                    case COLUMN_MOON_RISE: case COLUMN_MOON_SET: values[i] = VALUE_TIME; types[i] = ColumnarCursor.TYPE_LONG; break;
+                    case COLUMN_MOON_RISE_AZ: case COLUMN_MOON_SET_AZ: values[i] = VALUE_AZ; break;
+                    case COLUMN_MOON_RISE_ALT: case COLUMN_MOON_SET_ALT: values[i] = VALUE_ALT; break;
+                    case COLUMN_MOON_RISE_RA: case COLUMN_MOON_SET_RA: values[i] = VALUE_RA; break;
+                    case COLUMN_MOON_RISE_DEC: case COLUMN_MOON_SET_DEC: values[i] = VALUE_DEC; break;
+                    case COLUMN_MOON_RISE_DISTANCE: case COLUMN_MOON_SET_DISTANCE: values[i] = VALUE_DISTANCE; break;
+                    case COLUMN_MOON_RISE_ILLUM: case COLUMN_MOON_SET_ILLUM: values[i] = VALUE_ILLUM; break;
+                    default: types[i] = ColumnarCursor.TYPE_NULL; break;
+                }
+
+                if (values[i] >= 0)
+                {
+                    rising[i] = columns[i].startsWith(COLUMN_MOON_RISE);
+                    needsTimes = true;
+                    if (values[i] == VALUE_ILLUM)
                     {
-                        case COLUMN_MOON_RISE:
-                            moontimes = (moontimes == null ? calculator.getMoonTimesForDate(day) : moontimes);
-                            row[i] = (moontimes.riseTime) != null ? moontimes.riseTime.getTimeInMillis() : null;
-                            break;
-                        case COLUMN_MOON_SET:
-                            moontimes = (moontimes == null ? calculator.getMoonTimesForDate(day) : moontimes);
-                            row[i] = (moontimes.setTime) != null ? moontimes.setTime.getTimeInMillis() : null;
-                            break;
+                        needsRiseIllum |= rising[i];
+                        needsSetIllum |= !rising[i];
 
-                        case COLUMN_MOON_RISE_AZ: case COLUMN_MOON_RISE_ALT:
-                        case COLUMN_MOON_RISE_RA: case COLUMN_MOON_RISE_DEC:
-                        case COLUMN_MOON_RISE_DISTANCE:
-                            moontimes = (moontimes == null ? calculator.getMoonTimesForDate(day) : moontimes);
-                            position_rising = (position_rising == null && moontimes.riseTime != null) ? calculator.getMoonPosition(moontimes.riseTime) : position_rising;
-                            switch (columns[i])
-                            {
-                                case COLUMN_MOON_RISE_AZ: row[i] = (position_rising != null ? position_rising.azimuth : null); break;
-                                case COLUMN_MOON_RISE_ALT: row[i] = (position_rising != null ? position_rising.elevation : null); break;
-                                case COLUMN_MOON_RISE_RA: row[i] = (position_rising != null ? position_rising.rightAscension : null); break;
-                                case COLUMN_MOON_RISE_DEC: row[i] = (position_rising != null ? position_rising.declination : null); break;
-                                case COLUMN_MOON_RISE_DISTANCE: row[i] = (position_rising != null ? position_rising.distance : null); break;
-                            }
-                            break;
+                    } else if (values[i] != VALUE_TIME) {
+                        needsRisePosition |= rising[i];
+                        needsSetPosition |= !rising[i];
+                    }
+                }
+            }
+            cursor = new ColumnarCursor(columns, types, days.length);
+        }
 
-                        case COLUMN_MOON_SET_AZ: case COLUMN_MOON_SET_ALT:
-                        case COLUMN_MOON_SET_RA: case COLUMN_MOON_SET_DEC:
-                        case COLUMN_MOON_SET_DISTANCE:
-                            moontimes = (moontimes == null ? calculator.getMoonTimesForDate(day) : moontimes);
-                            position_setting = (position_setting == null && moontimes.setTime != null) ? calculator.getMoonPosition(moontimes.setTime) : position_setting;
-                            switch (columns[i])
-                            {
-                                case COLUMN_MOON_SET_AZ: row[i] = (position_setting != null ? position_setting.azimuth : null); break;
-                                case COLUMN_MOON_SET_ALT: row[i] = (position_setting != null ? position_setting.elevation : null); break;
-                                case COLUMN_MOON_SET_RA: row[i] = (position_setting != null ? position_setting.rightAscension : null); break;
-                                case COLUMN_MOON_SET_DEC: row[i] = (position_setting != null ? position_setting.declination : null); break;
-                                case COLUMN_MOON_SET_DISTANCE: row[i] = (position_setting != null ? position_setting.distance : null); break;
-                            }
-                            break;
+        @Override
+        public void fillRows(int row0, int row1)
+        {
+            if (!needsTimes) {
+                return;
+            }
 
-                        case COLUMN_MOON_RISE_ILLUM:
-                            moontimes = (moontimes == null ? calculator.getMoonTimesForDate(day) : moontimes);
-                            row[i] = (moontimes.riseTime) != null ? calculator.getMoonIlluminationForDate(moontimes.riseTime) : null;
-                            break;
-                        case COLUMN_MOON_SET_ILLUM:
-                            moontimes = (moontimes == null ? calculator.getMoonTimesForDate(day) : moontimes);
-                            row[i] = (moontimes.setTime) != null ? calculator.getMoonIlluminationForDate(moontimes.setTime) : null;
-                            break;
+            Calendar day = Calendar.getInstance(calculator.getTimeZone());
+            for (int row = row0; row < row1; row++)
+            {
+                day.setTimeInMillis(days[row]);
+                SuntimesCalculator.MoonTimes moontimes = calculator.getMoonTimesForDate(day);
+                SuntimesCalculator.MoonPosition position_rising = (needsRisePosition && moontimes.riseTime != null) ? calculator.getMoonPosition(moontimes.riseTime) : null;
+                SuntimesCalculator.MoonPosition position_setting = (needsSetPosition && moontimes.setTime != null) ? calculator.getMoonPosition(moontimes.setTime) : null;
+                double illum_rising = (needsRiseIllum && moontimes.riseTime != null) ? calculator.getMoonIlluminationForDate(moontimes.riseTime) : 0;
+                double illum_setting = (needsSetIllum && moontimes.setTime != null) ? calculator.getMoonIlluminationForDate(moontimes.setTime) : 0;
+
+                for (int i=0; i<values.length; i++)
+                {
+                    Calendar time = (rising[i] ? moontimes.riseTime : moontimes.setTime);
+                    if (values[i] < 0 || time == null) {
+                        continue;
+                    }
 
-                        default:
-                            row[i] = null;
-                            break;
+                    SuntimesCalculator.MoonPosition position = (rising[i] ? position_rising : position_setting);
+                    if (position == null && values[i] != VALUE_TIME && values[i] != VALUE_ILLUM) {
+                        continue;
                     }
-                }
-                retValue.addRow(row);
-                day.add(Calendar.DAY_OF_YEAR, 1);
-            } while (day.before(endDay));
 
-        } else Log.w("CalculatorProvider", "queryMoon: moonSource is null!");
-        return retValue;
+                    switch (values[i])
+                    {
+                        case VALUE_TIME: cursor.setLong(row, i, time.getTimeInMillis()); break;
+                        case VALUE_ILLUM: cursor.setDouble(row, i, (rising[i] ? illum_rising : illum_setting)); break;
+                        case VALUE_AZ: cursor.setDouble(row, i, position.azimuth); break;
+                        case VALUE_ALT: cursor.setDouble(row, i, position.elevation); break;
+                        case VALUE_RA: cursor.setDouble(row, i, position.rightAscension); break;
+                        case VALUE_DEC: cursor.setDouble(row, i, position.declination); break;
+                        case VALUE_DISTANCE: cursor.setDouble(row, i, position.distance); break;
+                    }
+                }
+            }
+        }
     }
 
     public static final String COLUMN_MOON_RISE_AZ = COLUMN_MOON_RISE + _POSITION_AZ;
@@ -1062,93 +1077,125 @@ public class CalculatorProvider extends ContentProvider
     private Cursor querySeasons(long[] range, @NonNull Uri uri, @Nullable String[] projection, HashMap<String, String> selection, @Nullable String sortOrder)
     {
         String[] columns = (projection != null ? projection : QUERY_SEASONS_PROJECTION);
-        MatrixCursor retValue = new MatrixCursor(columns);
         SuntimesCalculator calculator = initSunCalculator(getContext(), selection);
         if (calculator != null)
         {
-            Calendar year = Calendar.getInstance(calculator.getTimeZone());
-            year.setTimeInMillis(range[0]);
-
-            Calendar year0 = Calendar.getInstance(calculator.getTimeZone());
-            year0.setTimeInMillis(year.getTimeInMillis());
-            year0.add(Calendar.YEAR, -1);
-
             Calendar endYear = Calendar.getInstance(calculator.getTimeZone());
             endYear.setTimeInMillis(range[1]);
             endYear.add(Calendar.YEAR, 1);                   // +1 year (make range[1] inclusive)
 
-            do {
-                Object[] row = new Object[columns.length];
-                for (int i=0; i<columns.length; i++)
-                {
-                    Calendar event;
-                    switch (columns[i])
-                    {
-                        case COLUMN_SEASON_YEAR:
-                            row[i] = year.get(Calendar.YEAR);
-                            break;
+            long[] years = RangeRowEngine.rangeSteps(range[0], endYear.getTimeInMillis(), calculator.getTimeZone(), Calendar.YEAR);
+            SeasonsRangeFiller filler = new SeasonsRangeFiller(calculator, columns, years);
+            RangeRowEngine.fill(years.length, filler);
+            return filler.cursor;
 
-                        case COLUMN_SEASON_TROPICAL_YEAR_LENGTH:
-                            row[i] = calculator.getTropicalYearLength(year);
-                            break;
+        } else {
+            Log.w("CalculatorProvider", "querySeasons: sunSource is null!");
+            return new MatrixCursor(columns);
+        }
+    }
 
-                        case COLUMN_SEASON_CROSS_SPRING:
-                            event = SuntimesData.midpoint(calculator.getSpringEquinoxForYear(year), calculator.getSummerSolsticeForYear(year));
-                            row[i] = (event != null ? event.getTimeInMillis() : null);
-                            break;
+    /**
+     * SeasonsRangeFiller
+     * Fills one row per year; each equinox/solstice is calculated at most once per row, and only if the projection needs it.
+     */
+    protected static class SeasonsRangeFiller implements RangeRowEngine.RowFiller
+    {
+        protected static final int SPRING = 0, SUMMER = 1, AUTUMN = 2, WINTER = 3, SUMMER0 = 4, WINTER0 = 5;    // SUMMER0, WINTER0 are from the previous year
 
-                        case COLUMN_SEASON_CROSS_AUTUMN:
-                            event = SuntimesData.midpoint(calculator.getAutumnalEquinoxForYear(year), calculator.getWinterSolsticeForYear(year));
-                            row[i] = (event != null ? event.getTimeInMillis() : null);
-                            break;
+        protected final SuntimesCalculator calculator;
+        protected final long[] years;
+        protected final String[] columns;
+        protected final boolean[] needs = new boolean[6];
+        protected final boolean northernHemisphere;
+        public final ColumnarCursor cursor;
 
-                        case COLUMN_SEASON_CROSS_SUMMER:
-                            event = (calculator.getLocation().getLatitudeAsDouble() >= 0)
-                                    ? SuntimesData.midpoint(calculator.getSummerSolsticeForYear(year), calculator.getAutumnalEquinoxForYear(year))
-                                    : SuntimesData.midpoint(calculator.getSummerSolsticeForYear(year0), calculator.getAutumnalEquinoxForYear(year));
-                            row[i] = (event != null ? event.getTimeInMillis() : null);
-                            break;
+        public SeasonsRangeFiller(SuntimesCalculator calculator, String[] columns, long[] years)
+        {
+            this.calculator = calculator;
+            this.columns = columns;
+            this.years = years;
+            this.northernHemisphere = (calculator.getLocation().getLatitudeAsDouble() >= 0);
 
-                        case COLUMN_SEASON_CROSS_WINTER:
-                            event = (calculator.getLocation().getLatitudeAsDouble() >= 0)
-                                    ? SuntimesData.midpoint(calculator.getWinterSolsticeForYear(year0), calculator.getSpringEquinoxForYear(year))
-                                    : SuntimesData.midpoint(calculator.getWinterSolsticeForYear(year), calculator.getSpringEquinoxForYear(year));
-                            row[i] = (event != null ? event.getTimeInMillis() : null);
-                            break;
+            int[] types = new int[columns.length];
+            for (int i=0; i<columns.length; i++)
+            {
+                types[i] = ColumnarCursor.TYPE_LONG;
+                switch (columns[i])
+                {
+                    case COLUMN_SEASON_YEAR: case COLUMN_SEASON_TROPICAL_YEAR_LENGTH: break;
+                    case COLUMN_SEASON_VERNAL: case COLUMN_SEASON_SPRING: needs[SPRING] = true; break;
+                    case COLUMN_SEASON_SUMMER: needs[SUMMER] = true; break;
+                    case COLUMN_SEASON_AUTUMN: needs[AUTUMN] = true; break;
+                    case COLUMN_SEASON_WINTER: needs[WINTER] = true; break;
+                    case COLUMN_SEASON_CROSS_SPRING: needs[SPRING] = needs[SUMMER] = true; break;
+                    case COLUMN_SEASON_CROSS_AUTUMN: needs[AUTUMN] = needs[WINTER] = true; break;
+
+                    case COLUMN_SEASON_CROSS_SUMMER:
+                        needs[AUTUMN] = true;
+                        needs[northernHemisphere ? SUMMER : SUMMER0] = true;
+                        break;
 
-                        case COLUMN_SEASON_VERNAL:
-                        case COLUMN_SEASON_SPRING:
-                            event = calculator.getSpringEquinoxForYear(year);
-                            row[i] = (event != null ? event.getTimeInMillis() : null);
-                            break;
+                    case COLUMN_SEASON_CROSS_WINTER:
+                        needs[SPRING] = true;
+                        needs[northernHemisphere ? WINTER0 : WINTER] = true;
+                        break;
 
-                        case COLUMN_SEASON_SUMMER:
-                            event = calculator.getSummerSolsticeForYear(year);
-                            row[i] = (event != null ? event.getTimeInMillis() : null);
-                            break;
+                    default: types[i] = ColumnarCursor.TYPE_NULL; break;
+                }
+            }
+            cursor = new ColumnarCursor(columns, types, years.length);
+        }
 
-                        case COLUMN_SEASON_AUTUMN:
-                            event = calculator.getAutumnalEquinoxForYear(year);
-                            row[i] = (event != null ? event.getTimeInMillis() : null);
-                            break;
+        @Override
+        public void fillRows(int row0, int row1)
+        {
+            Calendar year = Calendar.getInstance(calculator.getTimeZone());
+            Calendar year0 = Calendar.getInstance(calculator.getTimeZone());
+            Calendar[] events = new Calendar[needs.length];
 
-                        case COLUMN_SEASON_WINTER:
-                            event = calculator.getWinterSolsticeForYear(year);
-                            row[i] = (event != null ? event.getTimeInMillis() : null);
-                            break;
+            for (int row = row0; row < row1; row++)
+            {
+                year.setTimeInMillis(years[row]);
+                year0.setTimeInMillis(years[row]);
+                year0.add(Calendar.YEAR, -1);
 
-                        default:
-                            row[i] = null;
-                            break;
+                events[SPRING] = (needs[SPRING] ? calculator.getSpringEquinoxForYear(year) : null);
+                events[SUMMER] = (needs[SUMMER] ? calculator.getSummerSolsticeForYear(year) : null);
+                events[AUTUMN] = (needs[AUTUMN] ? calculator.getAutumnalEquinoxForYear(year) : null);
+                events[WINTER] = (needs[WINTER] ? calculator.getWinterSolsticeForYear(year) : null);
+                events[SUMMER0] = (needs[SUMMER0] ? calculator.getSummerSolsticeForYear(year0) : null);
+                events[WINTER0] = (needs[WINTER0] ? calculator.getWinterSolsticeForYear(year0) : null);
+
+                for (int i=0; i<columns.length; i++)
+                {
+                    Calendar event;
+                    switch (columns[i])
+                    {
+                        case COLUMN_SEASON_YEAR:
+                            cursor.setLong(row, i, year.get(Calendar.YEAR));
+                            continue;
+
+                        case COLUMN_SEASON_TROPICAL_YEAR_LENGTH:
+                            cursor.setLong(row, i, calculator.getTropicalYearLength(year));
+                            continue;
+
+                        case COLUMN_SEASON_CROSS_SPRING: event = SuntimesData.midpoint(events[SPRING], events[SUMMER]); break;
+                        case COLUMN_SEASON_CROSS_AUTUMN: event = SuntimesData.midpoint(events[AUTUMN], events[WINTER]); break;
+                        case COLUMN_SEASON_CROSS_SUMMER: event = SuntimesData.midpoint(events[northernHemisphere ? SUMMER : SUMMER0], events[AUTUMN]); break;
+                        case COLUMN_SEASON_CROSS_WINTER: event = SuntimesData.midpoint(events[northernHemisphere ? WINTER0 : WINTER], events[SPRING]); break;
+                        case COLUMN_SEASON_VERNAL: case COLUMN_SEASON_SPRING: event = events[SPRING]; break;
+                        case COLUMN_SEASON_SUMMER: event = events[SUMMER]; break;
+                        case COLUMN_SEASON_AUTUMN: event = events[AUTUMN]; break;
+                        case COLUMN_SEASON_WINTER: event = events[WINTER]; break;
+                        default: event = null; break;
+                    }
+                    if (event != null) {
+                        cursor.setLong(row, i, event.getTimeInMillis());
                     }
                 }
-                retValue.addRow(row);
-                year.add(Calendar.YEAR, 1);
-                year0.add(Calendar.YEAR, 1);
-            } while (year.before(endYear));
-
-        } else Log.w("CalculatorProvider", "querySeasons: sunSource is null!");
-        return retValue;
+            }
+        }
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -1189,24 +1236,23 @@ public class CalculatorProvider extends ContentProvider
                 descriptor = (calculatorName == null ? WidgetSettings.loadCalculatorModePref(context, appWidgetID)
                         : WidgetSettings.loadCalculatorModePref(context, appWidgetID, calculatorName));
             }
-            SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(context, descriptor);
             //Log.d("CalculatorProvider", "initCalculator: " + location.getLabel() + " :: " + location.toString());
-            return factory.createCalculator(location, timezone);
+            return CalculatorPool.get(context, descriptor, location, timezone);
         }
     }
 
-    private static SparseArray<SuntimesCalculator> sunSource = new SparseArray<>();    // sun source for appWidgetID (app is 0)
     private static SuntimesCalculator initSunCalculator(Context context, int appWidgetID)
     {
-        SuntimesCalculator retValue = sunSource.get(appWidgetID);   // lazy init
-        if (retValue == null)
+        SuntimesCalculator retValue = CalculatorPool.getConfigured(appWidgetID, "");   // sun source for appWidgetID (app is 0)
+        if (retValue == null)    // lazy init
         {
+            long generation = CalculatorPool.generation();
             WidgetSettings.initDefaults(context);
             Location location = WidgetSettings.loadLocationPref(context, appWidgetID);
             TimeZone timezone = initTimeZone(context, appWidgetID);
+            boolean followsDefaultTimezone = (WidgetSettings.loadTimezoneModePref(context, appWidgetID) == WidgetSettings.TimezoneMode.CURRENT_TIMEZONE);
             SuntimesCalculatorDescriptor descriptor = WidgetSettings.loadCalculatorModePref(context, appWidgetID);
-            SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(context, descriptor);
-            sunSource.put(appWidgetID, (retValue = factory.createCalculator(location, timezone)));
+            retValue = CalculatorPool.putConfigured(context, appWidgetID, "", generation, descriptor, location, timezone, followsDefaultTimezone);
             //Log.d("CalculatorProvider", "initSunCalculator: " + location.getLabel() + " :: " + location.toString());
         } //else Log.d("CalculatorProvider", "initSunCalculator: using pre-existing calculator");
         return retValue;
@@ -1215,18 +1261,18 @@ public class CalculatorProvider extends ContentProvider
         return initCalculator(context, selection, null);
     }
 
-    private static SparseArray<SuntimesCalculator> moonSource = new SparseArray<>();   // moon source for appWidgetID (app is 0)
     private static SuntimesCalculator initMoonCalculator(Context context, int appWidgetID)
     {
-        SuntimesCalculator retValue = moonSource.get(appWidgetID);
+        SuntimesCalculator retValue = CalculatorPool.getConfigured(appWidgetID, "moon");   // moon source for appWidgetID (app is 0)
         if (retValue == null)    // lazy init
         {
+            long generation = CalculatorPool.generation();
             WidgetSettings.initDefaults(context);
             Location location = WidgetSettings.loadLocationPref(context, appWidgetID);
             TimeZone timezone = initTimeZone(context, appWidgetID);
+            boolean followsDefaultTimezone = (WidgetSettings.loadTimezoneModePref(context, appWidgetID) == WidgetSettings.TimezoneMode.CURRENT_TIMEZONE);
             SuntimesCalculatorDescriptor descriptor = WidgetSettings.loadCalculatorModePref(context, 0, "moon");      // always use app calculator (0)
-            SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(context, descriptor);
-            moonSource.put(appWidgetID, (retValue = factory.createCalculator(location, timezone)));
+            retValue = CalculatorPool.putConfigured(context, appWidgetID, "moon", generation, descriptor, location, timezone, followsDefaultTimezone);
             //Log.d("CalculatorProvider", "initMoonCalculator: " + location.getLabel() + " :: " + location.toString());
         } //else Log.d("CalculatorProvider", "initMoonCalculator: using pre-existing calculator");
         return retValue;
@@ -1249,8 +1295,7 @@ public class CalculatorProvider extends ContentProvider
 
     public static void clearCachedConfig(int appWidgetID)
     {
-        sunSource.remove(appWidgetID);
-        moonSource.remove(appWidgetID);
+        CalculatorPool.invalidate(appWidgetID);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -0,0 +1,177 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.database.AbstractCursor;
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+
+/**
+ * ColumnarCursor
+ * A fixed size cursor that stores its values in primitive columns (long[] or double[]) rather than boxed rows.
+ *
+ * Every value starts out null; rows are filled with setLong / setDouble (different rows may be filled from different
+ * threads, but each row from only one thread, and all rows before the cursor is handed out). Columns with TYPE_NULL
+ * have no storage (unknown column names requested by a projection).
+ */
+public class ColumnarCursor extends AbstractCursor
+{
+    public static final int TYPE_NULL = 0;
+    public static final int TYPE_LONG = 1;
+    public static final int TYPE_DOUBLE = 2;
+
+    protected final String[] columnNames;
+    protected final int[] types;
+    protected final int rowCount;
+
+    protected final long[][] longs;        // [column][row]; null unless TYPE_LONG
+    protected final double[][] doubles;    // [column][row]; null unless TYPE_DOUBLE
+    protected final boolean[][] hasValue;  // [column][row]
+
+    /**
+     * @param columnNames column names
+     * @param types column types (TYPE_NULL, TYPE_LONG, TYPE_DOUBLE); one per column
+     * @param rowCount number of rows
+     */
+    public ColumnarCursor(@NonNull String[] columnNames, @NonNull int[] types, int rowCount)
+    {
+        if (types.length != columnNames.length) {
+            throw new IllegalArgumentException("types.length must match columnNames.length");
+        }
+        this.columnNames = columnNames;
+        this.types = types;
+        this.rowCount = rowCount;
+
+        longs = new long[columnNames.length][];
+        doubles = new double[columnNames.length][];
+        hasValue = new boolean[columnNames.length][];
+        for (int i=0; i<columnNames.length; i++)
+        {
+            switch (types[i])
+            {
+                case TYPE_LONG:
+                    longs[i] = new long[rowCount];
+                    hasValue[i] = new boolean[rowCount];
+                    break;
+                case TYPE_DOUBLE:
+                    doubles[i] = new double[rowCount];
+                    hasValue[i] = new boolean[rowCount];
+                    break;
+            }
+        }
+    }
+
+    public void setLong(int row, int column, long value)
+    {
+        longs[column][row] = value;
+        hasValue[column][row] = true;
+    }
+
+    public void setLong(int row, int column, Long value)
+    {
+        if (value != null) {
+            setLong(row, column, value.longValue());
+        }
+    }
+
+    public void setDouble(int row, int column, double value)
+    {
+        doubles[column][row] = value;
+        hasValue[column][row] = true;
+    }
+
+    public void setDouble(int row, int column, Double value)
+    {
+        if (value != null) {
+            setDouble(row, column, value.doubleValue());
+        }
+    }
+
+    public int getColumnType(int column) {
+        return types[column];
+    }
+
+    @Override
+    public int getCount() {
+        return rowCount;
+    }
+
+    @Override
+    public String[] getColumnNames() {
+        return columnNames;
+    }
+
+    @Override
+    public boolean isNull(int column)
+    {
+        checkPosition();
+        return (hasValue[column] == null || !hasValue[column][mPos]);
+    }
+
+    @Override
+    public int getType(int column)
+    {
+        if (isNull(column)) {
+            return Cursor.FIELD_TYPE_NULL;
+        }
+        return (types[column] == TYPE_DOUBLE ? Cursor.FIELD_TYPE_FLOAT : Cursor.FIELD_TYPE_INTEGER);
+    }
+
+    @Override
+    public long getLong(int column)
+    {
+        if (isNull(column)) {
+            return 0;
+        }
+        return (types[column] == TYPE_DOUBLE ? (long) doubles[column][mPos] : longs[column][mPos]);
+    }
+
+    @Override
+    public double getDouble(int column)
+    {
+        if (isNull(column)) {
+            return 0;
+        }
+        return (types[column] == TYPE_DOUBLE ? doubles[column][mPos] : (double) longs[column][mPos]);
+    }
+
+    @Override
+    public String getString(int column)
+    {
+        if (isNull(column)) {
+            return null;
+        }
+        return (types[column] == TYPE_DOUBLE ? Double.toString(doubles[column][mPos]) : Long.toString(longs[column][mPos]));
+    }
+
+    @Override
+    public short getShort(int column) {
+        return (short) getLong(column);
+    }
+
+    @Override
+    public int getInt(int column) {
+        return (int) getLong(column);
+    }
+
+    @Override
+    public float getFloat(int column) {
+        return (float) getDouble(column);
+    }
+}
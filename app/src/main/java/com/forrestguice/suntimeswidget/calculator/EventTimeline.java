@@ -0,0 +1,237 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * EventTimeline
+ * The events of a calculation (e.g. the rise and set times of a dataset) as a sorted array of (time, id); the id
+ * identifies the event to the owner of the timeline (e.g. an index into its own list of events).
+ *
+ * A timeline is built once per calculation (@see Builder); the next event is then a binary search (@see indexAfter),
+ * and a Cursor can follow the current time forward without searching again.
+ */
+public class EventTimeline
+{
+    protected final long[] times;
+    protected final int[] ids;
+
+    protected EventTimeline(@NonNull long[] times, @NonNull int[] ids)
+    {
+        this.times = times;
+        this.ids = ids;
+    }
+
+    public int size() {
+        return times.length;
+    }
+
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    public int getID(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @param millis time
+     * @return the index of the first event after millis, or size() if there are no events after millis
+     */
+    public int indexAfter(long millis)
+    {
+        int low = 0, high = times.length;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param millis time
+     * @param id event id
+     * @return the index of the first event with id after millis, or -1 if there is none
+     */
+    public int indexAfter(long millis, int id)
+    {
+        for (int i = indexAfter(millis); i < times.length; i++)
+        {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return a cursor positioned at the first event after millis
+     */
+    @NonNull
+    public Cursor cursor(long millis) {
+        return new Cursor(this, millis);
+    }
+
+    @Override
+    public String toString() {
+        return "EventTimeline[" + times.length + "]";
+    }
+
+    /**
+     * Cursor
+     * The position of the next event (relative to a time that usually only moves forward).
+     */
+    public static class Cursor
+    {
+        protected final EventTimeline timeline;
+        protected int index;
+        protected long millis;
+
+        protected Cursor(@NonNull EventTimeline timeline, long millis)
+        {
+            this.timeline = timeline;
+            this.millis = millis;
+            this.index = timeline.indexAfter(millis);
+        }
+
+        /**
+         * Moves the cursor to the first event after millis.
+         * @return the index of the next event, or size() if there are no more events
+         */
+        public int advance(long millis)
+        {
+            if (millis < this.millis) {
+                index = timeline.indexAfter(millis);    // moved backward; search again
+
+            } else {
+                while (index < timeline.times.length && timeline.times[index] <= millis) {
+                    index++;
+                }
+            }
+            this.millis = millis;
+            return index;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public boolean hasNext() {
+            return index < timeline.times.length;
+        }
+
+        /**
+         * @return the id of the next event, or -1 if there are no more events
+         */
+        public int getNextID() {
+            return (hasNext() ? timeline.ids[index] : -1);
+        }
+
+        /**
+         * @return the time of the next event, or -1 if there are no more events
+         */
+        public long getNextTime() {
+            return (hasNext() ? timeline.times[index] : -1);
+        }
+    }
+
+    /**
+     * Builder
+     */
+    public static class Builder
+    {
+        protected long[] times;
+        protected int[] ids;
+        protected int count = 0;
+
+        public Builder() {
+            this(16);
+        }
+
+        public Builder(int capacity)
+        {
+            times = new long[Math.max(1, capacity)];
+            ids = new int[times.length];
+        }
+
+        /**
+         * @param time event time (null events are ignored)
+         * @param id event id
+         */
+        public Builder add(@Nullable Calendar time, int id)
+        {
+            if (time != null) {
+                add(time.getTimeInMillis(), id);
+            }
+            return this;
+        }
+
+        public Builder add(long millis, int id)
+        {
+            if (count == times.length)
+            {
+                times = Arrays.copyOf(times, count * 2);
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            times[count] = millis;
+            ids[count] = id;
+            count++;
+            return this;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        /**
+         * @return a timeline sorted by time (events with the same time remain in the order they were added)
+         */
+        @NonNull
+        public EventTimeline build()
+        {
+            long[] t = Arrays.copyOf(times, count);
+            int[] d = Arrays.copyOf(ids, count);
+            for (int i=1; i<count; i++)    // insertion sort; timelines are short (and mostly sorted)
+            {
+                long time = t[i];
+                int id = d[i];
+                int j = i - 1;
+                while (j >= 0 && t[j] > time)
+                {
+                    t[j + 1] = t[j];
+                    d[j + 1] = d[j];
+                    j--;
+                }
+                t[j + 1] = time;
+                d[j + 1] = id;
+            }
+            return new EventTimeline(t, d);
+        }
+    }
+}
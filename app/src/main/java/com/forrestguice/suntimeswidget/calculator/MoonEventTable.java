@@ -0,0 +1,305 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * MoonEventTable
+ * A precomputed table of lunar events (the major phases, perigee, and apogee); each kind of event is a sorted list of
+ * instants (unix millis), so the next event after a given time is a binary search.
+ *
+ * The table is generated offline (@see MoonEventTableGenerator in the unit tests) and shipped as an (uncompressed)
+ * asset that is memory-mapped when loaded. The table covers [startMillis, endMillis); queries outside that range
+ * return -1, and the caller should fall back to calculating the event.
+ *
+ * Format (big-endian): int magic, int version, long startMillis, long endMillis, int kindCount, int[kindCount] counts,
+ * followed by the instants of each kind (long[counts[i]], in kind order).
+ */
+public class MoonEventTable
+{
+    public static final String TAG = "MoonEventTable";
+    public static final String ASSET_NAME = "moon_events.bin";
+
+    public static final int MAGIC = 0x534d4554;    // SMET
+    public static final int VERSION = 1;
+
+    public static final int KIND_NEW_MOON = 0;
+    public static final int KIND_FIRST_QUARTER = 1;
+    public static final int KIND_FULL_MOON = 2;
+    public static final int KIND_THIRD_QUARTER = 3;
+    public static final int KIND_PERIGEE = 4;
+    public static final int KIND_APOGEE = 5;
+    public static final int KIND_COUNT = 6;
+
+    protected final long startMillis, endMillis;
+    protected final LongBuffer[] events;
+
+    protected MoonEventTable(long startMillis, long endMillis, @NonNull LongBuffer[] events)
+    {
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+        this.events = events;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    /**
+     * @return the number of events of a kind
+     */
+    public int size(int kind) {
+        return (kind >= 0 && kind < events.length ? events[kind].limit() : 0);
+    }
+
+    /**
+     * @return true if the table contains every event after millis (up to the end of the table)
+     */
+    public boolean covers(long millis) {
+        return (millis >= startMillis && millis < endMillis);
+    }
+
+    /**
+     * @param kind KIND_NEW_MOON, KIND_FIRST_QUARTER, KIND_FULL_MOON, KIND_THIRD_QUARTER, KIND_PERIGEE, KIND_APOGEE
+     * @param millis time
+     * @return the first event of kind after millis, or -1 if the table doesn't cover it (calculate it instead)
+     */
+    public long nextAfter(int kind, long millis)
+    {
+        if (kind < 0 || kind >= events.length || !covers(millis)) {
+            return -1;
+        }
+
+        LongBuffer values = events[kind];
+        int low = 0, high = values.limit();
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (values.get(mid) <= millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return (low < values.limit() ? values.get(low) : -1);
+    }
+
+    /**
+     * @return the table kind of a moon phase
+     */
+    public static int kindOf(@NonNull SuntimesCalculator.MoonPhase phase)
+    {
+        switch (phase)
+        {
+            case NEW: return KIND_NEW_MOON;
+            case FIRST_QUARTER: return KIND_FIRST_QUARTER;
+            case THIRD_QUARTER: return KIND_THIRD_QUARTER;
+            case FULL: default: return KIND_FULL_MOON;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param buffer a buffer containing a table (e.g. a mapped file)
+     * @return the table (the buffer is used in place)
+     * @throws IOException if the buffer doesn't contain a (supported) table
+     */
+    @NonNull
+    public static MoonEventTable read(@NonNull ByteBuffer buffer) throws IOException
+    {
+        try {
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not a moon event table");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported table version: " + version);
+            }
+
+            long startMillis = buffer.getLong();
+            long endMillis = buffer.getLong();
+            int kindCount = buffer.getInt();
+            if (kindCount < KIND_COUNT) {
+                throw new IOException("table is missing events: " + kindCount);
+            }
+
+            int[] counts = new int[kindCount];
+            for (int i=0; i<kindCount; i++) {
+                counts[i] = buffer.getInt();
+            }
+
+            LongBuffer[] events = new LongBuffer[kindCount];
+            for (int i=0; i<kindCount; i++)
+            {
+                ByteBuffer slice = buffer.slice();
+                slice.order(ByteOrder.BIG_ENDIAN);
+                slice.limit(counts[i] * 8);
+                events[i] = slice.asLongBuffer();
+                buffer.position(buffer.position() + counts[i] * 8);
+            }
+            return new MoonEventTable(startMillis, endMillis, events);
+
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("truncated table: " + e);
+        }
+    }
+
+    /**
+     * @param out output
+     * @param startMillis the start of the table
+     * @param endMillis the end of the table
+     * @param events the (sorted) instants of each kind; must contain every event within [startMillis, endMillis)
+     */
+    public static void write(@NonNull OutputStream out, long startMillis, long endMillis, @NonNull long[][] events) throws IOException
+    {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeLong(startMillis);
+        data.writeLong(endMillis);
+        data.writeInt(events.length);
+        for (long[] values : events) {
+            data.writeInt(values.length);
+        }
+        for (long[] values : events)
+        {
+            for (long value : values) {
+                data.writeLong(value);
+            }
+        }
+        data.flush();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static MoonEventTable table = null;
+    private static boolean loaded = false;
+
+    /**
+     * @return the shared table, or null if it isn't loaded (or isn't available)
+     */
+    @Nullable
+    public static synchronized MoonEventTable getTable() {
+        return table;
+    }
+
+    /**
+     * Loads the shared table from assets (once).
+     * @return the shared table, or null if it isn't available
+     */
+    @Nullable
+    public static synchronized MoonEventTable loadTable(@Nullable Context context)
+    {
+        if (!loaded && context != null)
+        {
+            loaded = true;
+            try {
+                table = read(readAsset(context.getApplicationContext(), ASSET_NAME));
+                Log.i(TAG, "loaded " + ASSET_NAME);
+
+            } catch (FileNotFoundException e) {
+                Log.i(TAG, ASSET_NAME + " is unavailable; moon events will be calculated.");
+
+            } catch (IOException e) {
+                Log.w(TAG, "failed to load " + ASSET_NAME + "; moon events will be calculated. " + e);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @return the asset (memory-mapped if it is stored uncompressed, otherwise read into memory)
+     */
+    protected static ByteBuffer readAsset(@NonNull Context context, String name) throws IOException
+    {
+        try {
+            AssetFileDescriptor descriptor = context.getAssets().openFd(name);
+            FileInputStream in = descriptor.createInputStream();
+            try {
+                FileChannel channel = in.getChannel();
+                return channel.map(FileChannel.MapMode.READ_ONLY, descriptor.getStartOffset(), descriptor.getLength());
+            } finally {
+                in.close();
+            }
+
+        } catch (FileNotFoundException e) {
+            if (!hasAsset(context, name)) {
+                throw e;
+            }
+        }
+
+        InputStream in = context.getAssets().open(name);    // compressed asset
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, n);
+            }
+            return ByteBuffer.wrap(bytes.toByteArray());
+        } finally {
+            in.close();
+        }
+    }
+
+    protected static boolean hasAsset(@NonNull Context context, String name)
+    {
+        try {
+            String[] assets = context.getAssets().list("");
+            if (assets != null) {
+                for (String asset : assets) {
+                    if (asset.equals(name)) {
+                        return true;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "hasAsset: " + e);
+        }
+        return false;
+    }
+}
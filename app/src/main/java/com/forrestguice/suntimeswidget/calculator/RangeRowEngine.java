@@ -0,0 +1,150 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * RangeRowEngine
+ * Fills the rows of a range query (one row per day, or per year) in parallel; rows are split into contiguous
+ * chunks and each chunk is filled by a RowFiller on a small thread pool (the first chunk on the calling thread).
+ *
+ * Fillers share a single calculator; the calculators in this package only hold their (immutable) configuration
+ * after construction, and CachedSuntimesCalculator synchronizes its cache.
+ */
+public class RangeRowEngine
+{
+    public static final int MIN_ROWS_PER_CHUNK = 16;    // smaller ranges are filled on the calling thread
+    protected static final int NUM_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static ExecutorService executor = null;
+    protected static synchronized ExecutorService getExecutor()
+    {
+        if (executor == null)
+        {
+            executor = Executors.newFixedThreadPool(NUM_THREADS, new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(@NonNull Runnable r)
+                {
+                    Thread thread = new Thread(r, "RangeRowEngine");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * RowFiller
+     */
+    public interface RowFiller
+    {
+        /**
+         * Fills rows [row0, row1); may be called concurrently for different (non-overlapping) chunks.
+         */
+        void fillRows(int row0, int row1);
+    }
+
+    /**
+     * Fills rows [0, rowCount) and waits until all chunks are done.
+     * @throws RuntimeException if a chunk failed (rethrown from the worker)
+     */
+    public static void fill(int rowCount, @NonNull final RowFiller filler)
+    {
+        int numChunks = Math.max(1, Math.min(NUM_THREADS, rowCount / MIN_ROWS_PER_CHUNK));
+        int chunkSize = (int) Math.ceil(rowCount / (double) numChunks);
+
+        List<Future<Void>> results = new ArrayList<>();
+        for (int i = 1; i < numChunks; i++)
+        {
+            final int row0 = i * chunkSize;
+            final int row1 = Math.min(rowCount, row0 + chunkSize);
+            if (row0 >= row1) {
+                break;
+            }
+            results.add(getExecutor().submit(new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                {
+                    filler.fillRows(row0, row1);
+                    return null;
+                }
+            }));
+        }
+        filler.fillRows(0, Math.min(rowCount, chunkSize));    // first chunk on the calling thread
+
+        for (Future<Void> result : results)
+        {
+            try {
+                result.get();
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw (cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause));
+            }
+        }
+    }
+
+    /**
+     * @param start start of the range (millis)
+     * @param end end of the range (millis, exclusive)
+     * @param field Calendar.DAY_OF_YEAR or Calendar.YEAR
+     * @return the start of each step (millis) from start until end; at least one value
+     */
+    public static long[] rangeSteps(long start, long end, TimeZone timezone, int field)
+    {
+        Calendar calendar = Calendar.getInstance(timezone);
+        calendar.setTimeInMillis(start);
+
+        long[] steps = new long[(field == Calendar.YEAR) ? 4 : 32];
+        int n = 0;
+        do {
+            if (n == steps.length)
+            {
+                long[] grown = new long[steps.length * 2];
+                System.arraycopy(steps, 0, grown, 0, n);
+                steps = grown;
+            }
+            steps[n++] = calendar.getTimeInMillis();
+            calendar.add(field, 1);
+        } while (calendar.getTimeInMillis() < end);
+
+        long[] result = new long[n];
+        System.arraycopy(steps, 0, result, 0, n);
+        return result;
+    }
+}
@@ -0,0 +1,236 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.HashMap;
+
+/**
+ * SeasonTable
+ * A precomputed table of equinoxes and solstices (northern hemisphere), indexed by year; a lookup is O(1).
+ * The tropical year is the distance between successive spring equinoxes (@see getTropicalYearLength).
+ *
+ * Tables are specific to a calculator (family), generated offline (@see SeasonTableGenerator in the unit tests),
+ * and shipped as an (uncompressed) asset named `seasons_<calculator>.bin`. A table is loaded on first use; years
+ * outside the table return -1, and the caller should fall back to calculating the event.
+ *
+ * Format (big-endian): int magic, int version, UTF calculator, int startYear, int yearCount,
+ * followed by long[yearCount * 4] (the spring equinox, summer solstice, autumnal equinox, and winter solstice of each year).
+ */
+public class SeasonTable
+{
+    public static final String TAG = "SeasonTable";
+    public static final String ASSET_PREFIX = "seasons_";
+    public static final String ASSET_SUFFIX = ".bin";
+
+    public static final int MAGIC = 0x53534541;    // SSEA
+    public static final int VERSION = 1;
+
+    public static final int SPRING_EQUINOX = 0;
+    public static final int SUMMER_SOLSTICE = 1;
+    public static final int AUTUMNAL_EQUINOX = 2;
+    public static final int WINTER_SOLSTICE = 3;
+    public static final int SEASON_COUNT = 4;
+
+    protected final String calculator;
+    protected final int startYear, yearCount;
+    protected final LongBuffer events;
+
+    protected SeasonTable(@NonNull String calculator, int startYear, int yearCount, @NonNull LongBuffer events)
+    {
+        this.calculator = calculator;
+        this.startYear = startYear;
+        this.yearCount = yearCount;
+        this.events = events;
+    }
+
+    public String getCalculator() {
+        return calculator;
+    }
+
+    public int getStartYear() {
+        return startYear;
+    }
+
+    /**
+     * @return the last year in the table (inclusive)
+     */
+    public int getEndYear() {
+        return startYear + yearCount - 1;
+    }
+
+    public boolean covers(int year) {
+        return (year >= startYear && year < startYear + yearCount);
+    }
+
+    /**
+     * @param year year
+     * @param season SPRING_EQUINOX, SUMMER_SOLSTICE, AUTUMNAL_EQUINOX, WINTER_SOLSTICE (northern hemisphere)
+     * @return the event (unix millis), or -1 if the table doesn't cover it (calculate it instead)
+     */
+    public long get(int year, int season)
+    {
+        if (!covers(year) || season < 0 || season >= SEASON_COUNT) {
+            return -1;
+        }
+        return events.get((year - startYear) * SEASON_COUNT + season);
+    }
+
+    /**
+     * @return the distance (millis) from the spring equinox of year to the spring equinox of the following year, or -1 if the table doesn't cover it
+     */
+    public long getTropicalYearLength(int year)
+    {
+        long t0 = get(year, SPRING_EQUINOX);
+        long t1 = get(year + 1, SPRING_EQUINOX);
+        return (t0 != -1 && t1 != -1 ? t1 - t0 : -1);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param buffer a buffer containing a table (e.g. a mapped file)
+     * @return the table (the buffer is used in place)
+     * @throws IOException if the buffer doesn't contain a (supported) table
+     */
+    @NonNull
+    public static SeasonTable read(@NonNull ByteBuffer buffer) throws IOException
+    {
+        try {
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not a season table");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported table version: " + version);
+            }
+
+            byte[] name = new byte[buffer.getShort() & 0xffff];
+            buffer.get(name);
+            String calculator = new String(name, "UTF-8");
+            int startYear = buffer.getInt();
+            int yearCount = buffer.getInt();
+            if (yearCount < 0) {
+                throw new IOException("invalid year count: " + yearCount);
+            }
+
+            ByteBuffer slice = buffer.slice();
+            slice.order(ByteOrder.BIG_ENDIAN);
+            slice.limit(yearCount * SEASON_COUNT * 8);
+            return new SeasonTable(calculator, startYear, yearCount, slice.asLongBuffer());
+
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("truncated table: " + e);
+        }
+    }
+
+    /**
+     * @param out output
+     * @param calculator the calculator (family) that produced the table
+     * @param startYear the first year of the table
+     * @param events long[yearCount][SEASON_COUNT]
+     */
+    public static void write(@NonNull OutputStream out, @NonNull String calculator, int startYear, @NonNull long[][] events) throws IOException
+    {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeUTF(calculator);
+        data.writeInt(startYear);
+        data.writeInt(events.length);
+        for (long[] year : events)
+        {
+            if (year.length != SEASON_COUNT) {
+                throw new IllegalArgumentException("expected " + SEASON_COUNT + " events per year; got " + year.length);
+            }
+            for (long value : year) {
+                data.writeLong(value);
+            }
+        }
+        data.flush();
+    }
+
+    public static String assetName(@NonNull String calculator) {
+        return ASSET_PREFIX + calculator + ASSET_SUFFIX;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static Context appContext = null;
+    private static final HashMap<String, SeasonTable> tables = new HashMap<>();
+
+    /**
+     * Provides the context used to load tables (on first use).
+     */
+    public static synchronized void init(@Nullable Context context)
+    {
+        if (appContext == null && context != null) {
+            appContext = context.getApplicationContext();
+        }
+    }
+
+    /**
+     * @param calculator the calculator (family)
+     * @return the table for calculator (loaded on first use), or null if it isn't available
+     */
+    @Nullable
+    public static synchronized SeasonTable getTable(@NonNull String calculator)
+    {
+        if (tables.containsKey(calculator)) {
+            return tables.get(calculator);
+        }
+        if (appContext == null) {
+            return null;    // not yet initialized; try again later
+        }
+
+        SeasonTable table = null;
+        String assetName = assetName(calculator);
+        try {
+            table = read(MoonEventTable.readAsset(appContext, assetName));
+            if (!calculator.equals(table.getCalculator()))
+            {
+                Log.w(TAG, assetName + " belongs to " + table.getCalculator() + "; seasons will be calculated.");
+                table = null;
+            } else Log.i(TAG, "loaded " + assetName);
+
+        } catch (FileNotFoundException e) {
+            Log.i(TAG, assetName + " is unavailable; seasons will be calculated.");
+
+        } catch (IOException e) {
+            Log.w(TAG, "failed to load " + assetName + "; seasons will be calculated. " + e);
+        }
+        tables.put(calculator, table);
+        return table;
+    }
+}
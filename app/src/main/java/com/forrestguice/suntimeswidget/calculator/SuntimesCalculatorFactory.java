@@ -86,9 +86,22 @@ public class SuntimesCalculatorFactory
      * passed to the factory when it was created.
      * @param location a SuntimesWidgetSettings.Location specifying latitude and longitude
      * @param timezone a timezone string
-     * @return a calculator object that implements SuntimesCalculator
+     * @return a calculator object that implements SuntimesCalculator (wrapped by CachedSuntimesCalculator)
      */
     public SuntimesCalculator createCalculator(Location location, TimeZone timezone)
+    {
+        return createCalculator(location, timezone, true);
+    }
+
+    /**
+     * Create a calculator for a given location and timezone using the calculator descriptor that was
+     * passed to the factory when it was created.
+     * @param location a SuntimesWidgetSettings.Location specifying latitude and longitude
+     * @param timezone a timezone string
+     * @param useCache true wrap the calculator with a CachedSuntimesCalculator, false return the calculator directly
+     * @return a calculator object that implements SuntimesCalculator
+     */
+    public SuntimesCalculator createCalculator(Location location, TimeZone timezone, boolean useCache)
     {
         //long bench_start = System.nanoTime();
         SuntimesCalculator calculator;
@@ -105,6 +118,9 @@ public class SuntimesCalculatorFactory
             Log.e("createCalculator", "fail! .oO( " + current.getReference() + "), so instantiating default: " + calculator.getClass().getName() + " :: " + timezone);
         }
         calculator.init(location, timezone, contextRef.get());
+        if (useCache) {
+            calculator = new CachedSuntimesCalculator(calculator);
+        }
 
         //long bench_end = System.nanoTime();
         //Log.d("DEBUG", "created " + calculator.name() + " :: " + ((bench_end - bench_start) / 1000000.0) + " ms");
@@ -413,14 +413,40 @@ public class SuntimesMoonData extends SuntimesMoonData0
         return (nextPhaseIsToday ? toPhase(nextPhase) : prevMinorPhase(nextPhase));
     }
 
+    /**
+     * Finds the phase at a date/time by querying the next major phases directly (table lookups when the calculator
+     * supports them), rather than recalculating the data for that day.
+     */
     public static MoonPhaseDisplay findCurrentPhaseOf(Calendar calendar, SuntimesMoonData data)
+    {
+        SuntimesCalculator calculator = data.calculator();
+        if (calculator == null) {
+            return findCurrentPhaseOf0(calendar, data);
+        }
+
+        Calendar after = (Calendar) calendar.clone();
+        after.add(Calendar.MILLISECOND, -1);    // a phase occurring at calendar is the next phase
+        HashMap<SuntimesCalculator.MoonPhase, Calendar> phases = new HashMap<>(4);
+        for (SuntimesCalculator.MoonPhase phase : SuntimesCalculator.MoonPhase.values()) {
+            phases.put(phase, calculator.getMoonPhaseNextDate(phase, after));
+        }
+
+        SuntimesCalculator.MoonPhase nextPhase = data.nextPhase(phases, calendar);
+        return findCurrentPhaseOf(calendar, nextPhase, phases.get(nextPhase));
+    }
+
+    protected static MoonPhaseDisplay findCurrentPhaseOf0(Calendar calendar, SuntimesMoonData data)
     {
         SuntimesMoonData data1 = new SuntimesMoonData(data);
         data1.setTodayIs(calendar);
         data1.calculate();
 
         SuntimesCalculator.MoonPhase nextPhase = data1.nextPhase(calendar);
-        Calendar nextPhaseDate = data1.moonPhases.get(nextPhase);
+        return findCurrentPhaseOf(calendar, nextPhase, data1.moonPhases.get(nextPhase));
+    }
+
+    private static MoonPhaseDisplay findCurrentPhaseOf(Calendar calendar, SuntimesCalculator.MoonPhase nextPhase, Calendar nextPhaseDate)
+    {
         boolean nextPhaseIsNow = (nextPhaseDate != null) && (Math.abs(nextPhaseDate.getTimeInMillis() - calendar.getTimeInMillis()) <= (2000 * 60));
         return (nextPhaseIsNow ? toPhase(nextPhase) : prevMinorPhase(nextPhase));
     }
@@ -20,10 +20,12 @@ package com.forrestguice.suntimeswidget.calculator;
 
 import android.content.Context;
 import android.net.Uri;
+import android.support.annotation.Nullable;
 import android.util.Log;
 
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmEventProvider;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.events.EventSettings;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 
@@ -318,7 +320,20 @@ public class SuntimesRiseSetData extends SuntimesData
      * Calculate
      */
     @Override
-    public void calculate()
+    public void calculate() {
+        calculateRiseSet(null);
+    }
+
+    /**
+     * Calculate (sharing a SunEvents summary between calls).
+     * @param sunEvents an array of two SunEvents (today, other) that is shared between instances (e.g. by a SuntimesRiseSetDataset);
+     *                  null or mismatched entries are (re)calculated and stored back into the array, or null to calculate each event individually
+     */
+    public void calculate(@Nullable SuntimesCalculator.SunEvents[] sunEvents) {
+        calculateRiseSet(sunEvents);
+    }
+
+    private void calculateRiseSet(@Nullable SuntimesCalculator.SunEvents[] sunEvents)
     {
         //Log.v("SuntimesWidgetData", "time mode: " + timeMode);
         //Log.v("SuntimesWidgetData", "location_mode: " + locationMode.name());
@@ -357,8 +372,23 @@ public class SuntimesRiseSetData extends SuntimesData
         date = todaysCalendar.getTime();
         dateOther = otherCalendar.getTime();
 
-        if (angle != null)
+        if (angle == null && sunEvents != null && sunEvents.length >= 2)
         {
+            if (sunEvents[0] == null || !sunEvents[0].isForDate(todaysCalendar)) {
+                sunEvents[0] = calculator.getSunEventsForDate(todaysCalendar);
+            }
+            if (sunEvents[1] == null || !sunEvents[1].isForDate(otherCalendar)) {
+                sunEvents[1] = calculator.getSunEventsForDate(otherCalendar);
+            }
+
+            int riseEvent = sunEventForTimeMode(timeMode, true);
+            int setEvent = sunEventForTimeMode(timeMode, false);
+            sunriseCalendarToday = sunEvents[0].getCalendar(riseEvent);
+            sunsetCalendarToday = (riseEvent == setEvent ? sunriseCalendarToday : sunEvents[0].getCalendar(setEvent));
+            sunriseCalendarOther = sunEvents[1].getCalendar(riseEvent);
+            sunsetCalendarOther = (riseEvent == setEvent ? sunriseCalendarOther : sunEvents[1].getCalendar(setEvent));
+
+        } else if (angle != null) {
             sunriseCalendarToday = calculator.getSunriseCalendarForDate(todaysCalendar, angle);
             sunsetCalendarToday = calculator.getSunsetCalendarForDate(todaysCalendar, angle);
             sunriseCalendarOther = calculator.getSunriseCalendarForDate(otherCalendar, angle);
@@ -437,6 +467,26 @@ public class SuntimesRiseSetData extends SuntimesData
         super.calculate();
     }
 
+    /**
+     * @param mode TimeMode
+     * @param rising true rising event, false setting event
+     * @return the corresponding SunEvents index
+     */
+    public static int sunEventForTimeMode(WidgetSettings.TimeMode mode, boolean rising)
+    {
+        switch (mode)
+        {
+            case GOLD: return (rising ? SuntimesCalculator.SunEvents.GOLDEN_MORNING : SuntimesCalculator.SunEvents.GOLDEN_EVENING);
+            case BLUE8: return (rising ? SuntimesCalculator.SunEvents.BLUE8_RISE : SuntimesCalculator.SunEvents.BLUE8_SET);
+            case BLUE4: return (rising ? SuntimesCalculator.SunEvents.BLUE4_RISE : SuntimesCalculator.SunEvents.BLUE4_SET);
+            case NOON: return SuntimesCalculator.SunEvents.NOON;
+            case CIVIL: return (rising ? SuntimesCalculator.SunEvents.CIVIL_RISE : SuntimesCalculator.SunEvents.CIVIL_SET);
+            case NAUTICAL: return (rising ? SuntimesCalculator.SunEvents.NAUTICAL_RISE : SuntimesCalculator.SunEvents.NAUTICAL_SET);
+            case ASTRONOMICAL: return (rising ? SuntimesCalculator.SunEvents.ASTRONOMICAL_RISE : SuntimesCalculator.SunEvents.ASTRONOMICAL_SET);
+            case OFFICIAL: default: return (rising ? SuntimesCalculator.SunEvents.OFFICIAL_RISE : SuntimesCalculator.SunEvents.OFFICIAL_SET);
+        }
+    }
+
     /**
      * @param sunrise
      * @param sunset
@@ -19,9 +19,11 @@
 package com.forrestguice.suntimeswidget.calculator;
 
 import android.content.Context;
+import android.support.annotation.Nullable;
 import android.util.Log;
 
 import com.forrestguice.suntimeswidget.R;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 
 import java.util.Arrays;
@@ -186,6 +188,11 @@ public class SuntimesRiseSetData2 extends SuntimesRiseSetData
         return retValue;
     }
 
+    @Override
+    public void calculate(@Nullable SuntimesCalculator.SunEvents[] sunEvents) {
+        calculate();
+    }
+
     /**
      * Calculate
      */
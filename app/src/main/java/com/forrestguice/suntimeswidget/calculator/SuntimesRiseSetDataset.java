@@ -134,25 +134,27 @@ public class SuntimesRiseSetDataset
 
     public void calculateData()
     {
+        timeline = null;
         SuntimesCalculator calculator = this.calculator;
         SuntimesCalculatorDescriptor descriptor = this.calculatorDescriptor;
 
         boolean first = true;
         ArrayList<WidgetSettings.TimeMode> events0 = new ArrayList<WidgetSettings.TimeMode>();
         ArrayList<WidgetSettings.TimeMode> events1 = new ArrayList<WidgetSettings.TimeMode>();
+        SuntimesCalculator.SunEvents[] sunEvents = new SuntimesCalculator.SunEvents[2];    // [today, other]; shared by all modes
 
         for (SuntimesRiseSetData data : dataset.values())
         {
             if (first && descriptor == null)
             {
-                data.calculate();
+                data.calculate(sunEvents);
                 calculator = data.calculator();
                 descriptor = data.calculatorMode();
                 first = false;
 
             } else {
                 data.setCalculator(calculator, descriptor);
-                data.calculate();
+                data.calculate(sunEvents);
             }
 
             WidgetSettings.TimeMode mode = data.timeMode();
@@ -214,6 +216,7 @@ public class SuntimesRiseSetDataset
 
     public void invalidateCalculation()
     {
+        timeline = null;
         for (SuntimesRiseSetData data : dataset.values() )
         {
             data.invalidateCalculation();
@@ -243,37 +246,60 @@ public class SuntimesRiseSetDataset
         }
     }
 
+    /**
+     * @return the next event (the first event after now), or the most recent event if there are no more events
+     */
     public SearchResult findNextEvent()
     {
-        Calendar now = now();
-        long nearestTime = -1;
-        boolean isRising = false;
-        WidgetSettings.RiseSetDataMode mode = null;
+        EventTimeline timeline = getTimeline();
+        int i = timeline.indexAfter(now().getTimeInMillis());
+        if (i < timeline.size()) {
+            return timelineEvents.get(timeline.getID(i));
+
+        } else if (timeline.size() > 0) {
+            return timelineEvents.get(timeline.getID(timeline.size() - 1));
+
+        } else {
+            return new SearchResult(null, null, false);
+        }
+    }
 
-        Collection<SuntimesRiseSetData> values = dataset.values();
-        Calendar nearest = values.toArray(new SuntimesRiseSetData[0])[0].sunriseCalendarToday();
-        for (SuntimesRiseSetData data : values)
+    /**
+     * @return the rise and set times of all modes (today and other) as a timeline; event ids index `getTimelineEvent`.
+     * The timeline is built once per calculation.
+     */
+    public EventTimeline getTimeline()
+    {
+        if (timeline == null)
         {
-            Calendar[] events = new Calendar[] { data.sunriseCalendarToday(), data.sunsetCalendarToday(),
-                                                 data.sunriseCalendarOther(), data.sunsetCalendarOther() };
-            for (int i=0; i<events.length; i++)
+            ArrayList<SearchResult> events = new ArrayList<>();
+            EventTimeline.Builder builder = new EventTimeline.Builder(dataset.size() * 4);
+            for (SuntimesRiseSetData data : dataset.values())
             {
-                Calendar event = events[i];
-                if (event != null)
+                WidgetSettings.RiseSetDataMode mode = ((data.dataMode() != null) ? data.dataMode() : data.timeMode());
+                Calendar[] calendars = new Calendar[] { data.sunriseCalendarToday(), data.sunsetCalendarToday(),
+                                                        data.sunriseCalendarOther(), data.sunsetCalendarOther() };
+                for (int i=0; i<calendars.length; i++)
                 {
-                    long timeUntil = event.getTime().getTime() - now.getTime().getTime();
-                    if ((timeUntil > 0 && timeUntil < nearestTime) || nearestTime < 0)
+                    if (calendars[i] != null)
                     {
-                        nearestTime = timeUntil;
-                        nearest = event;
-                        isRising = (i % 2 == 0);
-                        mode = ((data.dataMode() != null) ? data.dataMode() : data.timeMode());
-                        //Log.d("DEBUG", "findNextEvent: mode is: " + mode);
+                        builder.add(calendars[i], events.size());
+                        events.add(new SearchResult(mode, calendars[i], (i % 2 == 0)));
                     }
                 }
             }
+            timelineEvents = events;
+            timeline = builder.build();
         }
-        return new SearchResult(mode, nearest, isRising);
+        return timeline;
+    }
+    protected EventTimeline timeline = null;
+    protected ArrayList<SearchResult> timelineEvents = null;
+
+    public SearchResult getTimelineEvent(int id)
+    {
+        getTimeline();
+        return timelineEvents.get(id);
     }
 
     public Calendar todayIs()
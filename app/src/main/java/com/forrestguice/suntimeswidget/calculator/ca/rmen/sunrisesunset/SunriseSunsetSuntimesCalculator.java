@@ -261,6 +261,16 @@ public class SunriseSunsetSuntimesCalculator implements SuntimesCalculator
         return null;
     }
 
+    @Override
+    public boolean getSunPositions(long startMillis, long stepMillis, int count, double[] azimuth, double[] elevation) {
+        return false;
+    }
+
+    @Override
+    public boolean getMoonPositions(long startMillis, long stepMillis, int count, double[] azimuth, double[] elevation) {
+        return false;
+    }
+
     @Override
     public double getShadowLength(double objHeight, Calendar dateTime)
     {
@@ -335,5 +345,30 @@ public class SunriseSunsetSuntimesCalculator implements SuntimesCalculator
         return SunriseSunset.getSunriseSunset(date, location.getLatitudeAsDouble(), location.getLongitudeAsDouble(), angle)[1];
     }
 
+    @Override
+    public SunEvents getSunEventsForDate(Calendar date)
+    {
+        double latitude = location.getLatitudeAsDouble();
+        double longitude = location.getLongitudeAsDouble();
+        SunEvents events = new SunEvents(date, timezone);
+        setSunEvents(events, SunEvents.ASTRONOMICAL_RISE, SunEvents.ASTRONOMICAL_SET, SunriseSunset.getAstronomicalTwilight(date, latitude, longitude));
+        setSunEvents(events, SunEvents.NAUTICAL_RISE, SunEvents.NAUTICAL_SET, SunriseSunset.getNauticalTwilight(date, latitude, longitude));
+        setSunEvents(events, SunEvents.CIVIL_RISE, SunEvents.CIVIL_SET, SunriseSunset.getCivilTwilight(date, latitude, longitude));
+        setSunEvents(events, SunEvents.OFFICIAL_RISE, SunEvents.OFFICIAL_SET, SunriseSunset.getSunriseSunset(date, latitude, longitude));
+        setSunEvents(events, SunEvents.GOLDEN_MORNING, SunEvents.GOLDEN_EVENING, SunriseSunset.getSunriseSunset(date, latitude, longitude, SUN_ALTITUDE_GOLDEN));
+        setSunEvents(events, SunEvents.BLUE8_RISE, SunEvents.BLUE8_SET, SunriseSunset.getSunriseSunset(date, latitude, longitude, SUN_ALTITUDE_BLUE_HIGH));
+        setSunEvents(events, SunEvents.BLUE4_RISE, SunEvents.BLUE4_SET, SunriseSunset.getSunriseSunset(date, latitude, longitude, SUN_ALTITUDE_BLUE_LOW));
+        events.setCalendar(SunEvents.NOON, SunriseSunset.getSolarNoon(date, latitude, longitude));
+        return events;
+    }
+
+    private static void setSunEvents(SunEvents events, int riseEvent, int setEvent, Calendar[] riseset)
+    {
+        if (riseset != null) {
+            events.setCalendar(riseEvent, riseset[0]);
+            events.setCalendar(setEvent, riseset[1]);
+        }
+    }
+
 }
 
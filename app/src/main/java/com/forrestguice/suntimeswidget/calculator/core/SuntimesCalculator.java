@@ -20,6 +20,7 @@ package com.forrestguice.suntimeswidget.calculator.core;
 
 import android.content.Context;
 
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.TimeZone;
 
@@ -27,7 +28,7 @@ import java.util.TimeZone;
  * An interface used when calculating sunrise and sunset times. Implementations
  * of this interface are intended to be thin wrappers around third party code.
  *
- * @version 1.8.0
+ * @version 1.9.0
  */
 public interface SuntimesCalculator
 {
@@ -413,4 +414,162 @@ public interface SuntimesCalculator
      */
     Calendar getTimeOfShadowAfterNoon( Calendar date, double objHeight, double shadowLength );
 
+    //
+    // 1.9.0, (FEATURE_RISESET)
+    //
+
+    /**
+     * SunEventsForDate
+     * @param date a Calendar representing a given date
+     * @return a SunEvents obj wrapping the rise, set, twilight, noon, golden hour, and blue hour times for the given date
+     * @since 1.9.0 FEATURE_RISESET
+     */
+    SunEvents getSunEventsForDate( Calendar date );
+
+    /**
+     * SunEvents
+     * A summary of the sun events for a given date; times are stored as epoch millis (or NONE if the event does not occur).
+     */
+    class SunEvents
+    {
+        public static final long NONE = Long.MIN_VALUE;
+
+        public static final int ASTRONOMICAL_RISE = 0;
+        public static final int NAUTICAL_RISE = 1;
+        public static final int CIVIL_RISE = 2;
+        public static final int OFFICIAL_RISE = 3;
+        public static final int NOON = 4;
+        public static final int OFFICIAL_SET = 5;
+        public static final int CIVIL_SET = 6;
+        public static final int NAUTICAL_SET = 7;
+        public static final int ASTRONOMICAL_SET = 8;
+        public static final int GOLDEN_MORNING = 9;
+        public static final int GOLDEN_EVENING = 10;
+        public static final int BLUE8_RISE = 11;
+        public static final int BLUE4_RISE = 12;
+        public static final int BLUE4_SET = 13;
+        public static final int BLUE8_SET = 14;
+        public static final int NUM_EVENTS = 15;
+
+        public final long[] times = new long[NUM_EVENTS];
+        public final TimeZone timezone;
+        public final String dateZone;
+        public final int year, dayOfYear;
+
+        /**
+         * @param date the date these events are calculated for
+         * @param timezone the timezone used when converting results to Calendar
+         */
+        public SunEvents(Calendar date, TimeZone timezone)
+        {
+            Arrays.fill(times, NONE);
+            this.timezone = timezone;
+            this.dateZone = date.getTimeZone().getID();
+            this.year = date.get(Calendar.YEAR);
+            this.dayOfYear = date.get(Calendar.DAY_OF_YEAR);
+        }
+
+        public SunEvents(SunEvents other)
+        {
+            System.arraycopy(other.times, 0, times, 0, times.length);
+            this.timezone = other.timezone;
+            this.dateZone = other.dateZone;
+            this.year = other.year;
+            this.dayOfYear = other.dayOfYear;
+        }
+
+        /**
+         * @return true if these events were calculated for the given date
+         */
+        public boolean isForDate(Calendar date)
+        {
+            return (date.get(Calendar.YEAR) == year && date.get(Calendar.DAY_OF_YEAR) == dayOfYear
+                    && date.getTimeZone().getID().equals(dateZone));
+        }
+
+        public boolean hasEvent(int event) {
+            return (times[event] != NONE);
+        }
+
+        public Long getTimeInMillis(int event) {
+            return (times[event] != NONE ? times[event] : null);
+        }
+
+        public Calendar getCalendar(int event)
+        {
+            if (times[event] != NONE)
+            {
+                Calendar calendar = Calendar.getInstance(timezone);
+                calendar.setTimeInMillis(times[event]);
+                return calendar;
+            } else return null;
+        }
+
+        public void setCalendar(int event, Calendar calendar) {
+            times[event] = (calendar != null ? calendar.getTimeInMillis() : NONE);
+        }
+
+        /**
+         * Calculates a SunEvents summary by calling each of the calculator's individual methods.
+         * @param calculator a SuntimesCalculator
+         * @param date a Calendar representing a given date
+         * @return SunEvents for the given date
+         */
+        public static SunEvents calculate(SuntimesCalculator calculator, Calendar date)
+        {
+            SunEvents events = new SunEvents(date, calculator.getTimeZone());
+            events.setCalendar(ASTRONOMICAL_RISE, calculator.getAstronomicalSunriseCalendarForDate(date));
+            events.setCalendar(NAUTICAL_RISE, calculator.getNauticalSunriseCalendarForDate(date));
+            events.setCalendar(CIVIL_RISE, calculator.getCivilSunriseCalendarForDate(date));
+            events.setCalendar(OFFICIAL_RISE, calculator.getOfficialSunriseCalendarForDate(date));
+            events.setCalendar(NOON, calculator.getSolarNoonCalendarForDate(date));
+            events.setCalendar(OFFICIAL_SET, calculator.getOfficialSunsetCalendarForDate(date));
+            events.setCalendar(CIVIL_SET, calculator.getCivilSunsetCalendarForDate(date));
+            events.setCalendar(NAUTICAL_SET, calculator.getNauticalSunsetCalendarForDate(date));
+            events.setCalendar(ASTRONOMICAL_SET, calculator.getAstronomicalSunsetCalendarForDate(date));
+            events.setCalendar(GOLDEN_MORNING, calculator.getMorningGoldenHourForDate(date));
+            events.setCalendar(GOLDEN_EVENING, calculator.getEveningGoldenHourForDate(date));
+
+            Calendar[] blueMorning = calculator.getMorningBlueHourForDate(date);
+            if (blueMorning != null && blueMorning.length >= 2) {
+                events.setCalendar(BLUE8_RISE, blueMorning[0]);
+                events.setCalendar(BLUE4_RISE, blueMorning[1]);
+            }
+            Calendar[] blueEvening = calculator.getEveningBlueHourForDate(date);
+            if (blueEvening != null && blueEvening.length >= 2) {
+                events.setCalendar(BLUE4_SET, blueEvening[0]);
+                events.setCalendar(BLUE8_SET, blueEvening[1]);
+            }
+            return events;
+        }
+    }
+
+    //
+    // 1.9.0, (FEATURE_POSITION)
+    //
+
+    /**
+     * Samples the sun's position at regular intervals (startMillis + i * stepMillis, for i in [0, count)).
+     * @param startMillis time of the first sample (epoch millis)
+     * @param stepMillis interval between samples (millis)
+     * @param count number of samples
+     * @param azimuth result array [count] (or null to skip azimuth)
+     * @param elevation result array [count]
+     * @return true if the positions were calculated, false if not supported
+     * @since 1.9.0 FEATURE_POSITION
+     */
+    boolean getSunPositions( long startMillis, long stepMillis, int count, double[] azimuth, double[] elevation );
+
+    /**
+     * Samples the moon's position at regular intervals (startMillis + i * stepMillis, for i in [0, count)).
+     * @param startMillis time of the first sample (epoch millis)
+     * @param stepMillis interval between samples (millis)
+     * @param count number of samples
+     * @param azimuth result array [count] (or null to skip azimuth)
+     * @param elevation result array [count]
+     * @return true if the positions were calculated, false if not supported
+     * @since 1.9.0 FEATURE_POSITION
+     */
+    boolean getMoonPositions( long startMillis, long stepMillis, int count, double[] azimuth, double[] elevation );
+
 }
@@ -264,6 +264,16 @@ public class SunriseSunsetSuntimesCalculator implements SuntimesCalculator
         return null;
     }
 
+    @Override
+    public boolean getSunPositions(long startMillis, long stepMillis, int count, double[] azimuth, double[] elevation) {
+        return false;
+    }
+
+    @Override
+    public boolean getMoonPositions(long startMillis, long stepMillis, int count, double[] azimuth, double[] elevation) {
+        return false;
+    }
+
     @Override
     public double getShadowLength(double objHeight, Calendar dateTime) {
         return -1;
@@ -322,5 +332,10 @@ public class SunriseSunsetSuntimesCalculator implements SuntimesCalculator
         return null;   // TODO: supported by this lib?
     }
 
+    @Override
+    public SunEvents getSunEventsForDate( Calendar date ) {
+        return SunEvents.calculate(this, date);
+    }
+
 }
 
@@ -21,6 +21,8 @@ package com.forrestguice.suntimeswidget.calculator.time4a;
 import android.content.Context;
 import android.util.Log;
 
+import com.forrestguice.suntimeswidget.calculator.MoonEventTable;
+import com.forrestguice.suntimeswidget.calculator.SeasonTable;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 
@@ -36,12 +38,14 @@ import net.time4j.calendar.astro.StdSolarCalculator;
 import net.time4j.calendar.astro.Twilight;
 import net.time4j.engine.CalendarDate;
 import net.time4j.engine.ChronoFunction;
+import net.time4j.engine.EpochDays;
 import net.time4j.tz.TZID;
 import net.time4j.tz.Timezone;
-import net.time4j.tz.ZonalOffset;
 
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.TimeZone;
 
 public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
@@ -54,6 +58,11 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     protected TimeZone timezone;
     protected Location location;
 
+    protected double geodeticAngle;    // built by init; shared by every call
+    protected ChronoFunction<CalendarDate, Moment> sunriseAstro, sunriseNautical, sunriseCivil, sunriseOfficial, solarNoon;
+    protected ChronoFunction<CalendarDate, Moment> sunsetOfficial, sunsetCivil, sunsetNautical, sunsetAstro;
+    private volatile LunarTimeEntry lunarTime = null;
+
     @Override
     public int[] getSupportedFeatures()
     {
@@ -78,6 +87,22 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
         this.solarTime = SolarTime.ofLocation(location.getLatitudeAsDouble(), location.getLongitudeAsDouble(), clampAltitude(location.getAltitudeAsInteger()), getCalculator());
         this.timezone = timezone;
         this.location = location;
+        this.lunarTime = null;
+
+        this.geodeticAngle = solarTime.getCalculator().getGeodeticAngle(solarTime.getLatitude(), solarTime.getAltitude());
+        this.sunriseAstro = solarTime.sunrise(Twilight.ASTRONOMICAL);
+        this.sunriseNautical = solarTime.sunrise(Twilight.NAUTICAL);
+        this.sunriseCivil = solarTime.sunrise(Twilight.CIVIL);
+        this.sunriseOfficial = solarTime.sunrise();
+        this.solarNoon = solarTime.transitAtNoon();
+        this.sunsetOfficial = solarTime.sunset();
+        this.sunsetCivil = solarTime.sunset(Twilight.CIVIL);
+        this.sunsetNautical = solarTime.sunset(Twilight.NAUTICAL);
+        this.sunsetAstro = solarTime.sunset(Twilight.ASTRONOMICAL);
+        if (context != null) {
+            MoonEventTable.loadTable(context);
+            SeasonTable.init(context);
+        }
     }
 
     @Override
@@ -110,104 +135,122 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     public Calendar getCivilSunriseCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> civilRise = this.solarTime.sunrise(Twilight.CIVIL);
-        return momentToCalendar(localDate.get(civilRise));
+        return momentToCalendar(localDate.get(sunriseCivil));
     }
 
     @Override
     public Calendar getNauticalSunriseCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> nauticalRise = this.solarTime.sunrise(Twilight.NAUTICAL);
-        return momentToCalendar(localDate.get(nauticalRise));
+        return momentToCalendar(localDate.get(sunriseNautical));
     }
 
     @Override
     public Calendar getAstronomicalSunriseCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> astroRise = this.solarTime.sunrise(Twilight.ASTRONOMICAL);
-        return momentToCalendar(localDate.get(astroRise));
+        return momentToCalendar(localDate.get(sunriseAstro));
     }
 
     @Override
     public Calendar getOfficialSunriseCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> sunrise = this.solarTime.sunrise();
-        return momentToCalendar(localDate.get(sunrise));
+        return momentToCalendar(localDate.get(sunriseOfficial));
     }
 
     @Override
     public Calendar getSolarNoonCalendarForDate(Calendar date)
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> noon = this.solarTime.transitAtNoon();
-        return momentToCalendar(localDate.get(noon));
+        return momentToCalendar(localDate.get(solarNoon));
     }
 
     @Override
     public Calendar getCivilSunsetCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> civilSet = this.solarTime.sunset(Twilight.CIVIL);
-        return momentToCalendar(localDate.get(civilSet));
+        return momentToCalendar(localDate.get(sunsetCivil));
     }
 
     @Override
     public Calendar getNauticalSunsetCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> nauticalSet = this.solarTime.sunset(Twilight.NAUTICAL);
-        return momentToCalendar(localDate.get(nauticalSet));
+        return momentToCalendar(localDate.get(sunsetNautical));
     }
 
     @Override
     public Calendar getAstronomicalSunsetCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> astroSet = this.solarTime.sunset(Twilight.ASTRONOMICAL);
-        return momentToCalendar(localDate.get(astroSet));
+        return momentToCalendar(localDate.get(sunsetAstro));
     }
 
     @Override
     public Calendar getSunriseCalendarForDate( Calendar date, double angle )
     {
-        SolarTime.Calculator calculator = solarTime.getCalculator();
-        int altitude = clampAltitude(solarTime.getAltitude());
-        double latitude = solarTime.getLatitude();
-        double longitude = solarTime.getLongitude();
-        double geodeticAngle = calculator.getGeodeticAngle(latitude, altitude);
-        double eventAngle = 90 + geodeticAngle + (-1 * angle);
-
-        PlainDate localDate = calendarToPlainDate(date);
-        Moment moment = calculator.sunrise(localDate, latitude, longitude, eventAngle);
-        return momentToCalendar(moment);
+        return millisToCalendar(getSunriseMillis(date.getTimeInMillis(), angle));
     }
 
     @Override
     public Calendar getSunsetCalendarForDate( Calendar date, double angle )
     {
-        SolarTime.Calculator calculator = solarTime.getCalculator();
-        int altitude = clampAltitude(solarTime.getAltitude());
-        double latitude = solarTime.getLatitude();
-        double longitude = solarTime.getLongitude();
-        double geodeticAngle = calculator.getGeodeticAngle(latitude, altitude);
+        return millisToCalendar(getSunsetMillis(date.getTimeInMillis(), angle));
+    }
+
+    /**
+     * @param dayStartMillis a time within the day (in the calculator's timezone)
+     * @param angle -deg below the horizon, or +deg above the horizon
+     * @return sunrise at angle (unix millis), or SunEvents.NONE if the sun doesn't reach that angle
+     */
+    public long getSunriseMillis( long dayStartMillis, double angle )
+    {
         double eventAngle = 90 + geodeticAngle + (-1 * angle);
+        return momentToMillis(solarTime.getCalculator().sunrise(toPlainDate(dayStartMillis), solarTime.getLatitude(), solarTime.getLongitude(), eventAngle));
+    }
 
-        PlainDate localDate = calendarToPlainDate(date);
-        Moment moment = calculator.sunset(localDate, latitude, longitude, eventAngle);
-        return momentToCalendar(moment);
+    /**
+     * @param dayStartMillis a time within the day (in the calculator's timezone)
+     * @param angle -deg below the horizon, or +deg above the horizon
+     * @return sunset at angle (unix millis), or SunEvents.NONE if the sun doesn't reach that angle
+     */
+    public long getSunsetMillis( long dayStartMillis, double angle )
+    {
+        double eventAngle = 90 + geodeticAngle + (-1 * angle);
+        return momentToMillis(solarTime.getCalculator().sunset(toPlainDate(dayStartMillis), solarTime.getLatitude(), solarTime.getLongitude(), eventAngle));
+    }
+
+    /**
+     * @param dayStartMillis a time within the day (in the calculator's timezone)
+     * @return official sunrise (unix millis), or SunEvents.NONE
+     */
+    public long getOfficialSunriseMillis( long dayStartMillis ) {
+        return momentToMillis(toPlainDate(dayStartMillis).get(sunriseOfficial));
+    }
+
+    /**
+     * @param dayStartMillis a time within the day (in the calculator's timezone)
+     * @return official sunset (unix millis), or SunEvents.NONE
+     */
+    public long getOfficialSunsetMillis( long dayStartMillis ) {
+        return momentToMillis(toPlainDate(dayStartMillis).get(sunsetOfficial));
+    }
+
+    /**
+     * @param dayStartMillis a time within the day (in the calculator's timezone)
+     * @return solar noon (unix millis), or SunEvents.NONE
+     */
+    public long getSolarNoonMillis( long dayStartMillis ) {
+        return momentToMillis(toPlainDate(dayStartMillis).get(solarNoon));
     }
 
     @Override
     public Calendar[] getMorningBlueHourForDate(Calendar date)
     {
         SolarTime.Calculator calculator = solarTime.getCalculator();
-        int altitude = clampAltitude(solarTime.getAltitude());
         double latitude = solarTime.getLatitude();
         double longitude = solarTime.getLongitude();
-        double geodeticAngle = calculator.getGeodeticAngle(latitude, altitude);
         double blueStartAngle = 90 + geodeticAngle + SUN_ALTITUDE_BLUE_HIGH;
         double blueEndAngle = 90 + geodeticAngle + SUN_ALTITUDE_BLUE_LOW;
 
@@ -221,10 +264,8 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     public Calendar[] getEveningBlueHourForDate(Calendar date)
     {
         SolarTime.Calculator calculator = solarTime.getCalculator();
-        int altitude = clampAltitude(solarTime.getAltitude());
         double latitude = solarTime.getLatitude();
         double longitude = solarTime.getLongitude();
-        double geodeticAngle = calculator.getGeodeticAngle(latitude, altitude);
         double blueStartAngle = 90 + geodeticAngle + SUN_ALTITUDE_BLUE_LOW;
         double blueEndAngle = 90 + geodeticAngle + SUN_ALTITUDE_BLUE_HIGH;
 
@@ -238,10 +279,8 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     public Calendar getMorningGoldenHourForDate(Calendar date)
     {
         SolarTime.Calculator calculator = solarTime.getCalculator();
-        int altitude = clampAltitude(solarTime.getAltitude());
         double latitude = solarTime.getLatitude();
         double longitude = solarTime.getLongitude();
-        double geodeticAngle = calculator.getGeodeticAngle(latitude, altitude);
         double goldenAngle = 90 + geodeticAngle - SUN_ALTITUDE_GOLDEN;
 
         PlainDate localDate = calendarToPlainDate(date);
@@ -253,17 +292,47 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     public Calendar getEveningGoldenHourForDate(Calendar date)
     {
         SolarTime.Calculator calculator = solarTime.getCalculator();
-        int altitude = clampAltitude(solarTime.getAltitude());
         double latitude = solarTime.getLatitude();
         double longitude = solarTime.getLongitude();
-        double geodeticAngle = calculator.getGeodeticAngle(latitude, altitude);
         double goldenAngle = 90 + geodeticAngle - SUN_ALTITUDE_GOLDEN;
 
         PlainDate localDate = calendarToPlainDate(date);
-        Moment goldEveningStart = this.solarTime.getCalculator().sunset(localDate, latitude, longitude, goldenAngle);
+        Moment goldEveningStart = calculator.sunset(localDate, latitude, longitude, goldenAngle);
         return momentToCalendar(goldEveningStart);
     }
 
+    @Override
+    public SunEvents getSunEventsForDate(Calendar date)
+    {
+        SunEvents events = new SunEvents(date, timezone);
+        PlainDate localDate = calendarToPlainDate(date);    // date conversion is shared by all events
+
+        events.times[SunEvents.ASTRONOMICAL_RISE] = momentToMillis(localDate.get(sunriseAstro));
+        events.times[SunEvents.NAUTICAL_RISE] = momentToMillis(localDate.get(sunriseNautical));
+        events.times[SunEvents.CIVIL_RISE] = momentToMillis(localDate.get(sunriseCivil));
+        events.times[SunEvents.OFFICIAL_RISE] = momentToMillis(localDate.get(sunriseOfficial));
+        events.times[SunEvents.NOON] = momentToMillis(localDate.get(solarNoon));
+        events.times[SunEvents.OFFICIAL_SET] = momentToMillis(localDate.get(sunsetOfficial));
+        events.times[SunEvents.CIVIL_SET] = momentToMillis(localDate.get(sunsetCivil));
+        events.times[SunEvents.NAUTICAL_SET] = momentToMillis(localDate.get(sunsetNautical));
+        events.times[SunEvents.ASTRONOMICAL_SET] = momentToMillis(localDate.get(sunsetAstro));
+
+        SolarTime.Calculator calculator = solarTime.getCalculator();
+        double latitude = solarTime.getLatitude();
+        double longitude = solarTime.getLongitude();
+        double goldenAngle = 90 + geodeticAngle - SUN_ALTITUDE_GOLDEN;
+        double blueHighAngle = 90 + geodeticAngle + SUN_ALTITUDE_BLUE_HIGH;
+        double blueLowAngle = 90 + geodeticAngle + SUN_ALTITUDE_BLUE_LOW;
+
+        events.times[SunEvents.GOLDEN_MORNING] = momentToMillis(calculator.sunrise(localDate, latitude, longitude, goldenAngle));
+        events.times[SunEvents.GOLDEN_EVENING] = momentToMillis(calculator.sunset(localDate, latitude, longitude, goldenAngle));
+        events.times[SunEvents.BLUE8_RISE] = momentToMillis(calculator.sunrise(localDate, latitude, longitude, blueHighAngle));
+        events.times[SunEvents.BLUE4_RISE] = momentToMillis(calculator.sunrise(localDate, latitude, longitude, blueLowAngle));
+        events.times[SunEvents.BLUE4_SET] = momentToMillis(calculator.sunset(localDate, latitude, longitude, blueLowAngle));
+        events.times[SunEvents.BLUE8_SET] = momentToMillis(calculator.sunset(localDate, latitude, longitude, blueHighAngle));
+        return events;
+    }
+
     public static final double SUN_ALTITUDE_GOLDEN = 6.0;
     public static final double SUN_ALTITUDE_BLUE_HIGH = 8.0;
     public static final double SUN_ALTITUDE_BLUE_LOW = 4.0;
@@ -272,8 +341,7 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     public Calendar getOfficialSunsetCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> sunset = this.solarTime.sunset();
-        return momentToCalendar(localDate.get(sunset));
+        return momentToCalendar(localDate.get(sunsetOfficial));
     }
 
     @Override
@@ -285,39 +353,61 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     @Override
     public Calendar getSpringEquinoxForYear(Calendar date)
     {
-        AstronomicalSeason vernalEquinox = adjustSeasonToHemisphere(AstronomicalSeason.VERNAL_EQUINOX);
-        Moment moment = vernalEquinox.inYear(date.get(Calendar.YEAR));
-        return momentToCalendar(moment);
+        return getSeasonForYear(AstronomicalSeason.VERNAL_EQUINOX, date);
     }
 
     @Override
     public Calendar getSummerSolsticeForYear(Calendar date)
     {
-        AstronomicalSeason summerSolstice = adjustSeasonToHemisphere(AstronomicalSeason.SUMMER_SOLSTICE);
-        Moment moment = summerSolstice.inYear(date.get(Calendar.YEAR));
-        return momentToCalendar(moment);
+        return getSeasonForYear(AstronomicalSeason.SUMMER_SOLSTICE, date);
     }
 
     @Override
     public Calendar getAutumnalEquinoxForYear(Calendar date)
     {
-        AstronomicalSeason autumnalEquinox = adjustSeasonToHemisphere(AstronomicalSeason.AUTUMNAL_EQUINOX);
-        Moment moment = autumnalEquinox.inYear(date.get(Calendar.YEAR));
-        return momentToCalendar(moment);
+        return getSeasonForYear(AstronomicalSeason.AUTUMNAL_EQUINOX, date);
     }
 
     @Override
     public Calendar getWinterSolsticeForYear(Calendar date)
     {
-        AstronomicalSeason winterSolstice = adjustSeasonToHemisphere(AstronomicalSeason.WINTER_SOLSTICE);
-        Moment moment = winterSolstice.inYear(date.get(Calendar.YEAR));
-        return momentToCalendar(moment);
+        return getSeasonForYear(AstronomicalSeason.WINTER_SOLSTICE, date);
+    }
+
+    /**
+     * @return the season (adjusted to hemisphere) from the precomputed table, or calculated if the table doesn't cover the year
+     */
+    protected Calendar getSeasonForYear(AstronomicalSeason season0, Calendar date)
+    {
+        AstronomicalSeason season = adjustSeasonToHemisphere(season0);
+        int year = date.get(Calendar.YEAR);
+        SeasonTable table = SeasonTable.getTable(SEASON_TABLE);
+        long millis = (table != null ? table.get(year, toSeasonIndex(season)) : -1);
+        return (millis != -1 ? millisToCalendar(millis) : momentToCalendar(season.inYear(year)));
     }
 
+    protected static int toSeasonIndex(AstronomicalSeason season)
+    {
+        switch (season)
+        {
+            case VERNAL_EQUINOX: return SeasonTable.SPRING_EQUINOX;
+            case SUMMER_SOLSTICE: return SeasonTable.SUMMER_SOLSTICE;
+            case AUTUMNAL_EQUINOX: return SeasonTable.AUTUMNAL_EQUINOX;
+            case WINTER_SOLSTICE: default: return SeasonTable.WINTER_SOLSTICE;
+        }
+    }
+    public static final String SEASON_TABLE = "time4a";    // seasons are independent of the solar calculator; shared by the time4a family
+
     @Override
     public long getTropicalYearLength(Calendar date)
     {
         int year = date.get(Calendar.YEAR);
+        SeasonTable table = SeasonTable.getTable(SEASON_TABLE);
+        long length = (table != null ? table.getTropicalYearLength(year) : -1);
+        if (length != -1) {
+            return length;
+        }
+
         AstronomicalSeason vernalEquinox = AstronomicalSeason.VERNAL_EQUINOX.onNorthernHemisphere();
         long t0 = TemporalType.MILLIS_SINCE_UNIX.from(vernalEquinox.inYear(year));
         long t1 = TemporalType.MILLIS_SINCE_UNIX.from(vernalEquinox.inYear(year + 1));
@@ -329,38 +419,119 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     {
         net.time4j.tz.Timezone tz = toTimezone(dateTime.getTimeZone());
         PlainDate localDate = calendarToPlainDate(dateTime);
-        Moment moment = TemporalType.JAVA_UTIL_DATE.translate(dateTime.getTime());
+        Moment moment = toMoment(dateTime);
         SolarTime.Sunshine sunshine = localDate.get(this.solarTime.sunshine(tz.getID()));
         return sunshine.isPresent(moment);
     }
 
+    /**
+     * @return the time4j timezone for input (conversions are cached; @see MAX_TIMEZONES)
+     */
     protected net.time4j.tz.Timezone toTimezone( java.util.TimeZone input )
     {
-        String tzString = "java.util.TimeZone~" + input.getID();
-        TZID tzFallback = Timezone.ofPlatform().getID();  // ofSystem().getID();
-        return net.time4j.tz.Timezone.of(tzString, tzFallback);
+        String tzID = input.getID();
+        synchronized (timezones)
+        {
+            net.time4j.tz.Timezone tz = timezones.get(tzID);
+            if (tz == null)
+            {
+                String tzString = "java.util.TimeZone~" + tzID;
+                TZID tzFallback = Timezone.ofPlatform().getID();  // ofSystem().getID();
+                tz = net.time4j.tz.Timezone.of(tzString, tzFallback);
+                timezones.put(tzID, tz);
+            }
+            return tz;
+        }
+    }
+    public static final int MAX_TIMEZONES = 16;
+    private static final LinkedHashMap<String, net.time4j.tz.Timezone> timezones = new LinkedHashMap<String, net.time4j.tz.Timezone>(MAX_TIMEZONES, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, net.time4j.tz.Timezone> eldest) {
+            return size() > MAX_TIMEZONES;
+        }
+    };
+
+    /**
+     * @return LunarTime for the current location observed from tz (reused while the location and timezone remain unchanged)
+     */
+    protected LunarTimeEntry getLunarTime(java.util.TimeZone tz)
+    {
+        LunarTimeEntry entry = lunarTime;
+        if (entry == null || !entry.tzID.equals(tz.getID()))
+        {
+            TZID tzid = toTimezone(tz).getID();
+            entry = new LunarTimeEntry(tz.getID(), tzid, LunarTime.ofLocation(tzid, solarTime.getLatitude(), solarTime.getLongitude(), solarTime.getAltitude()));
+            lunarTime = entry;
+        }
+        return entry;
+    }
+    protected static final class LunarTimeEntry
+    {
+        public final String tzID;
+        public final TZID zone;
+        public final LunarTime lunarTime;
+
+        public LunarTimeEntry(String tzID, TZID zone, LunarTime lunarTime)
+        {
+            this.tzID = tzID;
+            this.zone = zone;
+            this.lunarTime = lunarTime;
+        }
+    }
+
+    protected static Moment toMoment(Calendar input) {
+        return TemporalType.MILLIS_SINCE_UNIX.translate(input.getTimeInMillis());
     }
 
-    protected PlainDate calendarToPlainDate(Calendar input)
+    protected PlainDate calendarToPlainDate(Calendar input) {
+        return toPlainDate(input.getTimeInMillis());
+    }
+
+    /**
+     * @param millis unix millis
+     * @return the local date (in the calculator's timezone) at millis
+     */
+    protected PlainDate toPlainDate(long millis)
     {
-        Moment moment = TemporalType.JAVA_UTIL_DATE.translate(input.getTime());
         //ZonalOffset offset = ZonalOffset.atLongitude(new BigDecimal(this.solarTime.getLongitude()));
-        ZonalOffset zonalOffset = ZonalOffset.ofTotalSeconds(timezone.getOffset(input.getTimeInMillis()) / 1000);
-        return moment.toZonalTimestamp(zonalOffset).toDate();
+        long localMillis = millis + ((timezone.getOffset(millis) / 1000) * 1000L);
+        long epochDay = localMillis / DAY_MILLIS;
+        if (localMillis % DAY_MILLIS < 0) {
+            epochDay--;    // floor
+        }
+        return PlainDate.of(epochDay, EpochDays.UNIX);
+    }
+    protected static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    protected Calendar momentToCalendar(Moment moment) {
+        return (moment != null ? millisToCalendar(TemporalType.MILLIS_SINCE_UNIX.from(moment)) : null);
     }
 
-    protected Calendar momentToCalendar(Moment moment)
+    protected Calendar millisToCalendar(long millis)
     {
-        Calendar retValue = null;
-        if (moment != null)
-        {
-            retValue = new GregorianCalendar();
-            retValue.setTimeZone(timezone);
-            retValue.setTime(TemporalType.JAVA_UTIL_DATE.from(moment));
+        if (millis == SunEvents.NONE) {
+            return null;
         }
+        Calendar retValue = new GregorianCalendar(timezone);
+        retValue.setTimeInMillis(millis);
         return retValue;
     }
 
+    /**
+     * @return the next event from the precomputed table, or null if the table is unavailable (or doesn't cover the date)
+     */
+    protected Calendar nextMoonEventFromTable(int kind, Calendar date)
+    {
+        MoonEventTable table = MoonEventTable.getTable();
+        long millis = (table != null ? table.nextAfter(kind, date.getTimeInMillis()) : -1);
+        return (millis != -1 ? millisToCalendar(millis) : null);
+    }
+
+    protected static long momentToMillis(Moment moment) {
+        return (moment != null ? TemporalType.MILLIS_SINCE_UNIX.from(moment) : SunEvents.NONE);
+    }
+
     protected AstronomicalSeason adjustSeasonToHemisphere( AstronomicalSeason season )
     {
         boolean northernHemisphere = (this.solarTime.getLatitude() >= 0);
@@ -372,12 +543,9 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     @Override
     public MoonTimes getMoonTimesForDate(Calendar date)
     {
-        Moment moment = TemporalType.JAVA_UTIL_DATE.translate(date.getTime());
-        TZID tzid = toTimezone(date.getTimeZone()).getID();
-        PlainDate localDate = moment.toZonalTimestamp(tzid).toDate();
-
-        LunarTime lunarTime = LunarTime.ofLocation(tzid, this.solarTime.getLatitude(), this.solarTime.getLongitude(), this.solarTime.getAltitude());
-        LunarTime.Moonlight moonlight = lunarTime.on(localDate);
+        LunarTimeEntry lunarTime = getLunarTime(date.getTimeZone());
+        PlainDate localDate = toMoment(date).toZonalTimestamp(lunarTime.zone).toDate();
+        LunarTime.Moonlight moonlight = lunarTime.lunarTime.on(localDate);
 
         MoonTimes result = new MoonTimes();
         result.riseTime = momentToCalendar(moonlight.moonrise()); // might be null meaning there is no moonrise
@@ -388,15 +556,19 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     @Override
     public double getMoonIlluminationForDate(Calendar date)
     {
-        Moment moment = TemporalType.JAVA_UTIL_DATE.translate(date.getTime());
+        Moment moment = toMoment(date);
         return net.time4j.calendar.astro.MoonPhase.getIllumination(moment, 1);
     }
 
     @Override
     public Calendar getMoonPhaseNextDate(MoonPhase phase, Calendar date)
     {
+        Calendar event = nextMoonEventFromTable(MoonEventTable.kindOf(phase), date);
+        if (event != null) {
+            return event;
+        }
         net.time4j.calendar.astro.MoonPhase moonPhase = toPhase(phase);
-        Moment phaseMoment = moonPhase.after(TemporalType.JAVA_UTIL_DATE.translate(date.getTime()));
+        Moment phaseMoment = moonPhase.after(toMoment(date));
         return momentToCalendar(phaseMoment);
     }
 
@@ -414,7 +586,7 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     @Override
     public SunPosition getSunPosition(Calendar dateTime)
     {
-        Moment moment = TemporalType.JAVA_UTIL_DATE.translate(dateTime.getTime());
+        Moment moment = toMoment(dateTime);
         net.time4j.calendar.astro.SunPosition position = net.time4j.calendar.astro.SunPosition.at(moment, solarTime);
 
         SunPosition result = new SunPosition();
@@ -428,7 +600,7 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     @Override
     public MoonPosition getMoonPosition(Calendar dateTime)
     {
-        Moment moment = TemporalType.JAVA_UTIL_DATE.translate(dateTime.getTime());
+        Moment moment = toMoment(dateTime);
         net.time4j.calendar.astro.MoonPosition position = net.time4j.calendar.astro.MoonPosition.at(moment, solarTime);
 
         MoonPosition result = new MoonPosition();
@@ -440,10 +612,42 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
         return result;
     }
 
+    @Override
+    public boolean getSunPositions(long startMillis, long stepMillis, int count, double[] azimuth, double[] elevation)
+    {
+        long millis = startMillis;
+        for (int i=0; i<count; i++)
+        {
+            net.time4j.calendar.astro.SunPosition position = net.time4j.calendar.astro.SunPosition.at(TemporalType.MILLIS_SINCE_UNIX.translate(millis), solarTime);
+            elevation[i] = position.getElevation();
+            if (azimuth != null) {
+                azimuth[i] = position.getAzimuth();
+            }
+            millis += stepMillis;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean getMoonPositions(long startMillis, long stepMillis, int count, double[] azimuth, double[] elevation)
+    {
+        long millis = startMillis;
+        for (int i=0; i<count; i++)
+        {
+            net.time4j.calendar.astro.MoonPosition position = net.time4j.calendar.astro.MoonPosition.at(TemporalType.MILLIS_SINCE_UNIX.translate(millis), solarTime);
+            elevation[i] = position.getElevation();
+            if (azimuth != null) {
+                azimuth[i] = position.getAzimuth();
+            }
+            millis += stepMillis;
+        }
+        return true;
+    }
+
     @Override
     public double getShadowLength( double objHeight, Calendar dateTime )
     {
-        Moment moment = TemporalType.JAVA_UTIL_DATE.translate(dateTime.getTime());
+        Moment moment = toMoment(dateTime);
         net.time4j.calendar.astro.SunPosition position = net.time4j.calendar.astro.SunPosition.at(moment, solarTime);
         return position.getShadowLength(objHeight);
     }
@@ -467,14 +671,18 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     @Override
     public double equationOfTime(Calendar dateTime)
     {
-        Moment moment = TemporalType.JAVA_UTIL_DATE.translate(dateTime.getTime());
+        Moment moment = toMoment(dateTime);
         return SolarTime.equationOfTime(moment, solarTime.getCalculator().name());
     }
 
     @Override
     public Calendar getMoonPerigeeNextDate(Calendar dateTime)
     {
-        Moment moment = TemporalType.JAVA_UTIL_DATE.translate(dateTime.getTime());
+        Calendar event = nextMoonEventFromTable(MoonEventTable.KIND_PERIGEE, dateTime);
+        if (event != null) {
+            return event;
+        }
+        Moment moment = toMoment(dateTime);
         Moment apogeeMoment = net.time4j.calendar.astro.MoonPosition.inNextPerigeeAfter(moment);
         return momentToCalendar(apogeeMoment);
     }
@@ -482,7 +690,11 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     @Override
     public Calendar getMoonApogeeNextDate(Calendar dateTime)
     {
-        Moment moment = TemporalType.JAVA_UTIL_DATE.translate(dateTime.getTime());
+        Calendar event = nextMoonEventFromTable(MoonEventTable.KIND_APOGEE, dateTime);
+        if (event != null) {
+            return event;
+        }
+        Moment moment = toMoment(dateTime);
         Moment apogeeMoment = net.time4j.calendar.astro.MoonPosition.inNextApogeeAfter(moment);
         return momentToCalendar(apogeeMoment);
     }
@@ -22,6 +22,7 @@ import android.content.Context;
 import android.content.SharedPreferences;
 
 import com.forrestguice.suntimeswidget.settings.PrefTypeInfo;
+import com.forrestguice.suntimeswidget.settings.WidgetPrefs;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 
 import java.util.Map;
@@ -125,7 +126,7 @@ public class CalendarSettings
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
     public static void saveCalendarFlag(Context context, int appWidgetId, String key, boolean value) {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_CALENDAR;
         prefs.putBoolean(prefs_prefix + key, value);
         prefs.apply();
@@ -133,7 +134,7 @@ public class CalendarSettings
 
     public static boolean loadCalendarFlag(Context context, int appWidgetId, String key, boolean defValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_CALENDAR;
         return prefs.getBoolean(prefs_prefix + key, defValue);
     }
@@ -143,14 +144,14 @@ public class CalendarSettings
 
     public static void saveCalendarModePref(Context context, int appWidgetId, CalendarMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_CALENDAR;
         prefs.putString(prefs_prefix + PREF_KEY_CALENDAR_MODE, mode.name());
         prefs.apply();
     }
     public static CalendarMode loadCalendarModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_CALENDAR;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_CALENDAR_MODE, PREF_DEF_CALENDAR_MODE.name());
 
@@ -168,20 +169,20 @@ public class CalendarSettings
 
     public static void saveCalendarFormatPatternPref(Context context, int appWidgetId, String tag, String formatString)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_CALENDAR;
         prefs.putString(prefs_prefix + PREF_KEY_CALENDAR_FORMATPATTERN + "_" + tag, formatString);
         prefs.apply();
     }
     public static String loadCalendarFormatPatternPref(Context context, int appWidgetId, String tag)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_CALENDAR;
         return prefs.getString(prefs_prefix + PREF_KEY_CALENDAR_FORMATPATTERN + "_" + tag, defaultCalendarFormatPattern(tag));
     }
     public static void deleteCalendarFormatPatternPref(Context context, int appWidgetId, String tag)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_CALENDAR;
         prefs.remove(prefs_prefix + PREF_KEY_CALENDAR_FORMATPATTERN + "_" + tag);
         prefs.apply();
@@ -202,7 +203,7 @@ public class CalendarSettings
 
     public static void deleteCalendarPref(Context context, int appWidgetId, String key)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_CALENDAR;
         prefs.remove(prefs_prefix + key);
         prefs.apply();
@@ -18,7 +18,6 @@
 
 package com.forrestguice.suntimeswidget.cards;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Color;
@@ -48,11 +47,11 @@ import com.forrestguice.suntimeswidget.settings.AppSettings;
 import com.forrestguice.suntimeswidget.settings.SolarEvents;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
+import com.forrestguice.suntimeswidget.views.DataWindow;
 import com.forrestguice.suntimeswidget.views.ViewUtils;
 
 import java.lang.ref.WeakReference;
 import java.util.Calendar;
-import java.util.HashMap;
 import java.util.Set;
 import java.util.TimeZone;
 
@@ -66,6 +65,12 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
     public CardAdapter(Context context)
     {
         contextRef = new WeakReference<>(context);
+        data.setDataListener(new DataWindow.DataListener<Pair<SuntimesRiseSetDataset, SuntimesMoonData>>() {
+            @Override
+            public void onDataReady(int key, int groupSize, @NonNull Pair<SuntimesRiseSetDataset, SuntimesMoonData> value) {
+                notifyItemRangeChanged(key, groupSize);
+            }
+        });
         initTheme(context);
         SuntimesUtils.initDisplayStrings(context);
         CardViewHolder.utils = utils;
@@ -87,8 +92,19 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
 
     public static final int MAX_POSITIONS = 400000;    // +-550 years (400000 / 365 / 2)
     public static final int TODAY_POSITION = (MAX_POSITIONS / 2);      // middle position is today
-    @SuppressLint("UseSparseArrays")
-    private HashMap<Integer, Pair<SuntimesRiseSetDataset, SuntimesMoonData>> data = new HashMap<>();
+    public static final int WINDOW_CAPACITY = 15;    // cards kept around the visible position
+    public static final int WINDOW_PREFETCH = 3;     // cards calculated ahead on either side
+
+    private final DataWindow<Pair<SuntimesRiseSetDataset, SuntimesMoonData>> data = new DataWindow<>(TODAY_POSITION, 1, WINDOW_CAPACITY, WINDOW_PREFETCH,
+            new DataWindow.DataFactory<Pair<SuntimesRiseSetDataset, SuntimesMoonData>>()
+            {
+                @Override
+                public Pair<SuntimesRiseSetDataset, SuntimesMoonData> createData(int position)
+                {
+                    Context context = (contextRef != null ? contextRef.get() : null);
+                    return (context != null ? CardAdapter.this.createData(context, position) : null);
+                }
+            });
 
     @Override
     public int getItemCount() {
@@ -105,21 +121,19 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
         data.clear();
         invalidated = false;
         initOptions(context);
-        initData(context, TODAY_POSITION - 1);
-        retValue = initData(context, TODAY_POSITION);
-        initData(context, TODAY_POSITION + 1);
-        initData(context, TODAY_POSITION + 2);
+        data.pin(TODAY_POSITION - 1);
+        retValue = data.pin(TODAY_POSITION);
+        data.pin(TODAY_POSITION + 1);
+        data.pin(TODAY_POSITION + 2);
         notifyDataSetChanged();
         return retValue;
     }
 
-    public Pair<SuntimesRiseSetDataset, SuntimesMoonData> initData(Context context, int position)
-    {
-        Pair<SuntimesRiseSetDataset, SuntimesMoonData> dataPair = data.get(position);
-        if (dataPair == null && !invalidated) {
-            data.put(position, dataPair = createData(context, position));   // data is removed in onViewRecycled
-        }
-        return dataPair;
+    /**
+     * @return data for position (calculated on the calling thread if it isn't ready), or null if invalidated
+     */
+    public Pair<SuntimesRiseSetDataset, SuntimesMoonData> initData(Context context, int position) {
+        return (invalidated ? data.peek(position) : data.get(position));
     }
 
     protected Pair<SuntimesRiseSetDataset, SuntimesMoonData> createData(Context context, int position)
@@ -200,9 +214,6 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
     public void onViewRecycled(CardViewHolder holder)
     {
         detachClickListeners(holder);
-        if (holder.position >= 0 && (holder.position < TODAY_POSITION - 1 || holder.position > TODAY_POSITION + 2)) {
-            data.remove(holder.position);
-        }
         holder.position = RecyclerView.NO_POSITION;
     }
 
@@ -237,7 +248,8 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
             Log.w("CardAdapter", "onBindViewHolder: null view holder!");
             return;
         }
-        holder.bindDataToPosition(context, position, initData(context, position), options);
+        Pair<SuntimesRiseSetDataset, SuntimesMoonData> dataPair = (invalidated ? data.peek(position) : data.request(position));    // null until calculated (in the background)
+        holder.bindDataToPosition(context, position, dataPair, options);
         attachClickListeners(holder, position);
     }
 
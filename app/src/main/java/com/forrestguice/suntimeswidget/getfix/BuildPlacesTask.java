@@ -24,7 +24,6 @@ import android.content.Intent;
 import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
-import android.database.Cursor;
 import android.database.SQLException;
 import android.graphics.drawable.Drawable;
 import android.net.Uri;
@@ -41,8 +40,6 @@ import com.forrestguice.suntimeswidget.ExportTask;
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -52,11 +49,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Locale;
+import java.util.Set;
 
 public class BuildPlacesTask extends AsyncTask<Object, Object, Integer>
 {
     public static final long MIN_WAIT_TIME = 2000;
+    public static final int PROGRESS_INTERVAL = 1000;    // publish progress every n places
 
     private GetFixDatabaseAdapter db;
     private WeakReference<Context> contextRef;
@@ -170,23 +170,27 @@ public class BuildPlacesTask extends AsyncTask<Object, Object, Integer>
         }
     }
 
-    private void addPlacesFromUri(Context context, @NonNull Uri uri, @NonNull ArrayList<Location> locations)
+    /**
+     * Streams places from a csv file directly into the database.
+     */
+    private void addPlacesFromUri(Context context, @NonNull Uri uri, @NonNull PlaceImporter importer)
     {
         try {
             InputStream in = context.getContentResolver().openInputStream(uri);
             if (in != null)
             {
-                BufferedInputStream input = new BufferedInputStream(in);
-                BufferedReader reader = new BufferedReader(new InputStreamReader(input));
-
-                String line = reader.readLine();
-                while (line != null)
-                {
-                    Location location = csvItemToLocation(line);
-                    if (location != null && !locations.contains(location)) {
-                        locations.add(location);
+                PlacesCSVReader reader = new PlacesCSVReader(new InputStreamReader(in));
+                try {
+                    Location location;
+                    while ((location = reader.next()) != null && !isCancelled()) {
+                        importer.add(location);
                     }
-                    line = reader.readLine();
+                } finally {
+                    reader.close();
+                }
+
+                if (reader.getSkippedCount() > 0) {
+                    Log.w("BuildPlacesTask", "Ignored " + reader.getSkippedCount() + " malformed lines (of " + reader.getLineCount() + ") from " + uri);
                 }
 
             } else {
@@ -206,34 +210,11 @@ public class BuildPlacesTask extends AsyncTask<Object, Object, Integer>
             return null;
         }
 
-        String[] parts = splitCSV(csv_item, ','); // csv_item.split(",");
-        if (parts.length < 3) {
+        Location location = PlacesCSVReader.parseLocation(csv_item);
+        if (location == null) {
             Log.e("BuildPlacesTask", "Ignoring malformed line; " + csv_item);
-            return null;
-        }
-
-        String label = parts[0];
-        if (label.startsWith("\"")) {
-            label = label.substring(1);
         }
-        if (label.endsWith("\"")) {
-            label = label.substring(0, label.length()-1);
-        }
-
-        String lat, lon;
-        String alt = "0";
-        try {
-            lat = "" + Double.parseDouble(parts[1]);
-            lon = "" + Double.parseDouble(parts[2]);
-            if (parts.length >= 4) {
-                alt = "" + Double.parseDouble(parts[3]);
-            }
-        } catch (NumberFormatException e) {
-            Log.e("BuildPlacesTask", "Ignoring line " + csv_item + " .. " + e);
-            return null;
-        }
-
-        return new Location(label, lat, lon, alt);
+        return location;
     }
 
     public static String[] splitCSV(String value, Character delimiter)
@@ -267,40 +248,50 @@ public class BuildPlacesTask extends AsyncTask<Object, Object, Integer>
     private int buildPlaces(@Nullable Uri uri, @Nullable String[] groups)
     {
         int result = 0;
-        ArrayList<Location> locations = new ArrayList<>();
         try {
             Context context = contextRef.get();
             db.open();
 
-            if (uri != null) {
-                addPlacesFromUri(context, uri, locations);
-            } else if (groups != null) {
-                addPlacesFromGroup(context, groups, locations);
-            } else {
-                addPlacesFromRes(context, locations);
-            }
+            GetFixDatabaseAdapter.PlaceInserter inserter = db.insertPlaces();    // a single transaction
+            try {
+                PlaceImporter importer = new PlaceImporter(inserter, db.getPlaceNames());
+                if (uri != null) {
+                    addPlacesFromUri(context, uri, importer);    // streamed (file order)
+
+                } else {
+                    ArrayList<Location> locations = new ArrayList<>();
+                    if (groups != null) {
+                        addPlacesFromGroup(context, groups, locations);
+                    } else {
+                        addPlacesFromRes(context, locations);
+                    }
 
-            Collections.sort(locations, new Comparator<Location>()
-            {
-                @Override
-                public int compare(Location o1, Location o2)
-                {
-                    return o2.getLabel().compareTo(o1.getLabel());  // descending
+                    Collections.sort(locations, new Comparator<Location>()
+                    {
+                        @Override
+                        public int compare(Location o1, Location o2)
+                        {
+                            return o2.getLabel().compareTo(o1.getLabel());  // descending
+                        }
+                    });
+                    for (Location location : locations)
+                    {
+                        if (isCancelled()) {
+                            break;
+                        }
+                        importer.add(location);
+                    }
                 }
-            });
 
-            Cursor cursor = db.getAllPlaces(0, false);
-            for (int i=0; i<locations.size(); i++)
-            {
-                Location location = locations.get(i);
-                int p = GetFixDatabaseAdapter.findPlaceByName(location.getLabel(), cursor);
-                if (p < 0)    // if not found
-                {                 // then add new place
-                    db.addPlace(location, PlaceItem.TAG_DEFAULT);
-                    result++;
+                if (!isCancelled())
+                {
+                    inserter.setSuccessful();    // a cancelled import is rolled back
+                    result = inserter.getCount();
                 }
+
+            } finally {
+                inserter.close();
             }
-            cursor.close();
 
             Log.i("BuildPlacesTask", "buildPlaces: " + result);
             db.close();
@@ -312,6 +303,41 @@ public class BuildPlacesTask extends AsyncTask<Object, Object, Integer>
         return result;
     }
 
+    /**
+     * PlaceImporter
+     * Skips places whose name is already in the database, and duplicates within the import (same name and coordinates);
+     * inserts the rest, and publishes progress.
+     */
+    private class PlaceImporter
+    {
+        protected final GetFixDatabaseAdapter.PlaceInserter inserter;
+        protected final Set<String> names;    // names already in the database
+        protected final Set<String> imported = new HashSet<>();    // label + lat + lon of places added by this import
+
+        public PlaceImporter(@NonNull GetFixDatabaseAdapter.PlaceInserter inserter, @NonNull Set<String> names)
+        {
+            this.inserter = inserter;
+            this.names = names;
+        }
+
+        public boolean add(@Nullable Location location)
+        {
+            if (location != null && !names.contains(location.getLabel())
+                    && imported.add(location.getLabel() + "|" + location.getLatitude() + "|" + location.getLongitude()))
+            {
+                if (inserter.add(location, PlaceItem.TAG_DEFAULT) != -1)
+                {
+                    int count = inserter.getCount();
+                    if (count % PROGRESS_INTERVAL == 0) {
+                        publishProgress(count);
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
     @Override
     protected Integer doInBackground(Object... params)
     {
@@ -349,6 +375,14 @@ public class BuildPlacesTask extends AsyncTask<Object, Object, Integer>
         signalStarted();
     }
 
+    @Override
+    protected void onProgressUpdate(Object... progress)
+    {
+        if (progress.length > 0 && progress[0] instanceof Integer) {
+            signalProgress((Integer) progress[0]);
+        }
+    }
+
     @Override
     protected void onPostExecute(Integer result)
     {
@@ -371,6 +405,7 @@ public class BuildPlacesTask extends AsyncTask<Object, Object, Integer>
     public static abstract class TaskListener
     {
         public void onStarted() {}
+        public void onProgress( int count ) {}
         public void onFinished( Integer result ) {}
     }
 
@@ -379,6 +414,11 @@ public class BuildPlacesTask extends AsyncTask<Object, Object, Integer>
         if (taskListener != null)
             taskListener.onStarted();
     }
+    private void signalProgress( int count )
+    {
+        if (taskListener != null)
+            taskListener.onProgress(count);
+    }
     private void signalFinished( Integer result )
     {
         if (taskListener != null)
@@ -24,15 +24,25 @@ import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
 public class GetFixDatabaseAdapter
 {
     private static final String DATABASE_NAME = "suntimes";
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 2;
 
     public static final String KEY_ROWID = "_id";
     public static final String DEF_ROWID = KEY_ROWID + " integer primary key autoincrement";
@@ -61,6 +71,26 @@ public class GetFixDatabaseAdapter
                                                          + DEF_PLACE_COMMENT;
     private static final String TABLE_PLACES_CREATE = "create table " + TABLE_PLACES + " (" + TABLE_PLACES_CREATE_COLS + ");";
 
+    /**
+     * places_search: a full-text index of place names (normalized; lowercase without diacritics) (@see normalizeName)
+     * The docid of each entry is the rowID of the place.
+     */
+    public static final String KEY_SEARCH_NAME = "name";
+    private static final String TABLE_SEARCH = "places_search";
+    private static final String TABLE_SEARCH_CREATE = "create virtual table " + TABLE_SEARCH + " using fts4(" + KEY_SEARCH_NAME + ");";
+
+    /**
+     * places_grid: a spatial index of places; each place is assigned to a cell of a (GRID_CELL_DEGREES) lat/lon grid (@see gridCell).
+     */
+    public static final String KEY_GRID_CELL = "cell";
+    public static final int GRID_CELL_DEGREES = 1;
+    private static final int GRID_COLUMNS = 360 / GRID_CELL_DEGREES;
+    private static final int GRID_ROWS = 180 / GRID_CELL_DEGREES;
+    private static final double EARTH_RADIUS_KM = 6371;
+    private static final String TABLE_GRID = "places_grid";
+    private static final String TABLE_GRID_CREATE = "create table " + TABLE_GRID + " (" + KEY_ROWID + " integer primary key, " + KEY_GRID_CELL + " integer not null);";
+    private static final String TABLE_GRID_INDEX_CREATE = "create index " + TABLE_GRID + "_" + KEY_GRID_CELL + " on " + TABLE_GRID + " (" + KEY_GRID_CELL + ");";
+
     private static final String[] QUERY_PLACES_MINENTRY = new String[] {KEY_ROWID, KEY_PLACE_NAME};
     private static final String[] QUERY_PLACES_FULLENTRY = new String[] {KEY_ROWID, KEY_PLACE_NAME, KEY_PLACE_LATITUDE, KEY_PLACE_LONGITUDE, KEY_PLACE_ALTITUDE, KEY_PLACE_COMMENT};
 
@@ -185,8 +215,66 @@ public class GetFixDatabaseAdapter
         return addPlace(values);
     }
 
-    public long addPlace(ContentValues values) {
-        return (verifyContentValues(values) ? database.insert(TABLE_PLACES, null, values) : -1);
+    public long addPlace(ContentValues values)
+    {
+        if (!verifyContentValues(values)) {
+            return -1;
+        }
+
+        database.beginTransaction();
+        try {
+            long rowID = database.insert(TABLE_PLACES, null, values);
+            if (rowID != -1) {
+                indexPlace(database, rowID, values.getAsString(KEY_PLACE_NAME), values.getAsString(KEY_PLACE_LATITUDE), values.getAsString(KEY_PLACE_LONGITUDE));
+            }
+            database.setTransactionSuccessful();
+            return rowID;
+
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * Add several places to the database (in a single transaction).
+     * @param places a list of places
+     * @param comment a comment to apply to each place (e.g. PlaceItem.TAG_DEFAULT)
+     * @return the number of places that were added
+     */
+    public int addPlaces(@NonNull List<Location> places, String comment)
+    {
+        PlaceInserter inserter = insertPlaces();
+        try {
+            for (Location place : places) {
+                inserter.add(place, comment);
+            }
+            inserter.setSuccessful();
+            return inserter.getCount();
+
+        } finally {
+            inserter.close();
+        }
+    }
+
+    /**
+     * Begins a bulk insert (@see PlaceInserter).
+     * @return a PlaceInserter; the caller must call close (and setSuccessful to commit).
+     */
+    public PlaceInserter insertPlaces() {
+        return new PlaceInserter(database);
+    }
+
+    /**
+     * Transactions; callers making many changes should wrap them in a transaction (@see SQLiteDatabase.beginTransaction).
+     */
+    public void beginTransaction() {
+        database.beginTransaction();
+    }
+    public void setTransactionSuccessful() {
+        database.setTransactionSuccessful();
+    }
+    public void endTransaction() {
+        database.endTransaction();
     }
     protected boolean verifyContentValues(@Nullable ContentValues values)
     {
@@ -216,7 +304,23 @@ public class GetFixDatabaseAdapter
         values.put(KEY_PLACE_LATITUDE, place.getLatitude());
         values.put(KEY_PLACE_LONGITUDE, place.getLongitude());
         values.put(KEY_PLACE_ALTITUDE, place.getAltitude());
-        database.update(TABLE_PLACES, values,  "name = ?", new String[] { place.getLabel() });
+
+        database.beginTransaction();
+        try {
+            database.update(TABLE_PLACES, values,  "name = ?", new String[] { place.getLabel() });
+            Cursor cursor = database.query(TABLE_PLACES, new String[] { KEY_ROWID }, KEY_PLACE_NAME + " = ?", new String[] { place.getLabel() }, null, null, null);
+            if (cursor != null)
+            {
+                while (cursor.moveToNext()) {
+                    indexPlace(database, cursor.getLong(0), place.getLabel(), place.getLatitude(), place.getLongitude());
+                }
+                cursor.close();
+            }
+            database.setTransactionSuccessful();
+
+        } finally {
+            database.endTransaction();
+        }
     }
 
     public void updatePlace( long rowID, Location place )
@@ -227,7 +331,17 @@ public class GetFixDatabaseAdapter
         values.put(KEY_PLACE_LATITUDE, place.getLatitude());
         values.put(KEY_PLACE_LONGITUDE, place.getLongitude());
         values.put(KEY_PLACE_ALTITUDE, place.getAltitude());
-        database.update(TABLE_PLACES, values,  "rowID = ?", new String[] { Long.toString(rowID) });
+
+        database.beginTransaction();
+        try {
+            if (database.update(TABLE_PLACES, values,  "rowID = ?", new String[] { Long.toString(rowID) }) > 0) {
+                indexPlace(database, rowID, place.getLabel(), place.getLatitude(), place.getLongitude());
+            }
+            database.setTransactionSuccessful();
+
+        } finally {
+            database.endTransaction();
+        }
     }
 
     public void updateComment( long rowID, String comment )
@@ -292,7 +406,16 @@ public class GetFixDatabaseAdapter
      */
     public boolean removePlace(long row)
     {
-        return database.delete(TABLE_PLACES, KEY_ROWID + "=" + row, null) > 0;
+        database.beginTransaction();
+        try {
+            boolean removed = database.delete(TABLE_PLACES, KEY_ROWID + "=" + row, null) > 0;
+            unindexPlace(database, row);
+            database.setTransactionSuccessful();
+            return removed;
+
+        } finally {
+            database.endTransaction();
+        }
     }
 
 
@@ -302,7 +425,396 @@ public class GetFixDatabaseAdapter
      */
     public boolean clearPlaces()
     {
-        return database.delete(TABLE_PLACES, null, null) > 0;
+        database.beginTransaction();
+        try {
+            boolean cleared = database.delete(TABLE_PLACES, null, null) > 0;
+            database.delete(TABLE_SEARCH, null, null);
+            database.delete(TABLE_GRID, null, null);
+            database.setTransactionSuccessful();
+            return cleared;
+
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * Search places by name; each word of the query matches the beginning of a word in the name (ignoring case and diacritics),
+     * e.g. "sao pa" matches "São Paulo".
+     * @param query search text
+     * @param n get first n results (n <= 0 for complete list)
+     * @param fullEntry true get all place data, false get display name only
+     * @return a Cursor into the database (exact matches first, then names starting with the query, then other matches), or null if the query is empty
+     */
+    @Nullable
+    public Cursor findPlaces(@Nullable String query, int n, boolean fullEntry)
+    {
+        String normalized = normalizeName(query);
+        String match = toMatchQuery(normalized);
+        if (match == null) {
+            return null;
+        }
+
+        String[] QUERY = (fullEntry) ? QUERY_PLACES_FULLENTRY : QUERY_PLACES_MINENTRY;
+        StringBuilder columns = new StringBuilder();
+        for (int i=0; i<QUERY.length; i++) {
+            columns.append(i > 0 ? ", " : "").append("p.").append(QUERY[i]);
+        }
+
+        String sql = "SELECT " + columns + " FROM " + TABLE_PLACES + " p"
+                + " JOIN " + TABLE_SEARCH + " s ON s.docid = p." + KEY_ROWID
+                + " WHERE s." + KEY_SEARCH_NAME + " MATCH ?"
+                + " ORDER BY (s." + KEY_SEARCH_NAME + " = ?) DESC, (substr(s." + KEY_SEARCH_NAME + ", 1, ?) = ?) DESC, p." + KEY_PLACE_NAME
+                + ((n > 0) ? " LIMIT " + n : "");
+
+        Cursor cursor = database.rawQuery(sql, new String[] { match, normalized, Integer.toString(normalized.length()), normalized });
+        if (cursor != null) {
+            cursor.moveToFirst();
+        }
+        return cursor;
+    }
+
+    /**
+     * Find the places nearest to a point; searches the grid cells surrounding the point in expanding rings, and stops once the
+     * nth nearest candidate is closer than anything that could lie outside of the searched cells (@see unsearchedDistanceKm).
+     * @param latitude latitude (degrees)
+     * @param longitude longitude (degrees)
+     * @param n the number of places to find
+     * @return rowIDs of the nearest places (nearest first)
+     */
+    public List<Long> findNearestPlaces(double latitude, double longitude, int n)
+    {
+        ArrayList<PlaceDistance> candidates = new ArrayList<>();
+        if (n <= 0) {
+            return new ArrayList<>();
+        }
+
+        Comparator<PlaceDistance> byDistance = new Comparator<PlaceDistance>() {
+            @Override
+            public int compare(PlaceDistance o1, PlaceDistance o2) {
+                return Double.compare(o1.distance, o2.distance);
+            }
+        };
+
+        int row0 = gridRow(latitude);
+        int col0 = gridColumn(longitude);
+        int maxRadius = Math.max(GRID_ROWS, GRID_COLUMNS / 2);
+        HashSet<Integer> visited = new HashSet<>();
+
+        for (int r = 0; r <= maxRadius; r++)
+        {
+            StringBuilder cells = new StringBuilder();
+            for (Integer cell : ringCells(row0, col0, r))
+            {
+                if (visited.add(cell)) {    // columns wrap around; large rings overlap smaller ones
+                    cells.append(cells.length() > 0 ? "," : "").append(cell);
+                }
+            }
+
+            if (cells.length() > 0)
+            {
+                Cursor cursor = database.rawQuery("SELECT p." + KEY_ROWID + ", p." + KEY_PLACE_LATITUDE + ", p." + KEY_PLACE_LONGITUDE
+                        + " FROM " + TABLE_GRID + " g JOIN " + TABLE_PLACES + " p ON p." + KEY_ROWID + " = g." + KEY_ROWID
+                        + " WHERE g." + KEY_GRID_CELL + " IN (" + cells + ")", null);
+                if (cursor != null)
+                {
+                    while (cursor.moveToNext())
+                    {
+                        try {
+                            double lat = Double.parseDouble(cursor.getString(1));
+                            double lon = Double.parseDouble(cursor.getString(2));
+                            candidates.add(new PlaceDistance(cursor.getLong(0), distanceKm(latitude, longitude, lat, lon)));
+                        } catch (NumberFormatException e) { /* skip */ }
+                    }
+                    cursor.close();
+                }
+            }
+
+            if (candidates.size() >= n)
+            {
+                Collections.sort(candidates, byDistance);
+                if (candidates.get(n - 1).distance <= unsearchedDistanceKm(latitude, longitude, row0, col0, r)) {
+                    break;    // nothing outside of the searched cells can be closer
+                }
+            }
+        }
+
+        Collections.sort(candidates, byDistance);
+        ArrayList<Long> result = new ArrayList<>();
+        for (int i=0; i<candidates.size() && i<n; i++) {
+            result.add(candidates.get(i).rowID);
+        }
+        return result;
+    }
+
+    /**
+     * PlaceInserter
+     * Inserts places (and their index entries) within a single transaction using precompiled statements.
+     */
+    public static class PlaceInserter
+    {
+        protected final SQLiteDatabase db;
+        protected final SQLiteStatement insertPlace, insertSearch, insertGrid;
+        protected int count = 0;
+
+        protected PlaceInserter(@NonNull SQLiteDatabase db)
+        {
+            this.db = db;
+            insertPlace = db.compileStatement("INSERT INTO " + TABLE_PLACES + " (" + KEY_PLACE_NAME + ", " + KEY_PLACE_LATITUDE + ", " + KEY_PLACE_LONGITUDE + ", " + KEY_PLACE_ALTITUDE + ", " + KEY_PLACE_COMMENT + ") VALUES (?, ?, ?, ?, ?)");
+            insertSearch = db.compileStatement("INSERT INTO " + TABLE_SEARCH + " (docid, " + KEY_SEARCH_NAME + ") VALUES (?, ?)");
+            insertGrid = db.compileStatement("INSERT OR REPLACE INTO " + TABLE_GRID + " (" + KEY_ROWID + ", " + KEY_GRID_CELL + ") VALUES (?, ?)");
+            db.beginTransaction();    // after compiling; a statement that fails to compile doesn't leave the transaction open
+        }
+
+        /**
+         * @return the rowID of the newly added place or -1 if an error
+         */
+        public long add(@NonNull Location place, @Nullable String comment)
+        {
+            double latitude, longitude;
+            try {
+                latitude = Double.parseDouble(place.getLatitude());
+                longitude = Double.parseDouble(place.getLongitude());
+            } catch (NumberFormatException | NullPointerException e) {
+                return -1;
+            }
+
+            bindString(insertPlace, 1, place.getLabel());
+            bindString(insertPlace, 2, place.getLatitude());
+            bindString(insertPlace, 3, place.getLongitude());
+            bindString(insertPlace, 4, place.getAltitude());
+            bindString(insertPlace, 5, comment);
+            long rowID = insertPlace.executeInsert();
+
+            if (rowID != -1)
+            {
+                insertSearch.bindLong(1, rowID);
+                insertSearch.bindString(2, normalizeName(place.getLabel()));
+                insertSearch.executeInsert();
+
+                insertGrid.bindLong(1, rowID);
+                insertGrid.bindLong(2, gridCell(latitude, longitude));
+                insertGrid.executeInsert();
+                count++;
+            }
+            return rowID;
+        }
+
+        protected static void bindString(SQLiteStatement statement, int index, @Nullable String value)
+        {
+            if (value != null) {
+                statement.bindString(index, value);
+            } else statement.bindNull(index);
+        }
+
+        /**
+         * @return the number of places added so far
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Marks the inserts as successful; they are committed by close (otherwise they are rolled back).
+         */
+        public void setSuccessful() {
+            db.setTransactionSuccessful();
+        }
+
+        public void close()
+        {
+            insertPlace.close();
+            insertSearch.close();
+            insertGrid.close();
+            db.endTransaction();
+        }
+    }
+
+    private static class PlaceDistance
+    {
+        public final long rowID;
+        public final double distance;
+
+        public PlaceDistance(long rowID, double distance)
+        {
+            this.rowID = rowID;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * @return the set of all place names
+     */
+    public Set<String> getPlaceNames()
+    {
+        HashSet<String> names = new HashSet<>();
+        Cursor cursor = database.query(TABLE_PLACES, new String[] { KEY_PLACE_NAME }, null, null, null, null, null);
+        if (cursor != null)
+        {
+            while (cursor.moveToNext()) {
+                names.add(cursor.getString(0));
+            }
+            cursor.close();
+        }
+        return names;
+    }
+
+    /**
+     * Adds (or replaces) a place in the search and grid indexes.
+     */
+    protected static void indexPlace(SQLiteDatabase db, long rowID, @Nullable String name, @Nullable String latitude, @Nullable String longitude)
+    {
+        db.delete(TABLE_SEARCH, "docid = " + rowID, null);
+        ContentValues search = new ContentValues();
+        search.put("docid", rowID);
+        search.put(KEY_SEARCH_NAME, normalizeName(name));
+        db.insert(TABLE_SEARCH, null, search);
+
+        try {
+            ContentValues grid = new ContentValues();
+            grid.put(KEY_ROWID, rowID);
+            grid.put(KEY_GRID_CELL, gridCell(Double.parseDouble(latitude), Double.parseDouble(longitude)));
+            db.replace(TABLE_GRID, null, grid);
+
+        } catch (NumberFormatException | NullPointerException e) {
+            db.delete(TABLE_GRID, KEY_ROWID + " = " + rowID, null);
+        }
+    }
+
+    protected static void unindexPlace(SQLiteDatabase db, long rowID)
+    {
+        db.delete(TABLE_SEARCH, "docid = " + rowID, null);
+        db.delete(TABLE_GRID, KEY_ROWID + " = " + rowID, null);
+    }
+
+    /**
+     * Rebuilds the search and grid indexes from the places table.
+     */
+    protected static void reindexPlaces(SQLiteDatabase db)
+    {
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_SEARCH, null, null);
+            db.delete(TABLE_GRID, null, null);
+            Cursor cursor = db.query(TABLE_PLACES, new String[] { KEY_ROWID, KEY_PLACE_NAME, KEY_PLACE_LATITUDE, KEY_PLACE_LONGITUDE }, null, null, null, null, null);
+            if (cursor != null)
+            {
+                while (cursor.moveToNext()) {
+                    indexPlace(db, cursor.getLong(0), cursor.getString(1), cursor.getString(2), cursor.getString(3));
+                }
+                cursor.close();
+            }
+            db.setTransactionSuccessful();
+
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * @param name a place name, e.g. "São Paulo"
+     * @return the name in lowercase without diacritics, e.g. "sao paulo"
+     */
+    @NonNull
+    public static String normalizeName(@Nullable String name)
+    {
+        if (name == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{InCombiningDiacriticalMarks}+", "").toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * @param normalized normalized search text (@see normalizeName)
+     * @return an fts MATCH expression that matches the beginning of each word, e.g. "sao pa" becomes "sao* pa*"; or null if there are no words
+     */
+    @Nullable
+    public static String toMatchQuery(@NonNull String normalized)
+    {
+        StringBuilder match = new StringBuilder();
+        for (String word : normalized.split("[^\\p{L}\\p{N}]+"))
+        {
+            if (!word.isEmpty()) {
+                match.append(match.length() > 0 ? " " : "").append(word).append("*");
+            }
+        }
+        return (match.length() > 0 ? match.toString() : null);
+    }
+
+    public static int gridRow(double latitude) {
+        return Math.max(0, Math.min(GRID_ROWS - 1, (int) Math.floor((latitude + 90) / GRID_CELL_DEGREES)));
+    }
+
+    public static int gridColumn(double longitude) {
+        int column = (int) Math.floor((longitude + 180) / GRID_CELL_DEGREES);
+        return ((column % GRID_COLUMNS) + GRID_COLUMNS) % GRID_COLUMNS;
+    }
+
+    /**
+     * @return the grid cell containing a point
+     */
+    public static int gridCell(double latitude, double longitude) {
+        return gridRow(latitude) * GRID_COLUMNS + gridColumn(longitude);
+    }
+
+    /**
+     * @return the cells at distance r from (row0, col0) (the boundary of a (2r+1)x(2r+1) square); columns wrap around the antimeridian
+     */
+    protected static Set<Integer> ringCells(int row0, int col0, int r)
+    {
+        HashSet<Integer> cells = new HashSet<>();
+        for (int row = row0 - r; row <= row0 + r; row++)
+        {
+            if (row < 0 || row >= GRID_ROWS) {
+                continue;
+            }
+            boolean edgeRow = (row == row0 - r || row == row0 + r);
+            for (int col = col0 - r; col <= col0 + r; col += (edgeRow || r == 0 ? 1 : 2 * r))
+            {
+                int c = ((col % GRID_COLUMNS) + GRID_COLUMNS) % GRID_COLUMNS;
+                cells.add(row * GRID_COLUMNS + c);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * @return a lower bound on the distance (km) from a point to any place outside of the cells searched so far (rings 0..r
+     * around (row0, col0)); the east-west bound is the distance to the nearest unsearched meridian, which shrinks with cos(latitude).
+     */
+    protected static double unsearchedDistanceKm(double latitude, double longitude, int row0, int col0, int r)
+    {
+        double bound = Double.POSITIVE_INFINITY;
+        if (row0 - r > 0) {
+            bound = Math.min(bound, latitude - ((row0 - r) * GRID_CELL_DEGREES - 90));
+        }
+        if (row0 + r < GRID_ROWS - 1) {
+            bound = Math.min(bound, ((row0 + r + 1) * GRID_CELL_DEGREES - 90) - latitude);
+        }
+        bound = Math.toRadians(Math.max(0, bound));
+
+        if (2 * r + 1 < GRID_COLUMNS)
+        {
+            double lon = longitude - 360 * Math.floor((longitude + 180) / 360);    // [-180, 180)
+            double west = lon - ((col0 - r) * GRID_CELL_DEGREES - 180);
+            double east = ((col0 + r + 1) * GRID_CELL_DEGREES - 180) - lon;
+            double dLon = Math.toRadians(Math.min(90, Math.max(0, Math.min(west, east))));
+            bound = Math.min(bound, Math.asin(Math.min(1, Math.cos(Math.toRadians(latitude)) * Math.sin(dLon))));    // distance to a meridian
+        }
+        return (Double.isInfinite(bound) ? bound : EARTH_RADIUS_KM * bound);
+    }
+
+    /**
+     * @return the great-circle distance between two points (km)
+     */
+    public static double distanceKm(double lat0, double lon0, double lat1, double lon1)
+    {
+        double dLat = Math.toRadians(lat1 - lat0);
+        double dLon = Math.toRadians(lon1 - lon0);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat0)) * Math.cos(Math.toRadians(lat1)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
     }
 
     /**
@@ -324,6 +836,7 @@ public class GetFixDatabaseAdapter
                 case 0:
                 default:
                     db.execSQL(TABLE_PLACES_CREATE);
+                    createIndexes(db);
                     break;
             }
         }
@@ -331,14 +844,21 @@ public class GetFixDatabaseAdapter
         @Override
         public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion)
         {
-            /**Log.w("GetFixDatabaseAdapter", "Upgrading database from version " + oldVersion + " to " + newVersion);
+            //Log.w("GetFixDatabaseAdapter", "Upgrading database from version " + oldVersion + " to " + newVersion);
             switch (oldVersion)
             {
                 case 1:
-                case 2:
-                case 3:
+                    createIndexes(db);
+                    reindexPlaces(db);
                     break;
-            }*/
+            }
+        }
+
+        protected void createIndexes(SQLiteDatabase db)
+        {
+            db.execSQL(TABLE_SEARCH_CREATE);
+            db.execSQL(TABLE_GRID_CREATE);
+            db.execSQL(TABLE_GRID_INDEX_CREATE);
         }
     }
 }
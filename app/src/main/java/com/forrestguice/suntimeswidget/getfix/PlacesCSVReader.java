@@ -0,0 +1,178 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.getfix;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * PlacesCSVReader
+ * Reads places one line at a time, e.g. `"label", latitude, longitude, altitude` (altitude is optional).
+ * Lines are tokenized in place (field boundaries are recorded as offsets into the line); only the fields that are used
+ * are copied out of the line.
+ */
+public class PlacesCSVReader implements Closeable
+{
+    public static final int BUFFER_SIZE = 64 * 1024;
+    public static final char DELIMITER = ',';
+    protected static final int MAX_FIELDS = 4;    // label, lat, lon, alt
+
+    protected final BufferedReader reader;
+    protected final int[] bounds = new int[2 * MAX_FIELDS];    // reused for each line
+    protected int lineCount = 0;
+    protected int skippedCount = 0;
+
+    public PlacesCSVReader(@NonNull Reader reader) {
+        this.reader = new BufferedReader(reader, BUFFER_SIZE);
+    }
+
+    /**
+     * @return the next place, or null if there are no more lines (malformed lines are skipped)
+     */
+    @Nullable
+    public Location next() throws IOException
+    {
+        String line;
+        while ((line = reader.readLine()) != null)
+        {
+            lineCount++;
+            Location location = parseLocation(line, bounds);
+            if (location != null) {
+                return location;
+            }
+            skippedCount++;
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of lines read so far
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return the number of (malformed) lines that were skipped
+     */
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param line a line of csv, e.g. `"label", latitude, longitude, altitude`
+     * @return a Location, or null if the line is malformed
+     */
+    @Nullable
+    public static Location parseLocation(@Nullable String line) {
+        return parseLocation(line, BOUNDS.get());
+    }
+
+    private static final ThreadLocal<int[]> BOUNDS = new ThreadLocal<int[]>()
+    {
+        @Override
+        protected int[] initialValue() {
+            return new int[2 * MAX_FIELDS];
+        }
+    };
+
+    @Nullable
+    protected static Location parseLocation(@Nullable String line, @NonNull int[] bounds)
+    {
+        if (line == null) {
+            return null;
+        }
+
+        int n = tokenize(line, DELIMITER, bounds);
+        if (n < 3) {
+            return null;
+        }
+
+        int labelStart = bounds[0], labelEnd = bounds[1];
+        if (labelStart < labelEnd && line.charAt(labelStart) == '\"') {
+            labelStart++;
+        }
+        if (labelStart < labelEnd && line.charAt(labelEnd - 1) == '\"') {
+            labelEnd--;
+        }
+
+        String lat, lon;
+        String alt = "0";
+        try {
+            lat = "" + Double.parseDouble(line.substring(bounds[2], bounds[3]));
+            lon = "" + Double.parseDouble(line.substring(bounds[4], bounds[5]));
+            if (n >= 4) {
+                alt = "" + Double.parseDouble(line.substring(bounds[6], bounds[7]));
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return new Location(line.substring(labelStart, labelEnd), lat, lon, alt);
+    }
+
+    /**
+     * Finds the fields of a line (delimiters within quotes are ignored).
+     * @param line a line of csv
+     * @param delimiter delimiter
+     * @param bounds the [start, end) of each field is written to bounds (up to bounds.length / 2 fields)
+     * @return the total number of fields in the line
+     */
+    public static int tokenize(@NonNull String line, char delimiter, @NonNull int[] bounds)
+    {
+        int maxFields = bounds.length / 2;
+        int n = 0;
+        int start = 0;
+        boolean quoted = false;
+        for (int i=0; i<line.length(); i++)
+        {
+            char c = line.charAt(i);
+            if (c == '\"') {
+                quoted = !quoted;
+
+            } else if (c == delimiter && !quoted) {
+                if (n < maxFields) {
+                    bounds[2 * n] = start;
+                    bounds[2 * n + 1] = i;
+                }
+                n++;
+                start = i + 1;
+            }
+        }
+        if (n < maxFields) {
+            bounds[2 * n] = start;
+            bounds[2 * n + 1] = line.length();
+        }
+        return n + 1;
+    }
+}
@@ -25,6 +25,7 @@ import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.pm.ResolveInfo;
 import android.database.Cursor;
+import android.database.SQLException;
 import android.net.Uri;
 import android.os.AsyncTask;
 import android.os.Build;
@@ -71,6 +72,7 @@ import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 
@@ -1484,6 +1486,29 @@ public class PlacesListFragment extends Fragment
             return new PlacesFilter();
         }
 
+        public static final int MAX_NEAREST_PLACES = 25;
+
+        /**
+         * @param text "latitude, longitude" (decimal degrees)
+         * @return {latitude, longitude}, or null if text isn't a coordinate pair
+         */
+        @Nullable
+        protected static double[] toCoordinates(@Nullable String text)
+        {
+            String[] parts = (text != null ? text.trim().split("\\s*,\\s*|\\s+") : new String[0]);
+            if (parts.length != 2) {
+                return null;
+            }
+            try {
+                double latitude = Double.parseDouble(parts[0]);
+                double longitude = Double.parseDouble(parts[1]);
+                return ((Math.abs(latitude) <= 90 && Math.abs(longitude) <= 180) ? new double[] { latitude, longitude } : null);
+
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
         /**
          * PlacesFilter
          */
@@ -1497,7 +1522,81 @@ public class PlacesListFragment extends Fragment
                 return results;
             }
 
+            /**
+             * Searches the places index (@see GetFixDatabaseAdapter.findPlaces); falls back to scanning the list if the database is unavailable.
+             * A constraint of the form "latitude, longitude" lists the places nearest to that point instead (@see GetFixDatabaseAdapter.findNearestPlaces).
+             */
             protected List<PlaceItem> getFilteredValues(String constraint)
+            {
+                Context context = contextRef.get();
+                if (context != null)
+                {
+                    GetFixDatabaseAdapter database = new GetFixDatabaseAdapter(context.getApplicationContext());
+                    try {
+                        database.open();
+                        List<Long> rowIDs = findPlaces(database, constraint);
+                        if (rowIDs != null)
+                        {
+                            HashMap<Long, PlaceItem> itemsByID = new HashMap<>();
+                            for (PlaceItem item : new ArrayList<>(items0)) {
+                                itemsByID.put(item.rowID, item);
+                            }
+
+                            List<PlaceItem> values = new ArrayList<>();
+                            for (Long rowID : filterExceptions)
+                            {
+                                PlaceItem item = itemsByID.remove(rowID);
+                                if (item != null) {
+                                    values.add(item);
+                                }
+                            }
+                            for (Long rowID : rowIDs)
+                            {
+                                PlaceItem item = itemsByID.remove(rowID);
+                                if (item != null) {
+                                    values.add(item);
+                                }
+                            }
+                            return values;
+                        }
+
+                    } catch (SQLException e) {
+                        Log.w("PlacesListFragment", "Failed to search places; falling back to list.. " + e);
+
+                    } finally {
+                        database.close();
+                    }
+                }
+                return getFilteredValues0(constraint);
+            }
+
+            /**
+             * @return rowIDs of matching places (in order), or null if the query is empty
+             */
+            @Nullable
+            protected List<Long> findPlaces(GetFixDatabaseAdapter database, String constraint)
+            {
+                double[] point = toCoordinates(constraint);
+                if (point != null) {
+                    return database.findNearestPlaces(point[0], point[1], MAX_NEAREST_PLACES);
+                }
+
+                Cursor cursor = database.findPlaces(constraint, 0, false);
+                if (cursor == null) {
+                    return null;
+                }
+
+                List<Long> rowIDs = new ArrayList<>();
+                while (!cursor.isAfterLast())
+                {
+                    rowIDs.add(cursor.getLong(0));
+                    cursor.moveToNext();
+                }
+                cursor.close();
+                return rowIDs;
+            }
+
+            protected List<PlaceItem> getFilteredValues0(String constraint)
             {
                 List<PlaceItem> values0  = new ArrayList<>();
                 List<PlaceItem> values1  = new ArrayList<>();
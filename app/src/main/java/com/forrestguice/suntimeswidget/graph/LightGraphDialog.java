@@ -472,15 +472,15 @@ public class LightGraphDialog extends BottomSheetDialogFragment
     protected Calendar getCalendar(Context context, int day, double hour)
     {
         SuntimesRiseSetDataset data0 = (graph != null ? graph.getData0() : null);
-        SuntimesRiseSetDataset[] data = (graph != null ? graph.getData() : null);
-        if (context != null && data != null && data.length > 0 && data[0] != null && data0 != null)
+        LightGraphYearData data = (graph != null ? graph.getData() : null);
+        if (context != null && data != null && data0 != null)
         {
             double minute = (int)((hour - (int) hour) * 60d);
             double second = (int)((minute - (int) minute) * 60d);
             double millisecond = (int)((second - (int) second) * 1000d);
 
             Calendar calendar = Calendar.getInstance(WidgetTimezones.getTimeZone(WidgetTimezones.LocalMeanTime.TIMEZONEID, data0.location().getLongitudeAsDouble(), data0.calculator()));
-            calendar.set(Calendar.YEAR, data[0].calendar().get(Calendar.YEAR));
+            calendar.set(Calendar.YEAR, data.getYear());
             calendar.set(Calendar.DAY_OF_YEAR, day);
             calendar.set(Calendar.HOUR_OF_DAY, (int) hour);
             calendar.set(Calendar.MINUTE, (int) minute);
@@ -40,7 +40,6 @@ import android.util.Log;
 import android.view.View;
 
 import com.forrestguice.suntimeswidget.ExportTask;
-import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
@@ -112,7 +111,7 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
 
     private LightGraphOptions options;
     private SuntimesRiseSetDataset data0 = null;
-    private SuntimesRiseSetDataset[] data = null;
+    private LightGraphYearData data = null;
     private long lastUpdate = 0;
     private boolean resizable = true;
 
@@ -233,7 +232,9 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
                 TimeZone timezone = WidgetTimezones.TZID_SUNTIMES.equals(tzId) ? data0.timezone() : WidgetTimezones.getTimeZone(tzId, longitude, data0.calculator());
 
                 data = LightGraphTask.createYearData(getContext(), data0, timezone);
-                options.earliestLatestData = EarliestLatestSunriseSunsetData.findEarliestLatest(WidgetSettings.TimeMode.OFFICIAL, data);
+                if (data != null) {
+                    options.earliestLatestData = EarliestLatestSunriseSunsetData.findEarliestLatest(WidgetSettings.TimeMode.OFFICIAL, data);
+                }
 
                 handler.post(new Runnable() {
                     @Override
@@ -252,7 +253,7 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
     public SuntimesRiseSetDataset getData0() {
         return data0;
     }
-    public SuntimesRiseSetDataset[] getData() {
+    public LightGraphYearData getData() {
         return this.data;
     }
 
@@ -458,8 +459,8 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
     {
         private LightGraphOptions options;
 
-        protected SuntimesRiseSetDataset[] yearData = null;
-        public void setData(SuntimesRiseSetDataset[] data) {
+        protected LightGraphYearData yearData = null;
+        public void setData(LightGraphYearData data) {
             yearData = data;
         }
         public void invalidData() {
@@ -540,51 +541,16 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
         }
 
         @Nullable
-        public static SuntimesRiseSetDataset[] createYearData(Context context, @Nullable SuntimesRiseSetDataset data0) {
+        public static LightGraphYearData createYearData(Context context, @Nullable SuntimesRiseSetDataset data0) {
             return createYearData(context, data0, null);
         }
 
         @Nullable
-        public static SuntimesRiseSetDataset[] createYearData(Context context, @Nullable SuntimesRiseSetDataset data0, @Nullable TimeZone timezone)
-        {
-            if (data0 != null && data0.dataActual != null)
-            {
-                long bench_start = System.nanoTime();
-                SuntimesRiseSetDataset[] yearData = new SuntimesRiseSetDataset[366];
-
-                if (timezone == null) {
-                    timezone = data0.calendar().getTimeZone();
-                }
-
-                Calendar date0 = Calendar.getInstance(timezone);    // data uses the configured time zone; when drawn values are shifted by the lmt hour offset to center the graph
-                date0.setTimeInMillis(data0.calendar().getTimeInMillis());
-                date0.set(Calendar.MONTH, 0);
-                date0.set(Calendar.DAY_OF_MONTH, 1);
-                date0.set(Calendar.HOUR_OF_DAY, 12);
-
-                WidgetSettings.TimeMode[] modes = new WidgetSettings.TimeMode[] { WidgetSettings.TimeMode.OFFICIAL, WidgetSettings.TimeMode.CIVIL, WidgetSettings.TimeMode.NAUTICAL, WidgetSettings.TimeMode.ASTRONOMICAL };
-
-                for (int i = 0; i < yearData.length; i++)
-                {
-                    Calendar date = Calendar.getInstance(timezone);
-                    date.setTimeInMillis(date0.getTimeInMillis());
-                    date.add(Calendar.DATE, i);
-
-                    SuntimesRiseSetDataset data = new SuntimesRiseSetDataset(data0, modes);
-                    data.setTimeZone(context, timezone);
-                    data.setTodayIs(date);
-                    data.calculateData();
-                    yearData[i] = data;
-                }
-
-                long bench_end = System.nanoTime();
-                Log.d("BENCH", "make light graph (data) :: " + ((bench_end - bench_start) / 1000000.0) + " ms");
-                return yearData;
-            }
-            return null;
+        public static LightGraphYearData createYearData(Context context, @Nullable SuntimesRiseSetDataset data0, @Nullable TimeZone timezone) {
+            return LightGraphYearData.createYearData(context, data0, timezone);
         }
 
-        public Bitmap makeBitmap(SuntimesRiseSetDataset[] yearData, int w, int h, LightGraphOptions options )
+        public Bitmap makeBitmap(LightGraphYearData yearData, int w, int h, LightGraphOptions options )
         {
             long bench_start = System.nanoTime();
 
@@ -602,8 +568,8 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
 
             if (yearData != null)
             {
-                Calendar now = Calendar.getInstance(yearData[0].timezone()); // graphTime(yearData[0], options);
-                options.setLocation(yearData[0].location());
+                Calendar now = Calendar.getInstance(yearData.timezone()); // graphTime(yearData[0], options);
+                options.setLocation(yearData.location());
 
                 drawPaths(now, yearData, c, paintPath, options);
                 drawGrid(now, yearData, c, p, options);
@@ -787,7 +753,7 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
             }
         }
 
-        protected void drawPaths(Calendar now, SuntimesRiseSetDataset[] data, Canvas c, Paint p, LightGraphOptions options)
+        protected void drawPaths(Calendar now, LightGraphYearData data, Canvas c, Paint p, LightGraphOptions options)
         {
             if (options.sunPath_show_line || options.sunPath_show_fill)
             {
@@ -830,7 +796,7 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
         private HashMap<Path, Double> sun_hours = new HashMap<>();
 
 
-        protected void drawPath(Calendar now, SuntimesRiseSetDataset[] data, WidgetSettings.TimeMode mode, boolean rising, Canvas c, Paint p, LightGraphOptions options)
+        protected void drawPath(Calendar now, LightGraphYearData data, WidgetSettings.TimeMode mode, boolean rising, Canvas c, Paint p, LightGraphOptions options)
         {
             if (options.sunPath_show_fill)
             {
@@ -888,24 +854,25 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
             //Log.d("DEBUG", "sunPath_points: " + options.sunPath_points.length);
         }
 
-        protected HashMap<Path, Double> createSunPath(Calendar now, SuntimesRiseSetDataset[] data, WidgetSettings.TimeMode mode, boolean rising, Canvas c, LightGraphOptions options, boolean closed, ArrayList<Path> paths, HashMap<Path,Double> hours)
+        protected HashMap<Path, Double> createSunPath(Calendar now, LightGraphYearData data, WidgetSettings.TimeMode mode, boolean rising, Canvas c, LightGraphOptions options, boolean closed, ArrayList<Path> paths, HashMap<Path,Double> hours)
         {
             paths.clear();
             hours.clear();
 
-            Calendar event;
+            long event;
             double hour;
             double hour_prev = (rising ? 0 : 24);  // previous iteration
             float x = 0, y = 0;
             double lmtOffsetHours = lmtOffsetHours();
+            TimeZone timezone = data.timezone();
+            long[] events = data.getEvents(mode, rising);
 
             Path path = null;
             int day = 0;
-            while (day < data.length)
+            while (day < events.length)
             {
-                SuntimesRiseSetData d = data[day].getData(mode.name());
-                event = (rising ? d.sunriseCalendarToday() : d.sunsetCalendarToday());
-                hour = (event != null) ? wrapHour(tzHour(event) - lmtOffsetHours) : (rising ? 0 : 24);    // lmt_hour + dst
+                event = events[day];
+                hour = (event != LightGraphYearData.NONE) ? wrapHour(tzHour(event, timezone) - lmtOffsetHours) : (rising ? 0 : 24);    // lmt_hour + dst
 
                 if (Math.abs(hour - hour_prev) > 12) {   // ignore sudden shifts (polar regions near graph edge)
                     hour = hour_prev;
@@ -959,7 +926,7 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
             }
         }
 
-        protected void drawLabels(Calendar now, SuntimesRiseSetDataset[] data, Canvas c, Paint p, LightGraphOptions options)
+        protected void drawLabels(Calendar now, LightGraphYearData data, Canvas c, Paint p, LightGraphOptions options)
         {
             if (options.showSeasons) {
                 drawSeasonsBar(c, p, options);
@@ -972,7 +939,7 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
             }
         }
 
-        protected void drawAxisUnder(Calendar now, SuntimesRiseSetDataset[] data, Canvas c, Paint p, LightGraphOptions options)
+        protected void drawAxisUnder(Calendar now, LightGraphYearData data, Canvas c, Paint p, LightGraphOptions options)
         {
             double r = Math.sqrt(c.getWidth() * c.getHeight());
             if (options.axisY_show)
@@ -983,7 +950,7 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
                 drawAxisY(now, data, c, p, options);
             }
         }
-        protected void drawAxisOver(Calendar now, SuntimesRiseSetDataset[] data, Canvas c, Paint p, LightGraphOptions options)
+        protected void drawAxisOver(Calendar now, LightGraphYearData data, Canvas c, Paint p, LightGraphOptions options)
         {
             double r = Math.sqrt(c.getWidth() * c.getHeight());
             if (options.axisX_show)
@@ -995,7 +962,7 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
             }
         }
 
-        protected void drawGrid(Calendar now, SuntimesRiseSetDataset[] data, Canvas c, Paint p, LightGraphOptions options)
+        protected void drawGrid(Calendar now, LightGraphYearData data, Canvas c, Paint p, LightGraphOptions options)
         {
             double r = Math.sqrt(c.getWidth() * c.getHeight());
             if (options.gridX_minor_show)
@@ -1049,7 +1016,7 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
         protected void drawAxisX(Canvas c, Paint p, LightGraphOptions options)
         {
             Calendar calendar0 = Calendar.getInstance(options.timezone);
-            Calendar calendar = Calendar.getInstance(yearData[0].timezone());
+            Calendar calendar = Calendar.getInstance(yearData.timezone());
             double offsetHours = lmtOffsetHours();
 
             float textSize = textSize(c, options.axisY_labels_textsize_ratio);
@@ -1085,7 +1052,7 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
             //p.setAlpha(255);
 
             Calendar calendar0 = Calendar.getInstance(options.timezone);
-            Calendar calendar = Calendar.getInstance(yearData[0].timezone());
+            Calendar calendar = Calendar.getInstance(yearData.timezone());
             double offsetHours = lmtOffsetHours();
 
             int i = (int) options.axisY_labels_interval;
@@ -1108,16 +1075,17 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
             }
         }
 
-        protected void drawAxisY(Calendar now, SuntimesRiseSetDataset[] data, Canvas c, Paint p, LightGraphOptions options)
+        protected void drawAxisY(Calendar now, LightGraphYearData data, Canvas c, Paint p, LightGraphOptions options)
         {
             boolean showCrossQuarter = false;
 
-            SuntimesCalculator calculator = data[0].calculator();
+            SuntimesCalculator calculator = data.calculator();
+            Calendar calendar = data.calendar();
             ArrayList<Calendar> events = new ArrayList<>();
-            events.add(calculator.getSpringEquinoxForYear(data[0].calendar()));
-            events.add(calculator.getSummerSolsticeForYear(data[0].calendar()));
-            events.add(calculator.getAutumnalEquinoxForYear(data[0].calendar()));
-            events.add(calculator.getWinterSolsticeForYear(data[0].calendar()));
+            events.add(calculator.getSpringEquinoxForYear(calendar));
+            events.add(calculator.getSummerSolsticeForYear(calendar));
+            events.add(calculator.getAutumnalEquinoxForYear(calendar));
+            events.add(calculator.getWinterSolsticeForYear(calendar));
 
             float h = c.getHeight();
             float x0 = -1 * (c.getWidth() - (float) daysToBitmapCoords(c, events.get(events.size() - 1).get(Calendar.DAY_OF_YEAR), options));
@@ -1239,7 +1207,7 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
             }
         }
 
-        protected void drawGridY(Calendar now, SuntimesRiseSetDataset[] data, Canvas c, Paint p, float interval, LightGraphOptions options)
+        protected void drawGridY(Calendar now, LightGraphYearData data, Canvas c, Paint p, float interval, LightGraphOptions options)
         {
             int n = 365;
             int h = c.getHeight();
@@ -1585,44 +1553,49 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
         public double late_sunset_hour = -1;
         public int late_sunset_day = -1;
 
-        public static EarliestLatestSunriseSunsetData findEarliestLatest(WidgetSettings.TimeMode mode, @NonNull SuntimesRiseSetDataset[] data)
+        public static EarliestLatestSunriseSunsetData findEarliestLatest(WidgetSettings.TimeMode mode, @NonNull LightGraphYearData data)
         {
             long bench_start = System.nanoTime();
             EarliestLatestSunriseSunsetData result = new EarliestLatestSunriseSunsetData();
+            result.longitude = data.location().getLongitudeAsDouble();
 
-            if (data.length > 0 && data[0] != null) {
-                result.longitude = data[0].location().getLongitudeAsDouble();
-            }
+            TimeZone timezone = data.timezone();
+            Calendar calendar = Calendar.getInstance(timezone);
+            long[] risingEvents = data.getEvents(mode, true);
+            long[] settingEvents = data.getEvents(mode, false);
 
             int i = 0;
-            while (i < data.length)
+            while (i < risingEvents.length)
             {
-                SuntimesRiseSetData d = data[i].getData(mode.name());
-                Calendar risingEvent = d.sunriseCalendarToday();
-                if (risingEvent != null)
+                long risingEvent = risingEvents[i];
+                if (risingEvent != LightGraphYearData.NONE)
                 {
-                    double lmtRisingHour = lmtHour(risingEvent, result.longitude);
+                    double lmtRisingHour = lmtHour(risingEvent, timezone, result.longitude);
                     if (result.early_sunrise_hour == -1 || lmtRisingHour < result.early_sunrise_hour) {
+                        calendar.setTimeInMillis(risingEvent);
                         result.early_sunrise_hour = lmtRisingHour;
-                        result.early_sunrise_day = risingEvent.get(Calendar.DAY_OF_YEAR);
+                        result.early_sunrise_day = calendar.get(Calendar.DAY_OF_YEAR);
                     }
                     if (result.late_sunrise_hour == -1 || lmtRisingHour > result.late_sunrise_hour) {
+                        calendar.setTimeInMillis(risingEvent);
                         result.late_sunrise_hour = lmtRisingHour;
-                        result.late_sunrise_day = risingEvent.get(Calendar.DAY_OF_YEAR);
+                        result.late_sunrise_day = calendar.get(Calendar.DAY_OF_YEAR);
                     }
                 }
 
-                Calendar settingEvent = d.sunsetCalendarToday();
-                if (settingEvent != null)
+                long settingEvent = settingEvents[i];
+                if (settingEvent != LightGraphYearData.NONE)
                 {
-                    double lmtSettingHour = lmtHour(settingEvent, result.longitude);
+                    double lmtSettingHour = lmtHour(settingEvent, timezone, result.longitude);
                     if (result.early_sunset_hour == -1 || lmtSettingHour < result.early_sunset_hour) {
+                        calendar.setTimeInMillis(settingEvent);
                         result.early_sunset_hour = lmtSettingHour;
-                        result.early_sunset_day = settingEvent.get(Calendar.DAY_OF_YEAR);
+                        result.early_sunset_day = calendar.get(Calendar.DAY_OF_YEAR);
                     }
                     if (result.late_sunset_hour == -1 || lmtSettingHour > result.late_sunset_hour) {
+                        calendar.setTimeInMillis(settingEvent);
                         result.late_sunset_hour = lmtSettingHour;
-                        result.late_sunset_day = settingEvent.get(Calendar.DAY_OF_YEAR);
+                        result.late_sunset_day = calendar.get(Calendar.DAY_OF_YEAR);
                     }
                 }
                 i++;
@@ -1664,6 +1637,22 @@ public class LightGraphView extends android.support.v7.widget.AppCompatImageView
         return wrapHour(tzHour(event) - lmtOffsetHours(event.getTimeInMillis(), event.getTimeZone(), longitude));
     }
 
+    public static double lmtHour(long event, TimeZone timezone, double longitude) {
+        return wrapHour(tzHour(event, timezone) - lmtOffsetHours(event, timezone, longitude));
+    }
+
+    /**
+     * @param event event time (epoch millis)
+     * @param timezone timezone
+     * @return hour of day (with fraction) in the given timezone
+     */
+    public static double tzHour(long event, TimeZone timezone)
+    {
+        long millisInDay = (long) MILLIS_IN_DAY;
+        long localMillis = (((event + timezone.getOffset(event)) % millisInDay) + millisInDay) % millisInDay;
+        return localMillis / (60d * 60d * 1000d);
+    }
+
     public static double tzHour(@NonNull Calendar event)
     {
         return event.get(Calendar.HOUR_OF_DAY)
@@ -0,0 +1,342 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.forrestguice.suntimeswidget.graph;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.forrestguice.suntimeswidget.calculator.CachedSuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.SuntimesCalculatorDescriptor;
+import com.forrestguice.suntimeswidget.calculator.SuntimesCalculatorFactory;
+import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
+import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.settings.WidgetSettings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * LightGraphYearData
+ * Rise and set times (epoch millis) for every day of a year, stored as one long[] per TimeMode.
+ *
+ * Days are split into chunks and calculated in parallel (a fixed thread pool is used rather than a
+ * ForkJoinPool, which is unavailable before api 21). Results are cached per location, timezone,
+ * calculator, and year; a cached year is reused as-is, and a year left incomplete (e.g. a chunk that
+ * failed to finish) only recalculates the days that are missing. Days without an event are NONE.
+ */
+public class LightGraphYearData
+{
+    public static final int NUM_DAYS = 366;
+    public static final WidgetSettings.TimeMode[] MODES = new WidgetSettings.TimeMode[] { WidgetSettings.TimeMode.OFFICIAL, WidgetSettings.TimeMode.CIVIL, WidgetSettings.TimeMode.NAUTICAL, WidgetSettings.TimeMode.ASTRONOMICAL };
+    public static final long NONE = SuntimesCalculator.SunEvents.NONE;
+
+    public static final int MAX_CACHED_YEARS = 4;
+    private static final Map<String, LightGraphYearData> cache = new LinkedHashMap<String, LightGraphYearData>(MAX_CACHED_YEARS, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LightGraphYearData> eldest) {
+            return size() > MAX_CACHED_YEARS;
+        }
+    };
+
+    private static ExecutorService executor = null;
+    private static final int NUM_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    protected static synchronized ExecutorService getExecutor()
+    {
+        if (executor == null)
+        {
+            executor = Executors.newFixedThreadPool(NUM_THREADS, new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(@NonNull Runnable r)
+                {
+                    Thread thread = new Thread(r, "LightGraphYearData");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    protected final SuntimesCalculatorDescriptor descriptor;
+    protected final SuntimesCalculator calculator;
+    protected final Location location;
+    protected final TimeZone timezone;
+    protected final int year;
+    protected final long day0;
+
+    protected final long[][] rising = new long[MODES.length][NUM_DAYS];
+    protected final long[][] setting = new long[MODES.length][NUM_DAYS];
+    protected final boolean[] calculated = new boolean[NUM_DAYS];
+
+    protected LightGraphYearData(@Nullable SuntimesCalculatorDescriptor descriptor, @NonNull SuntimesCalculator calculator, @NonNull Location location, @NonNull TimeZone timezone, int year)
+    {
+        this.descriptor = descriptor;
+        this.calculator = calculator;
+        this.location = location;
+        this.timezone = timezone;
+        this.year = year;
+
+        for (int i=0; i<MODES.length; i++)
+        {
+            Arrays.fill(rising[i], NONE);
+            Arrays.fill(setting[i], NONE);
+        }
+
+        Calendar date0 = Calendar.getInstance(timezone);    // data uses the configured time zone; when drawn values are shifted by the lmt hour offset to center the graph
+        date0.clear();
+        date0.set(year, Calendar.JANUARY, 1, 12, 0, 0);
+        this.day0 = date0.getTimeInMillis();
+    }
+
+    public int getYear() {
+        return year;
+    }
+    public Location location() {
+        return location;
+    }
+    public TimeZone timezone() {
+        return timezone;
+    }
+    public SuntimesCalculator calculator() {
+        return calculator;
+    }
+
+    /**
+     * @return a Calendar for the first day (noon) of the year
+     */
+    public Calendar calendar()
+    {
+        Calendar calendar = Calendar.getInstance(timezone);
+        calendar.setTimeInMillis(day0);
+        return calendar;
+    }
+
+    public int length() {
+        return NUM_DAYS;
+    }
+
+    /**
+     * @param mode one of MODES
+     * @param day day index [0, NUM_DAYS)
+     * @param rising true rising event, false setting event
+     * @return event time (epoch millis) or NONE
+     */
+    public long getEvent(WidgetSettings.TimeMode mode, int day, boolean rising)
+    {
+        int i = indexOf(mode);
+        if (i < 0 || day < 0 || day >= NUM_DAYS) {
+            return NONE;
+        }
+        return (rising ? this.rising[i][day] : this.setting[i][day]);
+    }
+
+    public long[] getEvents(WidgetSettings.TimeMode mode, boolean rising)
+    {
+        int i = indexOf(mode);
+        return (i < 0 ? null : (rising ? this.rising[i] : this.setting[i]));
+    }
+
+    protected static int indexOf(WidgetSettings.TimeMode mode)
+    {
+        for (int i=0; i<MODES.length; i++) {
+            if (MODES[i] == mode) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    protected boolean isCalculated()
+    {
+        for (boolean value : calculated) {
+            if (!value) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calculates days [from, to) using the given calculator.
+     */
+    protected void calculateDays(SuntimesCalculator calculator, int from, int to)
+    {
+        Calendar date = Calendar.getInstance(timezone);
+        date.setTimeInMillis(day0);
+        date.add(Calendar.DATE, from);
+
+        for (int day = from; day < to; day++)
+        {
+            if (!calculated[day])
+            {
+                SuntimesCalculator.SunEvents events = calculator.getSunEventsForDate(date);
+                for (int i=0; i<MODES.length; i++)
+                {
+                    rising[i][day] = events.times[SuntimesRiseSetData.sunEventForTimeMode(MODES[i], true)];
+                    setting[i][day] = events.times[SuntimesRiseSetData.sunEventForTimeMode(MODES[i], false)];
+                }
+                calculated[day] = true;
+            }
+            date.add(Calendar.DATE, 1);
+        }
+    }
+
+    /**
+     * Calculates any missing days by splitting them across the thread pool.
+     */
+    protected void calculate(final Context context)
+    {
+        int numChunks = NUM_THREADS;
+        int chunkSize = (int) Math.ceil(NUM_DAYS / (double) numChunks);
+        List<Future<Void>> results = new ArrayList<>();
+
+        for (int i=0; i<numChunks; i++)
+        {
+            final int from = i * chunkSize;
+            final int to = Math.min(NUM_DAYS, from + chunkSize);
+            if (from >= to) {
+                break;
+            }
+            final SuntimesCalculator chunkCalculator = createCalculator(context);    // calculator per chunk (implementations aren't required to be thread-safe)
+            results.add(getExecutor().submit(new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                {
+                    calculateDays(chunkCalculator, from, to);
+                    return null;
+                }
+            }));
+        }
+
+        for (Future<Void> result : results)
+        {
+            try {
+                result.get();
+
+            } catch (InterruptedException | ExecutionException e) {
+                Log.w("LightGraphYearData", "calculate: failed to finish chunk: " + e);
+            }
+        }
+    }
+
+    protected SuntimesCalculator createCalculator(Context context)
+    {
+        if (context != null && descriptor != null) {
+            return new SuntimesCalculatorFactory(context, descriptor).createCalculator(location, timezone, false);    // the year is cached here; bypass CachedSuntimesCalculator
+        } else return calculator;
+    }
+
+    /**
+     * @return the calculator without its CachedSuntimesCalculator wrapper (if any)
+     */
+    protected static SuntimesCalculator unwrap(SuntimesCalculator calculator) {
+        return (calculator instanceof CachedSuntimesCalculator ? ((CachedSuntimesCalculator) calculator).getCalculator() : calculator);
+    }
+
+    protected static String cacheKey(String calculatorName, Location location, TimeZone timezone, int year) {
+        return calculatorName + "_" + location.getLatitude() + "_" + location.getLongitude() + "_" + location.getAltitude() + "_" + timezone.getID() + "_" + year;
+    }
+
+    public static void clearCache()
+    {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @param context Context
+     * @param data0 a dataset identifying the location, calculator, and year
+     * @param timezone timezone (null to use the timezone of data0)
+     * @return LightGraphYearData for the year of data0 (from cache if available)
+     */
+    @Nullable
+    public static LightGraphYearData createYearData(Context context, @Nullable SuntimesRiseSetDataset data0, @Nullable TimeZone timezone)
+    {
+        if (data0 == null || data0.dataActual == null) {
+            return null;
+        }
+
+        if (timezone == null) {
+            timezone = data0.calendar().getTimeZone();
+        }
+
+        Calendar date0 = Calendar.getInstance(timezone);
+        date0.setTimeInMillis(data0.calendar().getTimeInMillis());
+        int year = date0.get(Calendar.YEAR);
+
+        SuntimesCalculatorDescriptor descriptor = data0.calculatorMode();
+        String calculatorName = (descriptor != null ? descriptor.getName() : (data0.calculator() != null ? data0.calculator().name() : null));
+        if (calculatorName == null) {
+            return null;
+        }
+
+        long bench_start = System.nanoTime();
+        String key = cacheKey(calculatorName, data0.location(), timezone, year);
+        LightGraphYearData yearData;
+        synchronized (cache) {
+            yearData = cache.get(key);
+        }
+
+        if (yearData == null)
+        {
+            SuntimesCalculator calculator = (context != null && descriptor != null) ? new SuntimesCalculatorFactory(context, descriptor).createCalculator(data0.location(), timezone, false) : unwrap(data0.calculator());    // only created on a cache miss
+            if (calculator == null) {
+                return null;
+            }
+            synchronized (cache)
+            {
+                yearData = cache.get(key);
+                if (yearData == null) {
+                    cache.put(key, yearData = new LightGraphYearData(descriptor, calculator, data0.location(), timezone, year));
+                }
+            }
+        }
+
+        synchronized (yearData)
+        {
+            if (!yearData.isCalculated()) {
+                yearData.calculate(context);
+            }
+        }
+
+        long bench_end = System.nanoTime();
+        Log.d("BENCH", "make light graph (data) :: " + ((bench_end - bench_start) / 1000000.0) + " ms");
+        return yearData;
+    }
+
+}
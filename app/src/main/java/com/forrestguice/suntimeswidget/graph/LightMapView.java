@@ -35,10 +35,14 @@ import android.view.View;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
+import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.graph.colors.LightMapColorValues;
 import com.forrestguice.suntimeswidget.settings.WidgetTimezones;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
+import com.forrestguice.suntimeswidget.views.FrameCache;
+import com.forrestguice.suntimeswidget.views.FramePipeline;
 
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.TimeZone;
 import java.util.concurrent.locks.Lock;
@@ -52,10 +56,13 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
     private static final double MINUTES_IN_DAY = 24 * 60;
     private static final double MILLIS_IN_DAY = 24 * 60 * 60 * 1000;
     private static final double ONE_DIVIDED_MILLIS_IN_DAY = 1d / MILLIS_IN_DAY;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final long MINUTE_MILLIS = 60 * 1000;
 
     public static final int DEFAULT_MAX_UPDATE_RATE = 15 * 1000;  // ms value; once every 15s
 
     private LightMapTask drawTask = null;
+    private final FrameCache frameCache = new FrameCache();    // frames are reused when seeking or replaying an animation
 
     private int maxUpdateRate = DEFAULT_MAX_UPDATE_RATE;
 
@@ -200,6 +207,7 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
         } else {
             drawTask = new LightMapTask();
             drawTask.setListener(drawTaskListener);
+            drawTask.setFrameCache(frameCache);
             drawTask.execute(data, getWidth(), getHeight(), colors, (animated ? 0 : 1), colors.offsetMinutes);
         }
     }
@@ -405,6 +413,16 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
 
         private SuntimesRiseSetDataset t_data = null;
 
+        private FrameCache frameCache = null;
+        private FrameCache.BitmapPool framePool = null;
+
+        /**
+         * @param cache frames are reused from (and added to) this cache; null to render every frame
+         */
+        public void setFrameCache(@Nullable FrameCache cache) {
+            frameCache = cache;
+        }
+
         /**
          * @param params 0: SuntimesRiseSetDataset,
          *               1: Integer (width),
@@ -438,59 +456,121 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
                 return null;
             }
 
-            long time0 = System.nanoTime();
-            Bitmap frame = null;
-            colors.offsetMinutes = initialOffset;
+            if (colors.now < 0) {
+                mapTime(data, colors);    // resolve "now" once so every frame uses the same time
+            }
+            framePool = (frameCache != null ? frameCache.getPool() : null);
 
-            int i = 0;
-            while (i < numFrames || numFrames <= 0)
+            final SuntimesRiseSetDataset data0 = data;
+            final int frameW = w, frameH = h;
+            final LightMapColors frameColors = new LightMapColors(colors);    // frames are rendered ahead using a copy of the options
+            FramePipeline.FrameRenderer renderer = new FramePipeline.FrameRenderer()
             {
-                //Log.d(LightMapTask.class.getSimpleName(), "generating frame " + i + " | " + w + "," + h);
-                if (isCancelled()) {
-                    break;
-                }
-                colors.acquireDrawLock();
+                private SuntimesRiseSetDataset frameData = data0;
 
-                if (data != null && data.dataActual != null)
+                @Override
+                public FrameCache.Frame renderFrame(long offsetMinutes)
                 {
-                    Calendar maptime = mapTime(data, colors);
-                    Calendar datatime = data.dataActual.calendar();
-                    long data_age = Math.abs(maptime.getTimeInMillis() - datatime.getTimeInMillis());
-                    if (data_age >= (12 * 60 * 60 * 1000)) {    // TODO: more precise
-
-                        //Log.d(LightMapTask.class.getSimpleName(), "recalculating dataset with adjusted date: " + data_age);
-                        Calendar calendar = Calendar.getInstance(data.timezone());
-                        calendar.setTimeInMillis(maptime.getTimeInMillis());
-
-                        data = new SuntimesRiseSetDataset(data);
-                        data.setTodayIs(calendar);
-                        data.calculateData();
-                        t_data = data;
+                    frameColors.offsetMinutes = offsetMinutes;
+                    SuntimesRiseSetDataset modifiedData = null;
+                    if (frameData != null && frameData.dataActual != null)
+                    {
+                        long maptime = mapTimeMillis(frameData, frameColors);
+                        Calendar datatime = frameData.dataActual.calendar();
+                        long data_age = Math.abs(maptime - datatime.getTimeInMillis());
+                        if (data_age >= (12 * 60 * 60 * 1000)) {    // TODO: more precise
+
+                            //Log.d(LightMapTask.class.getSimpleName(), "recalculating dataset with adjusted date: " + data_age);
+                            Calendar calendar = Calendar.getInstance(frameData.timezone());
+                            calendar.setTimeInMillis(maptime);
+
+                            frameData = modifiedData = new SuntimesRiseSetDataset(frameData);
+                            frameData.setTodayIs(calendar);
+                            frameData.calculateData();
+                        }
                     }
+                    return new FrameCache.Frame(offsetMinutes, makeBitmap(frameData, frameW, frameH, frameColors), modifiedData);
                 }
+            };
+            int optionsHash = frameHash(data, w, h, colors);
 
-                frame = makeBitmap(data, w, h, colors);
+            Bitmap frame = null;
+            colors.offsetMinutes = initialOffset;
 
-                long time1 = System.nanoTime();
-                while ((time1 - time0) < frameDuration) {
-                    time1 = System.nanoTime();
+            if (numFrames == 1)
+            {
+                colors.acquireDrawLock();
+                try {
+                    FrameCache.Frame result = FramePipeline.getFrame(frameCache, optionsHash, initialOffset, renderer);
+                    if (result != null && !isCancelled()) {
+                        frame = publishFrame(result);
+                    }
+                } finally {
+                    colors.releaseDrawLock();
                 }
+                return frame;
+            }
+
+            FramePipeline pipeline = new FramePipeline(frameCache, optionsHash, renderer, FramePipeline.DEFAULT_LOOKAHEAD);
+            pipeline.start(initialOffset, colors.anim_frameOffsetMinutes, numFrames);
+            try {
+                long nextFrameAt = System.nanoTime() + frameDuration;
+                while (!isCancelled())
+                {
+                    colors.acquireDrawLock();
+                    try {
+                        FrameCache.Frame result = pipeline.next();
+                        if (result == null) {
+                            break;
+                        }
+
+                        FramePipeline.waitUntil(nextFrameAt);
+                        nextFrameAt = Math.max(nextFrameAt + frameDuration, System.nanoTime());    // fixed rate; don't burst after a slow frame
+                        frame = publishFrame(result);
 
-                publishProgress(frame);
-                if (listener != null) {
-                    listener.afterFrame(frame, colors.offsetMinutes);
+                    } finally {
+                        colors.releaseDrawLock();
+                    }
                 }
-                colors.offsetMinutes += colors.anim_frameOffsetMinutes;
-                time0 = System.nanoTime();
-                i++;
-                colors.releaseDrawLock();
+            } catch (InterruptedException e) {
+                Log.d(LightMapTask.class.getSimpleName(), "interrupted");
+
+            } finally {
+                pipeline.stop();
             }
-            colors.offsetMinutes -= colors.anim_frameOffsetMinutes;
 
             //Log.d("DEBUG", "doInBackground: done: " + (data != null ? data.dataActual.sunsetCalendarToday().get(Calendar.DAY_OF_YEAR) : "null"));
             return frame;
         }
 
+        protected Bitmap publishFrame(@NonNull FrameCache.Frame result)
+        {
+            if (result.data != null) {
+                t_data = (SuntimesRiseSetDataset) result.data;
+            }
+            colors.offsetMinutes = result.offsetMinutes;
+            publishProgress(result.bitmap);
+            if (listener != null) {
+                listener.afterFrame(result.bitmap, colors.offsetMinutes);
+            }
+            return result.bitmap;
+        }
+
+        /**
+         * @return a hash of the values a frame depends on (other than offsetMinutes)
+         */
+        public static int frameHash(SuntimesRiseSetDataset data, int w, int h, LightMapColors colors)
+        {
+            return Arrays.hashCode(new Object[] {
+                    System.identityHashCode(data), w, h, colors.now, colors.option_drawNow, colors.option_drawNow_pointSizePx, colors.option_lmt,
+                    (colors.values != null ? colors.values.getColors() : null)
+            });
+        }
+
+        protected Bitmap createFrameBitmap(int w, int h) {
+            return (framePool != null ? framePool.obtain(w, h, Bitmap.Config.RGB_565) : Bitmap.createBitmap(w, h, Bitmap.Config.RGB_565));
+        }
+
         public Bitmap makeBitmap(SuntimesRiseSetDataset data, int w, int h, LightMapColors colors)
         {
             if (w <= 0 || h <= 0)
@@ -505,53 +585,52 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
 
             //long bench_start = System.nanoTime();
 
-            this.colors = colors;
-            Calendar now = mapTime(data, colors);
-            Bitmap b = Bitmap.createBitmap(w, h, Bitmap.Config.RGB_565);
-            Canvas c = new Canvas(b);
-            Paint p = new Paint(Paint.ANTI_ALIAS_FLAG);
+            long now = mapTimeMillis(data, colors);
+            numRects = 0;
+            hasNowPoint = false;
 
             boolean layer_astro, layer_nautical, layer_civil;
 
-            // draw background (night)
-            p.setColor(colors.values.getColor(LightMapColorValues.COLOR_NIGHT));
-            drawRect(c, p);
+            // background (night)
+            addRect(colors.values.getColor(LightMapColorValues.COLOR_NIGHT), 0, w);
 
             if (data != null)
             {
-                // draw astro twilight
-                p.setColor(colors.values.getColor(LightMapColorValues.COLOR_ASTRONOMICAL));
-                if (!(layer_astro = drawRect(colors, data.dataAstro, c, p)))
+                TimeZone lmt = localMeanTime(data.location());
+
+                // astro twilight
+                int color = colors.values.getColor(LightMapColorValues.COLOR_ASTRONOMICAL);
+                if (!(layer_astro = addLayer(data.dataAstro, lmt, color, w)))
                 {
                     if (data.dataNautical.hasSunriseTimeToday() || data.dataNautical.hasSunsetTimeToday())
                     {
-                        drawRect(c, p);
+                        addRect(color, 0, w);
                     }
                 }
 
-                // draw nautical twilight
-                p.setColor(colors.values.getColor(LightMapColorValues.COLOR_NAUTICAL));
-                if (!(layer_nautical = drawRect(colors, data.dataNautical, c, p)))
+                // nautical twilight
+                color = colors.values.getColor(LightMapColorValues.COLOR_NAUTICAL);
+                if (!(layer_nautical = addLayer(data.dataNautical, lmt, color, w)))
                 {
                     if (data.dataCivil.hasSunriseTimeToday() || data.dataCivil.hasSunsetTimeToday())
                     {
-                        drawRect(c, p);
+                        addRect(color, 0, w);
                     }
                 }
 
-                // draw civil twilight
-                p.setColor(colors.values.getColor(LightMapColorValues.COLOR_CIVIL));
-                if (!(layer_civil = drawRect(colors, data.dataCivil, c, p)))
+                // civil twilight
+                color = colors.values.getColor(LightMapColorValues.COLOR_CIVIL);
+                if (!(layer_civil = addLayer(data.dataCivil, lmt, color, w)))
                 {
                     if (data.dataActual.hasSunriseTimeToday() || data.dataActual.hasSunsetTimeToday())
                     {
-                        drawRect(c, p);
+                        addRect(color, 0, w);
                     }
                 }
 
-                // draw foreground (day)
-                p.setColor(colors.values.getColor(LightMapColorValues.COLOR_DAY));
-                if (!drawRect(colors, data.dataActual, c, p))
+                // foreground (day)
+                color = colors.values.getColor(LightMapColorValues.COLOR_DAY);
+                if (!addLayer(data.dataActual, lmt, color, w))
                 {
                     boolean noLayers = !layer_astro && !layer_nautical && !layer_civil;
                     if (noLayers)
@@ -562,94 +641,80 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
 
                         if (position == null)
                         {
-                            if (calculator != null && calculator.isDay(calendar))
-                            {
-                                p.setColor(colors.values.getColor(LightMapColorValues.COLOR_DAY));
-                                drawRect(c, p);
+                            if (calculator != null && calculator.isDay(calendar)) {
+                                addRect(colors.values.getColor(LightMapColorValues.COLOR_DAY), 0, w);
                             }
 
                         } else if (position.elevation > 0) {
-                            p.setColor(colors.values.getColor(LightMapColorValues.COLOR_DAY));
-                            drawRect(c, p);
+                            addRect(colors.values.getColor(LightMapColorValues.COLOR_DAY), 0, w);
 
                         } else if (position.elevation > -6) {
-                            p.setColor(colors.values.getColor(LightMapColorValues.COLOR_CIVIL));
-                            drawRect(c, p);
+                            addRect(colors.values.getColor(LightMapColorValues.COLOR_CIVIL), 0, w);
 
                         } else if (position.elevation > -12) {
-                            p.setColor(colors.values.getColor(LightMapColorValues.COLOR_NAUTICAL));
-                            drawRect(c, p);
+                            addRect(colors.values.getColor(LightMapColorValues.COLOR_NAUTICAL), 0, w);
 
                         } else if (position.elevation > -18) {
-                            p.setColor(colors.values.getColor(LightMapColorValues.COLOR_ASTRONOMICAL));
-                            drawRect(c, p);
+                            addRect(colors.values.getColor(LightMapColorValues.COLOR_ASTRONOMICAL), 0, w);
                         }
                     }
                 }
 
-                // draw now marker
+                // now marker
                 if (colors.option_drawNow > 0)
                 {
                     int pointRadius;
                     if (colors.option_drawNow_pointSizePx <= 0)
                     {
-                        pointRadius = (int)Math.ceil(c.getWidth() / (48d * 2d));      // a circle that is 1/2 hr wide
-                        int maxPointRadius = (int)(c.getHeight() / 2d);
+                        pointRadius = (int)Math.ceil(w / (48d * 2d));      // a circle that is 1/2 hr wide
+                        int maxPointRadius = (int)(h / 2d);
                         if ((pointRadius + (pointRadius / 3d)) > maxPointRadius) {
                             pointRadius = (maxPointRadius - (pointRadius/3));
                         }
                     } else {
                         pointRadius = colors.option_drawNow_pointSizePx;
                     }
-                    int pointStroke = (int)Math.ceil(pointRadius / 3d);
-
-                    //if (colors.option_lmt)
-                    //{
-                        TimeZone lmt = WidgetTimezones.localMeanTime(null, data.location());
-                        Calendar nowLmt = Calendar.getInstance(lmt);
-                        nowLmt.setTimeInMillis(now.getTimeInMillis());
-                        now = nowLmt;
-                    //}
-
-                    switch (colors.option_drawNow) {
-                        case LightMapColors.DRAW_SUN2:
-                            DashPathEffect dashed = new DashPathEffect(new float[] {4, 2}, 0);
-                            drawPoint(now, pointRadius, pointStroke, c, p, Color.TRANSPARENT, colors.values.getColor(LightMapColorValues.COLOR_SUN_STROKE), dashed);
-                            break;
 
-                        case LightMapColors.DRAW_SUN1:
-                        default:
-                            drawPoint(now, pointRadius, pointStroke, c, p, colors.values.getColor(LightMapColorValues.COLOR_SUN_FILL), colors.values.getColor(LightMapColorValues.COLOR_SUN_STROKE), null);
-                            break;
-                    }
+                    hasNowPoint = true;
+                    nowPointX = (int) Math.round((minuteOfDay(now, lmt) / MINUTES_IN_DAY) * w);
+                    nowPointRadius = pointRadius;
+                    nowPointStroke = (int)Math.ceil(pointRadius / 3d);
                 }
             }
 
-            Bitmap retValue = b;
-            if (!colors.option_lmt)    // re-center around noon
+            float left = 0;
+            if (!colors.option_lmt && data != null)    // re-center around noon
             {
-                Bitmap b0 = Bitmap.createBitmap(w, h, Bitmap.Config.RGB_565);
-                Canvas c0 = new Canvas(b0);
-
-                long zoneOffsetMs = data.timezone().getOffset(now.getTimeInMillis());
+                long zoneOffsetMs = data.timezone().getOffset(now);
                 long lonOffsetMs = Math.round(data.location().getLongitudeAsDouble() * MILLIS_IN_DAY / 360d);
                 long offsetMs = zoneOffsetMs - lonOffsetMs;
+                left = (float)(offsetMs * ONE_DIVIDED_MILLIS_IN_DAY * w);
+            }
 
-                float left = (float)(offsetMs * ONE_DIVIDED_MILLIS_IN_DAY * w);
-                if (left > 0) {
-                    c0.drawBitmap(b, left - w, 0, p);
-                }
-                c0.drawBitmap(b, left, 0, p);
-                if (left < 0) {
-                    c0.drawBitmap(b, left + w, 0, p);
-                }
-                retValue = b0;
-                b.recycle();
+            Bitmap b = createFrameBitmap(w, h);
+            Canvas c = canvasFor(b);
+            Paint p = getPaint();
+            if (left > 0) {
+                drawLayers(c, p, left - w, w, h, colors);
+            }
+            drawLayers(c, p, left, w, h, colors);
+            if (left < 0) {
+                drawLayers(c, p, left + w, w, h, colors);
             }
 
             //long bench_end = System.nanoTime();
             //Log.d("BENCH", "make lightmap :: " + ((bench_end - bench_start) / 1000000.0) + " ms");
-            return retValue;
+            return b;
+        }
+
+        /**
+         * @return map time (epoch millis); same as mapTime(data, options).getTimeInMillis() without creating a Calendar (when `now` is set)
+         */
+        protected long mapTimeMillis(@Nullable SuntimesRiseSetDataset data, @NonNull LightMapColors options)
+        {
+            if (options.now >= 0) {
+                return options.now + (options.offsetMinutes * 60 * 1000);
+            } else return mapTime(data, options).getTimeInMillis();
         }
 
         protected Calendar mapTime(@Nullable SuntimesRiseSetDataset data, @NonNull LightMapColors options)
@@ -727,15 +792,77 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
 
         /////////////////////////////////////////////
 
-        protected void drawRect(Canvas c, Paint p)
+        private static final int MAX_RECTS = 16;
+        private final int[] rectColor = new int[MAX_RECTS];    // layers as primitives; [color, left, right] per rect (full height)
+        private final float[] rectLeft = new float[MAX_RECTS];
+        private final float[] rectRight = new float[MAX_RECTS];
+        private int numRects = 0;
+
+        private boolean hasNowPoint = false;
+        private int nowPointX, nowPointRadius, nowPointStroke;
+
+        private Canvas canvas = null;
+        private Paint paint = null;
+        private DashPathEffect dashEffect = null;
+
+        private TimeZone lmt = null;
+        private double lmtLongitude = Double.NaN;
+
+        /**
+         * @return a local mean time zone for the location (reused while the longitude is unchanged)
+         */
+        protected TimeZone localMeanTime(Location location)
+        {
+            double longitude = location.getLongitudeAsDouble();
+            if (lmt == null || longitude != lmtLongitude)
+            {
+                lmt = WidgetTimezones.localMeanTime(null, location);
+                lmtLongitude = longitude;
+            }
+            return lmt;
+        }
+
+        protected Canvas canvasFor(Bitmap b)
+        {
+            if (canvas == null) {
+                canvas = new Canvas(b);
+            } else canvas.setBitmap(b);
+            return canvas;
+        }
+
+        protected Paint getPaint()
+        {
+            if (paint == null) {
+                paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            }
+            return paint;
+        }
+
+        protected DashPathEffect getDashEffect()
         {
-            int w = c.getWidth();
-            int h = c.getHeight();
-            c.drawRect(0, 0, w, h, p);
+            if (dashEffect == null) {
+                dashEffect = new DashPathEffect(new float[] {4, 2}, 0);
+            }
+            return dashEffect;
         }
 
+        protected void addRect(int color, float left, float right)
+        {
+            if (numRects < MAX_RECTS)
+            {
+                rectColor[numRects] = color;
+                rectLeft[numRects] = left;
+                rectRight[numRects] = right;
+                numRects++;
+            }
+        }
+
+        /**
+         * Adds the span between rise and set (local mean time) as one rect, or two rects when it wraps around midnight.
+         * @return false if the data has neither rise nor set time
+         */
         @SuppressWarnings("BooleanMethodIsAlwaysInverted")
-        protected boolean drawRect( LightMapColors options, SuntimesRiseSetData data, Canvas c, Paint p )
+        protected boolean addLayer(SuntimesRiseSetData data, TimeZone lmt, int color, int w)
         {
             Calendar riseTime = data.sunriseCalendarToday();
             Calendar setTime = data.sunsetCalendarToday();
@@ -744,91 +871,112 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
                 return false;
             }
 
-            //if (options.option_lmt)
-            //{
-                TimeZone lmt = WidgetTimezones.localMeanTime(null, data.location());
-                if (riseTime != null)
-                {
-                    Calendar riseTimeLmt = Calendar.getInstance(lmt);
-                    riseTimeLmt.setTimeInMillis(riseTime.getTimeInMillis());
-                    riseTime = riseTimeLmt;
-                }
-                if (setTime != null)
-                {
-                    Calendar setTimeLmt = Calendar.getInstance(lmt);
-                    setTimeLmt.setTimeInMillis(setTime.getTimeInMillis());
-                    setTime = setTimeLmt;
-                }
-            //}
-
-            int w = c.getWidth();
-            int h = c.getHeight();
+            Calendar day = data.calendar();
+            long dayNum = dayNumber(day.getTimeInMillis(), day.getTimeZone());
 
             int left = 0;
-            if (riseTime != null)
-            {
-                int dayDiff = riseTime.get(Calendar.DAY_OF_YEAR) - data.calendar().get(Calendar.DAY_OF_YEAR);  // average case: 0; edge cases: -1, 1
-                double riseMinute = riseTime.get(Calendar.HOUR_OF_DAY) * 60 + riseTime.get(Calendar.MINUTE);
-                double riseR = ((dayDiff * 60 * 24) + riseMinute) / MINUTES_IN_DAY;
-                if (riseR > 1) {
-                    riseR = 1;
-                } else if (riseR < 0) {
-                    riseR = 0;
-                }
-                left = (int) Math.round(riseR * w);
+            if (riseTime != null) {
+                left = (int) Math.round(dayFraction(riseTime.getTimeInMillis(), lmt, dayNum) * w);
             }
 
             int right = w;
-            if (setTime != null)
-            {
-                int dayDiff = setTime.get(Calendar.DAY_OF_YEAR) - data.calendar().get(Calendar.DAY_OF_YEAR);  // average case: 0; edge cases: -1, 1
-                double setMinute = setTime.get(Calendar.HOUR_OF_DAY) * 60 + setTime.get(Calendar.MINUTE);
-                double setR = ((dayDiff * 60 * 24) + setMinute) / MINUTES_IN_DAY;
-                if (setR > 1) {
-                    setR = 1;
-                } else if (setR < 0) {
-                    setR = 0;
-                }
-                right = (int) Math.round(setR * w);
+            if (setTime != null) {
+                right = (int) Math.round(dayFraction(setTime.getTimeInMillis(), lmt, dayNum) * w);
             }
 
-            boolean setTimeBeforeRiseTime = (riseTime != null && setTime != null && setTime.getTime().before(riseTime.getTime()));
+            boolean setTimeBeforeRiseTime = (riseTime != null && setTime != null && setTime.getTimeInMillis() < riseTime.getTimeInMillis());
             if (setTimeBeforeRiseTime)
             {
-                c.drawRect(0, 0, right, h, p);
-                c.drawRect(left, 0, w, h, p);
+                addRect(color, 0, right);
+                addRect(color, left, w);
 
             } else {
-                c.drawRect(left, 0, right, h, p);
+                addRect(color, left, right);
             }
             return true;
         }
 
-        protected void drawPoint(Calendar calendar, int radius, int strokeWidth, Canvas c, Paint p, int fillColor, int strokeColor, DashPathEffect strokeEffect)
+        /**
+         * Draws the layers (and now marker) offset by dx, clipped to [dx, dx + w].
+         */
+        protected void drawLayers(Canvas c, Paint p, float dx, int w, int h, LightMapColors colors)
         {
-            if (calendar != null)
+            c.save();
+            c.translate(dx, 0);
+            c.clipRect(0, 0, w, h);
+
+            p.setStyle(Paint.Style.FILL);
+            p.setPathEffect(null);
+            for (int i=0; i<numRects; i++)
             {
-                int w = c.getWidth();
-                int h = c.getHeight();
+                p.setColor(rectColor[i]);
+                c.drawRect(rectLeft[i], 0, rectRight[i], h, p);
+            }
 
-                double minute = calendar.get(Calendar.HOUR_OF_DAY) * 60 + calendar.get(Calendar.MINUTE);
-                int x = (int) Math.round((minute / MINUTES_IN_DAY) * w);
-                int y = h / 2;
+            if (hasNowPoint)
+            {
+                switch (colors.option_drawNow) {
+                    case LightMapColors.DRAW_SUN2:
+                        drawPoint(nowPointX, h / 2, nowPointRadius, nowPointStroke, c, p, Color.TRANSPARENT, colors.values.getColor(LightMapColorValues.COLOR_SUN_STROKE), getDashEffect());
+                        break;
+
+                    case LightMapColors.DRAW_SUN1:
+                    default:
+                        drawPoint(nowPointX, h / 2, nowPointRadius, nowPointStroke, c, p, colors.values.getColor(LightMapColorValues.COLOR_SUN_FILL), colors.values.getColor(LightMapColorValues.COLOR_SUN_STROKE), null);
+                        break;
+                }
+            }
+            c.restore();
+        }
 
-                p.setStyle(Paint.Style.FILL);
-                p.setColor(fillColor);
-                c.drawCircle(x, y, radius, p);
+        protected void drawPoint(int x, int y, int radius, int strokeWidth, Canvas c, Paint p, int fillColor, int strokeColor, DashPathEffect strokeEffect)
+        {
+            p.setStyle(Paint.Style.FILL);
+            p.setColor(fillColor);
+            c.drawCircle(x, y, radius, p);
+
+            p.setStyle(Paint.Style.STROKE);
+            p.setStrokeWidth(strokeWidth);
+            p.setColor(strokeColor);
+            p.setPathEffect(strokeEffect);
+            c.drawCircle(x, y, radius, p);
+        }
 
-                p.setStyle(Paint.Style.STROKE);
-                p.setStrokeWidth(strokeWidth);
-                p.setColor(strokeColor);
+        /**
+         * @return days since epoch (in the given timezone)
+         */
+        public static long dayNumber(long millis, TimeZone timezone)
+        {
+            long local = millis + timezone.getOffset(millis);
+            return (local >= 0 ? local / DAY_MILLIS : ((local + 1) / DAY_MILLIS) - 1);
+        }
 
-                if (strokeEffect != null) {
-                    p.setPathEffect(strokeEffect);
-                }
+        /**
+         * @return minute of the day [0, 1440) in the given timezone (same as HOUR_OF_DAY * 60 + MINUTE)
+         */
+        public static double minuteOfDay(long millis, TimeZone timezone)
+        {
+            long local = millis + timezone.getOffset(millis);
+            long day = (local >= 0 ? local / DAY_MILLIS : ((local + 1) / DAY_MILLIS) - 1);
+            return (local - (day * DAY_MILLIS)) / MINUTE_MILLIS;
+        }
 
-                c.drawCircle(x, y, radius, p);
+        /**
+         * @param millis event time
+         * @param timezone timezone (lmt)
+         * @param dayNum the day the event is measured from (@see dayNumber)
+         * @return fraction of the day [0, 1]; events on the previous (or next) day are clamped to 0 (or 1)
+         */
+        public static double dayFraction(long millis, TimeZone timezone, long dayNum)
+        {
+            double minute = ((dayNumber(millis, timezone) - dayNum) * MINUTES_IN_DAY) + minuteOfDay(millis, timezone);
+            double r = minute / MINUTES_IN_DAY;
+            if (r > 1) {
+                r = 1;
+            } else if (r < 0) {
+                r = 0;
             }
+            return r;
         }
 
         private LightMapTaskListener listener = null;
@@ -889,6 +1037,19 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
             init(context);
         }
 
+        public LightMapColors(@NonNull LightMapColors other)
+        {
+            option_drawNow = other.option_drawNow;
+            option_drawNow_pointSizePx = other.option_drawNow_pointSizePx;
+            option_lmt = other.option_lmt;
+            offsetMinutes = other.offsetMinutes;
+            now = other.now;
+            anim_frameLengthMs = other.anim_frameLengthMs;
+            anim_frameOffsetMinutes = other.anim_frameOffsetMinutes;
+            anim_lock = other.anim_lock;
+            values = other.values;
+        }
+
         public void initDefaultDark(Context context) {
             values = new LightMapColorValues(values.getDefaultValues(context, true));
         }
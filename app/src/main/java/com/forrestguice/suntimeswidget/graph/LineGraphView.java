@@ -47,7 +47,9 @@ import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.locks.Lock;
 
@@ -61,6 +63,7 @@ public class LineGraphView extends android.support.v7.widget.AppCompatImageView
     public static final int DEFAULT_MAX_UPDATE_RATE = 15 * 1000;  // ms value; once every 15s
 
     private LineGraphTask drawTask = null;
+    private final ElevationPathCache pathCache = new ElevationPathCache();
 
     private final int maxUpdateRate = DEFAULT_MAX_UPDATE_RATE;
 
@@ -186,6 +189,7 @@ public class LineGraphView extends android.support.v7.widget.AppCompatImageView
 
         drawTask = new LineGraphTask();
         drawTask.setListener(drawTaskListener);
+        drawTask.setPathCache(pathCache);
 
         if (Build.VERSION.SDK_INT >= 11) {
             drawTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR, data, getWidth(), getHeight(), options, (animated ? 0 : 1), options.offsetMinutes);
@@ -776,13 +780,12 @@ public class LineGraphView extends android.support.v7.widget.AppCompatImageView
         }
 
         private ArrayList<Path> sun_paths = new ArrayList<>(), moon_paths = new ArrayList<>();
-        private HashMap<Path, Double> sun_elevations = new HashMap<>(), moon_elevations = new HashMap<>();
 
         protected void drawMoonPath(Calendar now, SuntimesCalculator calculator, Canvas c, Paint p, LineGraphOptions options)
         {
             if (options.moonPath_show_fill)
             {
-                HashMap<Path, Double> moonFill = createMoonPath(now, calculator, c, options, true, moon_paths, moon_elevations);
+                HashMap<Path, Double> moonFill = createMoonPath(now, calculator, c, options, true, moon_paths);
                 p.setStyle(Paint.Style.FILL);
                 for (Path path : moonFill.keySet())
                 {
@@ -796,7 +799,7 @@ public class LineGraphView extends android.support.v7.widget.AppCompatImageView
             if (options.moonPath_show_line)
             {
                 double r = Math.sqrt(c.getWidth() * c.getHeight());
-                HashMap<Path, Double> moonPath = createMoonPath(now, calculator, c, options, false, moon_paths, moon_elevations);
+                HashMap<Path, Double> moonPath = createMoonPath(now, calculator, c, options, false, moon_paths);
                 p.setStrokeWidth((float)(r / (float)options.moonPath_width));
                 p.setStyle(Paint.Style.STROKE);
                 for (Path path : moonPath.keySet())
@@ -808,85 +811,15 @@ public class LineGraphView extends android.support.v7.widget.AppCompatImageView
                 }
             }
         }
-        protected HashMap<Path, Double> createMoonPath(Calendar now, SuntimesCalculator calculator, Canvas c, LineGraphOptions options, boolean closed, ArrayList<Path> paths, HashMap<Path,Double> elevations)
-        {
-            int path_width = 2 * MINUTES_IN_DAY ; // options.graph_width;
-
-            paths.clear();
-            elevations.clear();
-
-            Calendar lmt = lmt(calculator.getLocation());
-            lmt.setTimeInMillis(now.getTimeInMillis());
-            toStartOfDay(lmt);
-
-            SuntimesCalculator.MoonPosition position;
-            double elevation_prev = -90;   // sun elevation (previous iteration)
-            elevation_min = elevation_max = 0;
-            float x = 0, y = 0;
-
-            Path path = null;
-            int minute = 0;
-            while (minute < path_width)
-            {
-                position = calculator.getMoonPosition(lmt);
-                if (position.elevation < elevation_min) {
-                    elevation_min = position.elevation;
-                } else if (position.elevation > elevation_max) {
-                    elevation_max = position.elevation;
-                }
-
-                int d = (int)(minute / MINUTES_IN_DAY);
-                double m = (d * MINUTES_IN_DAY) + (lmt.get(Calendar.HOUR_OF_DAY) * 60) + lmt.get(Calendar.MINUTE);
-                x = (float) minutesToBitmapCoords(c, m, options);
-                y = (float) degreesToBitmapCoords(c, position.elevation, options);
-
-                if (path != null
-                        && ((elevation_prev < 0 && position.elevation >= 0)
-                        || (elevation_prev >= 0 && position.elevation < 0))) {
-                    path.lineTo(x, y);
-                    if (closed) {
-                        path.close();
-                    }
-                    path = null;
-                }
-
-                if (path == null)
-                {
-                    path = new Path();
-                    paths.add(path);
-                    elevations.put(path, position.elevation);
-
-                    if (closed) {
-                        path.moveTo(x, (float)degreesToBitmapCoords(c, 0, options));
-                        path.lineTo(x, y);
-                    } else {
-                        path.moveTo(x, y);
-                    }
-
-                } else {
-                    path.lineTo(x, y);
-                }
-
-                elevation_prev = position.elevation;
-                lmt.add(Calendar.MINUTE, options.moonPath_interval);
-                minute += options.moonPath_interval;
-            }
-
-            if (closed)
-            {
-                path = paths.get(paths.size()-1);
-                path.lineTo(x, (float)degreesToBitmapCoords(c, 0, options));
-                path.close();
-            }
-            return elevations;
+        protected HashMap<Path, Double> createMoonPath(Calendar now, SuntimesCalculator calculator, Canvas c, LineGraphOptions options, boolean closed, ArrayList<Path> paths) {
+            return createElevationPath(true, now, calculator, c, options, closed, paths);
         }
 
-
         protected void drawSunPath(Calendar now, SuntimesCalculator calculator, Canvas c, Paint p, LineGraphOptions options)
         {
             if (options.sunPath_show_fill)
             {
-                HashMap<Path, Double> sunFill = createSunPath(now, calculator, c, options, true, sun_paths, sun_elevations);
+                HashMap<Path, Double> sunFill = createSunPath(now, calculator, c, options, true, sun_paths);
                 p.setStyle(Paint.Style.FILL);
                 for (Path path : sunFill.keySet())
                 {
@@ -900,7 +833,7 @@ public class LineGraphView extends android.support.v7.widget.AppCompatImageView
             if (options.sunPath_show_line)
             {
                 double r = Math.sqrt(c.getWidth() * c.getHeight());
-                HashMap<Path, Double> sunPath = createSunPath(now, calculator, c, options, false, sun_paths, sun_elevations);
+                HashMap<Path, Double> sunPath = createSunPath(now, calculator, c, options, false, sun_paths);
                 p.setStrokeWidth((float)(r / (float)options.sunPath_width));
                 p.setStyle(Paint.Style.STROKE);
                 for (Path path : sunPath.keySet())
@@ -913,42 +846,75 @@ public class LineGraphView extends android.support.v7.widget.AppCompatImageView
             }
         }
 
+        protected HashMap<Path, Double> createSunPath(Calendar now, SuntimesCalculator calculator, Canvas c, LineGraphOptions options, boolean closed, ArrayList<Path> paths) {
+            return createElevationPath(false, now, calculator, c, options, closed, paths);
+        }
+
         private double elevation_min = -90, elevation_max = 90;
-        protected HashMap<Path, Double> createSunPath(Calendar now, SuntimesCalculator calculator, Canvas c, LineGraphOptions options, boolean closed, ArrayList<Path> paths, HashMap<Path,Double> elevations)
+
+        /**
+         * Creates the sun (or moon) path for the day (two days, starting at 00:00 LMT); a new path is started at each horizon crossing.
+         * Elevations are sampled with a single bulk call, and the paths are taken from (or added to) the ElevationPathCache.
+         * @return a map of paths to the elevation at the start of each path
+         */
+        protected HashMap<Path, Double> createElevationPath(boolean isMoon, Calendar now, SuntimesCalculator calculator, Canvas c, LineGraphOptions options, boolean closed, ArrayList<Path> paths)
         {
             int path_width = 2 * MINUTES_IN_DAY ; // options.graph_width;
-
-            paths.clear();
-            elevations.clear();
+            int interval = Math.max(1, (isMoon ? options.moonPath_interval : options.sunPath_interval));
+            int count = (path_width + interval - 1) / interval;
 
             Calendar lmt = lmt(calculator.getLocation());
             lmt.setTimeInMillis(now.getTimeInMillis());
             toStartOfDay(lmt);
+            long startMillis = lmt.getTimeInMillis();
 
-            SuntimesCalculator.SunPosition position;
-            double elevation_prev = -90;   // sun elevation (previous iteration)
+            ElevationPathCache cache = getPathCache();
+            String sampleKey = ElevationPathCache.sampleKey(isMoon, calculator, startMillis, interval, count);
+            String pathKey = ElevationPathCache.pathKey(sampleKey, closed, c, options);
+            HashMap<Path, Double> cached = cache.getPaths(pathKey);
+            if (cached != null)
+            {
+                paths.clear();
+                paths.addAll(cached.keySet());
+                return cached;
+            }
+
+            double[] samples = cache.getSamples(sampleKey);
+            if (samples == null)
+            {
+                samples = new double[count];
+                boolean sampled = (isMoon ? calculator.getMoonPositions(startMillis, interval * 60 * 1000L, count, null, samples)
+                                          : calculator.getSunPositions(startMillis, interval * 60 * 1000L, count, null, samples));
+                if (!sampled) {
+                    paths.clear();
+                    return new HashMap<>();    // position not supported
+                }
+                cache.putSamples(sampleKey, samples);
+            }
+
+            paths.clear();
+            HashMap<Path, Double> elevations = new HashMap<>();
+            double elevation_prev = -90;   // elevation (previous iteration)
             elevation_min = elevation_max = 0;
             float x = 0, y = 0;
+            float y0 = (float) degreesToBitmapCoords(c, 0, options);
 
             Path path = null;
-            int minute = 0;
-            while (minute < path_width)
+            for (int i=0; i<count; i++)
             {
-                position = calculator.getSunPosition(lmt);
-                if (position.elevation < elevation_min) {
-                    elevation_min = position.elevation;
-                } else if (position.elevation > elevation_max) {
-                    elevation_max = position.elevation;
+                double elevation = samples[i];
+                if (elevation < elevation_min) {
+                    elevation_min = elevation;
+                } else if (elevation > elevation_max) {
+                    elevation_max = elevation;
                 }
 
-                int d = (int)(minute / MINUTES_IN_DAY);
-                double m = (d * MINUTES_IN_DAY) + (lmt.get(Calendar.HOUR_OF_DAY) * 60) + lmt.get(Calendar.MINUTE);
-                x = (float) minutesToBitmapCoords(c, m, options);
-                y = (float) degreesToBitmapCoords(c, position.elevation, options);
+                x = (float) minutesToBitmapCoords(c, i * interval, options);    // lmt has no dst; minutes since 00:00 LMT
+                y = (float) degreesToBitmapCoords(c, elevation, options);
 
                 if (path != null
-                        && ((elevation_prev < 0 && position.elevation >= 0)
-                        || (elevation_prev >= 0 && position.elevation < 0))) {
+                        && ((elevation_prev < 0 && elevation >= 0)
+                        || (elevation_prev >= 0 && elevation < 0))) {
                     path.lineTo(x, y);
                     if (closed) {
                         path.close();
@@ -960,10 +926,10 @@ public class LineGraphView extends android.support.v7.widget.AppCompatImageView
                 {
                     path = new Path();
                     paths.add(path);
-                    elevations.put(path, position.elevation);
+                    elevations.put(path, elevation);
 
                     if (closed) {
-                        path.moveTo(x, (float)degreesToBitmapCoords(c, 0, options));
+                        path.moveTo(x, y0);
                         path.lineTo(x, y);
                     } else {
                         path.moveTo(x, y);
@@ -972,20 +938,32 @@ public class LineGraphView extends android.support.v7.widget.AppCompatImageView
                 } else {
                     path.lineTo(x, y);
                 }
-
-                elevation_prev = position.elevation;
-                lmt.add(Calendar.MINUTE, options.sunPath_interval);
-                minute += options.sunPath_interval;
+                elevation_prev = elevation;
             }
 
-            if (closed)
+            if (closed && !paths.isEmpty())
             {
                 path = paths.get(paths.size()-1);
-                path.lineTo(x, (float)degreesToBitmapCoords(c, 0, options));
+                path.lineTo(x, y0);
                 path.close();
             }
+
+            cache.putPaths(pathKey, elevations);
             return elevations;
         }
+
+        private ElevationPathCache pathCache = null;
+        public void setPathCache(@Nullable ElevationPathCache cache) {
+            pathCache = cache;
+        }
+        protected ElevationPathCache getPathCache()
+        {
+            if (pathCache == null) {
+                pathCache = new ElevationPathCache();
+            }
+            return pathCache;
+        }
+
         protected void closePaths(List<Path> paths)
         {
             for (Path path : paths) {
@@ -1230,6 +1208,68 @@ public class LineGraphView extends android.support.v7.widget.AppCompatImageView
         }
     }
 
+    /**
+     * ElevationPathCache
+     * Sampled elevations (keyed by calculator, location, date, and interval) and the paths created from them
+     * (also keyed by graph dimensions); the sun and moon paths are only recalculated when one of these changes.
+     */
+    public static class ElevationPathCache
+    {
+        public static final int MAX_SAMPLES = 4;    // sun and moon, today and (animated) next day
+        public static final int MAX_PATHS = 8;      // fill and line for each
+
+        protected final LinkedHashMap<String, double[]> samples = new LinkedHashMap<String, double[]>(MAX_SAMPLES, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, double[]> eldest) {
+                return size() > MAX_SAMPLES;
+            }
+        };
+
+        protected final LinkedHashMap<String, HashMap<Path, Double>> paths = new LinkedHashMap<String, HashMap<Path, Double>>(MAX_PATHS, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, HashMap<Path, Double>> eldest) {
+                return size() > MAX_PATHS;
+            }
+        };
+
+        public static String sampleKey(boolean isMoon, SuntimesCalculator calculator, long startMillis, int interval, int count)
+        {
+            Location location = calculator.getLocation();
+            return (isMoon ? "moon" : "sun") + "_" + calculator.name() + "_" + location.getLatitudeAsDouble() + "_" + location.getLongitudeAsDouble() + "_" + location.getAltitudeAsDouble()
+                    + "_" + startMillis + "_" + interval + "_" + count;
+        }
+
+        public static String pathKey(String sampleKey, boolean closed, Canvas c, LineGraphOptions options)
+        {
+            return sampleKey + "_" + closed + "_" + c.getWidth() + "x" + c.getHeight()
+                    + "_" + options.graph_width + "_" + options.graph_height + "_" + options.graph_x_offset + "_" + options.graph_y_offset;
+        }
+
+        @Nullable
+        public synchronized double[] getSamples(String key) {
+            return samples.get(key);
+        }
+        public synchronized void putSamples(String key, double[] values) {
+            samples.put(key, values);
+        }
+
+        @Nullable
+        public synchronized HashMap<Path, Double> getPaths(String key) {
+            return paths.get(key);
+        }
+        public synchronized void putPaths(String key, HashMap<Path, Double> values) {
+            paths.put(key, values);
+        }
+
+        public synchronized void clear()
+        {
+            samples.clear();
+            paths.clear();
+        }
+    }
+
     /**
      * LineGraphTaskListener
      */
@@ -31,7 +31,6 @@ import android.graphics.PorterDuff;
 import android.graphics.PorterDuffXfermode;
 import android.graphics.Rect;
 import android.support.annotation.Nullable;
-import android.support.v4.graphics.ColorUtils;
 import android.util.Log;
 
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
@@ -94,80 +93,131 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
 
     protected int[] initPixels(int w, int h, double[] sunUp, double[] moonUp, WorldMapTask.WorldMapOptions options)
     {
-        int z = 0;
-        int j0, j1, j2;
-        double v0, v1, v2;
-        double sunIntensity, moonIntensity;
-        int[] pixels = new int[w * h];
-        double[] m = getMatrix();
-
-        if (options.showSunShadow && options.showMoonLight)
+        if (pixels == null || pixels.length != (w * h)) {
+            pixels = new int[w * h];
+        }
+        return getShader().shade((options.showSunShadow ? sunUp : null), (options.showMoonLight ? moonUp : null),
+                options.colors.getColor(WorldMapColorValues.COLOR_SUN_SHADOW), options.colors.getColor(WorldMapColorValues.COLOR_MOON_LIGHT), pixels, null);
+    }
+    protected int[] pixels = null;
+
+    /**
+     * @return a bitmap containing the given pixels (reused between frames)
+     */
+    protected Bitmap initLightBitmap(int w, int h, int[] pixels)
+    {
+        if (lightBitmap == null || lightBitmap.getWidth() != w || lightBitmap.getHeight() != h) {
+            lightBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        }
+        lightBitmap.setPixels(pixels, 0, w, 0, 0, w, h);
+        return lightBitmap;
+    }
+    protected Bitmap lightBitmap = null;
+
+    /**
+     * Fills the dark side of the sun terminator and the lit side of the moon terminator.
+     */
+    protected void drawTerminators(Canvas c, int w, int h, double[] mid, double[] sunUp, double[] moonUp, WorldMapTask.WorldMapOptions options)
+    {
+        if (options.showSunShadow)
         {
-            int combinedColor = ColorUtils.compositeColors(options.colors.getColor(WorldMapColorValues.COLOR_MOON_LIGHT), options.colors.getColor(WorldMapColorValues.COLOR_SUN_SHADOW));
-            for (int j = 0; j < h; j++)
-            {
-                j0 = (360 * j);
-                j1 = (360 * (360 + j));
-                j2 = (360 * (720 + j));
-
-                for (int i = 0; i < w; i++)
-                {
-                    v0 = m[i + j0];
-                    v1 = m[i + j1];
-                    v2 = m[i + j2];
-
-                    sunIntensity = (sunUp[0] * v0) + (sunUp[1] * v1) + (sunUp[2] * v2);
-                    moonIntensity = (moonUp[0] * v0) + (moonUp[1] * v1) + (moonUp[2] * v2);
-                    if (sunIntensity <= 0 && moonIntensity > 0) {
-                        pixels[z] = combinedColor;
-                    } else if (sunIntensity <= 0) {
-                        pixels[z] = options.colors.getColor(WorldMapColorValues.COLOR_SUN_SHADOW);
-                    } else if (moonIntensity > 0) {
-                        pixels[z] = options.colors.getColor(WorldMapColorValues.COLOR_MOON_LIGHT);
-                    }
-                    z++;
-                }
-            }
+            paintTerminator.setColor(options.colors.getColor(WorldMapColorValues.COLOR_SUN_SHADOW));
+            drawTerminator(c, w, h, mid, sunUp, true, paintTerminator);
+        }
+        if (options.showMoonLight)
+        {
+            paintTerminator.setColor(options.colors.getColor(WorldMapColorValues.COLOR_MOON_LIGHT));
+            drawTerminator(c, w, h, mid, moonUp, false, paintTerminator);
+        }
+    }
 
-        } else if (options.showSunShadow) {
-            for (int j = 0; j < h; j++)
-            {
-                j0 = (360 * j);
-                j1 = (360 * (360 + j));
-                j2 = (360 * (720 + j));
-
-                for (int i = 0; i < w; i++)
-                {
-                    v0 = m[i + j0];
-                    v1 = m[i + j1];
-                    v2 = m[i + j2];
-
-                    sunIntensity = (sunUp[0] * v0) + (sunUp[1] * v1) + (sunUp[2] * v2);
-                    pixels[z] = (sunIntensity <= 0) ? options.colors.getColor(WorldMapColorValues.COLOR_SUN_SHADOW) : Color.TRANSPARENT;
-                    z++;
-                }
-            }
+    /**
+     * Fills the dark (or lit) side of the terminator; the terminator distance is solved once per bearing
+     * from the center of the projection, and each point is placed using toBitmapCoords.
+     * @param up unit vector toward the sun (or moon)
+     * @param dark true fills the dark side, false fills the lit side
+     */
+    protected void drawTerminator(Canvas c, int w, int h, double[] mid, double[] up, boolean dark, Paint p)
+    {
+        double[] center = getCenter();
+        double[][] basis = centerBasis(center[0], center[1]);
+        boolean centerIsLit = (dotProduct(up, basis[0]) > 0);
 
-        } else if (options.showMoonLight) {
-            for (int j = 0; j < h; j++)
-            {
-                j0 = (360 * j);
-                j1 = (360 * (360 + j));
-                j2 = (360 * (720 + j));
-
-                for (int i = 0; i < w; i++)
-                {
-                    v0 = m[i + j0];
-                    v1 = m[i + j1];
-                    v2 = m[i + j2];
-
-                    moonIntensity = (moonUp[0] * v0) + (moonUp[1] * v1) + (moonUp[2] * v2);
-                    pixels[z] = (moonIntensity > 0) ? options.colors.getColor(WorldMapColorValues.COLOR_MOON_LIGHT) : Color.TRANSPARENT;
-                    z++;
-                }
-            }
+        if (terminatorPath == null) {
+            terminatorPath = new Path();
         }
-        return pixels;
+        terminatorPath.rewind();
+        terminatorPath.setFillType((centerIsLit == dark) ? Path.FillType.INVERSE_WINDING : Path.FillType.WINDING);
+
+        int n = Math.max(90, w);
+        double[] point = new double[2];
+        for (int i = 0; i < n; i++)
+        {
+            double bearing = (2 * Math.PI * i) / n;
+            terminatorPoint(up, basis, bearing, point);
+            int[] xy = toBitmapCoords(w, h, mid, point[0], point[1]);
+            if (i == 0) {
+                terminatorPath.moveTo(xy[0], xy[1]);
+            } else terminatorPath.lineTo(xy[0], xy[1]);
+        }
+        terminatorPath.close();
+        c.drawPath(terminatorPath, p);
+    }
+    private Path terminatorPath = null;
+
+    /**
+     * @param lat center latitude (degrees)
+     * @param lon center longitude (degrees)
+     * @return unit vectors { center, north, east } at the center point
+     */
+    public static double[][] centerBasis(double lat, double lon)
+    {
+        double radLat = Math.toRadians(lat), radLon = Math.toRadians(lon);
+        double sinLat = Math.sin(radLat), cosLat = Math.cos(radLat);
+        double sinLon = Math.sin(radLon), cosLon = Math.cos(radLon);
+        return new double[][] {
+                { cosLon * cosLat, sinLon * cosLat, sinLat },
+                { -1 * cosLon * sinLat, -1 * sinLon * sinLat, cosLat },
+                { -1 * sinLon, cosLon, 0 }
+        };
+    }
+
+    /**
+     * Terminator distance along a bearing from the center; solved from
+     * cos(d) * up.dotProduct(center) + sin(d) * up.dotProduct(direction) = 0.
+     * @param up unit vector toward the sun (or moon)
+     * @param basis unit vectors { center, north, east } (@see centerBasis)
+     * @param bearing radians clockwise from north
+     * @return distance (radians) [0, PI]; points nearer the center are lit when up.dotProduct(center) > 0
+     */
+    public static double terminatorDistance(double[] up, double[][] basis, double bearing)
+    {
+        double sinBearing = Math.sin(bearing), cosBearing = Math.cos(bearing);
+        double a = dotProduct(up, basis[0]);
+        double b = (cosBearing * dotProduct(up, basis[1])) + (sinBearing * dotProduct(up, basis[2]));
+        double d = Math.atan2(-a, b);
+        return (d < 0 ? d + Math.PI : d);
+    }
+
+    /**
+     * @param point result array; { lat, lon } (degrees) of the terminator along the given bearing
+     */
+    public static void terminatorPoint(double[] up, double[][] basis, double bearing, double[] point)
+    {
+        double d = Math.min(terminatorDistance(up, basis, bearing), Math.PI - 0.001);    // avoid the antipode (undefined for some projections)
+        double sinD = Math.sin(d), cosD = Math.cos(d);
+        double sinBearing = Math.sin(bearing), cosBearing = Math.cos(bearing);
+
+        double[] v = new double[3];
+        for (int k = 0; k < 3; k++) {
+            v[k] = (cosD * basis[0][k]) + (sinD * ((cosBearing * basis[1][k]) + (sinBearing * basis[2][k])));
+        }
+        point[0] = Math.toDegrees(Math.asin(Math.max(-1, Math.min(1, v[2]))));
+        point[1] = Math.toDegrees(Math.atan2(v[1], v[0]));
+    }
+
+    protected static double dotProduct(double[] u, double[] v) {
+        return (u[0] * v[0]) + (u[1] * v[1]) + (u[2] * v[2]);
     }
 
     protected boolean paintInitialized = false;
@@ -182,6 +232,7 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
     protected Paint paintMoon_fill = null;
     protected Paint paintMoon_stroke = null;
     protected Paint paintGrid = null;
+    protected Paint paintTerminator = null;
 
     @Override
     public void initPaint(WorldMapTask.WorldMapOptions options)
@@ -236,6 +287,9 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
         paintGrid.setStyle(Paint.Style.STROKE);
         paintGrid.setStrokeCap(Paint.Cap.ROUND);
 
+        paintTerminator = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paintTerminator.setStyle(Paint.Style.FILL);
+
         paintInitialized = true;
     }
 
@@ -247,15 +301,11 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
             return null;
         }
 
-        if (matrix == null) {
-            matrix = initMatrix();
-        }
-
         double[] mid = new double[2];
         mid[0] = w/2d;
         mid[1] = h/2d;
 
-        Bitmap b = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        Bitmap b = createFrameBitmap(w, h);
         Canvas c = new Canvas(b);
 
         if (!paintInitialized) {
@@ -321,15 +371,18 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
             //
             if (options.showSunPosition || options.showMoonPosition)
             {
-                int[] size = matrixSize();
-                Bitmap lightBitmap = Bitmap.createBitmap(size[0], size[1], Bitmap.Config.ARGB_8888);
-                int[] pixels = initPixels(size[0], size[1], sunUp, moonUp, options);
-                lightBitmap.setPixels(pixels, 0, size[0], 0, 0, size[0], size[1]);
-
-                Rect src = new Rect(0,0,size[0]-1, size[1]-1);
-                Rect dst = new Rect(0,0,w-1, h-1);
-                c.drawBitmap(lightBitmap, src, dst, paintScaled);
-                lightBitmap.recycle();
+                if (options.terminatorMode) {
+                    drawTerminators(c, w, h, mid, sunUp, moonUp, options);
+
+                } else {
+                    int[] size = matrixSize();
+                    int[] pixels = initPixels(size[0], size[1], sunUp, moonUp, options);
+                    Bitmap lightBitmap = initLightBitmap(size[0], size[1], pixels);
+
+                    Rect src = new Rect(0,0,size[0]-1, size[1]-1);
+                    Rect dst = new Rect(0,0,w-1, h-1);
+                    c.drawBitmap(lightBitmap, src, dst, paintScaled);
+                }
             }
 
             ////////////////
@@ -374,29 +427,17 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
         }
 
         // mask final image to fit within a circle (fixes fuzzy edges from base maps)
-        Bitmap masked = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        Bitmap masked = createFrameBitmap(w, h);
         Canvas maskedCanvas = new Canvas(masked);
         maskedCanvas.drawCircle((float)mid[0], (float)mid[1], (float)mid[0] - 2, paintMask_srcOver);
         maskedCanvas.drawBitmap(b, 0, 0, paintMask_srcIn);
-        b.recycle();
+        releaseFrameBitmap(b);
 
         long bench_end = System.nanoTime();
         Log.d(WorldMapView.LOGTAG, "make equiazimuthal world map :: " + ((bench_end - bench_start) / 1000000.0) + " ms; " + w + ", " + h);
         return masked;
     }
 
-    private static double[] matrix = null;    // [x * y * v(3)]
-
-    @Override
-    public double[] getMatrix() {
-        return matrix;
-    }
-
-    @Override
-    public void resetMatrix() {
-        matrix = null;
-    }
-
     @Override
     public int[] matrixSize()
     {
@@ -407,8 +448,15 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
     public double[] initMatrix()
     {
         long bench_start = System.nanoTime();
-
         int[] size = matrixSize();
+        double[] v = createMatrix(size);
+        long bench_end = System.nanoTime();
+        Log.d(WorldMapView.LOGTAG, "make equiazimuthal world map :: initMatrix :: " + ((bench_end - bench_start) / 1000000.0) + " ms; " + size[0] + ", " + size[1]);
+        return v;
+    }
+
+    protected static double[] createMatrix(int[] size)
+    {
         int w = size[0];
         int h = size[1];
         double[] v = new double[w * h * 3];
@@ -449,9 +497,6 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
                 v[i + (360 * (720 + j))] = Math.sin(radLat);
             }
         }
-
-        long bench_end = System.nanoTime();
-        Log.d(WorldMapView.LOGTAG, "make equiazimuthal world map :: initMatrix :: " + ((bench_end - bench_start) / 1000000.0) + " ms; " + w + ", " + h);
         return v;
     }
 
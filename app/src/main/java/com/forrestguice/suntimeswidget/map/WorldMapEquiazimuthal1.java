@@ -56,18 +56,6 @@ public class WorldMapEquiazimuthal1 extends WorldMapEquiazimuthal
         return polar;
     }
 
-    private static double[] matrix = null;    // [x * y * v(3)]
-
-    @Override
-    public double[] getMatrix() {
-        return matrix;
-    }
-
-    @Override
-    public void resetMatrix() {
-        matrix = null;
-    }
-
     @Override
     public double[] initMatrix()
     {
@@ -136,15 +124,11 @@ public class WorldMapEquiazimuthal1 extends WorldMapEquiazimuthal
             return null;
         }
 
-        if (matrix == null) {
-            matrix = initMatrix();
-        }
-
         double[] mid = new double[2];
         mid[0] = w/2d;
         mid[1] = h/2d;
 
-        Bitmap b = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        Bitmap b = createFrameBitmap(w, h);
         Canvas c = new Canvas(b);
 
         if (!paintInitialized) {
@@ -210,15 +194,18 @@ public class WorldMapEquiazimuthal1 extends WorldMapEquiazimuthal
             // algorithm described at https://gis.stackexchange.com/questions/17184/method-to-shade-or-overlay-a-raster-map-to-reflect-time-of-day-and-ambient-light
             if (options.showSunPosition || options.showMoonPosition)
             {
-                int[] size = matrixSize();
-                Bitmap lightBitmap = Bitmap.createBitmap(size[0], size[1], Bitmap.Config.ARGB_8888);
-                int[] pixels = initPixels(size[0], size[1], sunUp, moonUp, options);
-                lightBitmap.setPixels(pixels, 0, size[0], 0, 0, size[0], size[1]);
-
-                Rect src = new Rect(0,0,size[0]-1, size[1]-1);
-                Rect dst = new Rect(0,0,w-1, h-1);
-                c.drawBitmap(lightBitmap, src, dst, paintScaled);
-                lightBitmap.recycle();
+                if (options.terminatorMode) {
+                    drawTerminators(c, w, h, mid, sunUp, moonUp, options);
+
+                } else {
+                    int[] size = matrixSize();
+                    int[] pixels = initPixels(size[0], size[1], sunUp, moonUp, options);
+                    Bitmap lightBitmap = initLightBitmap(size[0], size[1], pixels);
+
+                    Rect src = new Rect(0,0,size[0]-1, size[1]-1);
+                    Rect dst = new Rect(0,0,w-1, h-1);
+                    c.drawBitmap(lightBitmap, src, dst, paintScaled);
+                }
             }
 
             ////////////////
@@ -263,11 +250,11 @@ public class WorldMapEquiazimuthal1 extends WorldMapEquiazimuthal
         }
 
         // mask final image to fit within a circle (fixes fuzzy edges from base maps)
-        Bitmap masked = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        Bitmap masked = createFrameBitmap(w, h);
         Canvas maskedCanvas = new Canvas(masked);
         maskedCanvas.drawCircle((float)mid[0], (float)mid[1], (float)mid[0] - 2, paintMask_srcOver);
         maskedCanvas.drawBitmap(b, 0, 0, paintMask_srcIn);
-        b.recycle();
+        releaseFrameBitmap(b);
 
         long bench_end = System.nanoTime();
         Log.d(WorldMapView.LOGTAG, "make equiazimuthal world map :: " + ((bench_end - bench_start) / 1000000.0) + " ms; " + w + ", " + h);
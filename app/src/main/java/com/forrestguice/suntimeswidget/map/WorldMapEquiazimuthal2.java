@@ -69,14 +69,22 @@ public class WorldMapEquiazimuthal2 extends WorldMapEquiazimuthal
     }
 
     @Override
-    public double[] getMatrix() {
-        return matrix;
+    public String matrixKey() {
+        return super.matrixKey() + "_" + center[0] + "_" + center[1];
     }
-    private static double[] matrix = null;    // [x * y * v(3)]
 
-    @Override
-    public void resetMatrix() {
-        matrix = null;
+    /**
+     * Initializes values that depend on the center (required by toBitmapCoords and the grid).
+     */
+    protected void initCenter()
+    {
+        int[] size = matrixSize();
+        pixelSrc = new Rect(0,0,size[0]-1, size[1]-1);
+        grid_mid = null;
+
+        double radLat1 = Math.toRadians(center[0]);
+        sinLat1 = Math.sin(radLat1);
+        cosLat1 = Math.cos(radLat1);
     }
 
     @Override
@@ -84,10 +92,8 @@ public class WorldMapEquiazimuthal2 extends WorldMapEquiazimuthal
     {
         long bench_start = System.nanoTime();
 
+        initCenter();
         int[] size = matrixSize();
-        pixelSrc = new Rect(0,0,size[0]-1, size[1]-1);
-        grid_mid = null;
-
         int w = size[0];
         int h = size[1];
         double[] v = new double[w * h * 3];
@@ -99,9 +105,6 @@ public class WorldMapEquiazimuthal2 extends WorldMapEquiazimuthal
         double squareR = Math.PI * Math.PI;
 
         double radLon1 = Math.toRadians(center[1]);
-        double radLat1 = Math.toRadians(center[0]);
-        sinLat1 = Math.sin(radLat1);
-        cosLat1 = Math.cos(radLat1);
 
         for (int i = 0; i < w; i++)
         {
@@ -225,15 +228,15 @@ public class WorldMapEquiazimuthal2 extends WorldMapEquiazimuthal
         }
 
         boolean recenter = setCenterFromOptions(options);
-        if (matrix == null || recenter) {
-            matrix = initMatrix();
+        if (pixelSrc == null || recenter) {
+            initCenter();
         }
 
         double[] mid = new double[2];
         mid[0] = w/2d;
         mid[1] = h/2d;
 
-        Bitmap b = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        Bitmap b = createFrameBitmap(w, h);
         Canvas c = new Canvas(b);
 
         if (!paintInitialized) {
@@ -299,15 +302,18 @@ public class WorldMapEquiazimuthal2 extends WorldMapEquiazimuthal
             // algorithm described at https://gis.stackexchange.com/questions/17184/method-to-shade-or-overlay-a-raster-map-to-reflect-time-of-day-and-ambient-light
             if (options.showSunPosition || options.showMoonPosition)
             {
-                int[] size = matrixSize();
-                Bitmap lightBitmap = Bitmap.createBitmap(size[0], size[1], Bitmap.Config.ARGB_8888);
-                int[] pixels = initPixels(size[0], size[1], sunUp, moonUp, options);    // TODO: double buffer?
-                lightBitmap.setPixels(pixels, 0, size[0], 0, 0, size[0], size[1]);
-
-                //Rect pixelSrc = new Rect(0,0,size[0]-1, size[1]-1);    // set by initMatrix
-                pixelDst.set(0,0,w-1, h-1);
-                c.drawBitmap(lightBitmap, pixelSrc, pixelDst, paintScaled);
-                lightBitmap.recycle();
+                if (options.terminatorMode) {
+                    drawTerminators(c, w, h, mid, sunUp, moonUp, options);
+
+                } else {
+                    int[] size = matrixSize();
+                    int[] pixels = initPixels(size[0], size[1], sunUp, moonUp, options);
+                    Bitmap lightBitmap = initLightBitmap(size[0], size[1], pixels);
+
+                    //Rect pixelSrc = new Rect(0,0,size[0]-1, size[1]-1);    // set by initMatrix
+                    pixelDst.set(0,0,w-1, h-1);
+                    c.drawBitmap(lightBitmap, pixelSrc, pixelDst, paintScaled);
+                }
             }
 
             ////////////////
@@ -352,11 +358,11 @@ public class WorldMapEquiazimuthal2 extends WorldMapEquiazimuthal
         }
 
         // mask final image to fit within a circle (fixes fuzzy edges from base maps)
-        Bitmap masked = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        Bitmap masked = createFrameBitmap(w, h);
         Canvas maskedCanvas = new Canvas(masked);
         maskedCanvas.drawCircle((float)mid[0], (float)mid[1], (float)mid[0] - 2, paintMask_srcOver);
         maskedCanvas.drawBitmap(b, 0, 0, paintMask_srcIn);
-        b.recycle();
+        releaseFrameBitmap(b);
 
         long bench_end = System.nanoTime();
         Log.d(WorldMapView.LOGTAG, "make equiazimuthal2 world map :: " + ((bench_end - bench_start) / 1000000.0) + " ms; " + w + ", " + h);
@@ -24,9 +24,12 @@ import android.graphics.Color;
 import android.graphics.DashPathEffect;
 import android.graphics.LightingColorFilter;
 import android.graphics.Paint;
+import android.graphics.Path;
 import android.graphics.PathEffect;
 import android.graphics.PorterDuff;
 import android.graphics.PorterDuffXfermode;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
 import android.support.annotation.Nullable;
 import android.util.Log;
 
@@ -53,6 +56,7 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
     }
 
     protected boolean paintInitialized = false;
+    protected Paint paintScaled = null;
     protected Paint paintBackground = null;
     protected Paint paintForeground = null;
     protected Paint paintMoonlight = null;
@@ -65,10 +69,15 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
     protected Paint paintSun_fill = null;
     protected Paint paintSun_stroke = null;
     protected Paint paintGrid = null;
+    protected Paint paintTerminator = null;
 
     @Override
     public void initPaint(WorldMapTask.WorldMapOptions options)
     {
+        paintScaled = new Paint(Paint.ANTI_ALIAS_FLAG);         // to scale one bitmap into another
+        paintScaled.setDither(true);
+        paintScaled.setFilterBitmap(true);
+
         paintBackground = new Paint(Paint.ANTI_ALIAS_FLAG);
         paintBackground.setColor(options.colors.getColor(WorldMapColorValues.COLOR_BACKGROUND));
         paintBackground.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.DST_OVER));
@@ -122,6 +131,9 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
         paintGrid.setStyle(Paint.Style.STROKE);
         paintGrid.setStrokeCap(Paint.Cap.ROUND);
 
+        paintTerminator = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paintTerminator.setStyle(Paint.Style.FILL);
+
         paintInitialized = true;
     }
 
@@ -133,15 +145,11 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
             return null;
         }
 
-        if (matrix == null) {
-            matrix = initMatrix();
-        }
-
         double[] mid = new double[2];
         mid[0] = w/2d;
         mid[1] = h/2d;
 
-        Bitmap b = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        Bitmap b = createFrameBitmap(w, h);
         Canvas c = new Canvas(b);
 
         if (!paintInitialized) {
@@ -205,84 +213,62 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
             // algorithm described at https://gis.stackexchange.com/questions/17184/method-to-shade-or-overlay-a-raster-map-to-reflect-time-of-day-and-ambient-light
             if (options.showSunPosition || options.showMoonPosition)
             {
-                int[] size = matrixSize();
-                if (sunMaskBitmap == null || moonMaskBitmap == null) {
-                    initBitmap(size[0], size[1]);
-                }
-
-                int z = 0;
-                int k0, k1, k2;
-                double v0, v1, v2;
-                double sunIntensity, moonIntensity;
-                int[] sun_pixels = new int[size[0] * size[1]];
-                int[] moon_pixels = new int[size[0] * size[1]];
-                for (int j = 0; j < size[1]; j++)
+                if (options.terminatorMode)
                 {
-                    k0 = size[0] * j;
-                    k1 = size[0] * (size[1] + j);
-                    k2 = size[0] * ((size[1] * 2) + j);
-
-                    for (int i = 0; i < size[0]; i++)
+                    if (options.showSunShadow)
                     {
-                        v0 = matrix[i + k0];
-                        v1 = matrix[i + k1];
-                        v2 = matrix[i + k2];
-
-                        if (options.showSunShadow)
+                        if (options.map_night != null)
                         {
-                            sunIntensity = (sunUp[0] * v0) + (sunUp[1] * v1) + (sunUp[2] * v2);    // intensity = up.dotProduct(v)
-                            if (sunIntensity <= 0) {
-                                sun_pixels[z] = Color.WHITE;
-                            }
+                            Bitmap shadowBitmap = initShadowBitmap(w, h);
+                            Canvas shadowCanvas = new Canvas(shadowBitmap);
+                            drawTerminator(shadowCanvas, w, h, sunUp, true, paintMask_srcOver);
+                            shadowCanvas.drawBitmap(initNightBitmap(w, h, options), 0, 0, paintMask_srcIn);
+                            c.drawBitmap(shadowBitmap, 0, 0, paintMask_srcOver);
+
+                        } else {
+                            paintTerminator.setColor(options.colors.getColor(WorldMapColorValues.COLOR_SUN_SHADOW));
+                            drawTerminator(c, w, h, sunUp, true, paintTerminator);
                         }
-
-                        if (options.showMoonLight)
-                        {
-                            moonIntensity = (moonUp[0] * v0) + (moonUp[1] * v1) + (moonUp[2] * v2);
-                            if (moonIntensity > 0) {
-                                moon_pixels[z] = Color.WHITE;
-                            }
-                        }
-                        z++;
                     }
-                }
-                sunMaskBitmap.setPixels(sun_pixels, 0, size[0], 0, 0, size[0], size[1]);
-                moonMaskBitmap.setPixels(moon_pixels, 0, size[0], 0, 0, size[0], size[1]);
-
-                // draw sun shadow
-                Bitmap sunMask = Bitmap.createScaledBitmap(sunMaskBitmap, w, h, true);
-                Bitmap shadowBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
-                Canvas shadowCanvas = new Canvas(shadowBitmap);
-                shadowCanvas.drawBitmap(sunMask, 0, 0, paintMask_srcOver);
-
-                if (options.map_night != null)
-                {
-                    Bitmap nightBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
-                    Canvas nightCanvas = new Canvas(nightBitmap);
-                    options.map_night.setBounds(0, 0, nightCanvas.getWidth(), nightCanvas.getHeight());
-                    options.map_night.draw(nightCanvas);
-
-                    shadowCanvas.drawBitmap(nightBitmap, 0, 0, paintMask_srcIn);
-                    nightBitmap.recycle();
+                    if (options.showMoonLight)
+                    {
+                        paintTerminator.setColor(options.colors.getColor(WorldMapColorValues.COLOR_MOON_LIGHT));
+                        drawTerminator(c, w, h, moonUp, false, paintTerminator);
+                    }
 
                 } else {
-                    shadowCanvas.drawPaint(paintSunshadow);
-                }
+                    int[] size = matrixSize();
+                    WorldMapShader shader = getShader();
+                    initBitmap(size[0], size[1]);
+                    lightSrc.set(0, 0, size[0], size[1]);
+                    lightDst.set(0, 0, w, h);
 
-                c.drawBitmap(shadowBitmap, 0, 0, paintMask_srcOver);
-                shadowBitmap.recycle();
-                sunMask.recycle();
+                    double[] sunUp0 = (options.showSunShadow ? sunUp : null);
+                    double[] moonUp0 = (options.showMoonLight ? moonUp : null);
+                    int moonColor = options.colors.getColor(WorldMapColorValues.COLOR_MOON_LIGHT);
 
-                // draw moon light
-                Bitmap moonMask = Bitmap.createScaledBitmap(moonMaskBitmap, w, h, true);
-                Bitmap moonBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
-                Canvas moonCanvas = new Canvas(moonBitmap);
-                moonCanvas.drawBitmap(moonMask, 0, 0, paintMask_srcOver);
-                moonCanvas.drawPaint(paintMoonlight);
+                    if (options.map_night != null)
+                    {
+                        // draw sun shadow (night map masked by shadow)
+                        shader.shade(sunUp0, moonUp0, Color.WHITE, moonColor, sunPixels, moonPixels);
+                        sunMaskBitmap.setPixels(sunPixels, 0, size[0], 0, 0, size[0], size[1]);
+                        lightBitmap.setPixels(moonPixels, 0, size[0], 0, 0, size[0], size[1]);
+
+                        Bitmap shadowBitmap = initShadowBitmap(w, h);
+                        Canvas shadowCanvas = new Canvas(shadowBitmap);
+                        shadowCanvas.drawBitmap(sunMaskBitmap, lightSrc, lightDst, paintScaled);
+                        shadowCanvas.drawBitmap(initNightBitmap(w, h, options), 0, 0, paintMask_srcIn);
+                        c.drawBitmap(shadowBitmap, 0, 0, paintMask_srcOver);
+
+                    } else {
+                        // draw sun shadow and moon light (single pass)
+                        shader.shade(sunUp0, moonUp0, options.colors.getColor(WorldMapColorValues.COLOR_SUN_SHADOW), moonColor, sunPixels, null);
+                        lightBitmap.setPixels(sunPixels, 0, size[0], 0, 0, size[0], size[1]);
+                    }
 
-                c.drawBitmap(moonBitmap, 0, 0, paintMask_srcOver);
-                moonBitmap.recycle();
-                moonMask.recycle();
+                    // draw moon light
+                    c.drawBitmap(lightBitmap, lightSrc, lightDst, paintScaled);
+                }
             }
 
             ////////////////
@@ -319,19 +305,43 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
         return b;
     }
 
-    private static double[] matrix = null;    // [x * y * v(3)]
-
-    @Override
-    public void resetMatrix() {
-        matrix = null;
+    /**
+     * Fills the dark (or lit) side of the terminator; one vertex per column.
+     * @param up unit vector toward the sun (or moon)
+     * @param dark true fills the dark side, false fills the lit side
+     */
+    protected void drawTerminator(Canvas c, int w, int h, double[] up, boolean dark, Paint p)
+    {
+        float edgeY = (((up[2] >= 0) == dark) ? h : 0);    // the dark side is south of the terminator when up is north of the equator
+        if (terminatorPath == null) {
+            terminatorPath = new Path();
+        }
+        terminatorPath.rewind();
+        terminatorPath.moveTo(0, edgeY);
+        for (int x = 0; x <= w; x++)
+        {
+            double lat = terminatorLatitude(up, ((x / (double) w) * 360d) - 180d);
+            terminatorPath.lineTo(x, (float) (((90d - lat) / 180d) * h));
+        }
+        terminatorPath.lineTo(w, edgeY);
+        terminatorPath.close();
+        c.drawPath(terminatorPath, p);
     }
+    private Path terminatorPath = null;
 
     @Override
     public double[] initMatrix()
     {
         long bench_start = System.nanoTime();
-
         int[] size = matrixSize();
+        double[] v = createMatrix(size);
+        long bench_end = System.nanoTime();
+        Log.d(WorldMapView.LOGTAG, "make equirectangular world map :: initMatrix :: " + ((bench_end - bench_start) / 1000000.0) + " ms; " + size[0] + ", " + size[1]);
+        return v;
+    }
+
+    protected static double[] createMatrix(int[] size)
+    {
         double[] v = new double[size[0] * size[1] * 3];
         double iw0 = (1d / size[0]) * 360d;
         double ih0 = (1d / size[1]) * 180d;
@@ -355,30 +365,67 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
                 v[i + (size[0] * ((size[1] * 2) + j))] = Math.sin(radLat);
             }
         }
-
-        long bench_end = System.nanoTime();
-        Log.d(WorldMapView.LOGTAG, "make equirectangular world map :: initMatrix :: " + ((bench_end - bench_start) / 1000000.0) + " ms; " + size[0] + ", " + size[1]);
         return v;
     }
 
-    private Bitmap sunMaskBitmap = null;
-    private Bitmap moonMaskBitmap = null;
+    private int[] sunPixels = null, moonPixels = null;    // [matrix size]
+    private Rect lightSrc = null, lightDst = null;
+    private Bitmap sunMaskBitmap = null;    // [matrix size]
+    private Bitmap lightBitmap = null;      // [matrix size]
+    private Bitmap shadowBitmap = null;     // [w, h]
+    private Bitmap nightBitmap = null;      // [w, h]
+    private Drawable nightBitmapSource = null;
 
     private void initBitmap(int w, int h)
     {
-        sunMaskBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_4444);
-        moonMaskBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_4444);
+        if (lightSrc == null)
+        {
+            lightSrc = new Rect();
+            lightDst = new Rect();
+        }
+        if (sunMaskBitmap == null || sunMaskBitmap.getWidth() != w || sunMaskBitmap.getHeight() != h)
+        {
+            sunMaskBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_4444);
+            lightBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+            sunPixels = new int[w * h];
+            moonPixels = new int[w * h];
+        }
+    }
+
+    /**
+     * @return a cleared bitmap (reused between frames)
+     */
+    private Bitmap initShadowBitmap(int w, int h)
+    {
+        if (shadowBitmap == null || shadowBitmap.getWidth() != w || shadowBitmap.getHeight() != h) {
+            shadowBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        } else shadowBitmap.eraseColor(Color.TRANSPARENT);
+        return shadowBitmap;
     }
 
-    @Override
-    protected int k(int i, int j, int k)
+    /**
+     * @return the night map drawn at [w, h] (redrawn only when the size or drawable changes)
+     */
+    private Bitmap initNightBitmap(int w, int h, WorldMapTask.WorldMapOptions options)
     {
-        return i + (720 * ((360 * k) + j));
+        if (nightBitmap == null || nightBitmap.getWidth() != w || nightBitmap.getHeight() != h || nightBitmapSource != options.map_night)
+        {
+            if (nightBitmap != null) {
+                nightBitmap.recycle();
+            }
+            nightBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+            Canvas nightCanvas = new Canvas(nightBitmap);
+            options.map_night.setBounds(0, 0, w, h);
+            options.map_night.draw(nightCanvas);
+            nightBitmapSource = options.map_night;
+        }
+        return nightBitmap;
     }
 
     @Override
-    public double[] getMatrix() {
-        return matrix;
+    protected int k(int i, int j, int k)
+    {
+        return i + (720 * ((360 * k) + j));
     }
 
     @Override
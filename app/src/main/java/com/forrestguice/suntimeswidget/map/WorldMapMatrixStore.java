@@ -0,0 +1,367 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.map;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * WorldMapMatrixStore
+ * Projection matrices (as WorldMapShader) shared by all projections and tasks, keyed by matrixKey and matrixSize.
+ *
+ * Matrices are persisted to versioned binary files (app cache dir) so they are computed once rather than after every
+ * process start; a stored matrix is memory-mapped, and the shader reads the mapped FloatBuffer directly (so a stored
+ * matrix doesn't occupy the heap). A matrix is computed (or loaded) outside of the store's lock; concurrent requests
+ * for the same matrix wait for the first. File layout (native byte order):
+ * [int magic][int version][int width][int height][float v0 * w*h][float v1 * w*h][float v2 * w*h]
+ */
+public class WorldMapMatrixStore
+{
+    public static final int MAGIC = 0x574d4d58;    // WMMX
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 4 * 4;
+    public static final String DIR_NAME = "worldmap";
+    public static final String FILE_EXT = ".bin";
+
+    public static final int MAX_CACHED = 3;                   // matrices kept in memory
+    public static final int MAX_FILES_PER_PROJECTION = 4;     // files kept per projection (recentered projections create one per center)
+
+    private static File dir = null;
+    private static final Map<String, WorldMapShader> shaders = new LinkedHashMap<String, WorldMapShader>(MAX_CACHED, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, WorldMapShader> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+    private static final Map<String, FutureTask<WorldMapShader>> pending = new HashMap<>();    // matrices being computed (or loaded)
+    private static final Object fileLock = new Object();    // guards file i/o (save, prune, clear)
+
+    /**
+     * Enables persistent storage; matrices are only kept in memory until this is called.
+     */
+    public static synchronized void init(@Nullable Context context)
+    {
+        if (dir == null && context != null) {
+            dir = new File(context.getApplicationContext().getCacheDir(), DIR_NAME);
+        }
+    }
+
+    /**
+     * @return a shader for the projection's matrix; from memory, from storage, or created (then stored)
+     */
+    @NonNull
+    public static WorldMapShader getShader(@NonNull final WorldMapTask.WorldMapProjection projection)
+    {
+        final int[] size = projection.matrixSize();
+        final String prefix = projection.matrixKey() + "_";
+        final String name = prefix + size[0] + "x" + size[1];
+
+        FutureTask<WorldMapShader> task;
+        boolean isOwner = false;
+        synchronized (WorldMapMatrixStore.class)
+        {
+            WorldMapShader shader = shaders.get(name);
+            if (shader != null) {
+                return shader;
+            }
+
+            task = pending.get(name);
+            if (task == null)
+            {
+                final File file = (dir != null ? new File(dir, name + "_v" + VERSION + FILE_EXT) : null);
+                task = new FutureTask<>(new Callable<WorldMapShader>()
+                {
+                    @Override
+                    public WorldMapShader call() {
+                        return loadOrCreate(projection, file, size, prefix);
+                    }
+                });
+                pending.put(name, task);
+                isOwner = true;
+            }
+        }
+
+        WorldMapShader shader = null;
+        try {
+            if (isOwner) {
+                task.run();    // computed on the calling thread, outside of the lock
+            }
+            shader = task.get();
+            return shader;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new WorldMapShader(projection.initMatrix(), size[0], size[1]);    // interrupted while waiting on another thread; not shared
+
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw (cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause));
+
+        } finally {
+            if (isOwner)
+            {
+                synchronized (WorldMapMatrixStore.class)
+                {
+                    pending.remove(name);
+                    if (shader != null) {
+                        shaders.put(name, shader);
+                    }
+                }
+            }
+        }
+    }
+
+    @NonNull
+    protected static WorldMapShader loadOrCreate(@NonNull WorldMapTask.WorldMapProjection projection, @Nullable File file, int[] size, String prefix)
+    {
+        WorldMapShader shader = (file != null ? load(file, size) : null);
+        if (shader == null)
+        {
+            shader = new WorldMapShader(projection.initMatrix(), size[0], size[1]);
+            if (file != null && save(file, shader))
+            {
+                prune(prefix);
+                WorldMapShader stored = load(file, size);    // read from the mapped file (rather than keeping the computed copy on the heap)
+                if (stored != null) {
+                    shader = stored;
+                }
+            }
+        }
+        return shader;
+    }
+
+    /**
+     * Drops the in-memory copy of the projection's matrix (the stored file is kept).
+     */
+    public static synchronized void remove(@NonNull WorldMapTask.WorldMapProjection projection)
+    {
+        int[] size = projection.matrixSize();
+        shaders.remove(projection.matrixKey() + "_" + size[0] + "x" + size[1]);
+    }
+
+    public static void clear()
+    {
+        File directory;
+        synchronized (WorldMapMatrixStore.class)
+        {
+            shaders.clear();
+            directory = dir;
+        }
+
+        synchronized (fileLock)
+        {
+            File[] files = (directory != null ? directory.listFiles() : null);
+            if (files != null)
+            {
+                for (File file : files) {
+                    deleteFile(file);
+                }
+            }
+        }
+    }
+
+    @Nullable
+    protected static WorldMapShader load(@NonNull File file, int[] size)
+    {
+        synchronized (fileLock) {
+            return load0(file, size);
+        }
+    }
+
+    @Nullable
+    private static WorldMapShader load0(@NonNull File file, int[] size)
+    {
+        if (!file.exists()) {
+            return null;
+        }
+
+        long bench_start = System.nanoTime();
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            FileChannel channel = raf.getChannel();
+            int n = size[0] * size[1];
+            if (channel.size() != HEADER_BYTES + (3L * n * 4))
+            {
+                Log.w(WorldMapView.LOGTAG, "WorldMapMatrixStore: invalid file size; discarding " + file.getName());
+                deleteFile(file);
+                return null;
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.nativeOrder());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != size[0] || buffer.getInt() != size[1])
+            {
+                Log.w(WorldMapView.LOGTAG, "WorldMapMatrixStore: invalid header; discarding " + file.getName());
+                deleteFile(file);
+                return null;
+            }
+
+            FloatBuffer values = buffer.asFloatBuffer();    // mapped; read in place (the mapping remains valid after the file is closed)
+
+            long bench_end = System.nanoTime();
+            Log.d(WorldMapView.LOGTAG, "WorldMapMatrixStore: load " + file.getName() + " :: " + ((bench_end - bench_start) / 1000000.0) + " ms");
+            return new WorldMapShader(values, size[0], size[1]);
+
+        } catch (IOException | RuntimeException e) {
+            Log.w(WorldMapView.LOGTAG, "WorldMapMatrixStore: failed to load " + file.getName() + ": " + e);
+            return null;
+
+        } finally {
+            close(raf);
+        }
+    }
+
+    protected static boolean save(@NonNull File file, @NonNull WorldMapShader shader)
+    {
+        synchronized (fileLock) {
+            return save0(file, shader);
+        }
+    }
+
+    private static boolean save0(@NonNull File file, @NonNull WorldMapShader shader)
+    {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            Log.w(WorldMapView.LOGTAG, "WorldMapMatrixStore: failed to create " + parent);
+            return false;
+        }
+
+        File tmp = new File(parent, file.getName() + ".tmp");
+        RandomAccessFile raf = null;
+        try {
+            int n = shader.width() * shader.height();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_BYTES + (3 * n * 4));
+            buffer.order(ByteOrder.nativeOrder());
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(shader.width()).putInt(shader.height());
+
+            FloatBuffer values = buffer.asFloatBuffer();
+            values.put(shader.values());
+            buffer.rewind();
+
+            raf = new RandomAccessFile(tmp, "rw");
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            close(raf);
+            raf = null;
+
+            if (!tmp.renameTo(file))    // written to a temp file, then renamed; a partial file is never read
+            {
+                deleteFile(tmp);
+                return false;
+            }
+            return true;
+
+        } catch (IOException e) {
+            Log.w(WorldMapView.LOGTAG, "WorldMapMatrixStore: failed to save " + file.getName() + ": " + e);
+            deleteFile(tmp);
+            return false;
+
+        } finally {
+            close(raf);
+        }
+    }
+
+    /**
+     * Removes files from older versions, and all but the most recent files for the given projection.
+     */
+    protected static void prune(String prefix)
+    {
+        synchronized (fileLock) {
+            prune0(prefix);
+        }
+    }
+
+    private static void prune0(String prefix)
+    {
+        File directory;
+        synchronized (WorldMapMatrixStore.class) {
+            directory = dir;
+        }
+        File[] files = (directory != null ? directory.listFiles() : null);
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>()
+        {
+            @Override
+            public int compare(File f1, File f2) {
+                long t1 = f1.lastModified(), t2 = f2.lastModified();
+                return (t1 < t2) ? 1 : ((t1 == t2) ? 0 : -1);    // most recent first
+            }
+        });
+
+        String suffix = "_v" + VERSION + FILE_EXT;
+        int count = 0;
+        for (File file : files)
+        {
+            String name = file.getName();
+            if (!name.endsWith(suffix)) {
+                deleteFile(file);
+
+            } else if (name.startsWith(prefix) && (++count > MAX_FILES_PER_PROJECTION)) {
+                deleteFile(file);
+            }
+        }
+    }
+
+    private static void deleteFile(File file)
+    {
+        if (!file.delete()) {
+            Log.w(WorldMapView.LOGTAG, "WorldMapMatrixStore: failed to delete " + file.getName());
+        }
+    }
+
+    private static void close(@Nullable RandomAccessFile raf)
+    {
+        if (raf != null)
+        {
+            try {
+                raf.close();
+            } catch (IOException e) {
+                Log.w(WorldMapView.LOGTAG, "WorldMapMatrixStore: failed to close file: " + e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,195 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.map;
+
+import android.graphics.Color;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.graphics.ColorUtils;
+import android.util.Log;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * WorldMapShader
+ * Shades a projection matrix by sun and moon position; intensity = up.dotProduct(v).
+ *
+ * The matrix is held as a FloatBuffer of three consecutive components ([x * n][y * n][z * n]) so the inner loop runs over
+ * contiguous memory; a stored matrix is read directly from its memory-mapped file (@see WorldMapMatrixStore), so it
+ * doesn't occupy the heap. Rows are split across a small thread pool, and sun shadow and moon light are
+ * evaluated in the same sweep, writing final ARGB values into (caller owned) pixel buffers that are reused between frames.
+ * A shader holds no per-frame state, so one instance is shared by every projection using the same matrix (@see WorldMapMatrixStore).
+ */
+public class WorldMapShader
+{
+    private static ExecutorService executor = null;
+    protected static final int NUM_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    protected static synchronized ExecutorService getExecutor()
+    {
+        if (executor == null)
+        {
+            executor = Executors.newFixedThreadPool(NUM_THREADS, new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(@NonNull Runnable r)
+                {
+                    Thread thread = new Thread(r, "WorldMapShader");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    protected final int w, h, n;
+    protected final FloatBuffer values;    // [x * n][y * n][z * n] where n = w * h; read with absolute gets only (shared between threads)
+
+    /**
+     * @param matrix flattened projection matrix; [lon][lat][v(3)]
+     * @param w matrix width
+     * @param h matrix height
+     */
+    public WorldMapShader(@NonNull double[] matrix, int w, int h)
+    {
+        this(FloatBuffer.allocate(3 * w * h), w, h);
+        for (int i = 0, m = 3 * n; i < m; i++) {
+            values.put(i, (float) matrix[i]);
+        }
+    }
+
+    /**
+     * @param values x, y, and z components [3 * w * h] (e.g. a mapped file)
+     * @param w matrix width
+     * @param h matrix height
+     */
+    public WorldMapShader(@NonNull FloatBuffer values, int w, int h)
+    {
+        this.w = w;
+        this.h = h;
+        this.n = w * h;
+        this.values = values;
+    }
+
+    /**
+     * @return the matrix values [x * n][y * n][z * n] (a read-only view positioned at 0)
+     */
+    public FloatBuffer values()
+    {
+        FloatBuffer view = values.asReadOnlyBuffer();
+        view.rewind();
+        return view;
+    }
+
+    public int width() {
+        return w;
+    }
+    public int height() {
+        return h;
+    }
+
+    /**
+     * Shades every cell of the matrix.
+     * @param sunUp sun unit vector, or null to skip sun shadow
+     * @param moonUp moon unit vector, or null to skip moon light
+     * @param shadowColor color for cells facing away from the sun
+     * @param moonColor color for cells facing the moon
+     * @param pixels result buffer [w * h]
+     * @param moonPixels result buffer for moon light [w * h], or null to write both into pixels (moon light composited over sun shadow)
+     * @return pixels
+     */
+    public int[] shade(@Nullable double[] sunUp, @Nullable double[] moonUp, int shadowColor, int moonColor, @NonNull int[] pixels, @Nullable int[] moonPixels)
+    {
+        final int[] out0 = pixels;
+        final int[] out1 = moonPixels;
+        final boolean hasSun = (sunUp != null);
+        final boolean hasMoon = (moonUp != null);
+        final float sx = hasSun ? (float) sunUp[0] : 0, sy = hasSun ? (float) sunUp[1] : 0, sz = hasSun ? (float) sunUp[2] : 0;
+        final float mx = hasMoon ? (float) moonUp[0] : 0, my = hasMoon ? (float) moonUp[1] : 0, mz = hasMoon ? (float) moonUp[2] : 0;
+        final int c0 = shadowColor, c1 = moonColor;
+        final int c2 = ColorUtils.compositeColors(moonColor, shadowColor);
+
+        int numBands = (NUM_THREADS > 1 && h >= NUM_THREADS) ? NUM_THREADS : 1;
+        int bandSize = (int) Math.ceil(h / (double) numBands);
+        List<Future<Void>> results = new ArrayList<>();
+        for (int i = 1; i < numBands; i++)
+        {
+            final int j0 = i * bandSize;
+            final int j1 = Math.min(h, j0 + bandSize);
+            if (j0 >= j1) {
+                break;
+            }
+            results.add(getExecutor().submit(new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                {
+                    shadeRows(j0, j1, hasSun, sx, sy, sz, hasMoon, mx, my, mz, c0, c1, c2, out0, out1);
+                    return null;
+                }
+            }));
+        }
+        shadeRows(0, Math.min(h, bandSize), hasSun, sx, sy, sz, hasMoon, mx, my, mz, c0, c1, c2, out0, out1);    // first band on the calling thread
+
+        for (Future<Void> result : results)
+        {
+            try {
+                result.get();
+            } catch (InterruptedException | ExecutionException e) {
+                Log.w("WorldMapShader", "shade: failed to finish rows: " + e);
+            }
+        }
+        return pixels;
+    }
+
+    protected void shadeRows(int j0, int j1, boolean hasSun, float sx, float sy, float sz, boolean hasMoon, float mx, float my, float mz,
+                             int shadowColor, int moonColor, int combinedColor, int[] out0, @Nullable int[] out1)
+    {
+        final FloatBuffer v = values;
+        final int n1 = n, n2 = 2 * n;
+        float x, y, z;
+        boolean shadow, light;
+        for (int i = j0 * w, m = j1 * w; i < m; i++)
+        {
+            x = v.get(i);
+            y = v.get(n1 + i);
+            z = v.get(n2 + i);
+            shadow = hasSun && ((sx * x) + (sy * y) + (sz * z)) <= 0;
+            light = hasMoon && ((mx * x) + (my * y) + (mz * z)) > 0;
+
+            if (out1 != null) {
+                out0[i] = (shadow ? shadowColor : Color.TRANSPARENT);
+                out1[i] = (light ? moonColor : Color.TRANSPARENT);
+
+            } else {
+                out0[i] = (shadow ? (light ? combinedColor : shadowColor)
+                                  : (light ? moonColor : Color.TRANSPARENT));
+            }
+        }
+    }
+
+}
@@ -28,14 +28,18 @@ import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.AsyncTask;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.util.Log;
 
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.map.colors.WorldMapColorValues;
+import com.forrestguice.suntimeswidget.views.FrameCache;
+import com.forrestguice.suntimeswidget.views.FramePipeline;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 
 /**
@@ -45,11 +49,19 @@ public class WorldMapTask extends AsyncTask<Object, Bitmap, Bitmap>
 {
     private WorldMapProjection projection = new WorldMapEquirectangular();
     private WorldMapOptions options = new WorldMapOptions();
+    private FrameCache frameCache = null;
 
     public WorldMapTask()
     {
     }
 
+    /**
+     * @param cache frames are reused from (and added to) this cache; null to render every frame
+     */
+    public void setFrameCache(@Nullable FrameCache cache) {
+        frameCache = cache;
+    }
+
     /**
      * @param params 0: SuntimesRiseSetDataset,
      *               1: Integer (width),
@@ -88,35 +100,86 @@ public class WorldMapTask extends AsyncTask<Object, Bitmap, Bitmap>
             return null;
         }
 
-        long time0 = System.nanoTime();
+        if (data != null && options.now < 0) {
+            projection.mapTime(data, options);    // resolve "now" once so every frame uses the same time
+        }
+        projection.setBitmapPool(frameCache != null ? frameCache.getPool() : null);
+
+        final SuntimesRiseSetDataset frameData = data;
+        final int frameW = w, frameH = h;
+        final WorldMapOptions frameOptions = new WorldMapOptions(options);    // frames are rendered ahead using a copy of the options
+        FramePipeline.FrameRenderer renderer = new FramePipeline.FrameRenderer()
+        {
+            @Override
+            public FrameCache.Frame renderFrame(long offsetMinutes)
+            {
+                frameOptions.offsetMinutes = offsetMinutes;
+                return new FrameCache.Frame(offsetMinutes, makeBitmap(frameData, frameW, frameH, frameOptions));
+            }
+        };
+        int optionsHash = frameHash(projection, data, w, h, options);
+
         Bitmap frame = null;
         options.offsetMinutes = initialOffset;
 
-        int i = 0;
-        while (i < numFrames || numFrames <= 0)
+        if (numFrames == 1)
         {
-            if (isCancelled()) {
-                break;
+            FrameCache.Frame result = FramePipeline.getFrame(frameCache, optionsHash, initialOffset, renderer);
+            if (result != null && !isCancelled())
+            {
+                frame = result.bitmap;
+                publishProgress(frame);
+                if (listener != null) {
+                    listener.afterFrame(frame, options.offsetMinutes);
+                }
             }
-            frame = makeBitmap(data, w, h, options);
+            return frame;
+        }
 
-            long time1 = System.nanoTime();
-            while ((time1 - time0) < frameDuration) {
-                time1 = System.nanoTime();
-            }
+        FramePipeline pipeline = new FramePipeline(frameCache, optionsHash, renderer, FramePipeline.DEFAULT_LOOKAHEAD);
+        pipeline.start(initialOffset, options.anim_frameOffsetMinutes, numFrames);
+        try {
+            long nextFrameAt = System.nanoTime() + frameDuration;
+            while (!isCancelled())
+            {
+                FrameCache.Frame result = pipeline.next();
+                if (result == null) {
+                    break;
+                }
 
-            publishProgress(frame);
-            if (listener != null) {
-                listener.afterFrame(frame, options.offsetMinutes);
+                FramePipeline.waitUntil(nextFrameAt);
+                nextFrameAt = Math.max(nextFrameAt + frameDuration, System.nanoTime());    // fixed rate; don't burst after a slow frame
+
+                frame = result.bitmap;
+                options.offsetMinutes = result.offsetMinutes;
+                publishProgress(frame);
+                if (listener != null) {
+                    listener.afterFrame(frame, options.offsetMinutes);
+                }
             }
-            options.offsetMinutes += options.anim_frameOffsetMinutes;
-            time0 = System.nanoTime();
-            i++;
+        } catch (InterruptedException e) {
+            Log.d("WorldMapTask", "interrupted");
+
+        } finally {
+            pipeline.stop();
         }
-        options.offsetMinutes -= options.anim_frameOffsetMinutes;
         return frame;
     }
 
+    /**
+     * @return a hash of the values a frame depends on (other than offsetMinutes)
+     */
+    public static int frameHash(WorldMapProjection projection, SuntimesRiseSetDataset data, int w, int h, WorldMapOptions options)
+    {
+        return Arrays.hashCode(new Object[] {
+                projection.matrixKey(), System.identityHashCode(data), w, h, options.now,
+                (options.colors != null ? options.colors.getColors() : null), options.foregroundColor, System.identityHashCode(options.map), System.identityHashCode(options.map_night),
+                options.tintForeground, options.hasTransparentBaseMap, options.showDebugLines, options.showGrid, options.showMajorLatitudes, Arrays.hashCode(options.latitudeColors),
+                options.showSunPosition, options.showSunShadow, options.showMoonPosition, options.showMoonLight, options.sunScale, options.sunStrokeScale, options.moonScale, options.moonStrokeScale,
+                options.translateToLocation, options.terminatorMode, Arrays.hashCode(options.center), Arrays.deepHashCode(options.locations), options.locationScale
+        });
+    }
+
     public Bitmap makeBitmap(SuntimesRiseSetDataset data, int w, int h, WorldMapOptions options)
     {
         return projection.makeBitmap(data, w, h, options);
@@ -172,6 +235,39 @@ public class WorldMapTask extends AsyncTask<Object, Bitmap, Bitmap>
         public WorldMapOptions(Context context) {
             init(context);
         }
+        public WorldMapOptions(@NonNull WorldMapOptions other)
+        {
+            modified = other.modified;
+            colors = other.colors;
+            foregroundColor = other.foregroundColor;
+            map = other.map;
+            map_night = other.map_night;
+            tintForeground = other.tintForeground;
+            hasTransparentBaseMap = other.hasTransparentBaseMap;
+            showDebugLines = other.showDebugLines;
+            showGrid = other.showGrid;
+            showMajorLatitudes = other.showMajorLatitudes;
+            latitudeColors = other.latitudeColors;
+            latitudeLinePatterns = other.latitudeLinePatterns;
+            latitudeLineScale = other.latitudeLineScale;
+            showSunPosition = other.showSunPosition;
+            showSunShadow = other.showSunShadow;
+            showMoonPosition = other.showMoonPosition;
+            showMoonLight = other.showMoonLight;
+            sunScale = other.sunScale;
+            sunStrokeScale = other.sunStrokeScale;
+            moonScale = other.moonScale;
+            moonStrokeScale = other.moonStrokeScale;
+            translateToLocation = other.translateToLocation;
+            terminatorMode = other.terminatorMode;
+            center = other.center;
+            locations = other.locations;
+            locationScale = other.locationScale;
+            offsetMinutes = other.offsetMinutes;
+            now = other.now;
+            anim_frameLengthMs = other.anim_frameLengthMs;
+            anim_frameOffsetMinutes = other.anim_frameOffsetMinutes;
+        }
 
         public void init(Context context) {
             colors = new WorldMapColorValues(context, true);
@@ -205,6 +301,8 @@ public class WorldMapTask extends AsyncTask<Object, Bitmap, Bitmap>
 
         public boolean translateToLocation = false;
 
+        public boolean terminatorMode = false;    // true: shade by filling along the terminator edge (per column), false: shade each matrix cell
+
         public double[] center = null;
         public double[][] locations = null;  // a list of locations {{lat, lon}, {lat, lon}, ...} or null
         public double locationScale = 1 / 192d;
@@ -227,9 +325,32 @@ public class WorldMapTask extends AsyncTask<Object, Bitmap, Bitmap>
         public abstract Bitmap makeBitmap(SuntimesRiseSetDataset data, int w, int h, WorldMapTask.WorldMapOptions options);
         public abstract void initPaint(WorldMapTask.WorldMapOptions options);
         public abstract double[] initMatrix();            // creates flattened multi-dimensional array; [lon][lat][v(3)]
-        public abstract double[] getMatrix();
-        public abstract void resetMatrix();
         public abstract int[] matrixSize();               // [width(lon), height(lat)]
+        public String matrixKey() { return getClass().getSimpleName(); }    // identifies the matrix created by initMatrix
+
+        protected FrameCache.BitmapPool bitmapPool = null;
+        public void setBitmapPool(@Nullable FrameCache.BitmapPool pool) {
+            bitmapPool = pool;
+        }
+        protected Bitmap createFrameBitmap(int w, int h) {
+            return (bitmapPool != null ? bitmapPool.obtain(w, h, Bitmap.Config.ARGB_8888) : Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888));
+        }
+        protected void releaseFrameBitmap(Bitmap b)
+        {
+            if (bitmapPool != null) {
+                bitmapPool.release(b);
+            } else b.recycle();
+        }
+
+        /**
+         * @return a shader for this projection's matrix (shared, and persisted if WorldMapMatrixStore.init was called)
+         */
+        public WorldMapShader getShader() {
+            return WorldMapMatrixStore.getShader(this);
+        }
+        public void resetMatrix() {
+            WorldMapMatrixStore.remove(this);
+        }
         protected abstract int k(int x, int y, int z);    // returns index into flattened array
         public abstract int[] toBitmapCoords(int w, int h, double[] mid, double lat, double lon);
         public double[] getCenter() { return new double[] {0,0}; }
@@ -317,6 +438,21 @@ public class WorldMapTask extends AsyncTask<Object, Bitmap, Bitmap>
             return retValue;
         }
 
+        /**
+         * Terminator latitude (where up.dotProduct(v) == 0) for a given longitude; solved from
+         * cos(lat) * (up[0]cos(lon) + up[1]sin(lon)) + sin(lat) * up[2] = 0.
+         * @param up unit vector toward the sun (or moon)
+         * @param lon longitude (degrees east) [-180, 180]
+         * @return latitude (degrees); the dark side lies south of this latitude when up[2] >= 0, north otherwise
+         */
+        public static double terminatorLatitude(double[] up, double lon)
+        {
+            double radLon = Math.toRadians(lon);
+            double a = (up[0] * Math.cos(radLon)) + (up[1] * Math.sin(radLon));
+            double b = (up[2] != 0 ? up[2] : 1e-9);
+            return Math.toDegrees(Math.atan(-a / b));
+        }
+
         protected void drawMap(Canvas c, int w, int h, @NonNull Paint paintForeground, WorldMapTask.WorldMapOptions options)
         {
             if (options.map != null)
@@ -43,6 +43,7 @@ import android.view.View;
 import android.view.WindowManager;
 
 import com.forrestguice.suntimeswidget.map.colors.WorldMapColorValues;
+import com.forrestguice.suntimeswidget.views.FrameCache;
 import com.forrestguice.suntimeswidget.views.ShareUtils;
 import com.forrestguice.suntimeswidget.views.Toast;
 
@@ -63,6 +64,7 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
     public static final int DEFAULT_MAX_UPDATE_RATE = 1000;  // ms value; once a second
 
     private WorldMapTask drawTask;
+    private final FrameCache frameCache = new FrameCache();    // frames are reused when seeking or replaying an animation
     private WorldMapTask.WorldMapOptions options;
     private WorldMapWidgetSettings.WorldMapWidgetMode mode = WorldMapWidgetSettings.WorldMapWidgetMode.EQUIRECTANGULAR_SIMPLE;
 
@@ -103,6 +105,7 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
     @SuppressLint("ResourceType")
     private void init(Context context)
     {
+        WorldMapMatrixStore.init(context);
         options = new WorldMapTask.WorldMapOptions(context);
         if (isInEditMode())
         {
@@ -392,8 +395,13 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
                 return;
             }
 
+            if (!sameOptions) {
+                frameCache.clear();
+            }
+
             drawTask = new WorldMapTask();
             drawTask.setListener(drawListener);
+            drawTask.setFrameCache(frameCache);
 
             Log.w(LOGTAG, "updateViews: " + w + ", " + h );
             drawTask.execute(data, w, h, options, projection, (animated ? 0 : 1), options.offsetMinutes);
@@ -619,6 +627,7 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
     {
         super.onDetachedFromWindow();
         stopRunningTasks();
+        frameCache.clear();
     }
 
     @Override
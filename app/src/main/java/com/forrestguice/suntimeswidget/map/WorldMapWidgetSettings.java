@@ -27,6 +27,7 @@ import android.util.Log;
 
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.settings.PrefTypeInfo;
+import com.forrestguice.suntimeswidget.settings.WidgetPrefs;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 
 import java.util.Map;
@@ -43,6 +44,7 @@ public class WorldMapWidgetSettings
     public static final String PREF_KEY_WORLDMAP_MAJORLATITUDES = "majorlatitudes";
     public static final String PREF_KEY_WORLDMAP_MINORGRID = "minorgrid";
     public static final String PREF_KEY_WORLDMAP_DEBUGLINES = "debuglines";
+    public static final String PREF_KEY_WORLDMAP_TERMINATOR = "terminator";
     public static final String PREF_KEY_WORLDMAP_TINTMAP = "tintmap";
     public static final String PREF_KEY_WORLDMAP_SUNSHADOW = "sunshadow";
     public static final String PREF_KEY_WORLDMAP_MOONLIGHT = "moonlight";
@@ -53,6 +55,7 @@ public class WorldMapWidgetSettings
             new String[] {PREF_KEY_WORLDMAP_MAJORLATITUDES, "false"},
             new String[] {PREF_KEY_WORLDMAP_MINORGRID, "false"},
             new String[] {PREF_KEY_WORLDMAP_DEBUGLINES, "false"},
+            new String[] {PREF_KEY_WORLDMAP_TERMINATOR, "false"},
             new String[] {PREF_KEY_WORLDMAP_TINTMAP, "true"},
             new String[] {PREF_KEY_WORLDMAP_SUNSHADOW, "true"},
             new String[] {PREF_KEY_WORLDMAP_MOONLIGHT, "true"},
@@ -241,14 +244,14 @@ public class WorldMapWidgetSettings
 
     public static void saveSunPosMapModePref(Context context, int appWidgetId, WorldMapWidgetMode mode, String mapTag)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_WORLDMAP + mapTag, mode.name());
         prefs.apply();
     }
     public static WorldMapWidgetMode loadSunPosMapModePref(Context context, int appWidgetId, String mapTag)
     {
-        SharedPreferences prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_WORLDMAP + mapTag, defaultSunPosMapMode(mapTag).name());
 
@@ -264,7 +267,7 @@ public class WorldMapWidgetSettings
     }
     public static void deleteSunPosMapModePref(Context context, int appWidgetId, String mapTag)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_WORLDMAP + mapTag);
         prefs.apply();
@@ -278,7 +281,7 @@ public class WorldMapWidgetSettings
 
     public static void saveWorldMapPref(Context context, int appWidgetId, String key, String mapTag, boolean value)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_WORLDMAP;
         prefs.putBoolean(prefs_prefix + key + mapTag, value);
         prefs.apply();
@@ -288,13 +291,13 @@ public class WorldMapWidgetSettings
     }
     public static boolean loadWorldMapPref(Context context, int appWidgetId, String key, String mapTag, Boolean defaultValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_WORLDMAP;
         return prefs.getBoolean(prefs_prefix + key + mapTag, (defaultValue != null ? defaultValue : defaultWorldMapFlag(key)));
     }
     public static void deleteWorldMapPref(Context context, int appWidgetId, String key, String mapTag)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_WORLDMAP;
         prefs.remove(prefs_prefix + key + mapTag);
         prefs.apply();
@@ -302,7 +305,7 @@ public class WorldMapWidgetSettings
 
     public static void saveWorldMapString(Context context, int appWidgetId, String key, String mapTag, String value)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_WORLDMAP;
         prefs.putString(prefs_prefix + key + mapTag, value);
         prefs.apply();
@@ -312,7 +315,7 @@ public class WorldMapWidgetSettings
     }
     public static String loadWorldMapString(Context context, int appWidgetId, String key, String mapTag, String defValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_WORLDMAP;
         return prefs.getString(prefs_prefix + key + mapTag, defValue);
     }
@@ -54,13 +54,13 @@ import com.forrestguice.suntimeswidget.moon.colors.MoonPhasesColorValues;
 import com.forrestguice.suntimeswidget.settings.AppSettings;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
+import com.forrestguice.suntimeswidget.views.DataWindow;
 import com.forrestguice.suntimeswidget.views.TooltipCompat;
 import com.forrestguice.suntimeswidget.views.ViewUtils;
 import com.github.rubensousa.gravitysnaphelper.GravitySnapHelper;
 
 import java.lang.ref.WeakReference;
 import java.util.Calendar;
-import java.util.HashMap;
 
 @SuppressWarnings("Convert2Diamond")
 public class MoonPhasesView1 extends LinearLayout
@@ -335,10 +335,19 @@ public class MoonPhasesView1 extends LinearLayout
     {
         public static final int MAX_POSITIONS = 200;
         public static final int CENTER_POSITION = 100;
+        public static final int WINDOW_CAPACITY = 8;    // lunar months (of 4 phases) kept around the visible position
+        public static final int WINDOW_PREFETCH = 2;    // lunar months calculated ahead on either side
 
         private WeakReference<Context> contextRef;
-        @SuppressLint("UseSparseArrays")
-        private HashMap<Integer, SuntimesMoonData1> data = new HashMap<>();
+        private final DataWindow<SuntimesMoonData1> data = new DataWindow<>(CENTER_POSITION, 4, WINDOW_CAPACITY, WINDOW_PREFETCH, new DataWindow.DataFactory<SuntimesMoonData1>()
+        {
+            @Override
+            public SuntimesMoonData1 createData(int position)
+            {
+                Context context = contextRef.get();
+                return (context != null ? PhaseAdapter.this.createData(context, position) : null);
+            }
+        });
         private SuntimesCalculator.MoonPhase nextPhase = SuntimesCalculator.MoonPhase.FULL;
 
         private MoonPhasesColorValues colors;
@@ -349,6 +358,12 @@ public class MoonPhasesView1 extends LinearLayout
 
         public PhaseAdapter(Context context) {
             contextRef = new WeakReference<>(context);
+            data.setDataListener(new DataWindow.DataListener<SuntimesMoonData1>() {
+                @Override
+                public void onDataReady(int key, int groupSize, @NonNull SuntimesMoonData1 value) {
+                    notifyItemRangeChanged(key, groupSize);
+                }
+            });
             initData(context);
             initTheme(context);
         }
@@ -390,7 +405,15 @@ public class MoonPhasesView1 extends LinearLayout
             }
             holder.phase = SuntimesCalculator.MoonPhase.values()[phaseOrdinal];
 
-            SuntimesMoonData1 moon = initData(context, position);
+            SuntimesMoonData1 moon = data.request(position);    // null until calculated (in the background)
+            if (moon == null)
+            {
+                themeViews(context, holder, false);
+                holder.bindDataToPosition(context, null, holder.phase, position);
+                attachClickListeners(holder, position);
+                return;
+            }
+
             Calendar phaseDate = moon.moonPhaseCalendar(holder.phase);
             boolean isAgo = moon.now().after(phaseDate);
             holder.northward = WidgetSettings.loadLocalizeHemispherePref(context, 0) && (moon.location().getLatitudeAsDouble() < 0);
@@ -404,9 +427,6 @@ public class MoonPhasesView1 extends LinearLayout
         public void onViewRecycled(PhaseField holder)
         {
             detachClickListeners(holder);
-            if (holder.position >= 0 && (holder.position < CENTER_POSITION - 1 || holder.position > CENTER_POSITION + 2)) {
-                data.remove(holder.position);
-            }
             holder.position = RecyclerView.NO_POSITION;
         }
 
@@ -416,29 +436,17 @@ public class MoonPhasesView1 extends LinearLayout
         }
 
         protected void initData( Context context ) {
-            SuntimesMoonData1 moon = initData(context, CENTER_POSITION);
+            SuntimesMoonData1 moon = data.pin(CENTER_POSITION);    // other positions are calculated from the center
             nextPhase = moon.nextPhase(moon.calendar());
         }
 
+        /**
+         * @return data for position (each lunar month is shared by 4 positions); calculated on the calling thread if it isn't ready
+         */
         public SuntimesMoonData1 initData( Context context, int position )
         {
-            int offset = (position - CENTER_POSITION) % 4;
-            int firstPosition = position;
-            if (offset > 0) {
-                firstPosition = position - (offset);
-            } else if (offset < 0) {
-                firstPosition = position - (4 + (offset));
-            }
-
-            SuntimesMoonData1 moon = data.get(firstPosition);
-            if (moon == null)
-            {
-                moon = createData(context, firstPosition);
-                for (int i=0; i<4; i++) {
-                    data.put(firstPosition + i, moon);
-                }
-            }
-            return moon;
+            SuntimesMoonData1 moon = data.get(position);
+            return (moon != null ? moon : createData(context, data.keyFor(position)));
         }
 
         protected SuntimesMoonData1 createData(Context context, int position )
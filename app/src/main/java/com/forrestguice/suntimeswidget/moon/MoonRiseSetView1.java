@@ -58,13 +58,13 @@ import com.forrestguice.suntimeswidget.moon.colors.MoonRiseSetColorValues;
 import com.forrestguice.suntimeswidget.settings.AppSettings;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
+import com.forrestguice.suntimeswidget.views.DataWindow;
 import com.forrestguice.suntimeswidget.views.TooltipCompat;
 import com.forrestguice.suntimeswidget.views.ViewUtils;
 import com.github.rubensousa.gravitysnaphelper.GravitySnapHelper;
 
 import java.lang.ref.WeakReference;
 import java.util.Calendar;
-import java.util.HashMap;
 
 @SuppressWarnings("Convert2Diamond")
 public class MoonRiseSetView1 extends LinearLayout
@@ -396,10 +396,11 @@ public class MoonRiseSetView1 extends LinearLayout
     {
         public static final int CENTER_POSITION = 1000;
         public static final int MAX_POSITIONS = CENTER_POSITION * 2;
+        public static final int WINDOW_CAPACITY = 16;    // days kept around the visible position
+        public static final int WINDOW_PREFETCH = 3;     // days calculated ahead on either side
 
         private final WeakReference<Context> contextRef;
-        @SuppressLint("UseSparseArrays")
-        private final HashMap<Integer, SuntimesMoonData> data = new HashMap<>();
+        private final DataWindow<SuntimesMoonData> data;
 
         public MoonRiseSetAdapter(Context context, boolean showLunarNoon)
         {
@@ -407,6 +408,22 @@ public class MoonRiseSetView1 extends LinearLayout
             allEvents = (showLunarNoon
                     ? new MoonRiseSetEvent[] { MoonRiseSetEvent.MOONRISE, MoonRiseSetEvent.MOONNOON, MoonRiseSetEvent.MOONSET, MoonRiseSetEvent.MOONNIGHT }
                     : new MoonRiseSetEvent[] { MoonRiseSetEvent.MOONRISE, MoonRiseSetEvent.MOONSET });
+
+            data = new DataWindow<>(CENTER_POSITION, getItemsPerDay(), WINDOW_CAPACITY, WINDOW_PREFETCH, new DataWindow.DataFactory<SuntimesMoonData>()
+            {
+                @Override
+                public SuntimesMoonData createData(int position)
+                {
+                    Context context = contextRef.get();
+                    return (context != null ? MoonRiseSetAdapter.this.createData(context, position) : null);
+                }
+            });
+            data.setDataListener(new DataWindow.DataListener<SuntimesMoonData>() {
+                @Override
+                public void onDataReady(int key, int groupSize, @NonNull SuntimesMoonData value) {
+                    notifyItemRangeChanged(key, groupSize);
+                }
+            });
             initData(context);
             initTheme(context);
         }
@@ -434,7 +451,17 @@ public class MoonRiseSetView1 extends LinearLayout
                 return;
             }
 
-            SuntimesMoonData d = initData(context, position);
+            SuntimesMoonData d = data.request(position);    // null until calculated (in the background)
+            if (d == null)
+            {
+                holder.setShowPosition(showPosition);
+                holder.onBindDataToPosition(context, null, position, null);
+                themeViews(context, holder, false);
+                holder.resizeField(itemWidth);
+                attachClickListeners(holder, position);
+                return;
+            }
+
             holder.setShowPosition(showPosition);   // option must be set before binding data
             holder.onBindDataToPosition(context, d, position, getEventAt(d, position));
 
@@ -489,9 +516,6 @@ public class MoonRiseSetView1 extends LinearLayout
         public void onViewRecycled(MoonRiseSetField holder)
         {
             detachClickListeners(holder);
-            if (holder.position >= 0 && (holder.position < CENTER_POSITION - 1 || holder.position > CENTER_POSITION + 2)) {
-                data.remove(holder.position);
-            }
             holder.resizeField(itemWidth);
             holder.onRecycled();
         }
@@ -502,30 +526,25 @@ public class MoonRiseSetView1 extends LinearLayout
         }
 
         protected void initData( Context context ) {
-            SuntimesMoonData d = initData(context, CENTER_POSITION);
+            data.pin(CENTER_POSITION);    // other positions are calculated from the center
         }
 
+        /**
+         * @return data for position (each day is shared by getItemsPerDay positions); calculated on the calling thread if it isn't ready
+         */
         @NonNull
         public SuntimesMoonData initData( Context context, int position )
         {
-            int itemsPerDay = getItemsPerDay();
-            int offset = (position - CENTER_POSITION) % itemsPerDay;
-
-            int position0 = position;
-            if (offset > 0) {
-                position0 = position - offset;
-            } else if (offset < 0) {
-                position0 = position - (itemsPerDay + offset);
-            }
+            SuntimesMoonData d = data.get(position);
+            return (d != null ? d : createData(context, data.keyFor(position)));
+        }
 
-            SuntimesMoonData d = data.get(position0);
-            if (d == null) {
-                d = createData(context, position0);
-                for (int i=0; i<itemsPerDay; i++) {
-                    data.put(position0 + i, d);
-                }
-            }
-            return d;
+        /**
+         * @return data for position, or null if it isn't ready
+         */
+        @Nullable
+        public SuntimesMoonData peekData( int position ) {
+            return data.peek(position);
         }
 
         @NonNull
@@ -895,7 +914,7 @@ public class MoonRiseSetView1 extends LinearLayout
         @Override
         protected void drawFooter(Canvas c, int position, float x, float y)
         {
-            SuntimesMoonData d = card_adapter.initData(getContext(), position);
+            SuntimesMoonData d = card_adapter.peekData(position);    // skipped until calculated
             if (d != null)
             {
                 Calendar date = d.calendar();
@@ -24,13 +24,14 @@ import java.util.Date;
 
 public class NoteData
 {
-    public String noteMode;
-    public SuntimesUtils.TimeDisplayText timeText;
+    public final String noteMode;                  // note metadata (created once per init)
+    public final String noteText;
+    public final int noteIconResource;
+    public final int noteIconStroke;
+    public final int textColor, iconColor, iconColor2;
+
+    public SuntimesUtils.TimeDisplayText timeText;    // updated relative to now
     public String prefixText;
-    public String noteText;
-    public int noteIconResource;
-    public int noteIconStroke;
-    public int textColor, iconColor, iconColor2;
     public Date time;
     public boolean tomorrow = false;
 
@@ -28,6 +28,7 @@ import android.util.Log;
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmEventProvider;
+import com.forrestguice.suntimeswidget.calculator.EventTimeline;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData;
@@ -46,6 +47,7 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 
 @SuppressWarnings("Convert2Diamond")
 public class SuntimesNotes
@@ -68,6 +70,13 @@ public class SuntimesNotes
     //private int colorMoonrise, colorMoonset;
     //private int colorNoon, colorNoonStroke;
     private int strokeWidthRising, strokeWidthSetting, strokeWidthNoon;
+    private String strSince, strUntil, strUntilEnd;
+
+    private final HashMap<String, Calendar[]> noteEvents = new HashMap<String, Calendar[]>();    // noteMode -> [today, other]
+    private final HashMap<String, Integer> noteIndexes = new HashMap<String, Integer>();      // noteMode -> index in notesList
+    private EventTimeline timeline = null;     // (time, index in notesList)
+    private EventTimeline.Cursor cursor = null;
+    private long noteValidUntil = 0;           // the current note (and its time text) doesn't change before this time
 
     public SuntimesNotes(Context context)
     {
@@ -140,6 +149,10 @@ public class SuntimesNotes
         SuntimesUtils.initDisplayStrings(context);
 
         themeViews(context);
+        strSince = context.getString(R.string.since);
+        strUntil = context.getString(R.string.until);
+        strUntilEnd = context.getString(R.string.until_end);
+        noteEvents.clear();
 
         boolean[] showFields = AppSettings.loadShowFieldsPref(context);
         boolean enabledActual = showFields[AppSettings.FIELD_ACTUAL];
@@ -343,27 +356,53 @@ public class SuntimesNotes
         {
             updateNote(note, now);
         }
+        Collections.sort(notesList, noteTimeComparator);
+        initTimeline(now);
+    }
 
-        Collections.sort(notesList, new Comparator<NoteData>()
+    private static final Comparator<NoteData> noteTimeComparator = new Comparator<NoteData>()
+    {
+        @Override
+        public int compare(NoteData o1, NoteData o2)
         {
-            @Override
-            public int compare(NoteData o1, NoteData o2)
-            {
-                boolean o1Null = (o1 == null || o1.time == null);
-                boolean o2Null = (o2 == null || o2.time == null);
+            boolean o1Null = (o1 == null || o1.time == null);
+            boolean o2Null = (o2 == null || o2.time == null);
 
-                if (o1Null && o2Null)
-                    return 0;
+            if (o1Null && o2Null)
+                return 0;
 
-                else if (o1Null)
-                    return -1;
+            else if (o1Null)
+                return -1;
 
-                else if (o2Null)
-                    return 1;
+            else if (o2Null)
+                return 1;
 
-                else return o1.time.compareTo(o2.time);
+            else return o1.time.compareTo(o2.time);
+        }
+    };
+
+    /**
+     * Indexes the (sorted) notes; the timeline holds the event times of every note (today and other), so the next note
+     * is found by advancing a cursor rather than by checking every note.
+     */
+    private void initTimeline(Calendar now)
+    {
+        noteIndexes.clear();
+        EventTimeline.Builder builder = new EventTimeline.Builder(2 * notesList.size());
+        for (int i=0; i<notesList.size(); i++)
+        {
+            String noteMode = notesList.get(i).noteMode;
+            noteIndexes.put(noteMode, i);
+
+            Calendar[] events = getNoteEvents(noteMode);
+            if (events != null) {
+                builder.add(events[0], i);
+                builder.add(events[1], i);
             }
-        });
+        }
+        timeline = builder.build();
+        cursor = timeline.cursor(now.getTimeInMillis());
+        noteValidUntil = 0;
     }
 
     /**
@@ -566,7 +605,7 @@ public class SuntimesNotes
         String prefix;
         if (useSince)
         {
-            prefix = context.getString(R.string.since);
+            prefix = strSince;
 
         } else if (SolarEvents.hasValue(eventID)) {
             SolarEvents event = SolarEvents.valueOf(eventID);
@@ -576,18 +615,18 @@ public class SuntimesNotes
                 case MOONRISE: case MOONSET: case MOONNOON: case MOONNIGHT:
                 case MORNING_ASTRONOMICAL: case MORNING_NAUTICAL: case MORNING_BLUE8: case EVENING_BLUE4: case MORNING_CIVIL:
                 case SUNRISE: case NOON: case EVENING_GOLDEN: case SUNSET:
-                    prefix = context.getString(R.string.until);
+                    prefix = strUntil;
                     break;
 
                 // until_end
                 case MORNING_GOLDEN: case EVENING_CIVIL: case EVENING_BLUE8: case MORNING_BLUE4: case EVENING_NAUTICAL: case EVENING_ASTRONOMICAL:
                 default:
-                    prefix = context.getString(R.string.until_end);
+                    prefix = strUntilEnd;
                     break;
             }
 
         } else {
-            prefix = context.getString(R.string.until);  // TODO
+            prefix = strUntil;  // TODO
         }
         return prefix;
     }
@@ -598,24 +637,67 @@ public class SuntimesNotes
      * @param now the time to update the note against
      */
     private void updateNote(NoteData note, Calendar now)
+    {
+        Calendar[] events = getNoteEvents(note.noteMode);
+        if (events == null) {
+            return;
+        }
+        Calendar date = events[0], dateOther = events[1];
+
+        Date eventTime = null;
+        Date time = now.getTime();
+
+        boolean afterToday = (date == null || time.after(date.getTime()));
+        if (afterToday)
+        {
+            if (dateOther != null)
+            {
+                eventTime = dateOther.getTime();
+            }
+        } else {
+            eventTime = date.getTime();
+        }
+
+        note.tomorrow = afterToday;
+        note.timeText = utils.timeDeltaDisplayString(time, eventTime);
+        note.prefixText = prefixString(note.noteMode, (note.timeText.getRawValue() < 0));
+        note.time = eventTime;
+    }
+
+    /**
+     * @return the event times of a note [today, other] (found once per init), or null if the note has no data
+     */
+    @Nullable
+    private Calendar[] getNoteEvents(String noteMode)
+    {
+        if (noteEvents.containsKey(noteMode)) {
+            return noteEvents.get(noteMode);
+        }
+        Calendar[] events = findNoteEvents(noteMode);
+        noteEvents.put(noteMode, events);
+        return events;
+    }
+
+    @Nullable
+    private Calendar[] findNoteEvents(String noteMode)
     {
         Calendar date = null, dateOther = null;
 
-        if (SolarEvents.hasValue(note.noteMode))
+        if (SolarEvents.hasValue(noteMode))
         {
-            SolarEvents event = SolarEvents.valueOf(note.noteMode);
+            SolarEvents event = SolarEvents.valueOf(noteMode);
             switch (event)
             {
                 case MOONRISE:
                     if (moondata == null) {
-                        return;
+                        return null;
                     }
                     date = moondata.moonriseCalendarToday();
                     dateOther = moondata.moonriseCalendarTomorrow();
                     break;
                 case MOONSET:
                     if (moondata == null) {
-                        return;
+                        return null;
                     }
                     date = moondata.moonsetCalendarToday();
                     dateOther = moondata.moonsetCalendarTomorrow();
@@ -623,14 +705,14 @@ public class SuntimesNotes
 
                 case MOONNOON:
                     if (moondata == null) {
-                        return;
+                        return null;
                     }
                     date = moondata.getLunarNoonToday();
                     dateOther = moondata.getLunarNoonTomorrow();
                     break;
                 case MOONNIGHT:
                     if (moondata == null) {
-                        return;
+                        return null;
                     }
                     date = moondata.getLunarMidnightToday();
                     dateOther = moondata.getLunarMidnightTomorrow();
@@ -653,7 +735,7 @@ public class SuntimesNotes
             }
 
         } else {
-            String eventID = note.noteMode;
+            String eventID = noteMode;
             boolean isRising = eventID.endsWith(AlarmEventProvider.ElevationEvent.SUFFIX_RISING);
             if (eventID.endsWith("_" + AlarmEventProvider.ElevationEvent.SUFFIX_RISING) ||
                     eventID.endsWith("_" + AlarmEventProvider.ElevationEvent.SUFFIX_SETTING)) {
@@ -666,25 +748,7 @@ public class SuntimesNotes
                 dateOther = (isRising ? d.sunriseCalendarOther() : d.sunsetCalendarOther());
             }
         }
-
-        Date eventTime = null;
-        Date time = now.getTime();
-
-        boolean afterToday = (date == null || time.after(date.getTime()));
-        if (afterToday)
-        {
-            if (dateOther != null)
-            {
-                eventTime = dateOther.getTime();
-            }
-        } else {
-            eventTime = date.getTime();
-        }
-
-        note.tomorrow = afterToday;
-        note.timeText = utils.timeDeltaDisplayString(time, eventTime);
-        note.prefixText = prefixString(note.noteMode, (note.timeText.getRawValue() < 0));
-        note.time = eventTime;
+        return new Calendar[] { date, dateOther };
     }
 
     public void resetNoteIndex()
@@ -692,21 +756,14 @@ public class SuntimesNotes
         if (notesList.size() <= 0)
             return;
 
-        Calendar now = dataset.now();
-        Date time = now.getTime();
-        long nearestTime = -1;
-
         NoteData nearestNote = notesList.get(0);
-        for (NoteData note : notesList)
+        if (cursor != null)
         {
-            if (note.time != null)
-            {
-                long timeUntil = note.time.getTime() - time.getTime();
-                if ((timeUntil > 0 && timeUntil < nearestTime) || nearestTime < 0)
-                {
-                    nearestTime = timeUntil;
-                    nearestNote = note;
-                }
+            int i = cursor.advance(dataset.now().getTimeInMillis());
+            if (i < timeline.size()) {
+                nearestNote = notesList.get(timeline.getID(i));
+            } else if (timeline.size() > 0) {
+                nearestNote = notesList.get(timeline.getID(timeline.size() - 1));
             }
         }
 
@@ -714,7 +771,6 @@ public class SuntimesNotes
         WidgetSettings.saveTimeNoteRisePref(context, 0, nearestNote.noteMode);
     }
 
-
     public void updateNote(Context context)
     {
         updateNote(context, dataset.now(), NoteChangedListener.TRANSITION_NONE);
@@ -727,6 +783,16 @@ public class SuntimesNotes
 
     public void updateNote(Context context, Calendar now, int transition)
     {
+        long millis = now.getTimeInMillis();
+        if (cursor != null)
+        {
+            int index = cursor.getIndex();
+            boolean advanced = (cursor.advance(millis) != index);
+            if (!advanced && transition == NoteChangedListener.TRANSITION_NONE && currentNote != null && millis < noteValidUntil) {
+                return;    // no event has passed, and the time text is unchanged
+            }
+        }
+
         String choice = WidgetSettings.loadTimeNoteRisePref(context, AppWidgetManager.INVALID_APPWIDGET_ID);
         NoteData chosenNote = getNote(choice);
 
@@ -739,7 +805,20 @@ public class SuntimesNotes
                 //Log.d("updateNote", "changing the note to " + updatedNote.toString() + "[" + choice + "]");
                 setNote(updatedNote, NoteChangedListener.TRANSITION_NEXT);
             }
+            noteValidUntil = nextTextChange(updatedNote, millis);
+        }
+    }
+
+    /**
+     * @return the time the note's time text next changes (its delta crosses a whole minute), or Long.MAX_VALUE if it has no time
+     */
+    protected static long nextTextChange(NoteData note, long now)
+    {
+        if (note.time == null) {
+            return Long.MAX_VALUE;
         }
+        long delta = note.time.getTime() - now;
+        return (delta >= 0 ? now + (delta % 60000) : now + 60000 - ((-delta) % 60000));
     }
 
     public NoteData getNote(String eventID)
@@ -754,6 +833,10 @@ public class SuntimesNotes
     public int getNoteIndex(String eventID)
     {
         //Log.d("DEBUG", "getNoteIndex: " + eventID);
+        Integer index = noteIndexes.get(eventID);
+        if (index != null && index < notesList.size() && notesList.get(index).noteMode.equals(eventID)) {
+            return index;
+        }
         for (int i=0; i< notesList.size(); i++)
         {
             NoteData note = notesList.get(i);
@@ -766,6 +849,7 @@ public class SuntimesNotes
     public void setNote(NoteData note, int transition)
     {
         currentNote = note;
+        noteValidUntil = 0;
         changedListener.onNoteChanged(currentNote, transition);
     }
 }
@@ -487,17 +487,24 @@ public class SuntimesBackupRestoreTask extends AsyncTask<Void, Void, SuntimesBac
         }
         if (contentValues != null)
         {
-            for (ContentValues values : contentValues)
-            {
-                if (values != null)
+            db.beginTransaction();
+            try {
+                for (ContentValues values : contentValues)
                 {
-                    if (values.containsKey(GetFixDatabaseAdapter.KEY_ROWID)) {
-                        values.remove(GetFixDatabaseAdapter.KEY_ROWID);    // clear rowID (insert as new items)
-                    }
-                    if (db.addPlace(values) >= 0) {
-                        c++;
+                    if (values != null)
+                    {
+                        if (values.containsKey(GetFixDatabaseAdapter.KEY_ROWID)) {
+                            values.remove(GetFixDatabaseAdapter.KEY_ROWID);    // clear rowID (insert as new items)
+                        }
+                        if (db.addPlace(values) >= 0) {
+                            c++;
+                        }
                     }
                 }
+                db.setTransactionSuccessful();
+
+            } finally {
+                db.endTransaction();
             }
         }
 
@@ -534,7 +541,7 @@ public class SuntimesBackupRestoreTask extends AsyncTask<Void, Void, SuntimesBac
     {
         if (contentValues != null)
         {
-            SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+            SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
             int c = 0;
             for (ContentValues values : contentValues)
             {
@@ -597,7 +604,7 @@ public class SuntimesBackupRestoreTask extends AsyncTask<Void, Void, SuntimesBac
         int numMatches = suggested.size();
         if (numMatches > 0)     // matched some
         {
-            SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+            SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
             for (Integer appWidgetId : suggested.keySet())
             {
                 ContentValues values = suggested.get(appWidgetId);
@@ -186,7 +186,7 @@ public class SuntimesBackupTask extends WidgetSettingsExportTask
                 out.write(",\n".getBytes());
             }
             out.write(("\"" + KEY_WIDGETSETTINGS + "\": ").getBytes());    // include WidgetSettings
-            SharedPreferences widgetPrefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0);
+            SharedPreferences widgetPrefs = WidgetPrefs.get(context);
             writeWidgetSettingsJSONArray(context, widgetPrefs, getAllWidgetIds(context), out);
             c++;
         }
@@ -247,7 +247,7 @@ public class WidgetActions
             extrasString = null;
         }
 
-        SharedPreferences.Editor prefs = context.getSharedPreferences(getPrefsId(appWidgetId, id), 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId, id).edit();
         String prefs_prefix0 = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_ACTION + PREF_KEY_ACTION_LAUNCH + "_" + id + "_";
 
         prefs.putString(prefs_prefix0 + PREF_KEY_ACTION_LAUNCH, (launchString != null ? launchString : ""));
@@ -351,7 +351,7 @@ public class WidgetActions
             id = "0";
         }
 
-        SharedPreferences prefs = context.getSharedPreferences(getPrefsId(appWidgetId, id), 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId, id);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_ACTION + PREF_KEY_ACTION_LAUNCH + "_" + id + "_";
 
         if (key == null || key.isEmpty())
@@ -428,7 +428,7 @@ public class WidgetActions
             id = "0";
         }
 
-        SharedPreferences.Editor prefs = context.getSharedPreferences(getPrefsId(appWidgetId, id), 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId, id).edit();
         String prefs_prefix0 = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_ACTION + PREF_KEY_ACTION_LAUNCH + "_" + id + "_";
         prefs.remove(prefs_prefix0 + PREF_KEY_ACTION_LAUNCH );
         prefs.remove(prefs_prefix0 + PREF_KEY_ACTION_LAUNCH_PACKAGE );
@@ -450,7 +450,7 @@ public class WidgetActions
     }
     public static boolean hasActionLaunchPref(Context context, int appWidgetId, @NonNull String id)
     {
-        SharedPreferences prefs = context.getSharedPreferences(getPrefsId(appWidgetId, id), 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId, id);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_ACTION + PREF_KEY_ACTION_LAUNCH + "_" + id + "_";
         return prefs.contains(prefs_prefix + PREF_KEY_ACTION_LAUNCH_TYPE);
     }
@@ -459,6 +459,11 @@ public class WidgetActions
     {
         return (((actionId == null) || actionId.equals("0")) ? PREFS_WIDGETS : PREFS_ACTIONS);
     }
+    public static SharedPreferences getPrefs(Context context, int appWidgetId, String actionId)
+    {
+        String prefsId = getPrefsId(appWidgetId, actionId);
+        return (PREFS_WIDGETS.equals(prefsId) ? WidgetPrefs.get(context) : context.getSharedPreferences(prefsId, 0));
+    }
 
     public static Set<String> getStringSet(SharedPreferences prefs, String key, @Nullable Set<String> defValues)    // TODO: needs test
     {
@@ -0,0 +1,326 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.settings;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WidgetConfig
+ * An immutable snapshot of the prefs belonging to a single appWidgetId. Values are keyed by the remainder of the pref key
+ * (the part following PREF_PREFIX_KEY + appWidgetId), e.g. PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_APPEARANCE_SHOWTITLE; these
+ * keys are compile-time constants, so a lookup doesn't build any strings.
+ *
+ * Snapshots for every widget are loaded together (a single scan of PREFS_WIDGET), and cached until the widget's prefs are
+ * changed (@see init); changes to appWidgetId 0 invalidate every widget (widgets may fall back to the app configuration).
+ * WidgetSettings consults the cache (@see peek) before reading the prefs, so existing load methods share the snapshot.
+ */
+public final class WidgetConfig
+{
+    private static final ConcurrentHashMap<Integer, WidgetConfig> configs = new ConcurrentHashMap<>();
+    private static final AtomicLong generation = new AtomicLong(0);
+
+    protected final int appWidgetId;
+    protected final Map<String, ?> values;
+    private volatile Location location = null;    // parsed on first use (@see WidgetSettings.loadLocationPref)
+
+    public WidgetConfig(int appWidgetId, @NonNull Map<String, ?> values)
+    {
+        this.appWidgetId = appWidgetId;
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    public int getAppWidgetId() {
+        return appWidgetId;
+    }
+
+    public boolean contains(@NonNull String key) {
+        return values.containsKey(key);
+    }
+
+    public boolean getBoolean(@NonNull String key, boolean defValue)
+    {
+        Object value = values.get(key);
+        return (value != null ? (Boolean) value : defValue);
+    }
+
+    public int getInt(@NonNull String key, int defValue)
+    {
+        Object value = values.get(key);
+        return (value != null ? (Integer) value : defValue);
+    }
+
+    public long getLong(@NonNull String key, long defValue)
+    {
+        Object value = values.get(key);
+        return (value != null ? (Long) value : defValue);
+    }
+
+    public float getFloat(@NonNull String key, float defValue)
+    {
+        Object value = values.get(key);
+        return (value != null ? (Float) value : defValue);
+    }
+
+    @Nullable
+    public String getString(@NonNull String key, @Nullable String defValue)
+    {
+        Object value = values.get(key);
+        return (value != null ? (String) value : defValue);
+    }
+
+    /**
+     * @return the enum value named by the pref, or defValue if missing (or no longer a valid name)
+     */
+    public <E extends Enum<E>> E getEnum(@NonNull String key, @NonNull E defValue)
+    {
+        String name = getString(key, null);
+        if (name != null)
+        {
+            try {
+                return Enum.valueOf(defValue.getDeclaringClass(), name);
+            } catch (IllegalArgumentException e) {
+                return defValue;
+            }
+        }
+        return defValue;
+    }
+
+    /**
+     * @return the parsed location (a copy), or null if not parsed yet
+     */
+    @Nullable
+    public Location getLocation() {
+        Location value = location;
+        return (value != null ? new Location(value) : null);
+    }
+    protected void setLocation(@NonNull Location value) {
+        location = new Location(value);
+    }
+
+    @Override
+    public String toString() {
+        return "WidgetConfig " + appWidgetId + ": " + values.size() + " values";
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Listens for changes to the widget prefs (must be held by a strong reference; SharedPreferences keeps listeners weakly).
+     */
+    private static SharedPreferences.OnSharedPreferenceChangeListener prefsListener = null;
+
+    /**
+     * Registers the invalidation hook; snapshots are only cached after this has been called.
+     */
+    public static synchronized void init(@NonNull Context context)
+    {
+        if (prefsListener == null)
+        {
+            prefsListener = new SharedPreferences.OnSharedPreferenceChangeListener()
+            {
+                @Override
+                public void onSharedPreferenceChanged(SharedPreferences prefs, String key) {
+                    onPrefChanged(key);
+                }
+            };
+            SharedPreferences prefs = WidgetPrefs.get(context);
+            prefs.registerOnSharedPreferenceChangeListener(prefsListener);
+        }
+    }
+
+    protected static void onPrefChanged(@Nullable String key)
+    {
+        if (key == null) {
+            invalidateAll();    // prefs cleared
+            return;
+        }
+
+        int appWidgetId = parseAppWidgetId(key);
+        if (appWidgetId < 0) {
+            if (key.startsWith(WidgetSettings.PREF_PREFIX_KEY)) {
+                invalidateAll();
+            }
+            return;
+        }
+
+        String suffix = key.substring(WidgetSettings.PREF_PREFIX_KEY.length() + Integer.toString(appWidgetId).length());
+        if (!isVolatile(suffix)) {
+            invalidate(appWidgetId);
+        }
+    }
+
+    /**
+     * Prefs that change with every update (and aren't part of the snapshot).
+     */
+    protected static boolean isVolatile(@NonNull String key) {
+        return WidgetSettings.PREF_KEY_NEXTUPDATE.equals(key);
+    }
+
+    /**
+     * @return the cached snapshot, or null if not loaded (or not initialized)
+     */
+    @Nullable
+    public static WidgetConfig peek(int appWidgetId) {
+        return configs.get(appWidgetId);
+    }
+
+    /**
+     * @return the cached snapshot; if missing, the snapshots of every widget are (re)loaded in a single pass
+     */
+    @NonNull
+    public static WidgetConfig get(@NonNull Context context, int appWidgetId)
+    {
+        WidgetConfig config = configs.get(appWidgetId);
+        if (config == null)
+        {
+            long loadedAtGeneration = generation.get();
+            Map<Integer, WidgetConfig> loaded = loadAll(context);
+            config = loaded.get(appWidgetId);
+            if (config == null)
+            {
+                config = new WidgetConfig(appWidgetId, new HashMap<String, Object>());    // no prefs (all defaults)
+                if (generation.get() == loadedAtGeneration) {
+                    config = cache(config);
+                }
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Loads snapshots for every widget (a single scan of the prefs); snapshots that are already cached are kept.
+     * @return the snapshots (by appWidgetId)
+     */
+    public static Map<Integer, WidgetConfig> loadAll(@NonNull Context context)
+    {
+        init(context);
+        long loadedAtGeneration = generation.get();
+        SharedPreferences prefs = WidgetPrefs.get(context);
+        Map<Integer, WidgetConfig> loaded = createAll(prefs.getAll());
+
+        if (generation.get() == loadedAtGeneration)    // discarded if invalidated in the meantime
+        {
+            for (Map.Entry<Integer, WidgetConfig> entry : loaded.entrySet()) {
+                entry.setValue(cache(entry.getValue()));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * @return the cached snapshot (an existing snapshot is kept)
+     */
+    protected static WidgetConfig cache(@NonNull WidgetConfig config)
+    {
+        WidgetConfig existing = configs.putIfAbsent(config.appWidgetId, config);
+        return (existing != null ? existing : config);
+    }
+
+    /**
+     * Groups prefs by appWidgetId.
+     * @param all all prefs (i.e. SharedPreferences.getAll)
+     * @return snapshots (by appWidgetId)
+     */
+    protected static Map<Integer, WidgetConfig> createAll(@NonNull Map<String, ?> all)
+    {
+        int prefixLength = WidgetSettings.PREF_PREFIX_KEY.length();
+        HashMap<Integer, HashMap<String, Object>> grouped = new HashMap<>();
+        for (Map.Entry<String, ?> entry : all.entrySet())
+        {
+            String key = entry.getKey();
+            int appWidgetId = parseAppWidgetId(key);
+            if (appWidgetId < 0) {
+                continue;
+            }
+
+            String suffix = key.substring(prefixLength + Integer.toString(appWidgetId).length());
+            if (isVolatile(suffix)) {
+                continue;
+            }
+
+            HashMap<String, Object> values = grouped.get(appWidgetId);
+            if (values == null) {
+                grouped.put(appWidgetId, values = new HashMap<>());
+            }
+            values.put(suffix, entry.getValue());
+        }
+
+        HashMap<Integer, WidgetConfig> result = new HashMap<>();
+        for (Map.Entry<Integer, HashMap<String, Object>> entry : grouped.entrySet()) {
+            result.put(entry.getKey(), new WidgetConfig(entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * @param key a pref key, e.g. "appwidget_10_appearance_theme"
+     * @return the appWidgetId (10), or -1 if the key doesn't belong to a widget
+     */
+    protected static int parseAppWidgetId(@NonNull String key)
+    {
+        if (!key.startsWith(WidgetSettings.PREF_PREFIX_KEY)) {
+            return -1;
+        }
+
+        int i = WidgetSettings.PREF_PREFIX_KEY.length();
+        int j = i;
+        while (j < key.length() && Character.isDigit(key.charAt(j))) {
+            j++;
+        }
+        if (j == i || (j - i) > 9 || (j - i > 1 && key.charAt(i) == '0')) {
+            return -1;    // not a (canonical) int
+        }
+        return Integer.parseInt(key.substring(i, j));
+    }
+
+    /**
+     * Forgets the snapshot of a widget; appWidgetId 0 forgets all widgets.
+     */
+    public static void invalidate(int appWidgetId)
+    {
+        generation.incrementAndGet();
+        if (appWidgetId == 0) {
+            configs.clear();
+        } else {
+            configs.remove(appWidgetId);
+        }
+    }
+
+    public static void invalidateAll()
+    {
+        generation.incrementAndGet();
+        configs.clear();
+    }
+
+    public static int size() {
+        return configs.size();
+    }
+}
@@ -0,0 +1,501 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.settings;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WidgetPrefs
+ * The widget prefs (PREFS_WIDGET), sharded by appWidgetId; each widget's prefs (keys starting with PREF_PREFIX_KEY + appWidgetId)
+ * are kept in a file of their own (PREFS_WIDGET_SHARD + appWidgetId), and all other keys remain in PREFS_WIDGET. Saving a pref
+ * only rewrites the file belonging to that widget (rather than a single file containing every widget ever created).
+ *
+ * This class implements SharedPreferences, so existing code (e.g. WidgetSettingsImportTask.copyValues / deleteValues) works
+ * unchanged; getAll returns the prefs of every shard. An Editor may contain changes to several widgets; these are grouped by
+ * shard, and each shard is written once.
+ *
+ * Prefs saved by earlier versions (in PREFS_WIDGET) are moved into shards the first time the prefs are opened (@see migrate).
+ * The shard of a deleted widget should be dropped (@see removeShard) so that it is no longer included by getAll.
+ */
+public class WidgetPrefs implements SharedPreferences
+{
+    public static final String PREFS_WIDGET_SHARD = WidgetSettings.PREFS_WIDGET + ".widget_";    // + appWidgetId
+    public static final String PREFS_WIDGET_INDEX = WidgetSettings.PREFS_WIDGET + ".index";
+
+    public static final String KEY_INDEX_SHARDS = "shards";
+    public static final String KEY_INDEX_VERSION = "version";
+    public static final int INDEX_VERSION = 1;
+
+    private static volatile WidgetPrefs instance = null;
+
+    /**
+     * @return the widget prefs (shared by the application)
+     */
+    public static WidgetPrefs get(@NonNull Context context)
+    {
+        WidgetPrefs prefs = instance;
+        if (prefs == null)
+        {
+            synchronized (WidgetPrefs.class)
+            {
+                if (instance == null)
+                {
+                    final Context appContext = context.getApplicationContext();
+                    instance = new WidgetPrefs(new PrefsProvider()
+                    {
+                        @Override
+                        public SharedPreferences open(@NonNull String name) {
+                            return appContext.getSharedPreferences(name, 0);
+                        }
+
+                        @Override
+                        public void delete(@NonNull final String name)
+                        {
+                            new Thread(new Runnable()
+                            {
+                                @Override
+                                public void run()
+                                {
+                                    appContext.getSharedPreferences(name, 0).edit().clear().commit();    // waits for pending writes to the file
+                                    if (Build.VERSION.SDK_INT >= 24) {
+                                        appContext.deleteSharedPreferences(name);
+                                    } else {
+                                        File file = new File(new File(appContext.getApplicationInfo().dataDir, "shared_prefs"), name + ".xml");
+                                        if (!file.delete()) {
+                                            file.deleteOnExit();
+                                        }
+                                    }
+                                }
+                            }, "WidgetPrefs").start();
+                        }
+                    });
+                }
+                prefs = instance;
+            }
+        }
+        return prefs;
+    }
+
+    /**
+     * PrefsProvider
+     */
+    public interface PrefsProvider
+    {
+        SharedPreferences open(@NonNull String name);
+        void delete(@NonNull String name);
+    }
+
+    protected final PrefsProvider provider;
+    protected final SharedPreferences base, index;
+    protected final ConcurrentHashMap<Integer, SharedPreferences> shards = new ConcurrentHashMap<>();
+    protected final Set<Integer> indexed = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+    protected final WeakHashMap<OnSharedPreferenceChangeListener, Object> listeners = new WeakHashMap<>();    // held weakly (like SharedPreferences)
+
+    private final OnSharedPreferenceChangeListener dispatcher = new OnSharedPreferenceChangeListener()
+    {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences prefs, String key)
+        {
+            ArrayList<OnSharedPreferenceChangeListener> list;
+            synchronized (listeners) {
+                list = new ArrayList<>(listeners.keySet());
+            }
+            for (OnSharedPreferenceChangeListener listener : list) {
+                listener.onSharedPreferenceChanged(WidgetPrefs.this, key);
+            }
+        }
+    };
+
+    public WidgetPrefs(@NonNull PrefsProvider provider)
+    {
+        this.provider = provider;
+        this.base = provider.open(WidgetSettings.PREFS_WIDGET);
+        this.index = provider.open(PREFS_WIDGET_INDEX);
+        base.registerOnSharedPreferenceChangeListener(dispatcher);
+
+        for (String id : index.getStringSet(KEY_INDEX_SHARDS, Collections.<String>emptySet()))
+        {
+            try {
+                indexed.add(Integer.parseInt(id));
+            } catch (NumberFormatException e) {
+                /* EMPTY */
+            }
+        }
+
+        if (index.getInt(KEY_INDEX_VERSION, 0) < INDEX_VERSION) {
+            migrate();
+        }
+    }
+
+    /**
+     * Moves widget prefs saved by earlier versions (in PREFS_WIDGET) into shards. The changes are applied (rather than committed)
+     * so that opening the prefs doesn't block on disk; applied writes reach the disk in the order they were made, so the shards
+     * are written before the index, and the index is written before the prefs are removed from PREFS_WIDGET. If interrupted,
+     * the migration runs again.
+     */
+    protected synchronized void migrate()
+    {
+        HashMap<Integer, SharedPreferences.Editor> editors = new HashMap<>();
+        SharedPreferences.Editor baseEditor = base.edit();
+        for (Map.Entry<String, ?> entry : base.getAll().entrySet())
+        {
+            String key = entry.getKey();
+            int appWidgetId = shardId(key);
+            if (appWidgetId >= 0)
+            {
+                SharedPreferences.Editor editor = editors.get(appWidgetId);
+                if (editor == null) {
+                    editors.put(appWidgetId, editor = shard(appWidgetId).edit());
+                }
+                putValue(editor, key, entry.getValue());
+                baseEditor.remove(key);
+            }
+        }
+
+        for (SharedPreferences.Editor editor : editors.values()) {
+            editor.apply();
+        }
+        indexed.addAll(editors.keySet());
+        index.edit().putStringSet(KEY_INDEX_SHARDS, indexSet()).putInt(KEY_INDEX_VERSION, INDEX_VERSION).apply();
+        baseEditor.apply();
+    }
+
+    /**
+     * @return the appWidgetId the key belongs to, or -1 (keys that don't belong to a widget are kept in PREFS_WIDGET)
+     */
+    protected static int shardId(@NonNull String key) {
+        return WidgetConfig.parseAppWidgetId(key);
+    }
+
+    /**
+     * @return the shard containing the prefs of the given widget
+     */
+    protected SharedPreferences shard(int appWidgetId)
+    {
+        SharedPreferences prefs = shards.get(appWidgetId);
+        if (prefs == null)
+        {
+            prefs = provider.open(PREFS_WIDGET_SHARD + appWidgetId);
+            SharedPreferences existing = shards.putIfAbsent(appWidgetId, prefs);
+            if (existing != null) {
+                prefs = existing;
+            } else {
+                prefs.registerOnSharedPreferenceChangeListener(dispatcher);
+            }
+        }
+        return prefs;
+    }
+
+    protected SharedPreferences prefsFor(@NonNull String key)
+    {
+        int appWidgetId = shardId(key);
+        return (appWidgetId >= 0 ? shard(appWidgetId) : base);
+    }
+
+    /**
+     * Adds widgets to the index (so they are included by getAll).
+     */
+    protected synchronized void addToIndex(@NonNull Set<Integer> appWidgetIds, boolean commit)
+    {
+        if (!indexed.containsAll(appWidgetIds))
+        {
+            indexed.addAll(appWidgetIds);
+            SharedPreferences.Editor editor = index.edit().putStringSet(KEY_INDEX_SHARDS, indexSet());
+            if (commit) {
+                editor.commit();
+            } else editor.apply();
+        }
+    }
+
+    /**
+     * Drops a deleted widget; removes it from the index and deletes its shard.
+     */
+    public void removeShard(int appWidgetId)
+    {
+        synchronized (this)
+        {
+            if (indexed.remove(appWidgetId)) {
+                index.edit().putStringSet(KEY_INDEX_SHARDS, indexSet()).apply();
+            }
+        }
+        SharedPreferences prefs = shards.remove(appWidgetId);
+        if (prefs != null) {
+            prefs.unregisterOnSharedPreferenceChangeListener(dispatcher);
+        }
+        provider.delete(PREFS_WIDGET_SHARD + appWidgetId);
+    }
+
+    private Set<String> indexSet()
+    {
+        HashSet<String> ids = new HashSet<>();
+        for (Integer appWidgetId : indexed) {
+            ids.add(Integer.toString(appWidgetId));
+        }
+        return ids;
+    }
+
+    /**
+     * @return the prefs belonging to a single widget (from its shard)
+     */
+    public Map<String, ?> getAll(int appWidgetId) {
+        return (indexed.contains(appWidgetId) ? shard(appWidgetId).getAll() : new HashMap<String, Object>());
+    }
+
+    /**
+     * @return appWidgetIds that have a shard
+     */
+    public Set<Integer> getAppWidgetIds() {
+        return new HashSet<>(indexed);
+    }
+
+    @Override
+    public Map<String, ?> getAll()
+    {
+        HashMap<String, Object> all = new HashMap<>();
+        for (Map.Entry<String, ?> entry : base.getAll().entrySet())
+        {
+            if (shardId(entry.getKey()) < 0) {    // ignores values left behind by an interrupted migration
+                all.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Integer appWidgetId : indexed) {
+            all.putAll(shard(appWidgetId).getAll());
+        }
+        return all;
+    }
+
+    @Nullable
+    @Override
+    public String getString(String key, @Nullable String defValue) {
+        return prefsFor(key).getString(key, defValue);
+    }
+
+    @Nullable
+    @Override
+    public Set<String> getStringSet(String key, @Nullable Set<String> defValues) {
+        return prefsFor(key).getStringSet(key, defValues);
+    }
+
+    @Override
+    public int getInt(String key, int defValue) {
+        return prefsFor(key).getInt(key, defValue);
+    }
+
+    @Override
+    public long getLong(String key, long defValue) {
+        return prefsFor(key).getLong(key, defValue);
+    }
+
+    @Override
+    public float getFloat(String key, float defValue) {
+        return prefsFor(key).getFloat(key, defValue);
+    }
+
+    @Override
+    public boolean getBoolean(String key, boolean defValue) {
+        return prefsFor(key).getBoolean(key, defValue);
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return prefsFor(key).contains(key);
+    }
+
+    @Override
+    public SharedPreferences.Editor edit() {
+        return new Editor();
+    }
+
+    @Override
+    public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener)
+    {
+        synchronized (listeners) {
+            listeners.put(listener, this);
+        }
+    }
+
+    @Override
+    public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener)
+    {
+        synchronized (listeners) {
+            listeners.remove(listener);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static void putValue(@NonNull SharedPreferences.Editor editor, @NonNull String key, @Nullable Object value)
+    {
+        if (value == null) {
+            editor.remove(key);
+
+        } else if (value instanceof String) {
+            editor.putString(key, (String) value);
+
+        } else if (value instanceof Boolean) {
+            editor.putBoolean(key, (Boolean) value);
+
+        } else if (value instanceof Integer) {
+            editor.putInt(key, (Integer) value);
+
+        } else if (value instanceof Long) {
+            editor.putLong(key, (Long) value);
+
+        } else if (value instanceof Float) {
+            editor.putFloat(key, (Float) value);
+
+        } else if (value instanceof Set) {
+            editor.putStringSet(key, (Set<String>) value);
+        }
+    }
+
+    /**
+     * Editor
+     * Changes are grouped by shard when applied; each shard is written once.
+     */
+    public class Editor implements SharedPreferences.Editor
+    {
+        protected final HashMap<String, Object> modified = new HashMap<>();    // a null value removes the key
+        protected boolean clear = false;
+
+        protected SharedPreferences.Editor put(String key, @Nullable Object value)
+        {
+            synchronized (this) {
+                modified.put(key, value);
+            }
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor putString(String key, @Nullable String value) {
+            return put(key, value);
+        }
+
+        @Override
+        public SharedPreferences.Editor putStringSet(String key, @Nullable Set<String> values) {
+            return put(key, (values != null ? new HashSet<>(values) : null));
+        }
+
+        @Override
+        public SharedPreferences.Editor putInt(String key, int value) {
+            return put(key, value);
+        }
+
+        @Override
+        public SharedPreferences.Editor putLong(String key, long value) {
+            return put(key, value);
+        }
+
+        @Override
+        public SharedPreferences.Editor putFloat(String key, float value) {
+            return put(key, value);
+        }
+
+        @Override
+        public SharedPreferences.Editor putBoolean(String key, boolean value) {
+            return put(key, value);
+        }
+
+        @Override
+        public SharedPreferences.Editor remove(String key) {
+            return put(key, null);
+        }
+
+        @Override
+        public SharedPreferences.Editor clear()
+        {
+            synchronized (this) {
+                clear = true;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean commit() {
+            return write(true);
+        }
+
+        @Override
+        public void apply() {
+            write(false);
+        }
+
+        protected boolean write(boolean commit)
+        {
+            HashMap<String, Object> changes;
+            boolean clearAll;
+            synchronized (this)
+            {
+                changes = new HashMap<>(modified);
+                clearAll = clear;
+                modified.clear();
+                clear = false;
+            }
+
+            HashMap<Integer, SharedPreferences.Editor> editors = new HashMap<>();    // -1 is PREFS_WIDGET
+            if (clearAll)
+            {
+                editors.put(-1, base.edit().clear());
+                for (Integer appWidgetId : indexed) {
+                    editors.put(appWidgetId, shard(appWidgetId).edit().clear());
+                }
+            }
+
+            HashSet<Integer> added = new HashSet<>();
+            for (Map.Entry<String, Object> entry : changes.entrySet())
+            {
+                int appWidgetId = shardId(entry.getKey());
+                SharedPreferences.Editor editor = editors.get(appWidgetId);
+                if (editor == null) {
+                    editors.put(appWidgetId, editor = (appWidgetId >= 0 ? shard(appWidgetId) : base).edit());
+                }
+                if (appWidgetId >= 0 && entry.getValue() != null) {
+                    added.add(appWidgetId);
+                }
+                putValue(editor, entry.getKey(), entry.getValue());
+            }
+
+            if (!added.isEmpty()) {
+                addToIndex(added, commit);
+            }
+
+            boolean result = true;
+            for (SharedPreferences.Editor editor : editors.values())
+            {
+                if (commit) {
+                    result = editor.commit() && result;
+                } else editor.apply();
+            }
+            return result;
+        }
+    }
+}
@@ -1720,20 +1720,20 @@ public class WidgetSettings
 
     public static long getNextSuggestedUpdate(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId;
         return prefs.getLong(prefs_prefix + PREF_KEY_NEXTUPDATE, -1);
     }
     public static void saveNextSuggestedUpdate(Context context, int appWidgetId, long updateTime)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId;
         prefs.putLong(prefs_prefix + PREF_KEY_NEXTUPDATE, updateTime);
         prefs.apply();
     }
     public static void deleteNextSuggestedUpdate(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId;
         prefs.remove(prefs_prefix + PREF_KEY_NEXTUPDATE);
         prefs.apply();
@@ -1744,14 +1744,19 @@ public class WidgetSettings
 
     public static void saveRiseSetOrderPref(Context context, int appWidgetId, RiseSetOrder mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_RISESETORDER, mode.name());
         prefs.apply();
     }
     public static RiseSetOrder loadRiseSetOrderPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getEnum(PREF_PREFIX_KEY_GENERAL + PREF_KEY_GENERAL_RISESETORDER, PREF_DEF_GENERAL_RISESETORDER);
+        }
+
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_GENERAL_RISESETORDER, PREF_DEF_GENERAL_RISESETORDER.name());
 
@@ -1768,7 +1773,7 @@ public class WidgetSettings
     }
     public static void deleteRiseSetOrderPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_RISESETORDER);
         prefs.apply();
@@ -1779,20 +1784,24 @@ public class WidgetSettings
 
     public static void saveAllowResizePref(Context context, int appWidgetId, boolean allowResize)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putBoolean(prefs_prefix + PREF_KEY_APPEARANCE_ALLOWRESIZE, allowResize);
         prefs.apply();
     }
     public static boolean loadAllowResizePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getBoolean(PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_APPEARANCE_ALLOWRESIZE, PREF_DEF_APPEARANCE_ALLOWRESIZE);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_APPEARANCE_ALLOWRESIZE, PREF_DEF_APPEARANCE_ALLOWRESIZE);
     }
     public static void deleteAllowResizePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_ALLOWRESIZE);
         prefs.apply();
@@ -1803,7 +1812,7 @@ public class WidgetSettings
 
     public static void saveScaleTextPref(Context context, int appWidgetId, boolean scaleText)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SCALETEXT, scaleText);
         prefs.apply();
@@ -1813,13 +1822,17 @@ public class WidgetSettings
     }
     public static boolean loadScaleTextPref(Context context, int appWidgetId, boolean defValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getBoolean(PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_APPEARANCE_SCALETEXT, defValue);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SCALETEXT, defValue);
     }
     public static void deleteScaleTextPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_SCALETEXT);
         prefs.apply();
@@ -1830,7 +1843,7 @@ public class WidgetSettings
 
     public static void saveScaleBasePref(Context context, int appWidgetId, boolean scaleBase)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SCALEBASE, scaleBase);
         prefs.apply();
@@ -1840,13 +1853,17 @@ public class WidgetSettings
     }
     public static boolean loadScaleBasePref(Context context, int appWidgetId, boolean defValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getBoolean(PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_APPEARANCE_SCALEBASE, defValue);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SCALEBASE, defValue);
     }
     public static void deleteScaleBasePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_SCALEBASE);
         prefs.apply();
@@ -1857,7 +1874,7 @@ public class WidgetSettings
 
     public static void saveWidgetGravityPref(Context context, int appWidgetId, int gravity)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putInt(prefs_prefix + PREF_KEY_APPEARANCE_GRAVITY, gravity);
         prefs.apply();
@@ -1865,13 +1882,17 @@ public class WidgetSettings
 
     public static int loadWidgetGravityPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getInt(PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_APPEARANCE_GRAVITY, PREF_DEF_APPEARANCE_GRAVITY.getPosition());
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getInt(prefs_prefix + PREF_KEY_APPEARANCE_GRAVITY, PREF_DEF_APPEARANCE_GRAVITY.getPosition());
     }
     public static void deleteWidgetGravityPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_GRAVITY);
         prefs.apply();
@@ -1882,14 +1903,19 @@ public class WidgetSettings
 
     public static void saveSun1x1ModePref(Context context, int appWidgetId, WidgetModeSun1x1 mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUN1x1, mode.name());
         prefs.apply();
     }
     public static WidgetModeSun1x1 loadSun1x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getEnum(PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_APPEARANCE_WIDGETMODE_SUN1x1, PREF_DEF_APPEARANCE_WIDGETMODE_SUN1x1);
+        }
+
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUN1x1, PREF_DEF_APPEARANCE_WIDGETMODE_SUN1x1.name());
 
@@ -1927,7 +1953,7 @@ public class WidgetSettings
     }
     public static void deleteSun1x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUN1x1);
         prefs.apply();
@@ -1938,14 +1964,14 @@ public class WidgetSettings
 
     public static void saveSunPos1x1ModePref(Context context, int appWidgetId, WidgetModeSunPos1x1 mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS1x1, mode.name());
         prefs.apply();
     }
     public static WidgetModeSunPos1x1 loadSunPos1x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS1x1, PREF_DEF_APPEARANCE_WIDGETMODE_SUNPOS1x1.name());
 
@@ -1978,7 +2004,7 @@ public class WidgetSettings
     }
     public static void deleteSunPos1x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS1x1);
         prefs.apply();
@@ -1989,14 +2015,14 @@ public class WidgetSettings
 
     public static void saveSunPos3x1ModePref(Context context, int appWidgetId, WidgetModeSunPos3x1 mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS3x1, mode.name());
         prefs.apply();
     }
     public static WidgetModeSunPos3x1 loadSunPos3x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS3x1, PREF_DEF_APPEARANCE_WIDGETMODE_SUNPOS3x1.name());
         try {
@@ -2017,7 +2043,7 @@ public class WidgetSettings
     }
     public static void deleteSunPos3x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS3x1);
         prefs.apply();
@@ -2027,14 +2053,14 @@ public class WidgetSettings
 
     public static void saveSunPos3x2ModePref(Context context, int appWidgetId, WidgetModeSunPos3x2 mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS3x2, mode.name());
         prefs.apply();
     }
     public static WidgetModeSunPos3x2 loadSunPos3x2ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS3x2, PREF_DEF_APPEARANCE_WIDGETMODE_SUNPOS3x2.name());
         try {
@@ -2055,7 +2081,7 @@ public class WidgetSettings
     }
     public static void deleteSunPos3x2ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS3x2);
         prefs.apply();
@@ -2066,14 +2092,14 @@ public class WidgetSettings
 
     public static void saveMoon1x1ModePref(Context context, int appWidgetId, WidgetModeMoon1x1 mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_MOON1x1, mode.name());
         prefs.apply();
     }
     public static WidgetModeMoon1x1 loadMoon1x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_MOON1x1, PREF_DEF_APPEARANCE_WIDGETMODE_MOON1x1.name());
 
@@ -2139,7 +2165,7 @@ public class WidgetSettings
     }
     public static void deleteMoon1x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_MOON1x1);
         prefs.apply();
@@ -2150,7 +2176,7 @@ public class WidgetSettings
 
     public static void saveDateOffsetPref(Context context, int appWidgetId, int offset)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         prefs.putInt(prefs_prefix + PREF_KEY_DATE_OFFSET, offset);
         prefs.apply();
@@ -2158,14 +2184,14 @@ public class WidgetSettings
 
     public static int loadDateOffsetPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         return prefs.getInt(prefs_prefix + PREF_KEY_DATE_OFFSET, PREF_DEF_DATE_OFFSET);
     }
 
     public static void deleteDateOffsetPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         prefs.remove(prefs_prefix + PREF_KEY_DATE_OFFSET);
         prefs.apply();
@@ -2176,14 +2202,18 @@ public class WidgetSettings
 
     public static void saveThemePref(Context context, int appWidgetId, String themeName)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_THEME, themeName);
         prefs.apply();
     }
     public static String loadThemeName(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getString(PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_APPEARANCE_THEME, PREF_DEF_APPEARANCE_THEME);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_THEME, PREF_DEF_APPEARANCE_THEME);
     }
@@ -2197,7 +2227,7 @@ public class WidgetSettings
     }
     public static void deleteThemePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_THEME);
         prefs.apply();
@@ -2225,7 +2255,7 @@ public class WidgetSettings
     }
     public static void saveCalculatorModePref(Context context, int appWidgetId, @NonNull String calculatorName, SuntimesCalculatorDescriptor mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String key = keyCalculatorModePref(appWidgetId, calculatorName);
         prefs.putString(key, mode.getName());
         prefs.apply();
@@ -2262,7 +2292,7 @@ public class WidgetSettings
     }
     public static SuntimesCalculatorDescriptor loadCalculatorModePref(Context context, int appWidgetId, @NonNull String calculatorName)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String key = keyCalculatorModePref(appWidgetId, calculatorName);
         String defaultValue = defaultCalculatorModePref(context, appWidgetId, calculatorName);
         String modeString = prefs.getString(key, defaultValue);
@@ -2285,7 +2315,7 @@ public class WidgetSettings
     }
     public static void deleteCalculatorModePref(Context context, int appWidgetId, @NonNull String calculatorName)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String key = keyCalculatorModePref(appWidgetId, calculatorName);
         prefs.remove(key);
         prefs.apply();
@@ -2296,7 +2326,7 @@ public class WidgetSettings
 
     public static void saveShowLabelsPref(Context context, int appWidgetId, boolean showLabels)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SHOWLABELS, showLabels);
         prefs.apply();
@@ -2307,13 +2337,17 @@ public class WidgetSettings
     }
     public static boolean loadShowLabelsPref(Context context, int appWidgetId, boolean defaultValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getBoolean(PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_APPEARANCE_SHOWLABELS, defaultValue);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SHOWLABELS, defaultValue);
     }
     public static void deleteShowLabelsPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_SHOWLABELS);
         prefs.apply();
@@ -2322,7 +2356,7 @@ public class WidgetSettings
 
     public static void saveShowTitlePref(Context context, int appWidgetId, boolean showTitle)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SHOWTITLE, showTitle);
         prefs.apply();
@@ -2333,13 +2367,17 @@ public class WidgetSettings
     }
     public static boolean loadShowTitlePref(Context context, int appWidgetId, boolean defValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getBoolean(PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_APPEARANCE_SHOWTITLE, defValue);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SHOWTITLE, defValue);
     }
     public static void deleteShowTitlePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_SHOWTITLE);
         prefs.apply();
@@ -2350,7 +2388,7 @@ public class WidgetSettings
 
     public static void saveTitleTextPref(Context context, int appWidgetId, String titleText)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_TITLETEXT, titleText);
         prefs.apply();
@@ -2361,13 +2399,17 @@ public class WidgetSettings
     }
     public static String loadTitleTextPref(Context context, int appWidgetId, String defValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getString(PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_APPEARANCE_TITLETEXT, defValue);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_TITLETEXT, defValue);
     }
     public static void deleteTitleTextPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_TITLETEXT);
         prefs.apply();
@@ -2378,7 +2420,7 @@ public class WidgetSettings
 
     public static void saveTimeModePref(Context context, int appWidgetId, RiseSetDataMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE, mode.name());
         //Log.d("DEBUG", "save time mode: " + mode.name());
@@ -2386,7 +2428,7 @@ public class WidgetSettings
     }
     public static RiseSetDataMode loadTimeModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE, PREF_DEF_GENERAL_TIMEMODE.name());
 
@@ -2406,7 +2448,7 @@ public class WidgetSettings
     }
     public static void deleteTimeModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE);
         prefs.apply();
@@ -2417,20 +2459,20 @@ public class WidgetSettings
 
     public static void saveTimeMode2OverridePref(Context context, int appWidgetId, boolean value)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE2_OVERRIDE, value);
         prefs.apply();
     }
     public static boolean loadTimeMode2OverridePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE2_OVERRIDE, PREF_DEF_GENERAL_TIMEMODE2_OVERRIDE);
     }
     public static void deleteTimeMode2OverridePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE2_OVERRIDE);
         prefs.apply();
@@ -2441,14 +2483,14 @@ public class WidgetSettings
 
     public static void saveTimeMode2Pref(Context context, int appWidgetId, SolsticeEquinoxMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE2, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.SolsticeEquinoxMode loadTimeMode2Pref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE2, PREF_DEF_GENERAL_TIMEMODE2.name());
 
@@ -2464,7 +2506,7 @@ public class WidgetSettings
     }
     public static void deleteTimeMode2Pref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE2);
         prefs.apply();
@@ -2475,14 +2517,14 @@ public class WidgetSettings
 
     public static void saveTimeMode3Pref(Context context, int appWidgetId, MoonPhaseMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE3, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.MoonPhaseMode loadTimeMode3Pref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE3, PREF_DEF_GENERAL_TIMEMODE3.name());
 
@@ -2498,7 +2540,7 @@ public class WidgetSettings
     }
     public static void deleteTimeMode3Pref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE3);
         prefs.apply();
@@ -2509,14 +2551,14 @@ public class WidgetSettings
 
     public static void saveSolarTimeModePref(Context context, int appWidgetId, WidgetSettings.SolarTimeMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_TIMEZONE_SOLARMODE, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.SolarTimeMode loadSolarTimeModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_TIMEZONE_SOLARMODE, PREF_DEF_TIMEZONE_SOLARMODE.name());
 
@@ -2532,7 +2574,7 @@ public class WidgetSettings
     }
     public static void deleteSolarTimeModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_TIMEZONE_SOLARMODE);
         prefs.apply();
@@ -2543,14 +2585,19 @@ public class WidgetSettings
 
     public static void saveTimeFormatModePref(Context context, int appWidgetId, WidgetSettings.TimeFormatMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_TIMEFORMATMODE, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.TimeFormatMode loadTimeFormatModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getEnum(PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_APPEARANCE_TIMEFORMATMODE, PREF_DEF_APPEARANCE_TIMEFORMATMODE);
+        }
+
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_TIMEFORMATMODE, PREF_DEF_APPEARANCE_TIMEFORMATMODE.name());
 
@@ -2566,7 +2613,7 @@ public class WidgetSettings
     }
     public static void deleteTimeFormatModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_TIMEFORMATMODE);
         prefs.apply();
@@ -2577,7 +2624,7 @@ public class WidgetSettings
 
     public static void saveActionModePref(Context context, int appWidgetId, @NonNull WidgetSettings.ActionMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_ACTION;
         prefs.putString(prefs_prefix + PREF_KEY_ACTION_MODE, mode.name());
         prefs.apply();
@@ -2588,7 +2635,7 @@ public class WidgetSettings
     }
     public static WidgetSettings.ActionMode loadActionModePref(Context context, int appWidgetId, @NonNull WidgetSettings.ActionMode defMode)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_ACTION;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_ACTION_MODE, defMode.name());
 
@@ -2604,7 +2651,7 @@ public class WidgetSettings
     }
     public static void deleteActionModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_ACTION;
         prefs.remove(prefs_prefix + PREF_KEY_ACTION_MODE);
         prefs.apply();
@@ -2615,14 +2662,19 @@ public class WidgetSettings
 
     public static void saveLocationModePref(Context context, int appWidgetId, WidgetSettings.LocationMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.putString(prefs_prefix + PREF_KEY_LOCATION_MODE, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.LocationMode loadLocationModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getEnum(PREF_PREFIX_KEY_LOCATION + PREF_KEY_LOCATION_MODE, PREF_DEF_LOCATION_MODE);
+        }
+
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_LOCATION_MODE, PREF_DEF_LOCATION_MODE.name());
 
@@ -2638,7 +2690,7 @@ public class WidgetSettings
     }
     public static void deleteLocationModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.remove(prefs_prefix + PREF_KEY_LOCATION_MODE);
         prefs.apply();
@@ -2649,14 +2701,14 @@ public class WidgetSettings
 
     public static void saveDateModePref(Context context, int appWidgetId, WidgetSettings.DateMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         prefs.putString(prefs_prefix + PREF_KEY_DATE_MODE, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.DateMode loadDateModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_DATE_MODE, PREF_DEF_DATE_MODE.name());
 
@@ -2672,7 +2724,7 @@ public class WidgetSettings
     }
     public static void deleteDateModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         prefs.remove(prefs_prefix + PREF_KEY_DATE_MODE);
         prefs.apply();
@@ -2680,7 +2732,7 @@ public class WidgetSettings
 
     public static void saveDatePref(Context context, int appWidgetId, DateInfo info )
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         prefs.putInt(prefs_prefix + PREF_KEY_DATE_YEAR, info.getYear());
         prefs.putInt(prefs_prefix + PREF_KEY_DATE_MONTH, info.getMonth());
@@ -2689,7 +2741,7 @@ public class WidgetSettings
     }
     public static WidgetSettings.DateInfo loadDatePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         int year = prefs.getInt(prefs_prefix + PREF_KEY_DATE_YEAR, PREF_DEF_DATE_YEAR);
         int month = prefs.getInt(prefs_prefix + PREF_KEY_DATE_MONTH, PREF_DEF_DATE_MONTH);
@@ -2698,7 +2750,7 @@ public class WidgetSettings
     }
     public static void deleteDatePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         prefs.remove(prefs_prefix + PREF_KEY_DATE_YEAR);
         prefs.remove(prefs_prefix + PREF_KEY_DATE_MONTH);
@@ -2711,7 +2763,7 @@ public class WidgetSettings
 
     public static void saveTimezoneModePref(Context context, int appWidgetId, WidgetSettings.TimezoneMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_TIMEZONE;
         prefs.putString(prefs_prefix + PREF_KEY_TIMEZONE_MODE, mode.name());
         prefs.apply();
@@ -2722,7 +2774,7 @@ public class WidgetSettings
     }
     public static WidgetSettings.TimezoneMode loadTimezoneModePref(Context context, int appWidgetId, TimezoneMode defaultMode)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_TIMEZONE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_TIMEZONE_MODE, defaultMode.name());
 
@@ -2738,7 +2790,7 @@ public class WidgetSettings
     }
     public static void deleteTimezoneModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_TIMEZONE;
         prefs.remove(prefs_prefix + PREF_KEY_TIMEZONE_MODE);
         prefs.apply();
@@ -2749,7 +2801,7 @@ public class WidgetSettings
 
     public static void saveLocationPref(Context context, int appWidgetId, Location location)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.putString(prefs_prefix + PREF_KEY_LOCATION_ALTITUDE, location.getAltitude());
         prefs.putString(prefs_prefix + PREF_KEY_LOCATION_LONGITUDE, location.getLongitude());
@@ -2758,12 +2810,25 @@ public class WidgetSettings
         prefs.apply();
     }
     public static Location loadLocationPref(Context context, int appWidgetId)
+    {
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null)
+        {
+            Location location = config.getLocation();    // parsed once per snapshot
+            if (location == null) {
+                config.setLocation(location = loadLocationPref0(context, appWidgetId));
+            }
+            return location;
+        }
+        return loadLocationPref0(context, appWidgetId);
+    }
+    private static Location loadLocationPref0(Context context, int appWidgetId)
     {
         if (loadLocationFromAppPref(context, appWidgetId)) {
             appWidgetId = 0;
         }
 
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
 
         String defaultAlt = PREF_DEF_LOCATION_ALTITUDE;   // locale defaults
@@ -2800,7 +2865,7 @@ public class WidgetSettings
     }
     public static void deleteLocationPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.remove(prefs_prefix + PREF_KEY_LOCATION_ALTITUDE);
         prefs.remove(prefs_prefix + PREF_KEY_LOCATION_LONGITUDE);
@@ -2814,21 +2879,21 @@ public class WidgetSettings
 
     public static void saveLocationAltitudeEnabledPref(Context context, int appWidgetId, boolean enabled)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.putBoolean(prefs_prefix + PREF_KEY_LOCATION_ALTITUDE_ENABLED, enabled);
         prefs.apply();
     }
     public static boolean loadLocationAltitudeEnabledPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         boolean enabled = prefs.getBoolean(prefs_prefix + PREF_KEY_LOCATION_ALTITUDE_ENABLED, PREF_DEF_LOCATION_ALTITUDE_ENABLED);
         return enabled;
     }
     public static void deleteLocationAltitudeEnabledPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.remove(prefs_prefix + PREF_KEY_LOCATION_ALTITUDE_ENABLED);
         prefs.apply();
@@ -2838,7 +2903,7 @@ public class WidgetSettings
 
     public static void saveLocationFromAppPref(Context context, int appWidgetId, boolean enabled)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.putBoolean(prefs_prefix + PREF_KEY_LOCATION_FROMAPP, enabled);
         prefs.apply();
@@ -2848,14 +2913,18 @@ public class WidgetSettings
     }
     public static boolean loadLocationFromAppPref(Context context, int appWidgetId, boolean defaultValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getBoolean(PREF_PREFIX_KEY_LOCATION + PREF_KEY_LOCATION_FROMAPP, defaultValue);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         boolean enabled = prefs.getBoolean(prefs_prefix + PREF_KEY_LOCATION_FROMAPP, defaultValue);
         return enabled;
     }
     public static void deleteLocationFromAppPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.remove(prefs_prefix + PREF_KEY_LOCATION_FROMAPP);
         prefs.apply();
@@ -2866,21 +2935,21 @@ public class WidgetSettings
 
     public static void saveTimeZoneFromAppPref(Context context, int appWidgetId, boolean enabled)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_TIMEZONE;
         prefs.putBoolean(prefs_prefix + PREF_KEY_TIMEZONE_FROMAPP, enabled);
         prefs.apply();
     }
     public static boolean loadTimeZoneFromAppPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_TIMEZONE;
         boolean enabled = prefs.getBoolean(prefs_prefix + PREF_KEY_TIMEZONE_FROMAPP, PREF_DEF_TIMEZONE_FROMAPP);
         return enabled;
     }
     public static void deleteTimeZoneFromAppPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_TIMEZONE;
         prefs.remove(prefs_prefix + PREF_KEY_TIMEZONE_FROMAPP);
         prefs.apply();
@@ -2894,7 +2963,7 @@ public class WidgetSettings
     }
     public static void saveTimezonePref(Context context, int appWidgetId, String timezone, String slotName)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String key = keyTimezonePref(appWidgetId, slotName);
         prefs.putString(key, timezone);
         prefs.apply();
@@ -2905,7 +2974,7 @@ public class WidgetSettings
     }
     public static String loadTimezonePref(Context context, int appWidgetId, @NonNull String slotName)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String key = keyTimezonePref(appWidgetId, slotName);
         String defaultValue = defaultTimezonePref(context, appWidgetId, slotName);
         return prefs.getString(key, defaultValue);
@@ -2916,7 +2985,7 @@ public class WidgetSettings
     }
     public static void deleteTimezonePref(Context context, int appWidgetId, @NonNull String slotName)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String key = keyTimezonePref(appWidgetId, slotName);
         prefs.remove(key);
         prefs.apply();
@@ -2957,14 +3026,14 @@ public class WidgetSettings
 
     public static void saveTrackingModePref(Context context, int appWidgetId, WidgetSettings.TrackingMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_TRACKINGMODE, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.TrackingMode loadTrackingModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_GENERAL_TRACKINGMODE, PREF_DEF_GENERAL_TRACKINGMODE.name());
 
@@ -2980,7 +3049,7 @@ public class WidgetSettings
     }
     public static void deleteTrackingModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TRACKINGMODE);
         prefs.apply();
@@ -2991,20 +3060,20 @@ public class WidgetSettings
 
     public static void saveTrackingLevelPref(Context context, int appWidgetId, int level)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putInt(prefs_prefix + PREF_KEY_GENERAL_TRACKINGLEVEL, level);
         prefs.apply();
     }
     public static int loadTrackingLevelPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getInt(prefs_prefix + PREF_KEY_GENERAL_TRACKINGLEVEL, PREF_DEF_GENERAL_TRACKINGLEVEL);
     }
     public static void deleteTrackingLevelPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TRACKINGLEVEL);
         prefs.apply();
@@ -3015,14 +3084,14 @@ public class WidgetSettings
 
     public static void saveCompareModePref(Context context, int appWidgetId, WidgetSettings.CompareMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_COMPAREMODE, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.CompareMode loadCompareModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_GENERAL_COMPAREMODE, PREF_DEF_GENERAL_COMPAREMODE.name());
 
@@ -3038,7 +3107,7 @@ public class WidgetSettings
     }
     public static void deleteCompareModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_COMPAREMODE);
         prefs.apply();
@@ -3049,20 +3118,24 @@ public class WidgetSettings
 
     public static void saveShowComparePref(Context context, int appWidgetId, boolean showCompare)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWCOMPARE, showCompare);
         prefs.apply();
     }
     public static boolean loadShowComparePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getBoolean(PREF_PREFIX_KEY_GENERAL + PREF_KEY_GENERAL_SHOWCOMPARE, PREF_DEF_GENERAL_SHOWCOMPARE);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWCOMPARE, PREF_DEF_GENERAL_SHOWCOMPARE);
     }
     public static void deleteShowComparePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_SHOWCOMPARE);
         prefs.apply();
@@ -3073,7 +3146,7 @@ public class WidgetSettings
 
     public static void saveShowNoonPref(Context context, int appWidgetId, boolean showNoon)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWNOON, showNoon);
         prefs.apply();
@@ -3083,13 +3156,17 @@ public class WidgetSettings
     }
     public static boolean loadShowNoonPref(Context context, int appWidgetId, boolean defaultValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getBoolean(PREF_PREFIX_KEY_GENERAL + PREF_KEY_GENERAL_SHOWNOON, defaultValue);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWNOON, defaultValue);
     }
     public static void deleteShowNoonPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_SHOWNOON);
         prefs.apply();
@@ -3100,20 +3177,24 @@ public class WidgetSettings
 
     public static void saveShowWeeksPref(Context context, int appWidgetId, boolean showWeeks)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWWEEKS, showWeeks);
         prefs.apply();
     }
     public static boolean loadShowWeeksPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getBoolean(PREF_PREFIX_KEY_GENERAL + PREF_KEY_GENERAL_SHOWWEEKS, PREF_DEF_GENERAL_SHOWWEEKS);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWWEEKS, PREF_DEF_GENERAL_SHOWWEEKS);
     }
     public static void deleteShowWeeksPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_SHOWWEEKS);
         prefs.apply();
@@ -3124,20 +3205,24 @@ public class WidgetSettings
 
     public static void saveShowHoursPref(Context context, int appWidgetId, boolean showHours)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWHOURS, showHours);
         prefs.apply();
     }
     public static boolean loadShowHoursPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getBoolean(PREF_PREFIX_KEY_GENERAL + PREF_KEY_GENERAL_SHOWHOURS, PREF_DEF_GENERAL_SHOWHOURS);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWHOURS, PREF_DEF_GENERAL_SHOWHOURS);
     }
     public static void deleteShowHoursPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_SHOWHOURS);
         prefs.apply();
@@ -3146,20 +3231,24 @@ public class WidgetSettings
 
     public static void saveShowSecondsPref(Context context, int appWidgetId, boolean showSeconds)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWSECONDS, showSeconds);
         prefs.apply();
     }
     public static boolean loadShowSecondsPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getBoolean(PREF_PREFIX_KEY_GENERAL + PREF_KEY_GENERAL_SHOWSECONDS, PREF_DEF_GENERAL_SHOWSECONDS);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWSECONDS, PREF_DEF_GENERAL_SHOWSECONDS);
     }
     public static void deleteShowSecondsPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_SHOWSECONDS);
         prefs.apply();
@@ -3170,20 +3259,24 @@ public class WidgetSettings
 
     public static void saveShowTimeDatePref(Context context, int appWidgetId, boolean showTimeWithDates)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWTIMEDATE, showTimeWithDates);
         prefs.apply();
     }
     public static boolean loadShowTimeDatePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getBoolean(PREF_PREFIX_KEY_GENERAL + PREF_KEY_GENERAL_SHOWTIMEDATE, PREF_DEF_GENERAL_SHOWTIMEDATE);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWTIMEDATE, PREF_DEF_GENERAL_SHOWTIMEDATE);
     }
     public static void deleteShowTimeDatePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_SHOWTIMEDATE);
         prefs.apply();
@@ -3194,20 +3287,24 @@ public class WidgetSettings
 
     public static void saveShowAbbrMonthPref(Context context, int appWidgetId, boolean abbreviate)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWABBRMONTH, abbreviate);
         prefs.apply();
     }
     public static boolean loadShowAbbrMonthPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        WidgetConfig config = WidgetConfig.peek(appWidgetId);
+        if (config != null) {
+            return config.getBoolean(PREF_PREFIX_KEY_GENERAL + PREF_KEY_GENERAL_SHOWABBRMONTH, PREF_DEF_GENERAL_SHOWABBRMONTH);
+        }
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWABBRMONTH, PREF_DEF_GENERAL_SHOWABBRMONTH);
     }
     public static void deleteShowAbbrMonthPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_SHOWABBRMONTH);
         prefs.apply();
@@ -3218,20 +3315,20 @@ public class WidgetSettings
 
     public static void saveLocalizeHemispherePref(Context context, int appWidgetId, boolean value)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_LOCALIZE_HEMISPHERE, value);
         prefs.apply();
     }
     public static boolean loadLocalizeHemispherePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_LOCALIZE_HEMISPHERE, PREF_DEF_GENERAL_LOCALIZE_HEMISPHERE);
     }
     public static void deleteLocalizeHemispherePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_LOCALIZE_HEMISPHERE);
         prefs.apply();
@@ -3242,20 +3339,20 @@ public class WidgetSettings
 
     public static void saveObserverHeightPref(Context context, int appWidgetId, float meters)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putFloat(prefs_prefix + PREF_KEY_GENERAL_OBSERVERHEIGHT, meters);
         prefs.apply();
     }
     public static float loadObserverHeightPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getFloat(prefs_prefix + PREF_KEY_GENERAL_OBSERVERHEIGHT, PREF_DEF_GENERAL_OBSERVERHEIGHT);
     }
     public static void deleteObserverHeightPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_OBSERVERHEIGHT);
         prefs.apply();
@@ -3266,7 +3363,7 @@ public class WidgetSettings
 
     public static void saveLengthUnitsPref(Context context, int appWidgetId, LengthUnit value)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_UNITS_LENGTH, value.name());
         prefs.apply();
@@ -3274,7 +3371,7 @@ public class WidgetSettings
 
     public static LengthUnit loadLengthUnitsPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String defaultValue = (appWidgetId == 0) ? PREF_DEF_GENERAL_UNITS_LENGTH.name()             // prefer the current app setting [0] as the default value
                 : prefs.getString(PREF_PREFIX_KEY + 0 + PREF_PREFIX_KEY_GENERAL + PREF_KEY_GENERAL_UNITS_LENGTH, PREF_DEF_GENERAL_UNITS_LENGTH.name());
@@ -3294,7 +3391,7 @@ public class WidgetSettings
 
     public static void deleteLengthUnitsPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_UNITS_LENGTH);
         prefs.apply();
@@ -3305,20 +3402,20 @@ public class WidgetSettings
 
     public static void saveTimeNoteRisePref(Context context, int appWidgetId, String riseChoice)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_TIMENOTE_RISE, riseChoice);
         prefs.apply();
     }
     public static String loadTimeNoteRisePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getString(prefs_prefix + PREF_KEY_GENERAL_TIMENOTE_RISE, PREF_DEF_GENERAL_TIMENOTE_RISE.name());
     }
     public static void deleteTimeNoteRisePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TIMENOTE_RISE);
         prefs.apply();
@@ -3329,20 +3426,20 @@ public class WidgetSettings
 
     public static void saveTimeNoteSetPref(Context context, int appWidgetId, String setChoice)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_TIMENOTE_SET, setChoice);
         prefs.apply();
     }
     public static String loadTimeNoteSetPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getString(prefs_prefix + PREF_KEY_GENERAL_TIMENOTE_SET, PREF_DEF_GENERAL_TIMENOTE_SET.name());
     }
     public static void deleteTimeNoteSetPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TIMENOTE_SET);
         prefs.apply();
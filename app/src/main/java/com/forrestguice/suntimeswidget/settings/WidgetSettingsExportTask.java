@@ -75,7 +75,7 @@ public class WidgetSettingsExportTask extends ExportTask
     @Override
     public boolean export( Context context, BufferedOutputStream out ) throws IOException
     {
-        SharedPreferences prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         writeWidgetSettingsJSONArray(context, prefs, appWidgetIds, out);
         return true;
     }
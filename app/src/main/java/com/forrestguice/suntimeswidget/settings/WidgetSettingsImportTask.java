@@ -442,7 +442,7 @@ public class WidgetSettingsImportTask extends AsyncTask<Uri, ContentValues, Widg
      */
     public static boolean deleteValues(SharedPreferences prefs, String prefix, Integer appWidgetId)
     {
-        Map<String, ?> map = prefs.getAll();
+        Map<String, ?> map = getAll(prefs, prefix, appWidgetId);
         Set<String> keys = map.keySet();
 
         String keyPrefix = (appWidgetId != null ? prefix + appWidgetId : prefix);
@@ -464,7 +464,7 @@ public class WidgetSettingsImportTask extends AsyncTask<Uri, ContentValues, Widg
     }
     public static boolean copyValues(SharedPreferences fromPrefs, String fromPrefix, int fromAppWidgetId, SharedPreferences.Editor toPrefs, String toPrefix, int toAppWidgetId)
     {
-        Map<String, ?> map = fromPrefs.getAll();
+        Map<String, ?> map = getAll(fromPrefs, fromPrefix, fromAppWidgetId);
         Set<String> keys = map.keySet();
 
         boolean result = false;
@@ -503,6 +503,17 @@ public class WidgetSettingsImportTask extends AsyncTask<Uri, ContentValues, Widg
         return result;
     }
 
+    /**
+     * @return all prefs, or only the prefs of the given widget (if the prefs are sharded by widget; @see WidgetPrefs)
+     */
+    protected static Map<String, ?> getAll(SharedPreferences prefs, String prefix, @Nullable Integer appWidgetId)
+    {
+        if (appWidgetId != null && prefs instanceof WidgetPrefs && WidgetSettings.PREF_PREFIX_KEY.equals(prefix)) {
+            return ((WidgetPrefs) prefs).getAll(appWidgetId);
+        }
+        return prefs.getAll();
+    }
+
     public static boolean importValue(SharedPreferences.Editor prefs, Class type, String key, Object value)
     {
         boolean retValue = true;
@@ -660,7 +671,7 @@ public class WidgetSettingsImportTask extends AsyncTask<Uri, ContentValues, Widg
      * @return array of true/false results for each old/new pair of old/new ids
      */
     public static boolean[] restoreFromBackup(Context context, int[] oldAppWidgetIds, int[] newAppWidgetIds) {
-        SharedPreferences prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         return restoreFromBackup(prefs, oldAppWidgetIds, newAppWidgetIds);
     }
     public static boolean[] restoreFromBackup(SharedPreferences prefs, int[] oldAppWidgetIds, int[] newAppWidgetIds) {
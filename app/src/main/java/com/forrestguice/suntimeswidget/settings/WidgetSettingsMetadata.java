@@ -278,7 +278,7 @@ public class WidgetSettingsMetadata
         int[] minSize = metadata.getMinDimensions();
         int[] maxSize = metadata.getMaxDimensions();
 
-        SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_META;
         prefs.putString(prefs_prefix + PREF_KEY_META_CLASSNAME, metadata.getWidgetClassName());
         prefs.putInt(prefs_prefix + PREF_KEY_META_VERSIONCODE, metadata.getVersionCode());
@@ -292,7 +292,7 @@ public class WidgetSettingsMetadata
 
     public static void saveMetaData(Context context, int appWidgetId, Bundle bundle)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_META;
 
         if (bundle.containsKey(PREF_KEY_META_CLASSNAME)) {
@@ -323,7 +323,7 @@ public class WidgetSettingsMetadata
 
     public static WidgetMetadata loadMetaData(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetPrefs.get(context);
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_META;
         String className = prefs.getString(prefs_prefix + PREF_KEY_META_CLASSNAME, null);
         int versionCode = prefs.getInt(prefs_prefix + PREF_KEY_META_VERSIONCODE, -1);
@@ -338,7 +338,7 @@ public class WidgetSettingsMetadata
 
     public static void deleteMetaData(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetPrefs.get(context).edit();
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_META;
         prefs.remove(prefs_prefix + PREF_KEY_META_CLASSNAME);
         prefs.remove(prefs_prefix + PREF_KEY_META_VERSIONCODE);
@@ -44,6 +44,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
@@ -63,6 +65,8 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import static com.forrestguice.suntimeswidget.themes.SuntimesThemeContract.THEME_VERSION;
+
 public class WidgetThemes
 {
     public static final String PREFS_THEMES = "com.forrestguice.suntimeswidget.themes";
@@ -98,6 +102,7 @@ public class WidgetThemes
         };
 
         SharedPreferences themePref = getSharedPreferences(context);
+        themePref.registerOnSharedPreferenceChangeListener(themesListener);
         Set<String> themesToProcess = loadInstalledList(themePref);
         for (String themeName : themesToProcess)
         {
@@ -229,6 +234,10 @@ public class WidgetThemes
         return themes.get(themeName);
     }
 
+    /**
+     * @return the theme; themes are loaded (from PREFS_THEMES) once, then shared by every caller until modified; the
+     * returned theme should be treated as read-only (@see invalidateTheme).
+     */
     public static SuntimesTheme loadTheme(Context context, String themeName)
     {
         if (!initialized)
@@ -236,11 +245,79 @@ public class WidgetThemes
             initThemes(context);
         }
 
+        SharedPreferences themePref = getSharedPreferences(context);
+        int version = themePref.getInt(SuntimesTheme.themePrefix(themeName) + THEME_VERSION, -1);
+        CompiledTheme compiled = compiledThemes.get(themeName);
+        if (compiled != null && compiled.version == version) {
+            return compiled.theme;
+        }
+
+        long loadedAtGeneration = compiledGeneration.get();
         SuntimesTheme theme = new SuntimesTheme();
         theme.initTheme(context, PREFS_THEMES, themeName, defaultTheme);
+        if (compiledGeneration.get() == loadedAtGeneration) {    // discarded if invalidated in the meantime
+            compiledThemes.put(themeName, new CompiledTheme(theme, version));
+        }
         return theme;
     }
 
+    /**
+     * CompiledTheme
+     */
+    protected static final class CompiledTheme
+    {
+        public final SuntimesTheme theme;
+        public final int version;    // installed version (when loaded)
+
+        public CompiledTheme(SuntimesTheme theme, int version)
+        {
+            this.theme = theme;
+            this.version = version;
+        }
+    }
+
+    private static final ConcurrentHashMap<String, CompiledTheme> compiledThemes = new ConcurrentHashMap<>();
+    private static final AtomicLong compiledGeneration = new AtomicLong(0);
+
+    /**
+     * Listens for changes to PREFS_THEMES (must be held by a strong reference; SharedPreferences keeps listeners weakly).
+     */
+    private static final SharedPreferences.OnSharedPreferenceChangeListener themesListener = new SharedPreferences.OnSharedPreferenceChangeListener()
+    {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences prefs, String key)
+        {
+            if (key == null) {
+                invalidateThemes();    // prefs cleared
+
+            } else if (key.startsWith(SuntimesTheme.THEME_KEY)) {
+                for (String themeName : compiledThemes.keySet())
+                {
+                    if (key.startsWith(SuntimesTheme.themePrefix(themeName))) {
+                        invalidateTheme(themeName);
+                    }
+                }
+            }
+        }
+    };
+
+    /**
+     * Forgets the loaded theme (the theme was saved, imported, or deleted); called by SuntimesTheme.saveTheme and deleteTheme.
+     */
+    public static void invalidateTheme(@Nullable String themeName)
+    {
+        compiledGeneration.incrementAndGet();
+        if (themeName != null) {
+            compiledThemes.remove(themeName);
+        }
+    }
+
+    public static void invalidateThemes()
+    {
+        compiledGeneration.incrementAndGet();
+        compiledThemes.clear();
+    }
+
     public static ThemeDescriptor loadDescriptor(Context context, String themeName)
     {
         ThemeDescriptor desc = new ThemeDescriptor(themeName, context, PREFS_THEMES);
@@ -216,6 +216,14 @@ public class PlacesPrefsFragment extends PreferenceFragment
                 showProgressBuilding();
             }
 
+            @Override
+            public void onProgress(int count)
+            {
+                if (progress != null && progress.isShowing()) {
+                    progress.setMessage(myParent.getString(R.string.locationbuild_dialog_progress, myParent.getString(R.string.locationbuild_dialog_message), count));
+                }
+            }
+
             @Override
             public void onFinished(Integer result)
             {
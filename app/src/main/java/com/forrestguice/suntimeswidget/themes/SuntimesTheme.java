@@ -29,6 +29,7 @@ import android.util.Log;
 
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
+import com.forrestguice.suntimeswidget.settings.WidgetThemes;
 
 import static com.forrestguice.suntimeswidget.themes.SuntimesThemeContract.THEME_ACCENTCOLOR;
 import static com.forrestguice.suntimeswidget.themes.SuntimesThemeContract.THEME_ACTIONCOLOR;
@@ -554,6 +555,7 @@ public class SuntimesTheme
         themePrefs.putBoolean(themePrefix + THEME_TIMEBOLD, this.themeTimeBold);
 
         themePrefs.apply();
+        WidgetThemes.invalidateTheme(this.themeName);
 
         //noinspection UnnecessaryLocalVariable
         ThemeDescriptor themeDescriptor = themeDescriptor();
@@ -729,6 +731,7 @@ public class SuntimesTheme
         themePrefs.remove(themePrefix + THEME_TIMEBOLD);
 
         themePrefs.apply();
+        WidgetThemes.invalidateTheme(this.themeName);
     }
 
     public String themeName()
@@ -99,10 +99,12 @@ public class NextEventTileBase extends SuntimesTileBase
 
     /**
      * findNextEvent
+     * @param reinit true searches again; otherwise the previous result is returned (until it has passed)
      */
     protected SuntimesRiseSetDataset.SearchResult findNextEvent(Context context, boolean reinit)
     {
-        if (nextEvent == null || reinit) {
+        if (nextEvent == null || reinit || hasPassed(nextEvent))
+        {
             initDataset(context);
             nextEvent = dataset.findNextEvent();
         }
@@ -110,6 +112,12 @@ public class NextEventTileBase extends SuntimesTileBase
     }
     private SuntimesRiseSetDataset.SearchResult nextEvent;
 
+    private boolean hasPassed(SuntimesRiseSetDataset.SearchResult result)
+    {
+        Calendar event = result.getCalendar();
+        return (event != null && dataset != null && event.getTimeInMillis() <= dataset.now().getTimeInMillis());
+    }
+
     @Override
     protected Dialog createDialog(final Context context)
     {
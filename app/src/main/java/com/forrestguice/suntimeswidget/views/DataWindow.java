@@ -0,0 +1,341 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.views;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataWindow
+ * Data for the positions of an adapter, kept in a bounded (least recently used) cache around the visible positions.
+ *
+ * Adjacent positions may share data (e.g. the four phases of a lunar month); positions are grouped by `groupSize` (counted
+ * from `origin`), and data is created once per group (@see keyFor). Data requested for binding is created on a background
+ * thread (along with `prefetch` groups to either side); the listener is called (on the main thread) when data is ready,
+ * and the adapter should bind a placeholder until then. Requests that have scrolled out of the window by the time they run are
+ * skipped. Pinned groups (e.g. the data at the origin, which other positions are calculated from) are never evicted.
+ */
+public class DataWindow<T>
+{
+    public static final String TAG = "DataWindow";
+    public static final long KEEP_ALIVE_MS = 30 * 1000;
+
+    /**
+     * DataFactory
+     */
+    public interface DataFactory<T>
+    {
+        /**
+         * Creates the data for a group; may be called from a background thread.
+         * @param key the first position of the group
+         */
+        @Nullable
+        T createData(int key);
+    }
+
+    /**
+     * DataListener
+     */
+    public interface DataListener<T>
+    {
+        /**
+         * Called (on the main thread) when data requested by `request` is ready.
+         * @param key the first position of the group
+         * @param groupSize the number of positions in the group
+         */
+        void onDataReady(int key, int groupSize, @NonNull T data);
+    }
+
+    protected final int origin, groupSize, capacity, prefetch;
+    protected final DataFactory<T> factory;
+    protected final Executor backgroundExecutor, mainExecutor;
+    protected DataListener<T> listener = null;
+
+    protected final LinkedHashMap<Integer, T> cache;
+    protected final HashMap<Integer, T> pinned = new HashMap<>();
+    protected final HashSet<Integer> pending = new HashSet<>();
+    protected long generation = 0;
+    protected int lastRequested;
+
+    /**
+     * @param origin the position that groups are counted from
+     * @param groupSize the number of adjacent positions that share data (1 or more)
+     * @param capacity the maximum number of (unpinned) groups to keep
+     * @param prefetch the number of groups to prefetch on either side of a requested position
+     * @param factory creates data (for a group)
+     */
+    public DataWindow(int origin, int groupSize, int capacity, int prefetch, @NonNull DataFactory<T> factory) {
+        this(origin, groupSize, capacity, prefetch, factory, getExecutor(), getMainExecutor());
+    }
+
+    protected DataWindow(int origin, int groupSize, final int capacity, int prefetch, @NonNull DataFactory<T> factory, @NonNull Executor backgroundExecutor, @NonNull Executor mainExecutor)
+    {
+        this.origin = origin;
+        this.groupSize = Math.max(1, groupSize);
+        this.capacity = Math.max(1, capacity);
+        this.prefetch = Math.max(0, Math.min(prefetch, (this.capacity - 1) / 2));
+        this.factory = factory;
+        this.backgroundExecutor = backgroundExecutor;
+        this.mainExecutor = mainExecutor;
+        this.lastRequested = origin;
+        this.cache = new LinkedHashMap<Integer, T>(this.capacity + 1, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+                return size() > DataWindow.this.capacity;
+            }
+        };
+    }
+
+    public void setDataListener(@Nullable DataListener<T> listener) {
+        this.listener = listener;
+    }
+
+    public int getGroupSize() {
+        return groupSize;
+    }
+
+    /**
+     * @return the first position of the group containing position
+     */
+    public int keyFor(int position)
+    {
+        int offset = (position - origin) % groupSize;
+        if (offset < 0) {
+            offset += groupSize;
+        }
+        return position - offset;
+    }
+
+    /**
+     * @return the data for position, or null if it isn't ready
+     */
+    @Nullable
+    public synchronized T peek(int position)
+    {
+        int key = keyFor(position);
+        T data = pinned.get(key);
+        return (data != null ? data : cache.get(key));
+    }
+
+    /**
+     * @return the data for position; if it isn't ready it is created on the calling thread
+     */
+    @Nullable
+    public T get(int position)
+    {
+        T data = peek(position);
+        if (data == null)
+        {
+            int key = keyFor(position);
+            long loadedAtGeneration;
+            synchronized (this) {
+                loadedAtGeneration = generation;
+            }
+            data = factory.createData(key);    // not holding the lock
+            if (data != null) {
+                data = put(key, data, loadedAtGeneration);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Gets data for binding; missing data is created in the background (the listener is called when it is ready).
+     * Neighboring groups are prefetched.
+     * @return the data for position, or null if it isn't ready (bind a placeholder)
+     */
+    @Nullable
+    public T request(int position)
+    {
+        T data = peek(position);
+        prefetch(position, data == null);
+        return data;
+    }
+
+    /**
+     * Creates the data around position in the background (the requested position first, then nearest neighbors first).
+     */
+    public void prefetch(int position) {
+        prefetch(position, true);
+    }
+
+    protected synchronized void prefetch(int position, boolean includePosition)
+    {
+        int key = keyFor(position);
+        lastRequested = key;
+        if (includePosition) {
+            load(key);
+        }
+        for (int i=1; i<=prefetch; i++)
+        {
+            load(key + (i * groupSize));
+            load(key - (i * groupSize));
+        }
+    }
+
+    /**
+     * Keeps the data for position (never evicted); the data is created on the calling thread if it isn't ready.
+     */
+    @Nullable
+    public T pin(int position)
+    {
+        T data = get(position);
+        if (data != null)
+        {
+            synchronized (this) {
+                pinned.put(keyFor(position), data);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Forgets all data (including pinned data); data that is being created is discarded.
+     */
+    public synchronized void clear()
+    {
+        generation++;
+        cache.clear();
+        pinned.clear();
+        pending.clear();
+    }
+
+    public synchronized int size() {
+        return cache.size() + pinned.size();
+    }
+
+    protected synchronized T put(int key, @NonNull T data, long loadedAtGeneration)
+    {
+        T existing = peek(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (generation == loadedAtGeneration) {
+            cache.put(key, data);
+        }
+        return data;
+    }
+
+    protected synchronized boolean isInWindow(int key) {
+        return Math.abs(key - lastRequested) <= (capacity / 2) * groupSize;
+    }
+
+    protected synchronized void load(final int key)
+    {
+        if (pinned.containsKey(key) || cache.containsKey(key) || pending.contains(key)) {
+            return;
+        }
+        pending.add(key);
+
+        final long loadedAtGeneration = generation;
+        backgroundExecutor.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                T data = null;
+                try {
+                    if (isGeneration(loadedAtGeneration) && isInWindow(key)) {
+                        data = factory.createData(key);
+                    }
+                } finally {
+                    synchronized (DataWindow.this)
+                    {
+                        if (generation == loadedAtGeneration) {
+                            pending.remove(key);
+                        }
+                    }
+                }
+
+                if (data != null && isGeneration(loadedAtGeneration))
+                {
+                    final T result = put(key, data, loadedAtGeneration);
+                    mainExecutor.execute(new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            DataListener<T> l = listener;
+                            if (l != null && isGeneration(loadedAtGeneration)) {
+                                l.onDataReady(key, groupSize, result);
+                            }
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    protected synchronized boolean isGeneration(long value) {
+        return generation == value;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static ThreadPoolExecutor executor = null;
+
+    /**
+     * @return a shared executor (a single daemon thread; released when idle)
+     */
+    protected static synchronized Executor getExecutor()
+    {
+        if (executor == null)
+        {
+            executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_MS, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(@NonNull Runnable r)
+                {
+                    Thread thread = new Thread(r, TAG);
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                }
+            });
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    protected static Executor getMainExecutor()
+    {
+        final Handler handler = new Handler(Looper.getMainLooper());
+        return new Executor()
+        {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                handler.post(command);
+            }
+        };
+    }
+}
@@ -25,13 +25,165 @@ import android.util.Log;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * ExecutorUtils
+ * Runs tasks on a shared (bounded) pool of daemon threads; idle threads are released after KEEP_ALIVE_MS. Tasks that are
+ * submitted while every thread is busy run on a temporary thread instead (a task may wait on the result of another task),
+ * up to MAX_OVERFLOW_THREADS; beyond that a task is rejected, and its future completes immediately with a null result
+ * (e.g. add-on queries that hang and ignore cancellation shouldn't create threads without limit).
+ */
 public class ExecutorUtils
 {
+    public static final String TAG = "ExecutorUtils";
+    public static final int MAX_THREADS = 8;
+    public static final int MAX_OVERFLOW_THREADS = 4;
+    public static final long KEEP_ALIVE_MS = 30 * 1000;
+
+    private static final AtomicInteger overflowThreads = new AtomicInteger(0);
+
+    private static ThreadPoolExecutor executor = null;
+    protected static synchronized ExecutorService getExecutor()
+    {
+        if (executor == null)
+        {
+            executor = new ThreadPoolExecutor(0, MAX_THREADS, KEEP_ALIVE_MS, TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory()
+            {
+                private final AtomicInteger count = new AtomicInteger(0);
+
+                @Override
+                public Thread newThread(@NonNull Runnable r)
+                {
+                    Thread thread = new Thread(r, TAG + "-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * ResultCallback
+     */
+    public interface ResultCallback<T>
+    {
+        /**
+         * Called from the worker thread when the task finishes (or from the calling thread if the task was rejected).
+         * @param result the result, or null if the task failed
+         */
+        void onResult(@Nullable T result);
+    }
+
+    /**
+     * Submits a task to the shared executor.
+     * @return a Future that can be used to wait for (or cancel) the task
+     */
+    public static <T> Future<T> submit(@NonNull Callable<T> callable)
+    {
+        Future<T> task = submit0(callable);
+        return (task != null ? task : ExecutorUtils.<T>rejected());
+    }
+
+    /**
+     * @return the submitted task, or null if the task was rejected (every thread, including overflow threads, is busy)
+     */
+    @Nullable
+    private static <T> Future<T> submit0(@NonNull Callable<T> callable)
+    {
+        try {
+            return getExecutor().submit(callable);
+
+        } catch (RejectedExecutionException e) {
+            if (overflowThreads.incrementAndGet() > MAX_OVERFLOW_THREADS)
+            {
+                overflowThreads.decrementAndGet();
+                Log.e(TAG, "submit: all threads are busy; rejecting task!");
+                return null;
+            }
+
+            Log.w(TAG, "submit: all threads are busy; running task on a temporary thread..");
+            final FutureTask<T> task = new FutureTask<>(callable);
+            Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try {
+                        task.run();
+                    } finally {
+                        overflowThreads.decrementAndGet();
+                    }
+                }
+            }, TAG);
+            thread.setDaemon(true);
+            thread.start();
+            return task;
+        }
+    }
+
+    /**
+     * @return a future that has already completed with a null result
+     */
+    private static <T> Future<T> rejected()
+    {
+        FutureTask<T> task = new FutureTask<>(new Callable<T>()
+        {
+            @Override
+            public T call() {
+                return null;
+            }
+        });
+        task.run();
+        return task;
+    }
+
+    /**
+     * Submits a task to the shared executor; the callback receives the result (or null if the task failed, or was rejected).
+     */
+    public static <T> Future<T> submit(final String tag, @NonNull final Callable<T> callable, @Nullable final ResultCallback<T> callback)
+    {
+        Future<T> task = submit0(new Callable<T>()
+        {
+            @Override
+            public T call() throws Exception
+            {
+                T result = null;
+                try {
+                    result = callable.call();
+                    return result;
+
+                } catch (Exception e) {
+                    Log.e(tag, "submit: failed! " + e);
+                    throw e;
+
+                } finally {
+                    if (callback != null) {
+                        callback.onResult(result);
+                    }
+                }
+            }
+        });
+
+        if (task == null)
+        {
+            if (callback != null) {
+                callback.onResult(null);    // rejected; the task won't run
+            }
+            return rejected();
+        }
+        return task;
+    }
+
     public static boolean runTask(String tag, @NonNull final Callable<Boolean> r, long timeoutAfter)
     {
         Boolean result = getResult(tag, r, timeoutAfter);
@@ -39,12 +191,19 @@ public class ExecutorUtils
     }
 
     @Nullable
-    public static <T> T getResult(String tag, @NonNull final Callable<T> callable, long timeoutAfter)
+    public static <T> T getResult(String tag, @NonNull final Callable<T> callable, long timeoutAfter) {
+        return getResult(tag, submit(callable), timeoutAfter);
+    }
+
+    /**
+     * Waits for a submitted task; the task is cancelled if it doesn't finish in time.
+     * @return the result, or null if the task failed (or timed out)
+     */
+    @Nullable
+    public static <T> T getResult(String tag, @NonNull Future<T> task, long timeoutAfter)
     {
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        final Future<T> task = executor.submit(callable);
         try {
-            return task.get(timeoutAfter, TimeUnit.MILLISECONDS);
+            return task.get(Math.max(0, timeoutAfter), TimeUnit.MILLISECONDS);
 
         } catch (TimeoutException | InterruptedException | ExecutionException e) {
             Log.e(tag, "getResult: failed! " + e);
@@ -52,7 +211,6 @@ public class ExecutorUtils
 
         } finally {
             task.cancel(true);
-            executor.shutdownNow();
         }
     }
 
@@ -0,0 +1,220 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.views;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FrameCache
+ * An LRU cache of rendered animation frames keyed by (offsetMinutes, optionsHash).
+ *
+ * Seeking back and forth over the same range reuses frames rather than rendering them again. The cache
+ * is bounded by frame count and by bytes; bitmaps evicted from the cache are handed to a BitmapPool so that
+ * later frames can draw into them instead of allocating. At least `minFrames` are always kept so frames that
+ * are queued (or still on screen) are never handed out for reuse.
+ */
+public class FrameCache
+{
+    public static final int DEFAULT_MAX_FRAMES = 32;
+    public static final int DEFAULT_MIN_FRAMES = FramePipeline.DEFAULT_LOOKAHEAD + 3;    // queued frames, the frame being rendered, and frames waiting to be shown
+    public static final long DEFAULT_MAX_BYTES = Runtime.getRuntime().maxMemory() / 8;
+
+    protected final int minFrames, maxFrames;
+    protected final long maxBytes;
+    protected long numBytes = 0;
+
+    protected final BitmapPool pool = new BitmapPool(2);
+    protected final LinkedHashMap<Key, Frame> frames = new LinkedHashMap<>(16, 0.75f, true);
+
+    public FrameCache() {
+        this(DEFAULT_MIN_FRAMES, DEFAULT_MAX_FRAMES, DEFAULT_MAX_BYTES);
+    }
+
+    public FrameCache(int minFrames, int maxFrames, long maxBytes)
+    {
+        this.minFrames = minFrames;
+        this.maxFrames = Math.max(minFrames, maxFrames);
+        this.maxBytes = maxBytes;
+    }
+
+    public BitmapPool getPool() {
+        return pool;
+    }
+
+    @Nullable
+    public synchronized Frame get(long offsetMinutes, int optionsHash) {
+        return frames.get(new Key(offsetMinutes, optionsHash));
+    }
+
+    public synchronized void put(int optionsHash, @NonNull Frame frame)
+    {
+        Frame previous = frames.put(new Key(frame.offsetMinutes, optionsHash), frame);
+        if (previous != null) {
+            numBytes -= previous.byteCount();
+        }
+        numBytes += frame.byteCount();
+        trim();
+    }
+
+    protected void trim()
+    {
+        Iterator<Map.Entry<Key, Frame>> iterator = frames.entrySet().iterator();
+        while (iterator.hasNext() && frames.size() > minFrames && (frames.size() > maxFrames || numBytes > maxBytes))
+        {
+            Frame eldest = iterator.next().getValue();
+            iterator.remove();
+            numBytes -= eldest.byteCount();
+            pool.release(eldest.bitmap);
+        }
+    }
+
+    /**
+     * Drops all frames; the bitmaps are not reused (they may still be on screen).
+     */
+    public synchronized void clear()
+    {
+        frames.clear();
+        numBytes = 0;
+        pool.clear();
+    }
+
+    public synchronized int size() {
+        return frames.size();
+    }
+
+    /**
+     * Frame
+     */
+    public static class Frame
+    {
+        public final long offsetMinutes;
+        public final Bitmap bitmap;
+        public final Object data;    // optional; data the frame was rendered with (when it differs from the task's data)
+
+        public Frame(long offsetMinutes, @Nullable Bitmap bitmap) {
+            this(offsetMinutes, bitmap, null);
+        }
+        public Frame(long offsetMinutes, @Nullable Bitmap bitmap, @Nullable Object data)
+        {
+            this.offsetMinutes = offsetMinutes;
+            this.bitmap = bitmap;
+            this.data = data;
+        }
+
+        public long byteCount() {
+            return (bitmap != null ? (long) bitmap.getRowBytes() * bitmap.getHeight() : 0);
+        }
+    }
+
+    /**
+     * Key
+     */
+    protected static final class Key
+    {
+        public final long offsetMinutes;
+        public final int optionsHash;
+
+        public Key(long offsetMinutes, int optionsHash)
+        {
+            this.offsetMinutes = offsetMinutes;
+            this.optionsHash = optionsHash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return (offsetMinutes == other.offsetMinutes && optionsHash == other.optionsHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * (int)(offsetMinutes ^ (offsetMinutes >>> 32))) + optionsHash;
+        }
+    }
+
+    /**
+     * BitmapPool
+     * A small pool of mutable bitmaps; bitmaps are reused when size and config match.
+     */
+    public static class BitmapPool
+    {
+        protected final int maxSize;
+        protected final List<Bitmap> bitmaps = new ArrayList<>();
+
+        public BitmapPool(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * @return a cleared bitmap from the pool, or a new bitmap
+         */
+        @NonNull
+        public Bitmap obtain(int w, int h, Bitmap.Config config)
+        {
+            synchronized (bitmaps)
+            {
+                for (int i = bitmaps.size() - 1; i >= 0; i--)
+                {
+                    Bitmap b = bitmaps.get(i);
+                    if (b.getWidth() == w && b.getHeight() == h && b.getConfig() == config)
+                    {
+                        bitmaps.remove(i);
+                        b.eraseColor(Color.TRANSPARENT);
+                        return b;
+                    }
+                }
+            }
+            return Bitmap.createBitmap(w, h, config);
+        }
+
+        public void release(@Nullable Bitmap b)
+        {
+            if (b == null || b.isRecycled() || !b.isMutable()) {
+                return;
+            }
+            synchronized (bitmaps)
+            {
+                if (bitmaps.size() >= maxSize) {
+                    bitmaps.remove(0);
+                }
+                bitmaps.add(b);
+            }
+        }
+
+        public void clear()
+        {
+            synchronized (bitmaps) {
+                bitmaps.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.views;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FramePipeline
+ * Renders animation frames ahead of time on a worker thread into a bounded queue; the animating task takes
+ * frames from the queue and paces them with a timed wait (rather than spinning until the frame is due).
+ *
+ * Frames of an animation are rendered in order by a single worker (renderers keep per-frame state and use
+ * calculators that aren't required to be thread-safe); workers are pooled and reused between animations.
+ * Frames are looked up in (and added to) the FrameCache so seeking over the same range reuses them.
+ */
+public class FramePipeline
+{
+    public static final String TAG = "FramePipeline";
+    public static final int DEFAULT_LOOKAHEAD = 3;    // frames rendered ahead
+    public static final long POLL_MS = 50;
+    public static final long STOP_TIMEOUT_MS = 500;    // time allowed for the frame being rendered to finish (renders aren't interruptible)
+
+    private static ExecutorService executor = null;
+    protected static synchronized ExecutorService getExecutor()
+    {
+        if (executor == null)
+        {
+            executor = Executors.newCachedThreadPool(new ThreadFactory()    // one worker per running animation; idle workers are reused
+            {
+                @Override
+                public Thread newThread(@NonNull Runnable r)
+                {
+                    Thread thread = new Thread(r, TAG);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * FrameRenderer
+     */
+    public interface FrameRenderer
+    {
+        /**
+         * Called on the pipeline's worker thread (or the calling thread by getFrame).
+         * @param offsetMinutes frame offset
+         * @return the rendered frame (or null)
+         */
+        @Nullable
+        FrameCache.Frame renderFrame(long offsetMinutes);
+    }
+
+    protected final FrameCache cache;
+    protected final int optionsHash;
+    protected final FrameRenderer renderer;
+    protected final BlockingQueue<FrameCache.Frame> queue;
+
+    protected volatile boolean stopped = false;
+    protected volatile boolean done = false;
+    protected volatile boolean started = false;
+    protected final CountDownLatch finished = new CountDownLatch(1);
+    protected Future<?> producer = null;
+
+    /**
+     * @param cache frame cache (or null to render every frame)
+     * @param optionsHash identifies the options frames are rendered with
+     * @param renderer renders frames
+     * @param lookahead number of frames rendered ahead
+     */
+    public FramePipeline(@Nullable FrameCache cache, int optionsHash, @NonNull FrameRenderer renderer, int lookahead)
+    {
+        this.cache = cache;
+        this.optionsHash = optionsHash;
+        this.renderer = renderer;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, lookahead));
+    }
+
+    /**
+     * Starts rendering frames (offset0, offset0 + step, ...).
+     * @param numFrames number of frames; numFrames <= 0 renders until stopped
+     */
+    public void start(final long offset0, final long step, final int numFrames)
+    {
+        producer = getExecutor().submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                started = true;
+                try {
+                    long offset = offset0;
+                    for (int i = 0; (i < numFrames || numFrames <= 0) && !stopped; i++)
+                    {
+                        FrameCache.Frame frame = getFrame(offset);
+                        if (frame == null || stopped) {
+                            break;
+                        }
+                        queue.put(frame);    // blocks while the queue is full
+                        offset += step;
+                    }
+                } catch (InterruptedException e) {
+                    Log.d(TAG, "producer interrupted");
+
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "failed to render frame: " + e);
+
+                } finally {
+                    done = true;
+                    finished.countDown();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the next frame, or null if the pipeline has finished
+     * @throws InterruptedException if the calling thread was interrupted while waiting
+     */
+    @Nullable
+    public FrameCache.Frame next() throws InterruptedException
+    {
+        while (!stopped)
+        {
+            boolean wasDone = done;
+            FrameCache.Frame frame = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+            if (frame != null) {
+                return frame;
+            } else if (wasDone) {
+                return null;    // finished and queue is empty
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stops the pipeline; waits (briefly) for the frame being rendered so it doesn't overlap the next animation.
+     */
+    public void stop()
+    {
+        stopped = true;
+        if (producer != null)
+        {
+            producer.cancel(true);
+            if (started)
+            {
+                try {
+                    if (!finished.await(STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                        Log.w(TAG, "stop: producer is still rendering");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        queue.clear();
+    }
+
+    /**
+     * @return a frame from the cache, or a newly rendered frame (added to the cache); null if the pipeline was stopped
+     */
+    @Nullable
+    protected FrameCache.Frame getFrame(long offsetMinutes)
+    {
+        FrameCache.Frame frame = (cache != null ? cache.get(offsetMinutes, optionsHash) : null);
+        if (frame == null)
+        {
+            frame = renderer.renderFrame(offsetMinutes);
+            if (stopped)
+            {
+                if (frame != null && cache != null) {
+                    cache.getPool().release(frame.bitmap);    // stopped while rendering; the cache may have been cleared since
+                }
+                return null;
+            }
+            if (frame != null && frame.bitmap != null && cache != null) {
+                cache.put(optionsHash, frame);
+            }
+        }
+        return frame;
+    }
+
+    /**
+     * @return a frame from the cache, or a newly rendered frame (added to the cache)
+     */
+    @Nullable
+    public static FrameCache.Frame getFrame(@Nullable FrameCache cache, int optionsHash, long offsetMinutes, @NonNull FrameRenderer renderer)
+    {
+        FrameCache.Frame frame = (cache != null ? cache.get(offsetMinutes, optionsHash) : null);
+        if (frame == null)
+        {
+            frame = renderer.renderFrame(offsetMinutes);
+            if (frame != null && frame.bitmap != null && cache != null) {
+                cache.put(optionsHash, frame);
+            }
+        }
+        return frame;
+    }
+
+    /**
+     * Waits (without spinning) until the given time.
+     * @param deadline System.nanoTime() value
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static void waitUntil(long deadline) throws InterruptedException
+    {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+}
@@ -37,6 +37,7 @@ import com.forrestguice.suntimeswidget.map.WorldMapEquiazimuthal;
 import com.forrestguice.suntimeswidget.map.WorldMapEquiazimuthal1;
 import com.forrestguice.suntimeswidget.map.WorldMapEquiazimuthal2;
 import com.forrestguice.suntimeswidget.map.WorldMapEquirectangular;
+import com.forrestguice.suntimeswidget.map.WorldMapMatrixStore;
 import com.forrestguice.suntimeswidget.map.WorldMapTask;
 import com.forrestguice.suntimeswidget.map.WorldMapView;
 import com.forrestguice.suntimeswidget.map.WorldMapWidgetSettings;
@@ -73,6 +74,7 @@ public class SunPosLayout_3X2_0 extends SunPosLayout
 
     public static WorldMapTask.WorldMapProjection createProjectionForMode(Context context, WorldMapWidgetSettings.WorldMapWidgetMode mapMode, WorldMapTask.WorldMapOptions options)
     {
+        WorldMapMatrixStore.init(context);
         options.tintForeground = WorldMapWidgetSettings.loadWorldMapPref(context, 0, WorldMapWidgetSettings.PREF_KEY_WORLDMAP_TINTMAP, mapMode.getMapTag());
         if (!options.tintForeground) {
             options.foregroundColor = Color.TRANSPARENT;    // override color assigned by themeViews
@@ -180,6 +182,7 @@ public class SunPosLayout_3X2_0 extends SunPosLayout
         options.showMajorLatitudes = WorldMapWidgetSettings.loadWorldMapPref(context, 0, WorldMapWidgetSettings.PREF_KEY_WORLDMAP_MAJORLATITUDES, WorldMapWidgetSettings.MAPTAG_3x2);   // uses app setting // TODO: from widget settings
         options.showGrid = WorldMapWidgetSettings.loadWorldMapPref(context, 0, WorldMapWidgetSettings.PREF_KEY_WORLDMAP_MINORGRID, WorldMapWidgetSettings.MAPTAG_3x2);                  // uses app setting // TODO: from widget settings
         options.showDebugLines = WorldMapWidgetSettings.loadWorldMapPref(context, 0, WorldMapWidgetSettings.PREF_KEY_WORLDMAP_DEBUGLINES, WorldMapWidgetSettings.MAPTAG_3x2);           // uses app setting // TODO: from widget settings
+        options.terminatorMode = WorldMapWidgetSettings.loadWorldMapPref(context, 0, WorldMapWidgetSettings.PREF_KEY_WORLDMAP_TERMINATOR, WorldMapWidgetSettings.MAPTAG_3x2);           // uses app setting // TODO: from widget settings
     }
 
     public WorldMapWidgetSettings.WorldMapWidgetMode getMapMode(Context context, int appWidgetId) {
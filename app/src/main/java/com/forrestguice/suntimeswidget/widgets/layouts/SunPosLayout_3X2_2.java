@@ -31,6 +31,7 @@ import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
 import com.forrestguice.suntimeswidget.graph.colors.LightGraphColorValues;
 import com.forrestguice.suntimeswidget.graph.LightGraphView;
+import com.forrestguice.suntimeswidget.graph.LightGraphYearData;
 import com.forrestguice.suntimeswidget.map.WorldMapWidgetSettings;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.settings.WidgetTimezones;
@@ -116,7 +117,7 @@ public class SunPosLayout_3X2_2 extends SunPosLayout
 
         LightGraphView.LightGraphTask drawTask = new LightGraphView.LightGraphTask();
 
-        SuntimesRiseSetDataset[] yearData = LightGraphView.LightGraphTask.createYearData(context, dataset);
+        LightGraphYearData yearData = LightGraphView.LightGraphTask.createYearData(context, dataset);
         drawTask.setData(yearData);
 
         options.densityDpi = context.getResources().getDisplayMetrics().densityDpi;
@@ -0,0 +1,112 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+public class TitleTemplateTest0
+{
+    protected static final String[] TOKENS = new String[] { "%loc", "%eot", "%eot_m", "%t", "%m", "%M", "%%", "%em@sr" };
+
+    @Test
+    public void test_parse()
+    {
+        TitleTemplate.Compiler compiler = new TitleTemplate.Compiler(Arrays.asList(TOKENS), 8);
+        TitleTemplate template = compiler.compile("%loc (%eot_m) %eot %x 100% %em@sr%%");
+        assertEquals(5, template.getTokens().size());
+        assertTrue(template.hasToken("%eot_m"));    // longest match
+        assertTrue(template.hasToken("%eot"));
+        assertTrue(template.hasToken("%%"));
+        assertFalse(template.hasToken("%x"));
+
+        assertFalse(compiler.compile("no substitutions").hasTokens());
+        assertFalse(compiler.compile(null).hasTokens());
+        assertFalse(compiler.compile("%").hasTokens());
+    }
+
+    @Test
+    public void test_format()
+    {
+        TitleTemplate.Compiler compiler = new TitleTemplate.Compiler(Arrays.asList(TOKENS), 8);
+        TestResolver resolver = new TestResolver();
+        assertEquals("[%loc] [%eot_m] [%eot] %x 100% [%em@sr]%", compiler.compile("%loc %eot_m %eot %x 100% %em@sr%%").format(resolver));
+        assertEquals("$1 \\ [%t]", compiler.compile("%m %M %t").format(resolver));    // values are substituted as is
+        assertEquals("%loc%loc", compiler.compile("%loc%loc").format(new TitleTemplate.TokenResolver() {
+            @Nullable
+            @Override
+            public String resolve(@NonNull String token) {
+                return null;    // keep
+            }
+        }));
+
+        resolver.resolved.clear();
+        assertEquals("[%t][%t][%t]", compiler.compile("%t%t%t").format(resolver));
+        assertEquals(1, resolver.resolved.size());    // resolved once
+        assertEquals("plain", compiler.compile("plain").format(resolver));
+        assertEquals(1, resolver.resolved.size());
+    }
+
+    @Test
+    public void test_cache()
+    {
+        TitleTemplate.Compiler compiler = new TitleTemplate.Compiler(Arrays.asList(TOKENS), 2);
+        TitleTemplate template = compiler.compile("%loc");
+        assertSame(template, compiler.compile("%loc"));
+        compiler.compile("%t");
+        compiler.compile("%m");
+        assertEquals(2, compiler.size());
+        assertTrue(template != compiler.compile("%loc"));    // evicted
+
+        compiler.clear();
+        assertEquals(0, compiler.size());
+    }
+
+    /**
+     * TestResolver
+     */
+    public static class TestResolver implements TitleTemplate.TokenResolver
+    {
+        public final ArrayList<String> resolved = new ArrayList<>();
+
+        @Nullable
+        @Override
+        public String resolve(@NonNull String token)
+        {
+            resolved.add(token);
+            switch (token)
+            {
+                case "%%": return "%";
+                case "%m": return "$1";
+                case "%M": return "\\";
+                default: return "[" + token + "]";
+            }
+        }
+    }
+}
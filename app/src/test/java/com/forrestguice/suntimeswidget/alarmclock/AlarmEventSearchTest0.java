@@ -0,0 +1,176 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.alarmclock;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+public class AlarmEventSearchTest0
+{
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    @Test
+    public void test_daysMask()
+    {
+        assertEquals(AlarmEventSearch.EVERYDAY, AlarmEventSearch.daysMask(null));
+        assertEquals(AlarmEventSearch.EVERYDAY, AlarmEventSearch.daysMask(new ArrayList<Integer>()));
+        assertEquals(AlarmEventSearch.EVERYDAY, AlarmEventSearch.daysMask(Arrays.asList(Calendar.SUNDAY, Calendar.MONDAY, Calendar.TUESDAY, Calendar.WEDNESDAY, Calendar.THURSDAY, Calendar.FRIDAY, Calendar.SATURDAY)));
+        assertEquals(1, AlarmEventSearch.daysMask(Arrays.asList(Calendar.SUNDAY)));
+        assertEquals((1 << 1) | (1 << 6), AlarmEventSearch.daysMask(Arrays.asList(Calendar.MONDAY, Calendar.SATURDAY)));
+        assertEquals(AlarmEventSearch.EVERYDAY, AlarmEventSearch.daysMask(Arrays.asList(0, 8)));    // invalid days
+    }
+
+    @Test
+    public void test_daysUntilAllowed()
+    {
+        int saturday = AlarmEventSearch.daysMask(Arrays.asList(Calendar.SATURDAY));
+        assertEquals(6, AlarmEventSearch.daysUntilAllowed(Calendar.SUNDAY, saturday));
+        assertEquals(1, AlarmEventSearch.daysUntilAllowed(Calendar.FRIDAY, saturday));
+        assertEquals(0, AlarmEventSearch.daysUntilAllowed(Calendar.SATURDAY, saturday));
+
+        int weekdays = AlarmEventSearch.daysMask(Arrays.asList(Calendar.MONDAY, Calendar.TUESDAY, Calendar.WEDNESDAY, Calendar.THURSDAY, Calendar.FRIDAY));
+        assertEquals(2, AlarmEventSearch.daysUntilAllowed(Calendar.SATURDAY, weekdays));
+        assertEquals(1, AlarmEventSearch.daysUntilAllowed(Calendar.SUNDAY, weekdays));
+        assertEquals(0, AlarmEventSearch.daysUntilAllowed(Calendar.WEDNESDAY, weekdays));
+
+        for (int day = Calendar.SUNDAY; day <= Calendar.SATURDAY; day++) {
+            assertEquals(0, AlarmEventSearch.daysUntilAllowed(day, AlarmEventSearch.EVERYDAY));
+        }
+    }
+
+    @Test
+    public void test_polarBounds()
+    {
+        assertTrue(AlarmEventSearch.PolarBounds.isCrossed(33.45, 0, -0.833, 0));       // mid-latitudes
+        assertFalse(AlarmEventSearch.PolarBounds.isCrossed(78, 23.44, -0.833, 0));     // polar day
+        assertFalse(AlarmEventSearch.PolarBounds.isCrossed(78, -23.44, -0.833, 0));    // polar night
+
+        AlarmEventSearch.PolarBounds bounds = new AlarmEventSearch.PolarBounds(78, -0.833);
+        assertEquals(0, bounds.daysWithoutEvent(getCalendar(2024, Calendar.MARCH, 20)));
+        int days = bounds.daysWithoutEvent(getCalendar(2024, Calendar.MAY, 1));
+        assertTrue(days > 90 && days < 130);    // polar day lasts until late August
+
+        AlarmEventSearch.PolarBounds midLatitude = new AlarmEventSearch.PolarBounds(33.45, -0.833);
+        for (int month = Calendar.JANUARY; month <= Calendar.DECEMBER; month++) {
+            assertEquals(0, midLatitude.daysWithoutEvent(getCalendar(2024, month, 1)));
+        }
+    }
+
+    @Test
+    public void test_findNext_repeatingDays()
+    {
+        AlarmEventSearch.Metrics metrics = new AlarmEventSearch.Metrics();
+        Calendar start = getCalendar(2024, Calendar.JUNE, 2);    // sunday
+        Calendar now = getCalendar(2024, Calendar.JUNE, 2);
+        Calendar event = new AlarmEventSearch(new FixedTimeEvent(6)).findNext(start, now, 0, true, Arrays.asList(Calendar.SATURDAY), metrics);
+        assertNotNull(event);
+        assertEquals(Calendar.SATURDAY, event.get(Calendar.DAY_OF_WEEK));
+        assertEquals(8, event.get(Calendar.DAY_OF_MONTH));
+        assertEquals(2, metrics.calculations);    // calculate sunday, then jump to saturday
+
+        Calendar event1 = new AlarmEventSearch(new FixedTimeEvent(6)).findNext(start, now, 0, false, Arrays.asList(Calendar.SATURDAY), null);
+        assertNotNull(event1);
+        assertEquals(2, event1.get(Calendar.DAY_OF_MONTH));    // not repeating; ignores repeatingDays
+    }
+
+    @Test
+    public void test_findNext_past()
+    {
+        AlarmEventSearch.Metrics metrics = new AlarmEventSearch.Metrics();
+        Calendar start = getCalendar(2024, Calendar.JUNE, 1);
+        Calendar now = getCalendar(2024, Calendar.JULY, 1);
+        now.set(Calendar.HOUR_OF_DAY, 12);
+        Calendar event = new AlarmEventSearch(new FixedTimeEvent(6)).findNext(start, now, 0, false, null, metrics);
+        assertNotNull(event);
+        assertEquals(Calendar.JULY, event.get(Calendar.MONTH));
+        assertEquals(2, event.get(Calendar.DAY_OF_MONTH));
+        assertTrue(metrics.calculations < 5);
+
+        Calendar event1 = new AlarmEventSearch(new FixedTimeEvent(6)).findNext(start, now, 8 * 60 * 60 * 1000, false, null, null);    // offset +8h
+        assertNotNull(event1);
+        assertEquals(1, event1.get(Calendar.DAY_OF_MONTH));
+    }
+
+    @Test
+    public void test_findNext_noEvent()
+    {
+        AlarmEventSearch.Metrics metrics = new AlarmEventSearch.Metrics();
+        Calendar start = getCalendar(2024, Calendar.JUNE, 1);
+        Calendar event = new AlarmEventSearch(new AlarmEventSearch.DayEvent() {
+            @Override
+            public Calendar getEvent(@NonNull Calendar day) {
+                return null;
+            }
+        }).findNext(start, start, 0, false, null, metrics);
+        assertNull(event);
+        assertTrue(metrics.exhausted);
+        assertTrue(metrics.calculations <= AlarmEventSearch.MAX_ITERATIONS);
+
+        metrics = new AlarmEventSearch.Metrics();
+        Calendar event1 = new AlarmEventSearch(new FixedTimeEvent(6))
+                .setPolarBounds(new AlarmEventSearch.PolarBounds(89, -18))    // never crossed near the pole in june
+                .findNext(start, start, 0, false, null, metrics);
+        assertNotNull(event1);    // found after polar day (the calculator is only consulted outside of the bounds)
+        assertTrue(metrics.daysSkipped > 90);
+        assertTrue(metrics.calculations < 10);
+    }
+
+    /**
+     * An event at a fixed hour every day.
+     */
+    private static final class FixedTimeEvent implements AlarmEventSearch.DayEvent
+    {
+        private final int hour;
+        public FixedTimeEvent(int hour) {
+            this.hour = hour;
+        }
+
+        @Override
+        public Calendar getEvent(@NonNull Calendar day)
+        {
+            Calendar event = Calendar.getInstance(UTC);
+            event.setTimeInMillis(day.getTimeInMillis());
+            event.set(Calendar.HOUR_OF_DAY, hour);
+            event.set(Calendar.MINUTE, 30);
+            event.set(Calendar.SECOND, 15);
+            event.set(Calendar.MILLISECOND, 0);
+            return event;
+        }
+    }
+
+    private static Calendar getCalendar(int year, int month, int day)
+    {
+        Calendar calendar = Calendar.getInstance(UTC);
+        calendar.clear();
+        calendar.set(year, month, day, 0, 0, 0);
+        return calendar;
+    }
+}
@@ -0,0 +1,107 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.content.Context;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class CachedSuntimesCalculatorTest
+{
+    private SuntimesCalculator calculator0, calculator1;
+
+    @Before
+    public void init()
+    {
+        CachedSuntimesCalculator.clearCache();
+        Location location = new Location("test", "35", "-112", "14");
+        TimeZone timezone = TimeZone.getTimeZone("America/Phoenix");
+        SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory((Context)null, Time4A4JSuntimesCalculator.getDescriptor());
+        calculator0 = factory.createCalculator(location, timezone);
+        calculator1 = factory.createCalculator(location, timezone, false);
+    }
+
+    @Test
+    public void test_createCalculator()
+    {
+        assertTrue(calculator0 instanceof CachedSuntimesCalculator);
+        assertTrue(calculator1 instanceof Time4A4JSuntimesCalculator);
+        assertEquals(calculator1.name(), calculator0.name());
+    }
+
+    @Test
+    public void test_cache()
+    {
+        Calendar date = Calendar.getInstance(calculator0.getTimeZone());
+        date.set(2024, Calendar.MARCH, 20, 12, 0, 0);
+
+        Calendar sunrise0 = calculator0.getOfficialSunriseCalendarForDate(date);
+        assertNotNull(sunrise0);
+        assertEquals(0, CachedSuntimesCalculator.getHitCount());
+        assertEquals(1, CachedSuntimesCalculator.getMissCount());
+
+        sunrise0.add(Calendar.DAY_OF_YEAR, 1);    // modifying the result should not modify the cache
+        Calendar sunrise1 = calculator0.getOfficialSunriseCalendarForDate(date);
+        assertNotSame(sunrise0, sunrise1);
+        assertEquals(calculator1.getOfficialSunriseCalendarForDate(date).getTimeInMillis(), sunrise1.getTimeInMillis());
+        assertEquals(1, CachedSuntimesCalculator.getHitCount());
+
+        Calendar later = (Calendar) date.clone();    // same day (different time) is a hit
+        later.set(Calendar.HOUR_OF_DAY, 18);
+        calculator0.getOfficialSunriseCalendarForDate(later);
+        assertEquals(2, CachedSuntimesCalculator.getHitCount());
+
+        Calendar tomorrow = (Calendar) date.clone();    // next day is a miss
+        tomorrow.add(Calendar.DAY_OF_YEAR, 1);
+        Calendar sunrise2 = calculator0.getOfficialSunriseCalendarForDate(tomorrow);
+        assertEquals(2, CachedSuntimesCalculator.getMissCount());
+        assertEquals(calculator1.getOfficialSunriseCalendarForDate(tomorrow).getTimeInMillis(), sunrise2.getTimeInMillis());
+
+        calculator0.getSunriseCalendarForDate(date, -3);    // angle is part of the key
+        calculator0.getSunriseCalendarForDate(date, -4);
+        assertEquals(4, CachedSuntimesCalculator.getMissCount());
+        calculator0.getSunriseCalendarForDate(date, -3);
+        assertEquals(3, CachedSuntimesCalculator.getHitCount());
+    }
+
+    @Test
+    public void test_cache_bounded()
+    {
+        Calendar date = Calendar.getInstance(calculator0.getTimeZone());
+        for (int i=0; i<CachedSuntimesCalculator.MAX_ENTRIES + 10; i++)
+        {
+            calculator0.getSolarNoonCalendarForDate(date);
+            date.add(Calendar.DAY_OF_YEAR, 1);
+        }
+        assertEquals(CachedSuntimesCalculator.MAX_ENTRIES, CachedSuntimesCalculator.getCacheSize());
+    }
+}
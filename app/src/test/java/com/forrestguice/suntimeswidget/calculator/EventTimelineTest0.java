@@ -0,0 +1,79 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class EventTimelineTest0
+{
+    @Test
+    public void test_build()
+    {
+        EventTimeline.Builder builder = new EventTimeline.Builder(2);
+        builder.add(300, 3).add(100, 1).add(200, 2).add(100, 4);
+        builder.add((Calendar) null, 5);    // ignored
+        EventTimeline timeline = builder.build();
+
+        assertEquals(4, timeline.size());
+        assertEquals(100, timeline.getTime(0));
+        assertEquals(1, timeline.getID(0));
+        assertEquals(4, timeline.getID(1));    // same time; kept in order added
+        assertEquals(2, timeline.getID(2));
+        assertEquals(3, timeline.getID(3));
+        assertEquals(0, new EventTimeline.Builder().build().size());
+    }
+
+    @Test
+    public void test_indexAfter()
+    {
+        EventTimeline timeline = new EventTimeline.Builder().add(100, 1).add(200, 2).add(300, 1).build();
+        assertEquals(0, timeline.indexAfter(0));
+        assertEquals(1, timeline.indexAfter(100));    // strictly after
+        assertEquals(1, timeline.indexAfter(150));
+        assertEquals(3, timeline.indexAfter(300));
+        assertEquals(2, timeline.indexAfter(100, 1));
+        assertEquals(-1, timeline.indexAfter(200, 2));
+    }
+
+    @Test
+    public void test_cursor()
+    {
+        EventTimeline timeline = new EventTimeline.Builder().add(100, 1).add(200, 2).add(300, 3).build();
+        EventTimeline.Cursor cursor = timeline.cursor(50);
+        assertEquals(0, cursor.getIndex());
+        assertEquals(1, cursor.getNextID());
+
+        assertEquals(0, cursor.advance(99));
+        assertEquals(1, cursor.advance(100));
+        assertEquals(200, cursor.getNextTime());
+        assertEquals(3, cursor.advance(1000));
+        assertFalse(cursor.hasNext());
+        assertEquals(-1, cursor.getNextID());
+
+        assertEquals(1, cursor.advance(150));    // moved backward
+        assertTrue(cursor.hasNext());
+        assertEquals(2, cursor.getNextID());
+    }
+}
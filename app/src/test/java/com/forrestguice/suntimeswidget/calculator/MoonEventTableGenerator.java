@@ -0,0 +1,163 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import com.forrestguice.suntimeswidget.UnlistedTest;
+
+import net.time4j.Moment;
+import net.time4j.TemporalType;
+import net.time4j.calendar.astro.MoonPhase;
+import net.time4j.calendar.astro.MoonPosition;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Generates `app/assets/moon_events.bin` (@see MoonEventTable) using the app's time4j dependency.
+ * The table should be generated again whenever time4j is updated. Run with:
+ *   ./gradlew :app:testDebugUnitTest --tests "*MoonEventTableGenerator" -DmoonEventTable=true
+ */
+@Category(UnlistedTest.class)
+public class MoonEventTableGenerator
+{
+    public static final int START_YEAR = 1900;
+    public static final int END_YEAR = 2100;    // exclusive
+    public static final String OUTPUT_PATH = "assets/" + MoonEventTable.ASSET_NAME;
+
+    @Test
+    public void generateTable() throws IOException
+    {
+        if (!Boolean.getBoolean("moonEventTable")) {
+            return;
+        }
+
+        long start = startOfYear(START_YEAR);
+        long end = startOfYear(END_YEAR);
+        long[][] events = new long[MoonEventTable.KIND_COUNT][];
+        events[MoonEventTable.KIND_NEW_MOON] = phases(MoonPhase.NEW_MOON, start, end);
+        events[MoonEventTable.KIND_FIRST_QUARTER] = phases(MoonPhase.FIRST_QUARTER, start, end);
+        events[MoonEventTable.KIND_FULL_MOON] = phases(MoonPhase.FULL_MOON, start, end);
+        events[MoonEventTable.KIND_THIRD_QUARTER] = phases(MoonPhase.LAST_QUARTER, start, end);
+        events[MoonEventTable.KIND_PERIGEE] = apsides(true, start, end);
+        events[MoonEventTable.KIND_APOGEE] = apsides(false, start, end);
+
+        File file = new File(OUTPUT_PATH);
+        File parent = file.getParentFile();
+        assertTrue(parent.exists() || parent.mkdirs());
+
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            MoonEventTable.write(out, start, end, events);
+        } finally {
+            out.close();
+        }
+        System.out.println("wrote " + file.getAbsolutePath() + " (" + file.length() + " bytes)");
+
+        // verify against live calculation
+        MoonEventTable table = MoonEventTable.read(ByteBuffer.wrap(readFile(file)));
+        long step = (end - start) / 1000;
+        for (long millis = start; millis < end; millis += step)
+        {
+            Moment moment = toMoment(millis);
+            assertEquals(toMillis(MoonPhase.FULL_MOON.after(moment)), table.nextAfter(MoonEventTable.KIND_FULL_MOON, millis));
+            assertEquals(toMillis(MoonPosition.inNextApogeeAfter(moment)), table.nextAfter(MoonEventTable.KIND_APOGEE, millis));
+        }
+    }
+
+    /**
+     * @return every phase after start (up to and including the first phase after end)
+     */
+    protected static long[] phases(MoonPhase phase, long start, long end)
+    {
+        ArrayList<Long> values = new ArrayList<>();
+        long millis = start - 1;
+        do {
+            millis = toMillis(phase.after(toMoment(millis + 1)));    // + 1; the previous phase was truncated to millis
+            values.add(millis);
+        } while (millis < end);
+        return toArray(values);
+    }
+
+    /**
+     * @return every perigee (or apogee) after start (up to and including the first after end)
+     */
+    protected static long[] apsides(boolean perigee, long start, long end)
+    {
+        ArrayList<Long> values = new ArrayList<>();
+        long millis = start - 1;
+        do {
+            Moment moment = toMoment(millis + 1);
+            millis = toMillis(perigee ? MoonPosition.inNextPerigeeAfter(moment) : MoonPosition.inNextApogeeAfter(moment));
+            values.add(millis);
+        } while (millis < end);
+        return toArray(values);
+    }
+
+    protected static long startOfYear(int year)
+    {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(year, Calendar.JANUARY, 1);
+        return calendar.getTimeInMillis();
+    }
+
+    protected static Moment toMoment(long millis) {
+        return TemporalType.MILLIS_SINCE_UNIX.translate(millis);
+    }
+
+    protected static long toMillis(Moment moment) {
+        return TemporalType.MILLIS_SINCE_UNIX.from(moment);
+    }
+
+    protected static long[] toArray(ArrayList<Long> values)
+    {
+        long[] result = new long[values.size()];
+        for (int i=0; i<result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    protected static byte[] readFile(File file) throws IOException
+    {
+        byte[] bytes = new byte[(int) file.length()];
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(bytes);
+        } finally {
+            in.close();
+        }
+        return bytes;
+    }
+}
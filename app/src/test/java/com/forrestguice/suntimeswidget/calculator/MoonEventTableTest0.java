@@ -0,0 +1,132 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+
+import net.time4j.Moment;
+import net.time4j.TemporalType;
+import net.time4j.calendar.astro.MoonPhase;
+import net.time4j.calendar.astro.MoonPosition;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+public class MoonEventTableTest0
+{
+    @Test
+    public void test_readWrite() throws IOException
+    {
+        long[][] events = new long[MoonEventTable.KIND_COUNT][];
+        for (int i=0; i<events.length; i++) {
+            events[i] = new long[] { 100 + i, 200 + i, 300 + i };
+        }
+        events[MoonEventTable.KIND_APOGEE] = new long[0];
+
+        MoonEventTable table = MoonEventTable.read(toBuffer(0, 1000, events));
+        assertEquals(0, table.getStartMillis());
+        assertEquals(1000, table.getEndMillis());
+        for (int i=0; i<MoonEventTable.KIND_APOGEE; i++) {
+            assertEquals(3, table.size(i));
+        }
+        assertEquals(0, table.size(MoonEventTable.KIND_APOGEE));
+        assertEquals(0, table.size(MoonEventTable.KIND_COUNT));
+
+        try {
+            byte[] bytes = toBuffer(0, 1000, events).array();
+            MoonEventTable.read(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 4)));
+            fail("expected IOException (truncated)");
+        } catch (IOException e) { /* EMPTY */ }
+
+        try {
+            MoonEventTable.read(ByteBuffer.wrap(new byte[] { 0, 1, 2, 3, 4, 5, 6, 7 }));
+            fail("expected IOException (not a table)");
+        } catch (IOException e) { /* EMPTY */ }
+    }
+
+    @Test
+    public void test_nextAfter() throws IOException
+    {
+        long[][] events = new long[MoonEventTable.KIND_COUNT][];
+        for (int i=0; i<events.length; i++) {
+            events[i] = new long[] { 100, 200, 300 };
+        }
+        MoonEventTable table = MoonEventTable.read(toBuffer(50, 250, events));
+
+        int kind = MoonEventTable.KIND_PERIGEE;
+        assertEquals(100, table.nextAfter(kind, 50));
+        assertEquals(200, table.nextAfter(kind, 100));    // strictly after
+        assertEquals(200, table.nextAfter(kind, 199));
+        assertEquals(300, table.nextAfter(kind, 249));    // last event may lie past the end of the range
+        assertEquals(-1, table.nextAfter(kind, 49));      // outside the table; calculate instead
+        assertEquals(-1, table.nextAfter(kind, 250));
+        assertEquals(-1, table.nextAfter(-1, 100));
+        assertTrue(table.covers(50) && !table.covers(250));
+
+        assertEquals(MoonEventTable.KIND_NEW_MOON, MoonEventTable.kindOf(SuntimesCalculator.MoonPhase.NEW));
+        assertEquals(MoonEventTable.KIND_THIRD_QUARTER, MoonEventTable.kindOf(SuntimesCalculator.MoonPhase.THIRD_QUARTER));
+    }
+
+    /**
+     * The shipped asset (app/assets) should agree with time4j; regenerate it (@see MoonEventTableGenerator) if this fails.
+     */
+    @Test
+    public void test_asset() throws IOException
+    {
+        File file = new File(MoonEventTableGenerator.OUTPUT_PATH);
+        assertTrue(file.getAbsolutePath() + " is missing", file.exists());
+
+        MoonEventTable table = MoonEventTable.read(ByteBuffer.wrap(MoonEventTableGenerator.readFile(file)));
+        assertEquals(MoonEventTableGenerator.startOfYear(MoonEventTableGenerator.START_YEAR), table.getStartMillis());
+        assertEquals(MoonEventTableGenerator.startOfYear(MoonEventTableGenerator.END_YEAR), table.getEndMillis());
+
+        long[] dates = new long[] { table.getStartMillis(), -1234567890000L, 0, 946684800000L, 1639791526000L, table.getEndMillis() - 1 };
+        for (long millis : dates)
+        {
+            Moment moment = TemporalType.MILLIS_SINCE_UNIX.translate(millis);
+            assertEquals(toMillis(MoonPhase.NEW_MOON.after(moment)), table.nextAfter(MoonEventTable.KIND_NEW_MOON, millis));
+            assertEquals(toMillis(MoonPhase.FIRST_QUARTER.after(moment)), table.nextAfter(MoonEventTable.KIND_FIRST_QUARTER, millis));
+            assertEquals(toMillis(MoonPhase.FULL_MOON.after(moment)), table.nextAfter(MoonEventTable.KIND_FULL_MOON, millis));
+            assertEquals(toMillis(MoonPhase.LAST_QUARTER.after(moment)), table.nextAfter(MoonEventTable.KIND_THIRD_QUARTER, millis));
+            assertEquals(toMillis(MoonPosition.inNextPerigeeAfter(moment)), table.nextAfter(MoonEventTable.KIND_PERIGEE, millis));
+            assertEquals(toMillis(MoonPosition.inNextApogeeAfter(moment)), table.nextAfter(MoonEventTable.KIND_APOGEE, millis));
+        }
+        assertEquals(-1, table.nextAfter(MoonEventTable.KIND_FULL_MOON, table.getEndMillis()));    // outside the table
+    }
+
+    protected static long toMillis(Moment moment) {
+        return TemporalType.MILLIS_SINCE_UNIX.from(moment);
+    }
+
+    protected static ByteBuffer toBuffer(long start, long end, long[][] events) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MoonEventTable.write(out, start, end, events);
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+}
@@ -0,0 +1,101 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import com.forrestguice.suntimeswidget.UnlistedTest;
+import com.forrestguice.suntimeswidget.calculator.time4a.Time4ASuntimesCalculator;
+
+import net.time4j.TemporalType;
+import net.time4j.calendar.astro.AstronomicalSeason;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Generates `app/assets/seasons_time4a.bin` (@see SeasonTable) using the app's time4j dependency.
+ * The table should be generated again (and SeasonTable.VERSION incremented if the format changes) whenever time4j is updated. Run with:
+ *   ./gradlew :app:testDebugUnitTest --tests "*SeasonTableGenerator" -DseasonTable=true
+ */
+@Category(UnlistedTest.class)
+public class SeasonTableGenerator
+{
+    public static final int START_YEAR = 1600;
+    public static final int END_YEAR = 2400;    // inclusive
+    public static final String OUTPUT_PATH = "assets/" + SeasonTable.assetName(Time4ASuntimesCalculator.SEASON_TABLE);
+
+    @Test
+    public void generateTable_time4a() throws IOException
+    {
+        if (!Boolean.getBoolean("seasonTable")) {
+            return;
+        }
+
+        AstronomicalSeason[] seasons = seasons();
+        long[][] events = new long[END_YEAR - START_YEAR + 1][SeasonTable.SEASON_COUNT];
+        for (int i=0; i<events.length; i++) {
+            for (int j=0; j<SeasonTable.SEASON_COUNT; j++) {
+                events[i][j] = TemporalType.MILLIS_SINCE_UNIX.from(seasons[j].inYear(START_YEAR + i));
+            }
+        }
+
+        File file = new File(OUTPUT_PATH);
+        File parent = file.getParentFile();
+        assertTrue(parent.exists() || parent.mkdirs());
+
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            SeasonTable.write(out, Time4ASuntimesCalculator.SEASON_TABLE, START_YEAR, events);
+        } finally {
+            out.close();
+        }
+        System.out.println("wrote " + file.getAbsolutePath() + " (" + file.length() + " bytes)");
+
+        // verify against live calculation
+        SeasonTable table = SeasonTable.read(ByteBuffer.wrap(MoonEventTableGenerator.readFile(file)));
+        for (int year = START_YEAR; year <= END_YEAR; year += 7)
+        {
+            for (int j=0; j<SeasonTable.SEASON_COUNT; j++) {
+                assertEquals((long) TemporalType.MILLIS_SINCE_UNIX.from(seasons[j].inYear(year)), table.get(year, j));
+            }
+        }
+    }
+
+    /**
+     * @return time4j seasons in table order
+     */
+    protected static AstronomicalSeason[] seasons()
+    {
+        AstronomicalSeason[] seasons = new AstronomicalSeason[SeasonTable.SEASON_COUNT];
+        seasons[SeasonTable.SPRING_EQUINOX] = AstronomicalSeason.VERNAL_EQUINOX;
+        seasons[SeasonTable.SUMMER_SOLSTICE] = AstronomicalSeason.SUMMER_SOLSTICE;
+        seasons[SeasonTable.AUTUMNAL_EQUINOX] = AstronomicalSeason.AUTUMNAL_EQUINOX;
+        seasons[SeasonTable.WINTER_SOLSTICE] = AstronomicalSeason.WINTER_SOLSTICE;
+        return seasons;
+    }
+}
@@ -0,0 +1,118 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import com.forrestguice.suntimeswidget.calculator.time4a.Time4ASuntimesCalculator;
+
+import net.time4j.TemporalType;
+import net.time4j.calendar.astro.AstronomicalSeason;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+public class SeasonTableTest0
+{
+    @Test
+    public void test_readWrite() throws IOException
+    {
+        SeasonTable table = SeasonTable.read(toBuffer("test", 2000, testEvents(3)));
+        assertEquals("test", table.getCalculator());
+        assertEquals(2000, table.getStartYear());
+        assertEquals(2002, table.getEndYear());
+        assertTrue(table.covers(2000) && table.covers(2002));
+        assertTrue(!table.covers(1999) && !table.covers(2003));
+
+        try {
+            byte[] bytes = toBuffer("test", 2000, testEvents(3)).array();
+            SeasonTable.read(ByteBuffer.wrap(Arrays.copyOf(bytes, 12)));
+            fail("expected IOException (truncated)");
+        } catch (IOException e) { /* EMPTY */ }
+
+        try {
+            SeasonTable.read(ByteBuffer.wrap(new byte[] { 0, 1, 2, 3, 4, 5, 6, 7 }));
+            fail("expected IOException (not a table)");
+        } catch (IOException e) { /* EMPTY */ }
+    }
+
+    @Test
+    public void test_get() throws IOException
+    {
+        SeasonTable table = SeasonTable.read(toBuffer("test", 2000, testEvents(3)));
+        assertEquals(0, table.get(2000, SeasonTable.SPRING_EQUINOX));
+        assertEquals(1300, table.get(2001, SeasonTable.WINTER_SOLSTICE));
+        assertEquals(-1, table.get(1999, SeasonTable.SPRING_EQUINOX));    // outside the table; calculate instead
+        assertEquals(-1, table.get(2003, SeasonTable.SPRING_EQUINOX));
+        assertEquals(-1, table.get(2000, SeasonTable.SEASON_COUNT));
+
+        assertEquals(1000, table.getTropicalYearLength(2000));
+        assertEquals(-1, table.getTropicalYearLength(2002));
+        assertEquals("seasons_test.bin", SeasonTable.assetName("test"));
+    }
+
+    /**
+     * The shipped asset (app/assets) should agree with time4j; regenerate it (@see SeasonTableGenerator) if this fails.
+     */
+    @Test
+    public void test_asset() throws IOException
+    {
+        File file = new File(SeasonTableGenerator.OUTPUT_PATH);
+        assertTrue(file.getAbsolutePath() + " is missing", file.exists());
+
+        SeasonTable table = SeasonTable.read(ByteBuffer.wrap(MoonEventTableGenerator.readFile(file)));
+        assertEquals(Time4ASuntimesCalculator.SEASON_TABLE, table.getCalculator());
+        assertEquals(SeasonTableGenerator.START_YEAR, table.getStartYear());
+        assertEquals(SeasonTableGenerator.END_YEAR, table.getEndYear());
+
+        AstronomicalSeason[] seasons = SeasonTableGenerator.seasons();
+        int[] years = new int[] { SeasonTableGenerator.START_YEAR, 1752, 1900, 1970, 2000, 2024, 2100, SeasonTableGenerator.END_YEAR };
+        for (int year : years) {
+            for (int j=0; j<SeasonTable.SEASON_COUNT; j++) {
+                assertEquals((long) TemporalType.MILLIS_SINCE_UNIX.from(seasons[j].inYear(year)), table.get(year, j));
+            }
+        }
+        assertEquals(-1, table.get(SeasonTableGenerator.END_YEAR + 1, SeasonTable.SPRING_EQUINOX));    // outside the table
+    }
+
+    protected static long[][] testEvents(int years)
+    {
+        long[][] events = new long[years][SeasonTable.SEASON_COUNT];
+        for (int i=0; i<years; i++) {
+            for (int j=0; j<SeasonTable.SEASON_COUNT; j++) {
+                events[i][j] = (i * 1000) + (j * 100);
+            }
+        }
+        return events;
+    }
+
+    protected static ByteBuffer toBuffer(String calculator, int startYear, long[][] events) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SeasonTable.write(out, calculator, startYear, events);
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+}
@@ -24,8 +24,11 @@ import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 
 import org.junit.Test;
+
+import java.util.Calendar;
 import java.util.TimeZone;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -63,4 +66,33 @@ public class SuntimesCalculatorTest
         assertTrue("calculator name (" + calculator.name() + ") should match descriptor (" + descriptor.getName() + ")", calculator.name().equals(descriptor.getName()));
     }
 
+    @Test
+    public void test_getSunEventsForDate()
+    {
+        TimeZone timezone = TimeZone.getTimeZone("America/Phoenix");
+        for (Location location : new Location[] { TEST_LOCATIONS[1], TEST_LOCATIONS[3] })
+        {
+            test_getSunEventsForDate(location, timezone, com.forrestguice.suntimeswidget.calculator.sunrisesunset_java.SunriseSunsetSuntimesCalculator.getDescriptor());
+            test_getSunEventsForDate(location, timezone, com.forrestguice.suntimeswidget.calculator.ca.rmen.sunrisesunset.SunriseSunsetSuntimesCalculator.getDescriptor());
+            test_getSunEventsForDate(location, timezone, com.forrestguice.suntimeswidget.calculator.time4a.Time4ASimpleSuntimesCalculator.getDescriptor());
+            test_getSunEventsForDate(location, timezone, com.forrestguice.suntimeswidget.calculator.time4a.Time4ANOAASuntimesCalculator.getDescriptor());
+            test_getSunEventsForDate(location, timezone, com.forrestguice.suntimeswidget.calculator.time4a.Time4ACCSuntimesCalculator.getDescriptor());
+            test_getSunEventsForDate(location, timezone, com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator.getDescriptor());
+        }
+    }
+    public void test_getSunEventsForDate(Location location, TimeZone timezone, SuntimesCalculatorDescriptor descriptor)
+    {
+        SuntimesCalculatorFactory calculatorFactory = new SuntimesCalculatorFactory((Context)null, descriptor);
+        SuntimesCalculator calculator = calculatorFactory.createCalculator(location, timezone, false);
+        Calendar date = Calendar.getInstance(timezone);
+
+        SuntimesCalculator.SunEvents events = calculator.getSunEventsForDate(date);
+        SuntimesCalculator.SunEvents expected = SuntimesCalculator.SunEvents.calculate(calculator, date);
+        assertNotNull(events);
+        assertTrue(events.isForDate(date));
+        for (int i=0; i<SuntimesCalculator.SunEvents.NUM_EVENTS; i++) {
+            assertEquals(descriptor.getName() + " :: event " + i, expected.times[i], events.times[i]);
+        }
+    }
+
 }
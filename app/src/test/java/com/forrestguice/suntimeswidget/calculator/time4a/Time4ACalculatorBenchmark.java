@@ -0,0 +1,240 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator.time4a;
+
+import com.forrestguice.suntimeswidget.UnlistedTest;
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+
+import net.time4j.Moment;
+import net.time4j.PlainDate;
+import net.time4j.TemporalType;
+import net.time4j.calendar.astro.LunarTime;
+import net.time4j.calendar.astro.SolarTime;
+import net.time4j.tz.TZID;
+import net.time4j.tz.Timezone;
+import net.time4j.tz.ZonalOffset;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Micro-benchmark comparing the per-call cost (time and allocated bytes) of Time4ASuntimesCalculator before and after
+ * reusing LunarTime/SolarTime functions and zone conversions; the "before" cases repeat the previous implementation.
+ * Allocations are measured with com.sun.management.ThreadMXBean (HotSpot); results are printed.
+ */
+@Category(UnlistedTest.class)
+public class Time4ACalculatorBenchmark
+{
+    public static final int WARMUP = 2000;
+    public static final int ITERATIONS = 20000;
+    public static final TimeZone TEST_TIMEZONE = TimeZone.getTimeZone("America/Phoenix");
+
+    protected Time4ASuntimesCalculator calculator;
+    protected Calendar date;
+
+    @Before
+    public void setup()
+    {
+        calculator = new Time4ANOAASuntimesCalculator();
+        calculator.init(new Location("Phoenix", "33.45579", "-111.9485", "360"), TEST_TIMEZONE);
+        date = Calendar.getInstance(TEST_TIMEZONE);
+        date.setTimeInMillis(1639791526000L);    // Dec 17, 2021
+    }
+
+    @Test
+    public void benchmark_moonTimes()
+    {
+        Result before = measure("getMoonTimesForDate (before)", new Runnable() {
+            public void run() {
+                moonTimes_before(calculator, date);
+            }
+        });
+        Result after = measure("getMoonTimesForDate (after)", new Runnable() {
+            public void run() {
+                calculator.getMoonTimesForDate(date);
+            }
+        });
+        assertEquals(toMillis(moonTimes_before(calculator, date).riseTime), toMillis(calculator.getMoonTimesForDate(date).riseTime));
+        assertEquals(toMillis(moonTimes_before(calculator, date).setTime), toMillis(calculator.getMoonTimesForDate(date).setTime));
+        assertTrue(after.bytesPerCall <= before.bytesPerCall);
+    }
+
+    @Test
+    public void benchmark_sunrise()
+    {
+        final long dayMillis = date.getTimeInMillis();
+        Result before = measure("getSunriseCalendarForDate (before)", new Runnable() {
+            public void run() {
+                sunrise_before(calculator, date, -6);
+            }
+        });
+        Result after = measure("getSunriseCalendarForDate (after)", new Runnable() {
+            public void run() {
+                calculator.getSunriseCalendarForDate(date, -6);
+            }
+        });
+        Result millis = measure("getSunriseMillis", new Runnable() {
+            public void run() {
+                calculator.getSunriseMillis(dayMillis, -6);
+            }
+        });
+        assertEquals(toMillis(sunrise_before(calculator, date, -6)), toMillis(calculator.getSunriseCalendarForDate(date, -6)));
+        assertTrue(after.bytesPerCall <= before.bytesPerCall);
+        assertTrue(millis.bytesPerCall <= after.bytesPerCall);
+    }
+
+    @Test
+    public void benchmark_civilTwilight()
+    {
+        Result before = measure("getCivilSunriseCalendarForDate (before)", new Runnable() {
+            public void run() {
+                PlainDate localDate = calendarToPlainDate_before(calculator, date);
+                momentToCalendar_before(calculator, localDate.get(calculator.solarTime.sunrise(net.time4j.calendar.astro.Twilight.CIVIL)));
+            }
+        });
+        Result after = measure("getCivilSunriseCalendarForDate (after)", new Runnable() {
+            public void run() {
+                calculator.getCivilSunriseCalendarForDate(date);
+            }
+        });
+        assertTrue(after.bytesPerCall <= before.bytesPerCall);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * the previous implementation of getMoonTimesForDate
+     */
+    protected static SuntimesCalculator.MoonTimes moonTimes_before(Time4ASuntimesCalculator calculator, Calendar date)
+    {
+        Moment moment = TemporalType.JAVA_UTIL_DATE.translate(date.getTime());
+        String tzString = "java.util.TimeZone~" + date.getTimeZone().getID();
+        TZID tzid = Timezone.of(tzString, Timezone.ofPlatform().getID()).getID();
+        PlainDate localDate = moment.toZonalTimestamp(tzid).toDate();
+
+        LunarTime lunarTime = LunarTime.ofLocation(tzid, calculator.solarTime.getLatitude(), calculator.solarTime.getLongitude(), calculator.solarTime.getAltitude());
+        LunarTime.Moonlight moonlight = lunarTime.on(localDate);
+
+        SuntimesCalculator.MoonTimes result = new SuntimesCalculator.MoonTimes();
+        result.riseTime = momentToCalendar_before(calculator, moonlight.moonrise());
+        result.setTime = momentToCalendar_before(calculator, moonlight.moonset());
+        return result;
+    }
+
+    /**
+     * the previous implementation of getSunriseCalendarForDate
+     */
+    protected static Calendar sunrise_before(Time4ASuntimesCalculator calculator, Calendar date, double angle)
+    {
+        SolarTime solarTime = calculator.solarTime;
+        SolarTime.Calculator c = solarTime.getCalculator();
+        int altitude = Time4ASuntimesCalculator.clampAltitude(solarTime.getAltitude());
+        double latitude = solarTime.getLatitude();
+        double longitude = solarTime.getLongitude();
+        double geodeticAngle = c.getGeodeticAngle(latitude, altitude);
+        double eventAngle = 90 + geodeticAngle + (-1 * angle);
+
+        PlainDate localDate = calendarToPlainDate_before(calculator, date);
+        Moment moment = c.sunrise(localDate, latitude, longitude, eventAngle);
+        return momentToCalendar_before(calculator, moment);
+    }
+
+    protected static long toMillis(Calendar calendar) {
+        return (calendar != null ? calendar.getTimeInMillis() : -1);
+    }
+
+    protected static PlainDate calendarToPlainDate_before(Time4ASuntimesCalculator calculator, Calendar input)
+    {
+        Moment moment = TemporalType.JAVA_UTIL_DATE.translate(input.getTime());
+        ZonalOffset zonalOffset = ZonalOffset.ofTotalSeconds(calculator.timezone.getOffset(input.getTimeInMillis()) / 1000);
+        return moment.toZonalTimestamp(zonalOffset).toDate();
+    }
+
+    protected static Calendar momentToCalendar_before(Time4ASuntimesCalculator calculator, Moment moment)
+    {
+        Calendar retValue = null;
+        if (moment != null)
+        {
+            retValue = new GregorianCalendar();
+            retValue.setTimeZone(calculator.timezone);
+            retValue.setTime(TemporalType.JAVA_UTIL_DATE.from(moment));
+        }
+        return retValue;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    public static class Result
+    {
+        public final long nanosPerCall, bytesPerCall;
+        public Result(long nanosPerCall, long bytesPerCall)
+        {
+            this.nanosPerCall = nanosPerCall;
+            this.bytesPerCall = bytesPerCall;
+        }
+    }
+
+    protected static Result measure(String label, Runnable task)
+    {
+        for (int i=0; i<WARMUP; i++) {
+            task.run();
+        }
+
+        long bytes0 = allocatedBytes();
+        long t0 = System.nanoTime();
+        for (int i=0; i<ITERATIONS; i++) {
+            task.run();
+        }
+        long t1 = System.nanoTime();
+        long bytes1 = allocatedBytes();
+
+        Result result = new Result((t1 - t0) / ITERATIONS, (bytes0 >= 0 ? (bytes1 - bytes0) / ITERATIONS : 0));
+        System.out.println(label + ": " + result.nanosPerCall + " ns/call, " + (bytes0 >= 0 ? result.bytesPerCall + " bytes/call" : "(allocations unavailable)"));
+        return result;
+    }
+
+    /**
+     * @return bytes allocated by the current thread, or -1 if unsupported
+     */
+    protected static long allocatedBytes()
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
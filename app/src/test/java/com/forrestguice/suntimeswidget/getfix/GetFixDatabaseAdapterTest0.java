@@ -0,0 +1,70 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.getfix;
+
+import org.junit.Test;
+
+import java.util.Set;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+public class GetFixDatabaseAdapterTest0
+{
+    @Test
+    public void test_normalizeName()
+    {
+        assertEquals("sao paulo", GetFixDatabaseAdapter.normalizeName("São Paulo"));
+        assertEquals("willemstad, curacao", GetFixDatabaseAdapter.normalizeName(" Willemstad, Curaçao "));
+        assertEquals("", GetFixDatabaseAdapter.normalizeName(null));
+    }
+
+    @Test
+    public void test_toMatchQuery()
+    {
+        assertEquals("sao* pa*", GetFixDatabaseAdapter.toMatchQuery("sao pa"));
+        assertEquals("st* george* s*", GetFixDatabaseAdapter.toMatchQuery("st. george's"));
+        assertEquals("test* s*", GetFixDatabaseAdapter.toMatchQuery("test\"s -\"*"));    // fts syntax is removed
+        assertNull(GetFixDatabaseAdapter.toMatchQuery(" ,\"* "));
+    }
+
+    @Test
+    public void test_gridCell()
+    {
+        assertEquals(GetFixDatabaseAdapter.gridCell(35.1, -112.9), GetFixDatabaseAdapter.gridCell(35.9, -112.1));
+        assertTrue(GetFixDatabaseAdapter.gridCell(35.1, -112.9) != GetFixDatabaseAdapter.gridCell(36.1, -112.9));
+        assertEquals(GetFixDatabaseAdapter.gridCell(10, -180), GetFixDatabaseAdapter.gridCell(10, 180));    // wraps at the antimeridian
+        assertEquals(GetFixDatabaseAdapter.gridRow(90), GetFixDatabaseAdapter.gridRow(89.5));
+
+        Set<Integer> ring0 = GetFixDatabaseAdapter.ringCells(10, 20, 0);
+        assertEquals(1, ring0.size());
+        assertEquals(8, GetFixDatabaseAdapter.ringCells(10, 20, 1).size());
+        assertEquals(16, GetFixDatabaseAdapter.ringCells(10, 20, 2).size());
+        assertEquals(5, GetFixDatabaseAdapter.ringCells(0, 0, 1).size());    // first row (no cells below); wraps at column 0
+    }
+
+    @Test
+    public void test_distanceKm()
+    {
+        assertEquals(0, GetFixDatabaseAdapter.distanceKm(35, -112, 35, -112), 0.001);
+        assertEquals(111.2, GetFixDatabaseAdapter.distanceKm(0, 0, 1, 0), 0.1);
+        assertEquals(GetFixDatabaseAdapter.distanceKm(10, 179.5, 10, -179.5), GetFixDatabaseAdapter.distanceKm(10, 0, 10, 1), 0.001);
+    }
+}
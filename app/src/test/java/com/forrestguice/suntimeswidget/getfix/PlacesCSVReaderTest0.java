@@ -0,0 +1,77 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.getfix;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+
+public class PlacesCSVReaderTest0
+{
+    @Test
+    public void test_tokenize()
+    {
+        int[] bounds = new int[8];
+        String line = "\"Willemstad, Curaçao\", 12.11018, -68.95539, 0, extra";
+        assertEquals(5, PlacesCSVReader.tokenize(line, ',', bounds));
+        assertEquals("\"Willemstad, Curaçao\"", line.substring(bounds[0], bounds[1]));
+        assertEquals(" 12.11018", line.substring(bounds[2], bounds[3]));
+        assertEquals(" 0", line.substring(bounds[6], bounds[7]));
+        assertEquals(1, PlacesCSVReader.tokenize("", ',', bounds));
+    }
+
+    @Test
+    public void test_parseLocation()
+    {
+        Location location = PlacesCSVReader.parseLocation("\"San José\", 9.9356, -84.1483, 1017");
+        assertEquals("San José", location.getLabel());
+        assertEquals("9.9356", location.getLatitude());
+        assertEquals("-84.1483", location.getLongitude());
+        assertEquals("1017.0", location.getAltitude());
+
+        Location location1 = PlacesCSVReader.parseLocation("Sydney, -33.8981, 151.2328");
+        assertEquals("Sydney", location1.getLabel());
+        assertEquals("0", location1.getAltitude());
+
+        assertNull(PlacesCSVReader.parseLocation(null));
+        assertNull(PlacesCSVReader.parseLocation("-84.1483, 1017"));
+        assertNull(PlacesCSVReader.parseLocation("Willemstad, Curaçao, 12.11018, -68.95539, 0"));
+    }
+
+    @Test
+    public void test_next() throws IOException
+    {
+        String csv = "Sydney, -33.8981, 151.2328, 40\n"
+                + "not a place\n"
+                + "\"St. George's, Bermuda\", 32.37944, -64.67777, 0\n";
+        PlacesCSVReader reader = new PlacesCSVReader(new StringReader(csv));
+        assertEquals("Sydney", reader.next().getLabel());
+        assertEquals("St. George's, Bermuda", reader.next().getLabel());
+        assertNull(reader.next());
+        assertEquals(3, reader.getLineCount());
+        assertEquals(1, reader.getSkippedCount());
+        reader.close();
+    }
+}
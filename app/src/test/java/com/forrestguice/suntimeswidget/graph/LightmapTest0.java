@@ -21,9 +21,13 @@ package com.forrestguice.suntimeswidget.graph;
 import android.graphics.Color;
 
 import com.forrestguice.suntimeswidget.graph.LightMapDialog;
+import com.forrestguice.suntimeswidget.settings.WidgetTimezones;
 
 import org.junit.Test;
 
+import java.util.Calendar;
+import java.util.TimeZone;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -73,4 +77,34 @@ public class LightmapTest0
         assertEquals(Color.BLUE, (int)array2[0].durationColor);
     }
 
+    @Test
+    public void test_LightMapTask_dayFraction()
+    {
+        TimeZone zone = TimeZone.getTimeZone("America/Los_Angeles");
+        double[] longitudes = new double[] { -122.5, 0, 45.25, 179.9 };
+        Calendar day = Calendar.getInstance(zone);
+        day.set(2024, Calendar.MARCH, 10, 12, 0, 0);
+
+        for (double longitude : longitudes)
+        {
+            TimeZone lmt = new WidgetTimezones.LocalMeanTime(longitude, WidgetTimezones.LocalMeanTime.TIMEZONEID);
+            long dayNum = LightMapView.LightMapTask.dayNumber(day.getTimeInMillis(), zone);
+            for (long millis = day.getTimeInMillis() - (30 * 60 * 60 * 1000L); millis < day.getTimeInMillis() + (30 * 60 * 60 * 1000L); millis += (17 * 60 * 1000L) + 13)
+            {
+                Calendar eventLmt = Calendar.getInstance(lmt);    // as previously calculated (Calendar fields)
+                eventLmt.setTimeInMillis(millis);
+                int dayDiff = eventLmt.get(Calendar.DAY_OF_YEAR) - day.get(Calendar.DAY_OF_YEAR);
+                double minute = eventLmt.get(Calendar.HOUR_OF_DAY) * 60 + eventLmt.get(Calendar.MINUTE);
+                double expected = Math.max(0, Math.min(1, ((dayDiff * 60 * 24) + minute) / (24 * 60d)));
+
+                assertEquals(minute, LightMapView.LightMapTask.minuteOfDay(millis, lmt), 0);
+                assertEquals(expected, LightMapView.LightMapTask.dayFraction(millis, lmt, dayNum), 0);
+            }
+        }
+
+        assertEquals(-1, LightMapView.LightMapTask.dayNumber(-1, TimeZone.getTimeZone("UTC")));
+        assertEquals(0, LightMapView.LightMapTask.dayNumber(0, TimeZone.getTimeZone("UTC")));
+        assertEquals(1439, LightMapView.LightMapTask.minuteOfDay(-1, TimeZone.getTimeZone("UTC")), 0);
+    }
+
 }
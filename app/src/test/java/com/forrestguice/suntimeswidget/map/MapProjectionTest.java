@@ -26,6 +26,7 @@ import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class MapProjectionTest
 {
@@ -129,6 +130,94 @@ public class MapProjectionTest
         }
     }
 
+    private static final double[][] TEST_POSITIONS = new double[][] {{23.44, 45}, {-23.44, -120}, {5, 179}, {0.001, 0}, {-0.5, -90}, {-12, 10}};    // {lat, lon}
+
+    @Test
+    public void test_WorldMapEquirectangular_terminatorLatitude()
+    {
+        WorldMapEquirectangular projection = new WorldMapEquirectangular();
+        int[] size = projection.matrixSize();
+        double[] m = WorldMapEquirectangular.createMatrix(size);
+        int n = size[0] * size[1];
+
+        for (double[] position : TEST_POSITIONS)
+        {
+            double[] up = projection.unitVector(position[0], position[1]);
+            int total = 0;
+            for (int i = 0; i < size[0]; i++)
+            {
+                double lon = ((i / (double) size[0]) * 360d) - 180d;
+                double terminatorLat = WorldMapTask.WorldMapProjection.terminatorLatitude(up, lon);
+
+                int mismatches = 0;
+                for (int j = 0; j < size[1]; j++)
+                {
+                    int k = i + (size[0] * j);
+                    boolean dark0 = ((up[0] * m[k]) + (up[1] * m[n + k]) + (up[2] * m[(2 * n) + k])) <= 0;    // matrix
+
+                    double lat = 90d - ((j / (double) size[1]) * 180d);
+                    boolean dark1 = ((up[2] >= 0) ? (lat <= terminatorLat) : (lat >= terminatorLat));    // terminator edge
+                    if (dark0 != dark1) {
+                        mismatches++;
+                    }
+                }
+                assertTrue("column " + i + " should differ by at most 1 pixel (" + position[0] + ", " + position[1] + ")", mismatches <= 1);
+                total += mismatches;
+            }
+            assertTrue("should differ only where a cell lies on the terminator (" + total + ")", total <= 2);
+        }
+    }
+
+    @Test
+    public void test_WorldMapEquiazimuthal_terminatorDistance()
+    {
+        WorldMapEquiazimuthal projection = new WorldMapEquiazimuthal();
+        int[] size = projection.matrixSize();
+        double[] m = WorldMapEquiazimuthal.createMatrix(size);
+        int n = size[0] * size[1];
+        double[][] centers = new double[][] {{90, 0}, {-90, 0}, {40, -100}, {0, 0}};
+
+        for (double[] center : centers)
+        {
+            double[][] basis = WorldMapEquiazimuthal.centerBasis(center[0], center[1]);
+            for (double[] position : TEST_POSITIONS)
+            {
+                double[] up = projection.unitVector(position[0], position[1]);
+                boolean centerIsLit = (WorldMapEquiazimuthal.dotProduct(up, basis[0]) > 0);
+
+                int mismatches = 0;
+                for (int k = 0; k < n; k++)
+                {
+                    double[] v = new double[] { m[k], m[n + k], m[(2 * n) + k] };
+                    if (v[0] == 0 && v[1] == 0 && v[2] == 0) {
+                        continue;    // outside the projection
+                    }
+                    boolean dark0 = WorldMapEquiazimuthal.dotProduct(up, v) <= 0;    // matrix
+
+                    double distance = Math.acos(Math.max(-1, Math.min(1, WorldMapEquiazimuthal.dotProduct(v, basis[0]))));
+                    double bearing = Math.atan2(WorldMapEquiazimuthal.dotProduct(v, basis[2]), WorldMapEquiazimuthal.dotProduct(v, basis[1]));
+                    double terminatorDistance = WorldMapEquiazimuthal.terminatorDistance(up, basis, bearing);
+                    boolean dark1 = (centerIsLit ? (distance >= terminatorDistance) : (distance <= terminatorDistance));    // terminator edge
+                    if (dark0 != dark1) {
+                        mismatches++;
+                    }
+                }
+                assertTrue("should differ only where a cell lies on the terminator (" + mismatches + ")", mismatches <= 2);
+
+                double[] point = new double[2];
+                for (int i = 0; i < 360; i += 15)
+                {
+                    WorldMapEquiazimuthal.terminatorPoint(up, basis, Math.toRadians(i), point);
+                    double[] v = projection.unitVector(point[0], point[1]);
+                    double d = WorldMapEquiazimuthal.terminatorDistance(up, basis, Math.toRadians(i));
+                    if (d < Math.PI - 0.001) {
+                        assertEquals("terminator point should be perpendicular to up", 0, WorldMapEquiazimuthal.dotProduct(up, v), 0.0001);
+                    }
+                }
+            }
+        }
+    }
+
     protected void testPointEquals( double[] point, double[] expected, String tag )
     {
         assertEquals(tag, expected[0], point[0], 0.0001);
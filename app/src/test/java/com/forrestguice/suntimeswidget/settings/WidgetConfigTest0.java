@@ -0,0 +1,108 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.settings;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+public class WidgetConfigTest0
+{
+    @Test
+    public void test_parseAppWidgetId()
+    {
+        assertEquals(0, WidgetConfig.parseAppWidgetId("appwidget_0_appearance_theme"));
+        assertEquals(10, WidgetConfig.parseAppWidgetId("appwidget_10_appearance_theme"));
+        assertEquals(10, WidgetConfig.parseAppWidgetId("appwidget_10nextUpdate"));
+        assertEquals(-1, WidgetConfig.parseAppWidgetId("appwidget__appearance_theme"));
+        assertEquals(-1, WidgetConfig.parseAppWidgetId("appwidget_010_appearance_theme"));
+        assertEquals(-1, WidgetConfig.parseAppWidgetId("appwidget_99999999999_appearance_theme"));
+        assertEquals(-1, WidgetConfig.parseAppWidgetId("other_10_appearance_theme"));
+    }
+
+    @Test
+    public void test_createAll()
+    {
+        Map<String, Object> prefs = new HashMap<>();
+        prefs.put("appwidget_0_appearance_showtitle", true);
+        prefs.put("appwidget_0_general_risesetorder", "LASTNEXT");
+        prefs.put("appwidget_10_appearance_showtitle", false);
+        prefs.put("appwidget_10_appearance_gravity", 4);
+        prefs.put("appwidget_10_appearance_titletext", "title");
+        prefs.put("appwidget_10_general_risesetorder", "invalid");
+        prefs.put("appwidget_10nextUpdate", 1000L);
+        prefs.put("other_pref", "value");
+
+        Map<Integer, WidgetConfig> configs = WidgetConfig.createAll(prefs);
+        assertEquals(2, configs.size());
+
+        WidgetConfig config0 = configs.get(0);
+        assertNotNull(config0);
+        assertEquals(0, config0.getAppWidgetId());
+        assertTrue(config0.getBoolean(WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + WidgetSettings.PREF_KEY_APPEARANCE_SHOWTITLE, false));
+        assertEquals(WidgetSettings.RiseSetOrder.LASTNEXT, config0.getEnum(WidgetSettings.PREF_PREFIX_KEY_GENERAL + WidgetSettings.PREF_KEY_GENERAL_RISESETORDER, WidgetSettings.RiseSetOrder.TODAY));
+
+        WidgetConfig config10 = configs.get(10);
+        assertNotNull(config10);
+        assertFalse(config10.getBoolean(WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + WidgetSettings.PREF_KEY_APPEARANCE_SHOWTITLE, true));
+        assertEquals(4, config10.getInt(WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + WidgetSettings.PREF_KEY_APPEARANCE_GRAVITY, 0));
+        assertEquals("title", config10.getString(WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + WidgetSettings.PREF_KEY_APPEARANCE_TITLETEXT, null));
+        assertEquals(WidgetSettings.RiseSetOrder.TODAY, config10.getEnum(WidgetSettings.PREF_PREFIX_KEY_GENERAL + WidgetSettings.PREF_KEY_GENERAL_RISESETORDER, WidgetSettings.RiseSetOrder.TODAY));
+        assertTrue(config10.getBoolean(WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + WidgetSettings.PREF_KEY_APPEARANCE_SHOWLABELS, true));    // missing; default
+        assertFalse(config10.contains(WidgetSettings.PREF_KEY_NEXTUPDATE));    // volatile prefs are excluded
+    }
+
+    @Test
+    public void test_onPrefChanged()
+    {
+        Map<String, Object> prefs = new HashMap<>();
+        prefs.put("appwidget_0_appearance_showtitle", true);
+        prefs.put("appwidget_10_appearance_showtitle", true);
+        prefs.put("appwidget_20_appearance_showtitle", true);
+
+        putAll(WidgetConfig.createAll(prefs));
+        WidgetConfig.onPrefChanged("appwidget_10nextUpdate");    // volatile; ignored
+        assertEquals(3, WidgetConfig.size());
+
+        WidgetConfig.onPrefChanged("appwidget_10_appearance_showtitle");
+        assertNull(WidgetConfig.peek(10));
+        assertNotNull(WidgetConfig.peek(20));
+
+        WidgetConfig.onPrefChanged("appwidget_0_location_latitude");    // app configuration; invalidates all
+        assertEquals(0, WidgetConfig.size());
+
+        putAll(WidgetConfig.createAll(prefs));
+        WidgetConfig.onPrefChanged(null);
+        assertEquals(0, WidgetConfig.size());
+    }
+
+    private static void putAll(Map<Integer, WidgetConfig> configs)
+    {
+        for (int appWidgetId : configs.keySet()) {
+            WidgetConfig.cache(configs.get(appWidgetId));
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.settings;
+
+import android.content.SharedPreferences;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+public class WidgetPrefsTest0
+{
+    @Test
+    public void test_migrate()
+    {
+        MemoryPrefsProvider provider = new MemoryPrefsProvider();
+        SharedPreferences legacy = provider.open(WidgetSettings.PREFS_WIDGET);
+        legacy.edit().putString("appwidget_0_appearance_theme", "dark")
+                .putBoolean("appwidget_10_appearance_showtitle", true)
+                .putLong("appwidget_10nextUpdate", 1000L)
+                .putInt("appwidget_20_appearance_gravity", 4)
+                .putString("bckwidget_10_appearance_theme", "light").commit();
+
+        WidgetPrefs prefs = new WidgetPrefs(provider);
+        assertEquals(new HashSet<>(Arrays.asList(0, 10, 20)), prefs.getAppWidgetIds());
+        assertEquals(1, legacy.getAll().size());    // only the backup key remains
+        assertEquals("light", legacy.getString("bckwidget_10_appearance_theme", null));
+
+        assertEquals(2, provider.open(WidgetPrefs.PREFS_WIDGET_SHARD + 10).getAll().size());
+        assertEquals("dark", prefs.getString("appwidget_0_appearance_theme", null));
+        assertTrue(prefs.getBoolean("appwidget_10_appearance_showtitle", false));
+        assertEquals(1000L, prefs.getLong("appwidget_10nextUpdate", -1));
+        assertEquals(4, prefs.getInt("appwidget_20_appearance_gravity", 0));
+        assertEquals(5, prefs.getAll().size());
+        assertEquals(2, prefs.getAll(10).size());
+
+        WidgetPrefs prefs1 = new WidgetPrefs(provider);    // already migrated
+        assertEquals(5, prefs1.getAll().size());
+        assertEquals(3, prefs1.getAppWidgetIds().size());
+    }
+
+    @Test
+    public void test_edit()
+    {
+        MemoryPrefsProvider provider = new MemoryPrefsProvider();
+        WidgetPrefs prefs = new WidgetPrefs(provider);
+        final ArrayList<String> changed = new ArrayList<>();
+        SharedPreferences.OnSharedPreferenceChangeListener listener = new SharedPreferences.OnSharedPreferenceChangeListener() {
+            @Override
+            public void onSharedPreferenceChanged(SharedPreferences p, String key) {
+                changed.add(key);
+            }
+        };
+        prefs.registerOnSharedPreferenceChangeListener(listener);
+
+        provider.writes = 0;
+        prefs.edit().putString("appwidget_1_appearance_theme", "dark")
+                .putBoolean("appwidget_1_appearance_showtitle", true)
+                .putString("appwidget_2_appearance_theme", "light")
+                .putString("other", "value").commit();
+        assertEquals(4, provider.writes);    // shard 1, shard 2, PREFS_WIDGET, and the index
+        assertEquals(4, changed.size());
+        assertEquals("value", provider.open(WidgetSettings.PREFS_WIDGET).getString("other", null));
+        assertEquals(2, provider.open(WidgetPrefs.PREFS_WIDGET_SHARD + 1).getAll().size());
+
+        provider.writes = 0;
+        prefs.edit().putLong("appwidget_1nextUpdate", 1000L).apply();
+        assertEquals(1, provider.writes);    // only shard 1
+
+        prefs.edit().remove("appwidget_1_appearance_theme").putString("appwidget_2_appearance_theme", null).apply();
+        assertFalse(prefs.contains("appwidget_1_appearance_theme"));
+        assertNull(prefs.getString("appwidget_2_appearance_theme", null));
+
+        assertTrue(WidgetSettingsImportTask.deleteValues(prefs, WidgetSettings.PREF_PREFIX_KEY, 1));
+        assertEquals(0, prefs.getAll(1).size());
+        assertEquals(1, prefs.getAll().size());
+
+        prefs.edit().clear().commit();
+        assertEquals(0, prefs.getAll().size());
+    }
+
+    @Test
+    public void test_removeShard()
+    {
+        MemoryPrefsProvider provider = new MemoryPrefsProvider();
+        WidgetPrefs prefs = new WidgetPrefs(provider);
+        prefs.edit().putString("appwidget_1_appearance_theme", "dark")
+                .putString("appwidget_2_appearance_theme", "light")
+                .putString("other", "value").commit();
+        assertEquals(3, prefs.getAll().size());
+
+        prefs.removeShard(1);
+        assertEquals(new HashSet<>(Arrays.asList(2)), prefs.getAppWidgetIds());
+        assertEquals(2, prefs.getAll().size());
+        assertEquals(0, prefs.getAll(1).size());
+        assertFalse(provider.prefs.containsKey(WidgetPrefs.PREFS_WIDGET_SHARD + 1));    // shard deleted
+
+        WidgetPrefs prefs1 = new WidgetPrefs(provider);    // removed from the index
+        assertEquals(new HashSet<>(Arrays.asList(2)), prefs1.getAppWidgetIds());
+        assertEquals(2, prefs1.getAll().size());
+
+        prefs1.removeShard(3);    // not indexed; no-op
+        assertEquals(1, prefs1.getAppWidgetIds().size());
+    }
+
+    /**
+     * MemoryPrefsProvider
+     */
+    public static class MemoryPrefsProvider implements WidgetPrefs.PrefsProvider
+    {
+        protected HashMap<String, MemoryPrefs> prefs = new HashMap<>();
+        public int writes = 0;
+
+        @Override
+        public SharedPreferences open(@NonNull String name)
+        {
+            MemoryPrefs p = prefs.get(name);
+            if (p == null) {
+                prefs.put(name, p = new MemoryPrefs(this));
+            }
+            return p;
+        }
+
+        @Override
+        public void delete(@NonNull String name) {
+            prefs.remove(name);
+        }
+    }
+
+    /**
+     * MemoryPrefs
+     */
+    public static class MemoryPrefs implements SharedPreferences
+    {
+        protected final MemoryPrefsProvider provider;
+        protected final HashMap<String, Object> values = new HashMap<>();
+        protected final ArrayList<OnSharedPreferenceChangeListener> listeners = new ArrayList<>();
+
+        public MemoryPrefs(MemoryPrefsProvider provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public Map<String, ?> getAll() {
+            return new HashMap<>(values);
+        }
+
+        @Nullable
+        @Override
+        public String getString(String key, @Nullable String defValue) {
+            return values.containsKey(key) ? (String) values.get(key) : defValue;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Nullable
+        @Override
+        public Set<String> getStringSet(String key, @Nullable Set<String> defValues) {
+            return values.containsKey(key) ? (Set<String>) values.get(key) : defValues;
+        }
+
+        @Override
+        public int getInt(String key, int defValue) {
+            return values.containsKey(key) ? (Integer) values.get(key) : defValue;
+        }
+
+        @Override
+        public long getLong(String key, long defValue) {
+            return values.containsKey(key) ? (Long) values.get(key) : defValue;
+        }
+
+        @Override
+        public float getFloat(String key, float defValue) {
+            return values.containsKey(key) ? (Float) values.get(key) : defValue;
+        }
+
+        @Override
+        public boolean getBoolean(String key, boolean defValue) {
+            return values.containsKey(key) ? (Boolean) values.get(key) : defValue;
+        }
+
+        @Override
+        public boolean contains(String key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+            listeners.remove(listener);
+        }
+
+        @Override
+        public Editor edit()
+        {
+            return new Editor()
+            {
+                private final HashMap<String, Object> modified = new HashMap<>();
+                private boolean clear = false;
+
+                private Editor put(String key, Object value) {
+                    modified.put(key, value);
+                    return this;
+                }
+                public Editor putString(String key, @Nullable String value) { return put(key, value); }
+                public Editor putStringSet(String key, @Nullable Set<String> values) { return put(key, values); }
+                public Editor putInt(String key, int value) { return put(key, value); }
+                public Editor putLong(String key, long value) { return put(key, value); }
+                public Editor putFloat(String key, float value) { return put(key, value); }
+                public Editor putBoolean(String key, boolean value) { return put(key, value); }
+                public Editor remove(String key) { return put(key, null); }
+                public Editor clear() {
+                    clear = true;
+                    return this;
+                }
+
+                public boolean commit()
+                {
+                    provider.writes++;
+                    if (clear) {
+                        values.clear();
+                    }
+                    for (Map.Entry<String, Object> entry : modified.entrySet())
+                    {
+                        if (entry.getValue() == null) {
+                            values.remove(entry.getKey());
+                        } else values.put(entry.getKey(), entry.getValue());
+
+                        for (OnSharedPreferenceChangeListener listener : new ArrayList<>(listeners)) {
+                            listener.onSharedPreferenceChanged(MemoryPrefs.this, entry.getKey());
+                        }
+                    }
+                    return true;
+                }
+                public void apply() {
+                    commit();
+                }
+            };
+        }
+    }
+}
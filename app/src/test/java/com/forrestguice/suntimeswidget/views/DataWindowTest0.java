@@ -0,0 +1,156 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.views;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+public class DataWindowTest0
+{
+    @Test
+    public void test_keyFor()
+    {
+        DataWindow<String> window = new DataWindow<>(100, 4, 8, 1, new TestFactory(), new QueueExecutor(), new QueueExecutor());
+        assertEquals(100, window.keyFor(100));
+        assertEquals(100, window.keyFor(103));
+        assertEquals(104, window.keyFor(104));
+        assertEquals(96, window.keyFor(99));
+        assertEquals(96, window.keyFor(96));
+    }
+
+    @Test
+    public void test_request()
+    {
+        TestFactory factory = new TestFactory();
+        QueueExecutor background = new QueueExecutor();
+        QueueExecutor main = new QueueExecutor();
+        final ArrayList<Integer> ready = new ArrayList<>();
+
+        DataWindow<String> window = new DataWindow<>(0, 1, 8, 2, factory, background, main);
+        window.setDataListener(new DataWindow.DataListener<String>() {
+            @Override
+            public void onDataReady(int key, int groupSize, @NonNull String data) {
+                ready.add(key);
+            }
+        });
+
+        assertNull(window.request(10));    // placeholder
+        assertEquals(5, background.size());    // 10, then 11, 9, 12, 8
+        background.runAll();
+        assertEquals(5, factory.created.size());
+        assertEquals(10, (int) factory.created.get(0));
+
+        main.runAll();
+        assertEquals(5, ready.size());
+        assertEquals("10", window.request(10));
+        assertEquals("11", window.peek(11));
+        assertEquals(0, background.size());    // nothing left to load
+    }
+
+    @Test
+    public void test_bounded()
+    {
+        TestFactory factory = new TestFactory();
+        QueueExecutor background = new QueueExecutor();
+        DataWindow<String> window = new DataWindow<>(0, 1, 8, 2, factory, background, new QueueExecutor());
+
+        window.pin(0);
+        for (int position = 0; position < 100; position++)
+        {
+            window.request(position);
+            background.runAll();
+            assertTrue(window.size() <= 8 + 1);
+        }
+        assertNotNull(window.peek(0));    // pinned
+        assertNotNull(window.peek(99));
+        assertNull(window.peek(50));
+
+        window.request(200);
+        window.request(300);    // scrolled away before 200 was loaded
+        int n = factory.created.size();
+        background.runAll();
+        assertEquals(5, factory.created.size() - n);    // only the requests around 300 are loaded
+        assertNull(window.peek(200));
+    }
+
+    @Test
+    public void test_clear()
+    {
+        TestFactory factory = new TestFactory();
+        QueueExecutor background = new QueueExecutor();
+        QueueExecutor main = new QueueExecutor();
+        DataWindow<String> window = new DataWindow<>(0, 2, 8, 0, factory, background, main);
+        assertEquals("0", window.get(1));
+        assertEquals(1, window.size());
+
+        window.request(4);
+        window.clear();
+        background.runAll();
+        assertEquals(0, window.size());    // discarded
+        assertEquals(0, main.size());
+    }
+
+    /**
+     * TestFactory
+     */
+    public static class TestFactory implements DataWindow.DataFactory<String>
+    {
+        public final ArrayList<Integer> created = new ArrayList<>();
+
+        @Override
+        public String createData(int key)
+        {
+            created.add(key);
+            return Integer.toString(key);
+        }
+    }
+
+    /**
+     * QueueExecutor
+     */
+    public static class QueueExecutor implements Executor
+    {
+        protected final ArrayList<Runnable> queue = new ArrayList<>();
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            queue.add(command);
+        }
+
+        public int size() {
+            return queue.size();
+        }
+
+        public void runAll()
+        {
+            while (!queue.isEmpty()) {
+                queue.remove(0).run();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+    Copyright (C) 2024 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.views;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class ExecutorUtilsTest0
+{
+    @Test
+    public void test_getResult()
+    {
+        String result = ExecutorUtils.getResult("test", new Callable<String>() {
+            public String call() {
+                return "result";
+            }
+        }, 1000);
+        assertEquals("result", result);
+        assertTrue(ExecutorUtils.runTask("test", new Callable<Boolean>() {
+            public Boolean call() {
+                return true;
+            }
+        }, 1000));
+    }
+
+    @Test
+    public void test_submit_callback() throws Exception
+    {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<Integer> value = new AtomicReference<>();
+        Future<Integer> task = ExecutorUtils.submit("test", new Callable<Integer>() {
+            public Integer call() {
+                return 42;
+            }
+        }, new ExecutorUtils.ResultCallback<Integer>() {
+            public void onResult(Integer result) {
+                value.set(result);
+                done.countDown();
+            }
+        });
+        assertEquals(42, (int) task.get(1000, TimeUnit.MILLISECONDS));
+        assertTrue(done.await(1000, TimeUnit.MILLISECONDS));
+        assertEquals(42, (int) value.get());
+    }
+
+    @Test
+    public void test_submit_concurrent() throws Exception
+    {
+        int n = ExecutorUtils.MAX_THREADS;
+        final CountDownLatch started = new CountDownLatch(n);    // every task waits until all tasks have started
+        List<Future<Boolean>> tasks = new ArrayList<>();
+        for (int i=0; i<n; i++)
+        {
+            tasks.add(ExecutorUtils.submit(new Callable<Boolean>() {
+                public Boolean call() throws InterruptedException {
+                    started.countDown();
+                    return started.await(2000, TimeUnit.MILLISECONDS);
+                }
+            }));
+        }
+        for (Future<Boolean> task : tasks) {
+            assertTrue(task.get(3000, TimeUnit.MILLISECONDS));
+        }
+    }
+}